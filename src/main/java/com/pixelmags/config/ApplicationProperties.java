@@ -1,6 +1,11 @@
 package com.pixelmags.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Properties specific to Pixelmags.
@@ -9,4 +14,529 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link io.github.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Storage storage = new Storage();
+
+    private final Covers covers = new Covers();
+
+    private final HttpCache httpCache = new HttpCache();
+
+    private final Bulk bulk = new Bulk();
+
+    private final LogIngestion logIngestion = new LogIngestion();
+
+    private final LogPartitions logPartitions = new LogPartitions();
+
+    private final LogAnalytics logAnalytics = new LogAnalytics();
+
+    private final LogDeduplication logDeduplication = new LogDeduplication();
+
+    private final Entitlements entitlements = new Entitlements();
+
+    private final SubscriptionExpiry subscriptionExpiry = new SubscriptionExpiry();
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public Covers getCovers() {
+        return covers;
+    }
+
+    public HttpCache getHttpCache() {
+        return httpCache;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public LogIngestion getLogIngestion() {
+        return logIngestion;
+    }
+
+    public LogPartitions getLogPartitions() {
+        return logPartitions;
+    }
+
+    public LogAnalytics getLogAnalytics() {
+        return logAnalytics;
+    }
+
+    public LogDeduplication getLogDeduplication() {
+        return logDeduplication;
+    }
+
+    public Entitlements getEntitlements() {
+        return entitlements;
+    }
+
+    public SubscriptionExpiry getSubscriptionExpiry() {
+        return subscriptionExpiry;
+    }
+
+    public static class Storage {
+
+        /**
+         * Root directory of the content-addressed blob store.
+         */
+        private String blobRoot = "data/blobs";
+
+        /**
+         * Root directory of the issue pages and bundles.
+         */
+        private String contentRoot = "data/issues";
+
+        /**
+         * Number of legacy covers moved out of the {@code issue} table per transaction.
+         */
+        private int migrationBatchSize = 20;
+
+        public String getBlobRoot() {
+            return blobRoot;
+        }
+
+        public void setBlobRoot(String blobRoot) {
+            this.blobRoot = blobRoot;
+        }
+
+        public String getContentRoot() {
+            return contentRoot;
+        }
+
+        public void setContentRoot(String contentRoot) {
+            this.contentRoot = contentRoot;
+        }
+
+        public int getMigrationBatchSize() {
+            return migrationBatchSize;
+        }
+
+        public void setMigrationBatchSize(int migrationBatchSize) {
+            this.migrationBatchSize = migrationBatchSize;
+        }
+    }
+
+    public static class Covers {
+
+        /**
+         * Widths, in pixels, of the resized copies derived from each uploaded cover.
+         */
+        private int[] variantWidths = {160, 320, 640};
+
+        /**
+         * Maximum number of covers being resized at the same time on the async task executor.
+         */
+        private int derivationConcurrency = 2;
+
+        /**
+         * Compression quality of the JPEG variants, between 0 and 1.
+         */
+        private float jpegQuality = 0.85f;
+
+        public int[] getVariantWidths() {
+            return variantWidths;
+        }
+
+        public void setVariantWidths(int[] variantWidths) {
+            this.variantWidths = variantWidths;
+        }
+
+        public int getDerivationConcurrency() {
+            return derivationConcurrency;
+        }
+
+        public void setDerivationConcurrency(int derivationConcurrency) {
+            this.derivationConcurrency = derivationConcurrency;
+        }
+
+        public float getJpegQuality() {
+            return jpegQuality;
+        }
+
+        public void setJpegQuality(float jpegQuality) {
+            this.jpegQuality = jpegQuality;
+        }
+    }
+
+    public static class HttpCache {
+
+        /**
+         * How long clients may use a response without revalidating it, by resource name. Resources not listed are
+         * revalidated on each use, which is cheap as unchanged resources are answered with {@code 304 (Not Modified)}.
+         */
+        private Map<String, Duration> maxAge = new HashMap<>();
+
+        /**
+         * How long the entity versions written by other instances may be unknown to this one, during which their
+         * writes may be answered with {@code 304 (Not Modified)}. Zero reads them on each conditional request.
+         */
+        private Duration versionRefresh = Duration.ofSeconds(1);
+
+        public Map<String, Duration> getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Map<String, Duration> maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public Duration getVersionRefresh() {
+            return versionRefresh;
+        }
+
+        public void setVersionRefresh(Duration versionRefresh) {
+            this.versionRefresh = versionRefresh;
+        }
+    }
+
+    public static class Bulk {
+
+        /**
+         * Number of items written per transaction, and indexed per Elasticsearch bulk request.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Maximum number of items in a bulk request.
+         */
+        private int maxItems = 10000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+    }
+
+    public static class LogIngestion {
+
+        /**
+         * Whether created logs are queued and written in the background, instead of within the request.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of queued logs, rounded up to a power of two. Requests are rejected while the queue is full.
+         */
+        private int capacity = 65536;
+
+        /**
+         * Maximum number of logs written per transaction, and indexed per Elasticsearch bulk request.
+         */
+        private int batchSize = 1000;
+
+        /**
+         * How long the first queued log of a batch may wait for more logs before the batch is written.
+         */
+        private Duration maxDelay = Duration.ofMillis(50);
+
+        /**
+         * Directory of the journal of queued logs, replayed on startup if the instance stopped before writing them.
+         * Queued logs are not journaled if unset.
+         */
+        private String journalDir;
+
+        /**
+         * Size of each memory-mapped file of the journal.
+         */
+        private DataSize journalSegmentSize = DataSize.ofMegabytes(16);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public String getJournalDir() {
+            return journalDir;
+        }
+
+        public void setJournalDir(String journalDir) {
+            this.journalDir = journalDir;
+        }
+
+        public DataSize getJournalSegmentSize() {
+            return journalSegmentSize;
+        }
+
+        public void setJournalSegmentSize(DataSize journalSegmentSize) {
+            this.journalSegmentSize = journalSegmentSize;
+        }
+    }
+
+    public static class LogPartitions {
+
+        /**
+         * Number of monthly partitions of logs created ahead of the current month, on PostgreSQL.
+         */
+        private int monthsAhead = 3;
+
+        /**
+         * Number of whole months of logs kept before the current month, older logs being removed.
+         */
+        private int retentionMonths = 24;
+
+        /**
+         * Whether expired partitions are only detached from the log table, to be archived, instead of being dropped.
+         */
+        private boolean detachOnly = false;
+
+        /**
+         * Number of expired logs deleted per transaction from the default partition, on PostgreSQL.
+         */
+        private int deleteBatchSize = 10000;
+
+        public int getMonthsAhead() {
+            return monthsAhead;
+        }
+
+        public void setMonthsAhead(int monthsAhead) {
+            this.monthsAhead = monthsAhead;
+        }
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public boolean isDetachOnly() {
+            return detachOnly;
+        }
+
+        public void setDetachOnly(boolean detachOnly) {
+            this.detachOnly = detachOnly;
+        }
+
+        public int getDeleteBatchSize() {
+            return deleteBatchSize;
+        }
+
+        public void setDeleteBatchSize(int deleteBatchSize) {
+            this.deleteBatchSize = deleteBatchSize;
+        }
+    }
+
+    public static class LogAnalytics {
+
+        /**
+         * Number of months of logs aggregated in parallel, each by its own query and database connection.
+         */
+        private int parallelism = 4;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class LogDeduplication {
+
+        /**
+         * Whether logs are dropped when their client event id was already received.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long event ids are remembered, at least.
+         */
+        private Duration window = Duration.ofHours(24);
+
+        /**
+         * Number of Bloom filters the window is split into, the oldest one being cleared at the end of each slice.
+         */
+        private int slices = 4;
+
+        /**
+         * Number of event ids each filter is sized for, which sets the memory used.
+         */
+        private long expectedEvents = 1_000_000;
+
+        /**
+         * Rate of false positives of each filter once it holds the expected number of event ids.
+         */
+        private double falsePositiveRate = 0.001;
+
+        /**
+         * Whether possible duplicates are confirmed against the stored logs, so that no unique log is dropped.
+         */
+        private boolean exactCheck = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getSlices() {
+            return slices;
+        }
+
+        public void setSlices(int slices) {
+            this.slices = slices;
+        }
+
+        public long getExpectedEvents() {
+            return expectedEvents;
+        }
+
+        public void setExpectedEvents(long expectedEvents) {
+            this.expectedEvents = expectedEvents;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public boolean isExactCheck() {
+            return exactCheck;
+        }
+
+        public void setExactCheck(boolean exactCheck) {
+            this.exactCheck = exactCheck;
+        }
+    }
+
+    public static class Entitlements {
+
+        /**
+         * Maximum number of customers whose entitlements are kept in memory, the least often checked ones being
+         * dropped first.
+         */
+        private int maxCustomers = 100_000;
+
+        /**
+         * How long the entitlements of a customer are kept in memory before being read again, which bounds how long a
+         * purchase changed through another instance may go unnoticed.
+         */
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        public int getMaxCustomers() {
+            return maxCustomers;
+        }
+
+        public void setMaxCustomers(int maxCustomers) {
+            this.maxCustomers = maxCustomers;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class SubscriptionExpiry {
+
+        /**
+         * Whether renewal reminders and expirations are fired by this instance.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How far ahead upcoming expiries are loaded into the timing wheel, beyond the reminder delay.
+         */
+        private Duration horizon = Duration.ofHours(24);
+
+        /**
+         * How long before the end of a subscription its renewal reminder is fired.
+         */
+        private Duration reminderBefore = Duration.ofDays(3);
+
+        /**
+         * Number of fired events marked in each transaction.
+         */
+        private int chunkSize = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getHorizon() {
+            return horizon;
+        }
+
+        public void setHorizon(Duration horizon) {
+            this.horizon = horizon;
+        }
+
+        public Duration getReminderBefore() {
+            return reminderBefore;
+        }
+
+        public void setReminderBefore(Duration reminderBefore) {
+            this.reminderBefore = reminderBefore;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.pixelmags.config;
+
+import com.pixelmags.web.rest.util.FileChannelResourceHttpMessageConverter;
+import com.pixelmags.web.rest.util.FileChannelResourceRegionHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Replaces the Spring MVC converters of {@link org.springframework.core.io.Resource} bodies with ones that send
+ * file-backed resources, such as blobs, through a {@link java.nio.channels.FileChannel}.
+ */
+@Configuration
+public class BinaryContentWebConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> {
+            if (converter.getClass() == ResourceHttpMessageConverter.class) {
+                return new FileChannelResourceHttpMessageConverter();
+            }
+            if (converter.getClass() == ResourceRegionHttpMessageConverter.class) {
+                return new FileChannelResourceRegionHttpMessageConverter();
+            }
+            return converter;
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.pixelmags.config;
+
+import com.pixelmags.service.blob.BlobStore;
+import com.pixelmags.service.blob.FileSystemBlobStore;
+import com.pixelmags.service.blob.IssueContentStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Configuration of the {@link BlobStore} and of the {@link IssueContentStore}.
+ * <p>
+ * Defaults to a local file system store. Declaring another {@link BlobStore} bean replaces it.
+ */
+@Configuration
+public class BlobStoreConfiguration {
+
+    private final ApplicationProperties applicationProperties;
+
+    public BlobStoreConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(BlobStore.class)
+    public BlobStore blobStore() {
+        return new FileSystemBlobStore(Paths.get(applicationProperties.getStorage().getBlobRoot()));
+    }
+
+    @Bean
+    public IssueContentStore issueContentStore() {
+        return new IssueContentStore(Paths.get(applicationProperties.getStorage().getContentRoot()));
+    }
+}
@@ -62,6 +62,7 @@ public class CacheConfiguration {
             createCache(cm, com.pixelmags.domain.Publisher.class.getName());
             createCache(cm, com.pixelmags.domain.Publisher.class.getName() + ".magazines");
             createCache(cm, com.pixelmags.domain.Issue.class.getName());
+            createCache(cm, com.pixelmags.domain.CoverVariant.class.getName());
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -0,0 +1,107 @@
+package com.pixelmags.config;
+
+import com.pixelmags.service.EntityVersionService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+
+/**
+ * Configuration reporting each entity write flushed by Hibernate to the {@link EntityVersionService}.
+ * <p>
+ * Collection events are reported as writes of their owner, so changes of a many-to-many relationship change the
+ * version of the entity owning it. Inserts are reported apart, as the inserts of some types are not counted.
+ */
+@Configuration
+public class EntityVersionConfiguration {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EntityVersionService entityVersionService;
+
+    public EntityVersionConfiguration(EntityManagerFactory entityManagerFactory, EntityVersionService entityVersionService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityVersionService = entityVersionService;
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        EntityVersionListener listener = new EntityVersionListener(entityVersionService);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+    }
+
+    private static final class EntityVersionListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+        private final EntityVersionService entityVersionService;
+
+        private EntityVersionListener(EntityVersionService entityVersionService) {
+            this.entityVersionService = entityVersionService;
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            entityVersionService.touchInserted(event.getPersister().getEntityName(), id(event.getId()));
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            entityVersionService.touch(event.getPersister().getEntityName(), id(event.getId()));
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            entityVersionService.touch(event.getPersister().getEntityName(), id(event.getId()));
+        }
+
+        @Override
+        public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+            entityVersionService.touch(event.getAffectedOwnerEntityName(), id(event.getAffectedOwnerIdOrNull()));
+        }
+
+        @Override
+        public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+            entityVersionService.touch(event.getAffectedOwnerEntityName(), id(event.getAffectedOwnerIdOrNull()));
+        }
+
+        @Override
+        public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+            entityVersionService.touch(event.getAffectedOwnerEntityName(), id(event.getAffectedOwnerIdOrNull()));
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+
+        // Entities without a numeric id, such as the authorities, are only versioned as a whole
+        private static Long id(Serializable id) {
+            return id instanceof Long ? (Long) id : null;
+        }
+    }
+}
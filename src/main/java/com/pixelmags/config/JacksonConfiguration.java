@@ -1,17 +1,37 @@
 package com.pixelmags.config;
 
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.NopAnnotationIntrospector;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.problem.ProblemModule;
 import org.zalando.problem.violations.ConstraintViolationProblemModule;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 @Configuration
 public class JacksonConfiguration {
 
+    /**
+     * Id of the property filter of the DTOs and entities, which serializes all their properties unless a response
+     * asks for a sparse fieldset.
+     */
+    public static final String FIELDS_FILTER_ID = "fields";
+
+    private static final Set<String> FIELDS_FILTERED_PACKAGES = new HashSet<>(Arrays.asList(
+        "com.pixelmags.service.dto", "com.pixelmags.domain"));
+
     /**
      * Support for Java date and time API.
      * @return the corresponding Jackson module.
@@ -57,4 +77,46 @@ public class JacksonConfiguration {
     ConstraintViolationProblemModule constraintViolationProblemModule() {
         return new ConstraintViolationProblemModule();
     }
+
+    /*
+     * Fields filter of the DTOs and entities, so responses can be limited to some of their properties.
+     */
+    @Bean
+    public SimpleModule fieldsFilterModule() {
+        return new SimpleModule("FieldsFilterModule") {
+            @Override
+            public void setupModule(SetupContext context) {
+                super.setupModule(context);
+                context.insertAnnotationIntrospector(new FieldsFilterIntrospector());
+            }
+        };
+    }
+
+    /*
+     * Serialize all properties when a response does not set its own fields filter.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldsFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+            .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    /**
+     * Tell whether a type is serialized through the fields filter.
+     *
+     * @param type the type.
+     * @return true for the DTOs and entities.
+     */
+    public static boolean isFieldsFiltered(Class<?> type) {
+        Package typePackage = type.getPackage();
+        return typePackage != null && FIELDS_FILTERED_PACKAGES.contains(typePackage.getName());
+    }
+
+    private static final class FieldsFilterIntrospector extends NopAnnotationIntrospector {
+
+        @Override
+        public Object findFilterId(Annotated annotated) {
+            return annotated instanceof AnnotatedClass && isFieldsFiltered(annotated.getRawType()) ? FIELDS_FILTER_ID : null;
+        }
+    }
 }
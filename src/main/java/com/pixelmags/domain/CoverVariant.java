@@ -0,0 +1,143 @@
+package com.pixelmags.domain;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.*;
+
+import java.io.Serializable;
+
+/**
+ * A resized copy of an issue cover.
+ * <p>
+ * Variants are keyed by the hash of the source cover rather than by issue, so identical uploads share them.
+ */
+@Entity
+@Table(name = "cover_variant")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class CoverVariant implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    private Long id;
+
+    @Column(name = "source_hash", length = 64, nullable = false)
+    private String sourceHash;
+
+    @Column(name = "width", nullable = false)
+    private Integer width;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "blob_hash", length = 64, nullable = false)
+    private String blobHash;
+
+    @Column(name = "blob_size", nullable = false)
+    private Long blobSize;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    public CoverVariant sourceHash(String sourceHash) {
+        this.sourceHash = sourceHash;
+        return this;
+    }
+
+    public void setSourceHash(String sourceHash) {
+        this.sourceHash = sourceHash;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public CoverVariant width(Integer width) {
+        this.width = width;
+        return this;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public CoverVariant contentType(String contentType) {
+        this.contentType = contentType;
+        return this;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getBlobHash() {
+        return blobHash;
+    }
+
+    public CoverVariant blobHash(String blobHash) {
+        this.blobHash = blobHash;
+        return this;
+    }
+
+    public void setBlobHash(String blobHash) {
+        this.blobHash = blobHash;
+    }
+
+    public Long getBlobSize() {
+        return blobSize;
+    }
+
+    public CoverVariant blobSize(Long blobSize) {
+        this.blobSize = blobSize;
+        return this;
+    }
+
+    public void setBlobSize(Long blobSize) {
+        this.blobSize = blobSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CoverVariant)) {
+            return false;
+        }
+        return id != null && id.equals(((CoverVariant) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CoverVariant{" +
+            "id=" + getId() +
+            ", sourceHash='" + getSourceHash() + "'" +
+            ", width=" + getWidth() +
+            ", contentType='" + getContentType() + "'" +
+            ", blobHash='" + getBlobHash() + "'" +
+            ", blobSize=" + getBlobSize() +
+            "}";
+    }
+}
@@ -34,7 +34,7 @@ public class Customer implements Serializable {
     @Column(name = "fcm")
     private String fcm;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = "customers", allowSetters = true)
     private Purchase purchases;
 
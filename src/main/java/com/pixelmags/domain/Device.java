@@ -34,7 +34,7 @@ public class Device implements Serializable {
     @Column(name = "os")
     private String os;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = "devices", allowSetters = true)
     private Customer customer;
 
@@ -8,6 +8,7 @@ import javax.persistence.*;
 
 import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.LocalDate;
 
 /**
@@ -44,13 +45,18 @@ public class Issue implements Serializable {
     @Column(name = "url")
     private String url;
 
-    @Lob
-    @Column(name = "cover_thumbnail")
-    private byte[] coverThumbnail;
-
     @Column(name = "cover_thumbnail_content_type")
     private String coverThumbnailContentType;
 
+    /**
+     * Hash of the cover in the {@link com.pixelmags.service.blob.BlobStore}.
+     */
+    @Column(name = "cover_hash", length = 64)
+    private String coverHash;
+
+    @Column(name = "cover_last_modified")
+    private Instant coverLastModified;
+
     @OneToOne(mappedBy = "issue")
     @JsonIgnore
     private Magazine magazine;
@@ -142,30 +148,43 @@ public class Issue implements Serializable {
         this.url = url;
     }
 
-    public byte[] getCoverThumbnail() {
-        return coverThumbnail;
+    public String getCoverThumbnailContentType() {
+        return coverThumbnailContentType;
     }
 
-    public Issue coverThumbnail(byte[] coverThumbnail) {
-        this.coverThumbnail = coverThumbnail;
+    public Issue coverThumbnailContentType(String coverThumbnailContentType) {
+        this.coverThumbnailContentType = coverThumbnailContentType;
         return this;
     }
 
-    public void setCoverThumbnail(byte[] coverThumbnail) {
-        this.coverThumbnail = coverThumbnail;
+    public void setCoverThumbnailContentType(String coverThumbnailContentType) {
+        this.coverThumbnailContentType = coverThumbnailContentType;
     }
 
-    public String getCoverThumbnailContentType() {
-        return coverThumbnailContentType;
+    public String getCoverHash() {
+        return coverHash;
     }
 
-    public Issue coverThumbnailContentType(String coverThumbnailContentType) {
-        this.coverThumbnailContentType = coverThumbnailContentType;
+    public Issue coverHash(String coverHash) {
+        this.coverHash = coverHash;
         return this;
     }
 
-    public void setCoverThumbnailContentType(String coverThumbnailContentType) {
-        this.coverThumbnailContentType = coverThumbnailContentType;
+    public void setCoverHash(String coverHash) {
+        this.coverHash = coverHash;
+    }
+
+    public Instant getCoverLastModified() {
+        return coverLastModified;
+    }
+
+    public Issue coverLastModified(Instant coverLastModified) {
+        this.coverLastModified = coverLastModified;
+        return this;
+    }
+
+    public void setCoverLastModified(Instant coverLastModified) {
+        this.coverLastModified = coverLastModified;
     }
 
     public Magazine getMagazine() {
@@ -209,8 +228,9 @@ public class Issue implements Serializable {
             ", descricao='" + getDescricao() + "'" +
             ", numeroPaginas=" + getNumeroPaginas() +
             ", url='" + getUrl() + "'" +
-            ", coverThumbnail='" + getCoverThumbnail() + "'" +
             ", coverThumbnailContentType='" + getCoverThumbnailContentType() + "'" +
+            ", coverHash='" + getCoverHash() + "'" +
+            ", coverLastModified='" + getCoverLastModified() + "'" +
             "}";
     }
 }
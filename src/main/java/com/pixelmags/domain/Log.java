@@ -1,9 +1,11 @@
 package com.pixelmags.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import javax.validation.constraints.*;
 
 import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.io.Serializable;
@@ -34,6 +36,17 @@ public class Log implements Serializable {
     @Column(name = "evento")
     private Event evento;
 
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Size(max = 64)
+    @Column(name = "event_id", length = 64)
+    private String eventId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties(value = "logs", allowSetters = true)
+    private Issue issue;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -68,6 +81,45 @@ public class Log implements Serializable {
     public void setEvento(Event evento) {
         this.evento = evento;
     }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Log customerId(Long customerId) {
+        this.customerId = customerId;
+        return this;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public Log eventId(String eventId) {
+        this.eventId = eventId;
+        return this;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public Issue getIssue() {
+        return issue;
+    }
+
+    public Log issue(Issue issue) {
+        this.issue = issue;
+        return this;
+    }
+
+    public void setIssue(Issue issue) {
+        this.issue = issue;
+    }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -93,6 +145,8 @@ public class Log implements Serializable {
             "id=" + getId() +
             ", date='" + getDate() + "'" +
             ", evento='" + getEvento() + "'" +
+            ", customerId=" + getCustomerId() +
+            ", eventId='" + getEventId() + "'" +
             "}";
     }
 }
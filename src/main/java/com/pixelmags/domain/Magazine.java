@@ -32,15 +32,15 @@ public class Magazine implements Serializable {
     @Column(name = "preco", precision = 21, scale = 2)
     private BigDecimal preco;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(unique = true)
     private Issue issue;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(unique = true)
     private Purchase purchase;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = "magazines", allowSetters = true)
     private Publisher publisher;
 
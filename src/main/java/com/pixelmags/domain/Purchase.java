@@ -37,7 +37,7 @@ public class Purchase implements Serializable {
     @Column(name = "tipo")
     private PurchaseType tipo;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(unique = true)
     private SubscriptionPlan subscription;
 
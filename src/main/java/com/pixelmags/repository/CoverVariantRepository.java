@@ -0,0 +1,20 @@
+package com.pixelmags.repository;
+
+import com.pixelmags.domain.CoverVariant;
+
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Spring Data  repository for the CoverVariant entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface CoverVariantRepository extends JpaRepository<CoverVariant, Long> {
+
+    List<CoverVariant> findAllBySourceHash(String sourceHash);
+
+    boolean existsBySourceHash(String sourceHash);
+}
@@ -3,12 +3,43 @@ package com.pixelmags.repository;
 import com.pixelmags.domain.Customer;
 
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Spring Data  repository for the Customer entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
+
+    /**
+     * Projection of a {@link Customer} on the purchase it is linked to.
+     */
+    interface PurchaseLink {
+
+        Long getPurchaseId();
+    }
+
+    /**
+     * Get the purchase of a customer.
+     *
+     * @param id the id of the customer.
+     * @return the projection, without purchase if the customer has none, or empty if the customer does not exist.
+     */
+    @Query("select purchase.id as purchaseId from Customer customer left join customer.purchases purchase " +
+        "where customer.id = :id")
+    Optional<PurchaseLink> findPurchaseLinkById(@Param("id") Long id);
+
+    /**
+     * Get the ids of the customers with an email, ignoring case.
+     *
+     * @param email the email.
+     * @return the ids of the customers.
+     */
+    @Query("select customer.id from Customer customer where lower(customer.email) = lower(:email)")
+    List<Long> findIdsByEmail(@Param("email") String email);
 }
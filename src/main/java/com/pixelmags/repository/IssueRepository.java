@@ -3,12 +3,83 @@ package com.pixelmags.repository;
 import com.pixelmags.domain.Issue;
 
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Spring Data  repository for the Issue entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface IssueRepository extends JpaRepository<Issue, Long> {
+public interface IssueRepository extends JpaRepository<Issue, Long>, JpaSpecificationExecutor<Issue> {
+
+    /**
+     * Projection of the cover validators of an {@link Issue}, without the cover bytes.
+     */
+    interface CoverMetadata {
+
+        Long getId();
+
+        String getCoverHash();
+
+        String getCoverThumbnailContentType();
+
+        Instant getCoverLastModified();
+    }
+
+    /**
+     * Projection of an {@link Issue} in the catalog, with the hash its cover URL is built from.
+     */
+    interface CatalogEntry {
+
+        Long getId();
+
+        String getEdicao();
+
+        String getManchete();
+
+        LocalDate getDataLancamento();
+
+        String getCoverThumbnailContentType();
+
+        String getCoverHash();
+    }
+
+    /**
+     * Get all the issues with their magazine in a single query, as the inverse side of the one-to-one
+     * would otherwise be loaded with one query per issue.
+     *
+     * @return the list of entities.
+     */
+    @Query("select issue from Issue issue left join fetch issue.magazine")
+    List<Issue> findAllWithMagazine();
+
+    /**
+     * Get the issues with some ids and their magazine in a single query.
+     *
+     * @param ids the ids.
+     * @return the list of entities.
+     */
+    @Query("select issue from Issue issue left join fetch issue.magazine where issue.id in :ids")
+    List<Issue> findAllWithMagazineByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.id as id, i.coverHash as coverHash, i.coverThumbnailContentType as coverThumbnailContentType, " +
+        "i.coverLastModified as coverLastModified from Issue i where i.id = :id")
+    Optional<CoverMetadata> findCoverMetadataById(@Param("id") Long id);
+
+    /**
+     * Get all the issues as catalog projections, read in a single query.
+     *
+     * @return the list of projections.
+     */
+    @Query("select issue.id as id, issue.edicao as edicao, issue.manchete as manchete, " +
+        "issue.dataLancamento as dataLancamento, issue.coverThumbnailContentType as coverThumbnailContentType, " +
+        "issue.coverHash as coverHash from Issue issue")
+    List<CatalogEntry> findAllCatalogEntries();
 }
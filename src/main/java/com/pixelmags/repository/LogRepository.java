@@ -5,10 +5,25 @@ import com.pixelmags.domain.Log;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Spring Data  repository for the Log entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface LogRepository extends JpaRepository<Log, Long> {
+public interface LogRepository extends JpaRepository<Log, Long>, JpaSpecificationExecutor<Log> {
+
+    /**
+     * Read all the logs through a database cursor, in id order. Must be called in a transaction, and the stream closed.
+     *
+     * @return the stream of entities.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select log from Log log order by log.id")
+    Stream<Log> streamAll();
 }
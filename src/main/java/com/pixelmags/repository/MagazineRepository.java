@@ -5,10 +5,36 @@ import com.pixelmags.domain.Magazine;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 /**
  * Spring Data  repository for the Magazine entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MagazineRepository extends JpaRepository<Magazine, Long> {
+public interface MagazineRepository extends JpaRepository<Magazine, Long>, JpaSpecificationExecutor<Magazine> {
+
+    /**
+     * Projection of a {@link Magazine} in the catalog.
+     */
+    interface CatalogEntry {
+
+        Long getId();
+
+        BigDecimal getPreco();
+
+        Long getIssueId();
+
+        Long getPublisherId();
+    }
+
+    /**
+     * Get all the magazines as catalog projections, read in a single query.
+     *
+     * @return the list of projections.
+     */
+    @Query("select magazine.id as id, magazine.preco as preco, issue.id as issueId, publisher.id as publisherId " +
+        "from Magazine magazine left join magazine.issue issue left join magazine.publisher publisher")
+    List<CatalogEntry> findAllCatalogEntries();
 }
@@ -5,10 +5,30 @@ import com.pixelmags.domain.Publisher;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Spring Data  repository for the Publisher entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PublisherRepository extends JpaRepository<Publisher, Long> {
+public interface PublisherRepository extends JpaRepository<Publisher, Long>, JpaSpecificationExecutor<Publisher> {
+
+    /**
+     * Projection of a {@link Publisher} in the catalog.
+     */
+    interface CatalogEntry {
+
+        Long getId();
+
+        String getNome();
+    }
+
+    /**
+     * Get all the publishers as catalog projections, read in a single query.
+     *
+     * @return the list of projections.
+     */
+    @Query("select publisher.id as id, publisher.nome as nome from Publisher publisher")
+    List<CatalogEntry> findAllCatalogEntries();
 }
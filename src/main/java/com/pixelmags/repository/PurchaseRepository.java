@@ -1,14 +1,90 @@
 package com.pixelmags.repository;
 
 import com.pixelmags.domain.Purchase;
+import com.pixelmags.domain.enumeration.PurchaseType;
+import com.pixelmags.domain.enumeration.SubscriptionPeriod;
 
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Spring Data  repository for the Purchase entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
+public interface PurchaseRepository extends JpaRepository<Purchase, Long>, JpaSpecificationExecutor<Purchase> {
+
+    /**
+     * Read all the purchases with their magazine through a database cursor, in id order.
+     * Must be called in a transaction, and the stream closed.
+     *
+     * @return the stream of entities.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select purchase from Purchase purchase left join fetch purchase.magazine order by purchase.id")
+    Stream<Purchase> streamAll();
+
+    /**
+     * Projection of a {@link Purchase} with what it gives access to.
+     */
+    interface EntitlementEntry {
+
+        Long getPurchaseId();
+
+        PurchaseType getTipo();
+
+        LocalDate getDate();
+
+        Long getSubscriptionPlanId();
+
+        SubscriptionPeriod getPeriodo();
+
+        Long getMagazineId();
+
+        Long getIssueId();
+    }
+
+    /**
+     * Get a purchase as an entitlement projection, read in a single query.
+     *
+     * @param id the id of the purchase.
+     * @return the projection, or empty if the purchase does not exist.
+     */
+    @Query("select purchase.id as purchaseId, purchase.tipo as tipo, purchase.date as date, " +
+        "subscription.id as subscriptionPlanId, subscription.periodo as periodo, magazine.id as magazineId, " +
+        "issue.id as issueId from Purchase purchase left join purchase.subscription subscription " +
+        "left join purchase.magazine magazine left join magazine.issue issue where purchase.id = :id")
+    Optional<EntitlementEntry> findEntitlementEntryById(@Param("id") Long id);
+
+    /**
+     * Projection of a {@link Purchase} with the period of its subscription plan, telling when it ends.
+     */
+    interface ExpiryEntry {
+
+        Long getId();
+
+        PurchaseType getTipo();
+
+        LocalDate getDate();
+
+        SubscriptionPeriod getPeriodo();
+    }
+
+    @Query("select purchase.id as id, purchase.tipo as tipo, purchase.date as date, subscription.periodo as periodo " +
+        "from Purchase purchase left join purchase.subscription subscription where purchase.id = :id")
+    Optional<ExpiryEntry> findExpiryEntryById(@Param("id") Long id);
+
+    @Query("select purchase.id as id, purchase.tipo as tipo, purchase.date as date, subscription.periodo as periodo " +
+        "from Purchase purchase join purchase.subscription subscription where subscription.id = :subscriptionPlanId")
+    List<ExpiryEntry> findExpiryEntriesBySubscriptionId(@Param("subscriptionPlanId") Long subscriptionPlanId);
 }
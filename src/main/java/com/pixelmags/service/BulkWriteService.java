@@ -0,0 +1,154 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.service.dto.BulkResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Service writing many entities at once, one chunk per transaction.
+ * <p>
+ * The entities updated by a chunk are read with one query, and the writes are flushed together, so Hibernate sends
+ * them in JDBC batches of {@code hibernate.jdbc.batch_size}, with ids taken from the pooled sequence. Each chunk is
+ * indexed into Elasticsearch with one bulk request before it commits. When a chunk fails, its items are written again
+ * one per transaction, so that only the failing ones are reported.
+ */
+@Service
+public class BulkWriteService {
+
+    private final Logger log = LoggerFactory.getLogger(BulkWriteService.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    public BulkWriteService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                            ApplicationProperties applicationProperties) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Create or update entities, in chunks.
+     *
+     * @param dtos the entities to save, which are updated when they have an id and created otherwise.
+     * @param idExtractor the id of an entity DTO.
+     * @param finder the method reading the stored entities with some ids, by id.
+     * @param saver the method saving an entity DTO, without indexing it, given the stored entity for an update.
+     * @param mapper the method mapping a saved entity to its DTO.
+     * @param indexer the method indexing saved entities with one request.
+     * @param <D> the type of the entity DTOs.
+     * @param <E> the type of the entities.
+     * @return one result per entity DTO, in the same order.
+     */
+    public <D, E> List<BulkResultDTO<D>> saveAll(List<D> dtos, Function<D, Long> idExtractor,
+                                                 Function<Collection<Long>, Map<Long, E>> finder, BiFunction<D, E, E> saver,
+                                                 Function<E, D> mapper, Consumer<List<E>> indexer) {
+        Chunk<D, E> operations = new Chunk<>(idExtractor, finder, saver, mapper, indexer);
+        int chunkSize = applicationProperties.getBulk().getChunkSize();
+        List<BulkResultDTO<D>> results = new ArrayList<>(dtos.size());
+        for (int start = 0; start < dtos.size(); start += chunkSize) {
+            int from = start;
+            int to = Math.min(start + chunkSize, dtos.size());
+            try {
+                results.addAll(transactionTemplate.execute(status -> operations.write(dtos, from, to)));
+            } catch (RuntimeException e) {
+                log.debug("Bulk chunk {}-{} failed, writing its items one by one: {}", from, to, e.toString());
+                for (int index = from; index < to; index++) {
+                    results.add(writeOne(operations, dtos, index));
+                }
+            }
+        }
+        return results;
+    }
+
+    private <D, E> BulkResultDTO<D> writeOne(Chunk<D, E> operations, List<D> dtos, int index) {
+        try {
+            return transactionTemplate.execute(status -> operations.write(dtos, index, index + 1)).get(0);
+        } catch (DataIntegrityViolationException e) {
+            return new BulkResultDTO<>(index, HttpStatus.CONFLICT.value(), null, "The entity conflicts with a stored one");
+        } catch (RuntimeException e) {
+            log.warn("Bulk item {} could not be saved: {}", index, e.toString());
+            return new BulkResultDTO<>(index, HttpStatus.INTERNAL_SERVER_ERROR.value(), null, "The entity could not be saved");
+        }
+    }
+
+    /**
+     * The operations writing a range of entity DTOs in the current transaction.
+     */
+    private final class Chunk<D, E> {
+
+        private final Function<D, Long> idExtractor;
+
+        private final Function<Collection<Long>, Map<Long, E>> finder;
+
+        private final BiFunction<D, E, E> saver;
+
+        private final Function<E, D> mapper;
+
+        private final Consumer<List<E>> indexer;
+
+        private Chunk(Function<D, Long> idExtractor, Function<Collection<Long>, Map<Long, E>> finder, BiFunction<D, E, E> saver,
+                      Function<E, D> mapper, Consumer<List<E>> indexer) {
+            this.idExtractor = idExtractor;
+            this.finder = finder;
+            this.saver = saver;
+            this.mapper = mapper;
+            this.indexer = indexer;
+        }
+
+        private List<BulkResultDTO<D>> write(List<D> dtos, int from, int to) {
+            Set<Long> ids = new HashSet<>();
+            for (int index = from; index < to; index++) {
+                Long id = idExtractor.apply(dtos.get(index));
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            Map<Long, E> stored = ids.isEmpty() ? Collections.emptyMap() : finder.apply(ids);
+            List<BulkResultDTO<D>> results = new ArrayList<>(to - from);
+            List<E> saved = new ArrayList<>(to - from);
+            List<Integer> savedIndexes = new ArrayList<>(to - from);
+            for (int index = from; index < to; index++) {
+                D dto = dtos.get(index);
+                Long id = idExtractor.apply(dto);
+                if (id != null && !stored.containsKey(id)) {
+                    results.add(new BulkResultDTO<>(index, HttpStatus.NOT_FOUND.value(), null, "No entity with id " + id));
+                    continue;
+                }
+                saved.add(saver.apply(dto, id == null ? null : stored.get(id)));
+                savedIndexes.add(index);
+                results.add(new BulkResultDTO<>(index, id == null ? HttpStatus.CREATED.value() : HttpStatus.OK.value(), null, null));
+            }
+            // Writes are sent in JDBC batches here, before indexing, so that a failing chunk is not indexed
+            entityManager.flush();
+            if (!saved.isEmpty()) {
+                indexer.accept(saved);
+            }
+            for (int i = 0; i < saved.size(); i++) {
+                results.get(savedIndexes.get(i) - from).setEntity(mapper.apply(saved.get(i)));
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.pixelmags.service;
+
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.Magazine;
+import com.pixelmags.domain.Publisher;
+import com.pixelmags.repository.IssueRepository;
+import com.pixelmags.repository.MagazineRepository;
+import com.pixelmags.repository.PublisherRepository;
+import com.pixelmags.service.catalog.CatalogSnapshot;
+import com.pixelmags.service.catalog.LongMap;
+import com.pixelmags.service.dto.CatalogIssueDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Service for reading the catalog of issues, as listed by the reader app.
+ * <p>
+ * The catalog is served from an immutable {@link CatalogSnapshot} held in memory, so listing it does not touch the
+ * database. The snapshot is read once, on the first request, and then kept up to date by the writes of
+ * {@link IssueService}, {@link MagazineService} and {@link PublisherService}: each of them is applied as a delta to
+ * a copy of the snapshot once its transaction commits, and the copy replaces the snapshot with the next version.
+ * <p>
+ * Writes made through another instance, or through the repositories alone, are not seen by these deltas: the shared
+ * {@link EntityVersionService versions} of the catalog entities are checked every few seconds, and the snapshot is read
+ * again when they changed since it was read.
+ */
+@Service
+public class CatalogService {
+
+    private static final Class<?>[] CATALOG_ENTITIES = {Issue.class, Magazine.class, Publisher.class};
+
+    private final Logger log = LoggerFactory.getLogger(CatalogService.class);
+
+    private final IssueRepository issueRepository;
+
+    private final MagazineRepository magazineRepository;
+
+    private final PublisherRepository publisherRepository;
+
+    private final EntityVersionService entityVersionService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object loadLock = new Object();
+
+    private final Object writeLock = new Object();
+
+    private volatile CatalogSnapshot snapshot;
+
+    // Guarded by writeLock, counts the deltas to detect the ones committed while the snapshot was being read
+    private long writes;
+
+    // The version of the catalog entities when the snapshot was read
+    private volatile long readVersion;
+
+    public CatalogService(IssueRepository issueRepository, MagazineRepository magazineRepository,
+                          PublisherRepository publisherRepository, EntityVersionService entityVersionService,
+                          PlatformTransactionManager transactionManager) {
+        this.issueRepository = issueRepository;
+        this.magazineRepository = magazineRepository;
+        this.publisherRepository = publisherRepository;
+        this.entityVersionService = entityVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Reads only committed data, even when first called from within a write
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Get a page of the catalog.
+     *
+     * @param pageable the pagination information, sorted by {@code dataLancamento} or {@code id}.
+     * @return the page of catalog issues, ties broken by id so that pages do not overlap.
+     */
+    public Page<CatalogIssueDTO> findAll(Pageable pageable) {
+        log.debug("Request to get a page of the catalog : {}", pageable);
+        return getSnapshot().findPage(pageable);
+    }
+
+    /**
+     * Get the current snapshot of the catalog, reading it from the database if this is the first request.
+     *
+     * @return the snapshot.
+     */
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current : load(false);
+    }
+
+    /**
+     * Read the snapshot again if the catalog entities were written since it was read, by any instance.
+     * <p>
+     * This is scheduled to run every 5 seconds.
+     */
+    @Scheduled(initialDelay = 5_000, fixedDelay = 5_000)
+    public void refresh() {
+        if (snapshot == null || entityVersionService.getVersion(CATALOG_ENTITIES).getNumber() == readVersion) {
+            return;
+        }
+        log.debug("Catalog entities changed since the catalog was loaded, loading it again");
+        load(true);
+    }
+
+    /**
+     * Get the version of the catalog, which increases with each change.
+     *
+     * @return the version.
+     */
+    public long getVersion() {
+        return getSnapshot().getVersion();
+    }
+
+    /**
+     * Add or replace an issue in the catalog, once the current transaction commits.
+     *
+     * @param issue the saved issue.
+     */
+    public void onIssueSaved(Issue issue) {
+        CatalogSnapshot.IssueEntry entry = new CatalogSnapshot.IssueEntry(issue.getId(), issue.getEdicao(),
+            issue.getManchete(), issue.getDataLancamento(), issue.getCoverThumbnailContentType(), issue.getCoverHash());
+        afterCommit(catalog -> catalog.withIssue(entry));
+    }
+
+    /**
+     * Replace the cover hash of an issue in the catalog, once the current transaction commits.
+     *
+     * @param id the id of the issue.
+     * @param coverHash the hash of its new cover.
+     */
+    public void onIssueCoverChanged(Long id, String coverHash) {
+        afterCommit(catalog -> catalog.withIssueCover(id, coverHash));
+    }
+
+    /**
+     * Remove an issue from the catalog, once the current transaction commits.
+     *
+     * @param id the id of the deleted issue.
+     */
+    public void onIssueDeleted(Long id) {
+        afterCommit(catalog -> catalog.withoutIssue(id));
+    }
+
+    /**
+     * Add or replace a magazine in the catalog, once the current transaction commits.
+     *
+     * @param magazine the saved magazine.
+     */
+    public void onMagazineSaved(Magazine magazine) {
+        CatalogSnapshot.MagazineEntry entry = new CatalogSnapshot.MagazineEntry(magazine.getId(), magazine.getPreco(),
+            magazine.getIssue() == null ? null : magazine.getIssue().getId(),
+            magazine.getPublisher() == null ? null : magazine.getPublisher().getId());
+        afterCommit(catalog -> catalog.withMagazine(entry));
+    }
+
+    /**
+     * Remove a magazine from the catalog, once the current transaction commits.
+     *
+     * @param id the id of the deleted magazine.
+     */
+    public void onMagazineDeleted(Long id) {
+        afterCommit(catalog -> catalog.withoutMagazine(id));
+    }
+
+    /**
+     * Add or replace a publisher in the catalog, once the current transaction commits.
+     *
+     * @param publisher the saved publisher.
+     */
+    public void onPublisherSaved(Publisher publisher) {
+        CatalogSnapshot.PublisherEntry entry = new CatalogSnapshot.PublisherEntry(publisher.getId(), publisher.getNome());
+        afterCommit(catalog -> catalog.withPublisher(entry));
+    }
+
+    /**
+     * Remove a publisher from the catalog, once the current transaction commits.
+     *
+     * @param id the id of the deleted publisher.
+     */
+    public void onPublisherDeleted(Long id) {
+        afterCommit(catalog -> catalog.withoutPublisher(id));
+    }
+
+    /**
+     * Apply a delta to the snapshot once the current transaction commits, so rolled back writes never show.
+     */
+    private void afterCommit(UnaryOperator<CatalogSnapshot> delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                apply(delta);
+            }
+        });
+    }
+
+    private void apply(UnaryOperator<CatalogSnapshot> delta) {
+        synchronized (writeLock) {
+            writes++;
+            if (snapshot != null) {
+                snapshot = delta.apply(snapshot);
+            }
+        }
+    }
+
+    private CatalogSnapshot load(boolean reload) {
+        synchronized (loadLock) {
+            while (true) {
+                long seen;
+                long version;
+                synchronized (writeLock) {
+                    if (snapshot != null && !reload) {
+                        return snapshot;
+                    }
+                    seen = writes;
+                    version = snapshot == null ? 1L : snapshot.getVersion() + 1;
+                }
+                // Read before the entities, so that a write committed meanwhile is read again on the next refresh
+                long entityVersion = entityVersionService.getVersion(CATALOG_ENTITIES).getNumber();
+                CatalogSnapshot loaded = transactionTemplate.execute(status -> read(version));
+                synchronized (writeLock) {
+                    // A delta committed meanwhile may be missing from what was read, so read again
+                    if (writes == seen) {
+                        snapshot = loaded;
+                        readVersion = entityVersion;
+                        log.info("Loaded catalog of {} issues", loaded.getIssueCount());
+                        return loaded;
+                    }
+                }
+                log.debug("Catalog changed while being loaded, loading it again");
+            }
+        }
+    }
+
+    private CatalogSnapshot read(long version) {
+        List<PublisherRepository.CatalogEntry> publishers = publisherRepository.findAllCatalogEntries();
+        long[] publisherIds = new long[publishers.size()];
+        CatalogSnapshot.PublisherEntry[] publisherEntries = new CatalogSnapshot.PublisherEntry[publishers.size()];
+        for (int i = 0; i < publisherIds.length; i++) {
+            PublisherRepository.CatalogEntry publisher = publishers.get(i);
+            publisherIds[i] = publisher.getId();
+            publisherEntries[i] = new CatalogSnapshot.PublisherEntry(publisher.getId(), publisher.getNome());
+        }
+        List<MagazineRepository.CatalogEntry> magazines = magazineRepository.findAllCatalogEntries();
+        long[] magazineIds = new long[magazines.size()];
+        CatalogSnapshot.MagazineEntry[] magazineEntries = new CatalogSnapshot.MagazineEntry[magazines.size()];
+        for (int i = 0; i < magazineIds.length; i++) {
+            MagazineRepository.CatalogEntry magazine = magazines.get(i);
+            magazineIds[i] = magazine.getId();
+            magazineEntries[i] = new CatalogSnapshot.MagazineEntry(magazine.getId(), magazine.getPreco(),
+                magazine.getIssueId(), magazine.getPublisherId());
+        }
+        List<IssueRepository.CatalogEntry> issues = issueRepository.findAllCatalogEntries();
+        long[] issueIds = new long[issues.size()];
+        CatalogSnapshot.IssueEntry[] issueEntries = new CatalogSnapshot.IssueEntry[issues.size()];
+        for (int i = 0; i < issueIds.length; i++) {
+            IssueRepository.CatalogEntry issue = issues.get(i);
+            issueIds[i] = issue.getId();
+            issueEntries[i] = new CatalogSnapshot.IssueEntry(issue.getId(), issue.getEdicao(), issue.getManchete(),
+                issue.getDataLancamento(), issue.getCoverThumbnailContentType(), issue.getCoverHash());
+        }
+        return new CatalogSnapshot(version, Instant.now(), LongMap.of(publisherIds, publisherEntries), LongMap.of(magazineIds, magazineEntries),
+            LongMap.of(issueIds, issueEntries));
+    }
+}
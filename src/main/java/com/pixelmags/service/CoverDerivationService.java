@@ -0,0 +1,296 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.CoverVariant;
+import com.pixelmags.repository.CoverVariantRepository;
+import com.pixelmags.service.blob.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Service deriving resized copies of the issue covers, stored as {@link CoverVariant}.
+ * <p>
+ * Derivation runs in the background on the async task executor, with at most
+ * {@code application.covers.derivation-concurrency} covers being resized at the same time. Variants are keyed
+ * by the hash of the source cover, so identical uploads are only resized once.
+ */
+@Service
+public class CoverDerivationService {
+
+    public static final String JPEG = "image/jpeg";
+
+    public static final String WEBP = "image/webp";
+
+    private static final int MAX_UNDERIVABLE_COVERS = 1024;
+
+    private final Logger log = LoggerFactory.getLogger(CoverDerivationService.class);
+
+    private final CoverVariantRepository coverVariantRepository;
+
+    private final BlobStore blobStore;
+
+    private final Executor taskExecutor;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final List<String> formats;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger workers = new AtomicInteger();
+
+    /**
+     * Covers that are not images or are too small to be resized, so that serving them does not decode them again.
+     */
+    private final Set<String> underivable = Collections.synchronizedSet(Collections.newSetFromMap(
+        new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > MAX_UNDERIVABLE_COVERS;
+            }
+        }));
+
+    public CoverDerivationService(CoverVariantRepository coverVariantRepository, BlobStore blobStore,
+                                  @Qualifier("taskExecutor") Executor taskExecutor, ApplicationProperties applicationProperties) {
+        this.coverVariantRepository = coverVariantRepository;
+        this.blobStore = blobStore;
+        this.taskExecutor = taskExecutor;
+        this.applicationProperties = applicationProperties;
+        this.formats = ImageIO.getImageWritersByMIMEType(WEBP).hasNext()
+            ? Arrays.asList(JPEG, WEBP)
+            : Collections.singletonList(JPEG);
+    }
+
+    /**
+     * Queue the derivation of the variants of a cover, unless it is already queued or known not to be resizable.
+     * <p>
+     * This returns right away: the variants are derived in the background.
+     *
+     * @param sourceHash the hash of the cover in the {@link BlobStore}.
+     */
+    public void requestVariants(String sourceHash) {
+        if (sourceHash == null || underivable.contains(sourceHash) || !pending.add(sourceHash)) {
+            return;
+        }
+        queue.add(sourceHash);
+        startWorkers();
+    }
+
+    /**
+     * Pick the variant to serve for a display width: the narrowest one at least as wide, in WebP if the client
+     * accepts it. The derivation of the variants is requested if the cover has none yet.
+     *
+     * @param sourceHash the hash of the cover in the {@link BlobStore}.
+     * @param width the requested width, in pixels.
+     * @param webpAccepted whether the client accepts WebP images.
+     * @return the variant, or empty if the original cover should be served.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CoverVariant> findVariant(String sourceHash, int width, boolean webpAccepted) {
+        List<CoverVariant> variants = coverVariantRepository.findAllBySourceHash(sourceHash);
+        if (variants.isEmpty()) {
+            requestVariants(sourceHash);
+            return Optional.empty();
+        }
+        String contentType = webpAccepted && variants.stream().anyMatch(variant -> WEBP.equals(variant.getContentType())) ? WEBP : JPEG;
+        return variants.stream()
+            .filter(variant -> contentType.equals(variant.getContentType()))
+            .filter(variant -> variant.getWidth() >= width)
+            .min(Comparator.comparing(CoverVariant::getWidth));
+    }
+
+    /**
+     * Derive the variants of a cover now, in the calling thread.
+     * <p>
+     * Only widths narrower than the cover are derived. Covers that already have variants are left untouched.
+     *
+     * @param sourceHash the hash of the cover in the {@link BlobStore}.
+     * @return the variants of the cover.
+     */
+    public List<CoverVariant> deriveVariants(String sourceHash) {
+        List<CoverVariant> existing = coverVariantRepository.findAllBySourceHash(sourceHash);
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+        Optional<BufferedImage> image = readImage(sourceHash);
+        int[] widths = Arrays.stream(applicationProperties.getCovers().getVariantWidths())
+            .filter(width -> image.isPresent() && width > 0 && width < image.get().getWidth())
+            .sorted()
+            .toArray();
+        if (widths.length == 0) {
+            log.debug("Cover {} is not an image wider than the variants, serving it as is", sourceHash);
+            underivable.add(sourceHash);
+            return Collections.emptyList();
+        }
+        log.debug("Deriving variants of cover {} at widths {}", sourceHash, Arrays.toString(widths));
+        List<CoverVariant> variants = new ArrayList<>();
+        // Each variant is resized from the next wider one, which is cheaper than starting over from the original.
+        BufferedImage resized = image.get();
+        for (int i = widths.length - 1; i >= 0; i--) {
+            resized = resize(resized, widths[i]);
+            for (String format : formats) {
+                byte[] content = encode(resized, format, applicationProperties.getCovers().getJpegQuality());
+                variants.add(new CoverVariant()
+                    .sourceHash(sourceHash)
+                    .width(widths[i])
+                    .contentType(format)
+                    .blobHash(blobStore.put(content))
+                    .blobSize((long) content.length));
+            }
+        }
+        return variants.stream()
+            .map(this::saveVariant)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .collect(Collectors.toList());
+    }
+
+    private void startWorkers() {
+        int max = Math.max(1, applicationProperties.getCovers().getDerivationConcurrency());
+        int current;
+        while (!queue.isEmpty() && (current = workers.get()) < max) {
+            if (workers.compareAndSet(current, current + 1)) {
+                try {
+                    taskExecutor.execute(this::drainQueue);
+                } catch (TaskRejectedException e) {
+                    workers.decrementAndGet();
+                    log.warn("Async task executor is saturated, {} covers left queued for derivation", queue.size());
+                    return;
+                }
+            }
+        }
+    }
+
+    private void drainQueue() {
+        try {
+            String sourceHash;
+            while ((sourceHash = queue.poll()) != null) {
+                try {
+                    deriveVariants(sourceHash);
+                } catch (RuntimeException e) {
+                    log.warn("Could not derive variants of cover {}", sourceHash, e);
+                } finally {
+                    pending.remove(sourceHash);
+                }
+            }
+        } finally {
+            workers.decrementAndGet();
+        }
+        // A cover queued after the last poll but before the decrement would otherwise wait for the next request
+        startWorkers();
+    }
+
+    private Optional<BufferedImage> readImage(String sourceHash) {
+        Optional<Resource> source = blobStore.get(sourceHash);
+        if (!source.isPresent()) {
+            log.warn("Cover {} is missing from the blob store", sourceHash);
+            return Optional.empty();
+        }
+        try (InputStream in = source.get().getInputStream()) {
+            return Optional.ofNullable(ImageIO.read(in));
+        } catch (IOException e) {
+            log.debug("Cover {} could not be decoded: {}", sourceHash, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<CoverVariant> saveVariant(CoverVariant variant) {
+        try {
+            return Optional.of(coverVariantRepository.save(variant));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Variant {} was derived concurrently", variant);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Scale an image down to a width, keeping its aspect ratio, by halving it in steps for a smoother result
+     * than a single bilinear pass. Transparent areas are flattened on white, as JPEG has no alpha channel.
+     */
+    private static BufferedImage resize(BufferedImage source, int width) {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, currentWidth, currentHeight);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image, String format, float quality) {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(format);
+        if (!writers.hasNext()) {
+            throw new IllegalStateException("No image writer for " + format);
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOut = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode cover variant as " + format, e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,140 @@
+package com.pixelmags.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.JoinType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pixelmags.domain.Customer;
+import com.pixelmags.domain.*; // for static metamodels
+import com.pixelmags.repository.CustomerRepository;
+import com.pixelmags.service.dto.CustomerCriteria;
+import com.pixelmags.service.dto.CustomerDTO;
+import com.pixelmags.service.mapper.CustomerMapper;
+
+/**
+ * Service for executing complex queries for {@link Customer} entities in the database.
+ * The main input is a {@link CustomerCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link CustomerDTO} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CustomerQueryService extends KeysetQueryService<Customer> {
+
+    private final Logger log = LoggerFactory.getLogger(CustomerQueryService.class);
+
+    private final CustomerRepository customerRepository;
+
+    private final CustomerMapper customerMapper;
+
+    public CustomerQueryService(CustomerRepository customerRepository, CustomerMapper customerMapper, EntityManager entityManager) {
+        super(entityManager, Customer.class);
+        this.customerRepository = customerRepository;
+        this.customerMapper = customerMapper;
+    }
+
+    /**
+     * Return a {@link List} of {@link CustomerDTO} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> findByCriteria(CustomerCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Customer> specification = createSpecification(criteria);
+        return customerMapper.toDto(customerRepository.findAll(specification));
+    }
+
+    /**
+     * Return a page of {@link CustomerDTO} which matches the criteria from the database, in id order.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> findByCriteria(CustomerCriteria criteria, Long after, int limit) {
+        log.debug("find by criteria : {}, after : {}", criteria, after);
+        final Specification<Customer> specification = createSpecification(criteria);
+        return customerMapper.toDto(findAllAfter(specification, after, limit));
+    }
+
+    /**
+     * Return a page of {@link CustomerDTO} which matches the criteria from the database, in id order, reading only some fields.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @param fields the DTO fields to read, or {@code null} for all of them.
+     * @return the matching entities, whose other fields may be unset.
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> findByCriteria(CustomerCriteria criteria, Long after, int limit, Set<String> fields) {
+        log.debug("find by criteria : {}, after : {}, fields : {}", criteria, after, fields);
+        final Specification<Customer> specification = createSpecification(criteria);
+        return customerMapper.toDto(findAllAfter(specification, after, limit, fields));
+    }
+
+    /**
+     * Return the {@link CustomerDTO}s with some ids, from the second-level cache for the ones it holds.
+     * @param ids the ids of the entities.
+     * @return the entities found, by id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, CustomerDTO> findAllById(Collection<Long> ids) {
+        log.debug("find by ids : {}", ids);
+        Map<Long, CustomerDTO> result = new HashMap<>();
+        findAllById(createSpecification(null), ids).forEach((id, entity) -> result.put(id, customerMapper.toDto(entity)));
+        return result;
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(CustomerCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Customer> specification = createSpecification(criteria);
+        return customerRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link CustomerCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Customer> createSpecification(CustomerCriteria criteria) {
+        Specification<Customer> specification = Specification.where(null);
+        if (criteria != null) {
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Customer_.id));
+            }
+            if (criteria.getName() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getName(), Customer_.name));
+            }
+            if (criteria.getEmail() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getEmail(), Customer_.email));
+            }
+            if (criteria.getFcm() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getFcm(), Customer_.fcm));
+            }
+            if (criteria.getPurchasesId() != null) {
+                specification = specification.and(buildSpecification(criteria.getPurchasesId(),
+                    root -> root.join(Customer_.purchases, JoinType.LEFT).get(Purchase_.id)));
+            }
+        }
+        return specification;
+    }
+}
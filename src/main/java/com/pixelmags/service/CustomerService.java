@@ -34,10 +34,14 @@ public class CustomerService {
 
     private final CustomerSearchRepository customerSearchRepository;
 
-    public CustomerService(CustomerRepository customerRepository, CustomerMapper customerMapper, CustomerSearchRepository customerSearchRepository) {
+    private final EntitlementService entitlementService;
+
+    public CustomerService(CustomerRepository customerRepository, CustomerMapper customerMapper, CustomerSearchRepository customerSearchRepository,
+                           EntitlementService entitlementService) {
         this.customerRepository = customerRepository;
         this.customerMapper = customerMapper;
         this.customerSearchRepository = customerSearchRepository;
+        this.entitlementService = entitlementService;
     }
 
     /**
@@ -52,6 +56,7 @@ public class CustomerService {
         customer = customerRepository.save(customer);
         CustomerDTO result = customerMapper.toDto(customer);
         customerSearchRepository.save(customer);
+        entitlementService.onCustomerChanged(customer.getId());
         return result;
     }
 
@@ -92,6 +97,7 @@ public class CustomerService {
 
         customerRepository.deleteById(id);
         customerSearchRepository.deleteById(id);
+        entitlementService.onCustomerChanged(id);
     }
 
     /**
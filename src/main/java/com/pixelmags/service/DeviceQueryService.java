@@ -0,0 +1,140 @@
+package com.pixelmags.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.JoinType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pixelmags.domain.Device;
+import com.pixelmags.domain.*; // for static metamodels
+import com.pixelmags.repository.DeviceRepository;
+import com.pixelmags.service.dto.DeviceCriteria;
+import com.pixelmags.service.dto.DeviceDTO;
+import com.pixelmags.service.mapper.DeviceMapper;
+
+/**
+ * Service for executing complex queries for {@link Device} entities in the database.
+ * The main input is a {@link DeviceCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link DeviceDTO} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DeviceQueryService extends KeysetQueryService<Device> {
+
+    private final Logger log = LoggerFactory.getLogger(DeviceQueryService.class);
+
+    private final DeviceRepository deviceRepository;
+
+    private final DeviceMapper deviceMapper;
+
+    public DeviceQueryService(DeviceRepository deviceRepository, DeviceMapper deviceMapper, EntityManager entityManager) {
+        super(entityManager, Device.class);
+        this.deviceRepository = deviceRepository;
+        this.deviceMapper = deviceMapper;
+    }
+
+    /**
+     * Return a {@link List} of {@link DeviceDTO} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<DeviceDTO> findByCriteria(DeviceCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Device> specification = createSpecification(criteria);
+        return deviceMapper.toDto(deviceRepository.findAll(specification));
+    }
+
+    /**
+     * Return a page of {@link DeviceDTO} which matches the criteria from the database, in id order.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<DeviceDTO> findByCriteria(DeviceCriteria criteria, Long after, int limit) {
+        log.debug("find by criteria : {}, after : {}", criteria, after);
+        final Specification<Device> specification = createSpecification(criteria);
+        return deviceMapper.toDto(findAllAfter(specification, after, limit));
+    }
+
+    /**
+     * Return a page of {@link DeviceDTO} which matches the criteria from the database, in id order, reading only some fields.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @param fields the DTO fields to read, or {@code null} for all of them.
+     * @return the matching entities, whose other fields may be unset.
+     */
+    @Transactional(readOnly = true)
+    public List<DeviceDTO> findByCriteria(DeviceCriteria criteria, Long after, int limit, Set<String> fields) {
+        log.debug("find by criteria : {}, after : {}, fields : {}", criteria, after, fields);
+        final Specification<Device> specification = createSpecification(criteria);
+        return deviceMapper.toDto(findAllAfter(specification, after, limit, fields));
+    }
+
+    /**
+     * Return the {@link DeviceDTO}s with some ids, from the second-level cache for the ones it holds.
+     * @param ids the ids of the entities.
+     * @return the entities found, by id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, DeviceDTO> findAllById(Collection<Long> ids) {
+        log.debug("find by ids : {}", ids);
+        Map<Long, DeviceDTO> result = new HashMap<>();
+        findAllById(createSpecification(null), ids).forEach((id, entity) -> result.put(id, deviceMapper.toDto(entity)));
+        return result;
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(DeviceCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Device> specification = createSpecification(criteria);
+        return deviceRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link DeviceCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Device> createSpecification(DeviceCriteria criteria) {
+        Specification<Device> specification = Specification.where(null);
+        if (criteria != null) {
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Device_.id));
+            }
+            if (criteria.getFabricante() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getFabricante(), Device_.fabricante));
+            }
+            if (criteria.getModelo() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getModelo(), Device_.modelo));
+            }
+            if (criteria.getOs() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getOs(), Device_.os));
+            }
+            if (criteria.getCustomerId() != null) {
+                specification = specification.and(buildSpecification(criteria.getCustomerId(),
+                    root -> root.join(Device_.customer, JoinType.LEFT).get(Customer_.id)));
+            }
+        }
+        return specification;
+    }
+}
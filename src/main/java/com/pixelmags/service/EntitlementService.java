@@ -0,0 +1,288 @@
+package com.pixelmags.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.enumeration.PurchaseType;
+import com.pixelmags.repository.CustomerRepository;
+import com.pixelmags.repository.PurchaseRepository;
+import com.pixelmags.service.catalog.CatalogSnapshot;
+import com.pixelmags.service.dto.EntitlementDTO;
+import com.pixelmags.service.entitlement.CustomerEntitlements;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Service telling whether a customer can read an issue, from {@link CustomerEntitlements} kept in memory.
+ * <p>
+ * A customer is linked to a single purchase, so entitlements are kept per purchase, along with the purchase of each
+ * customer, in two bounded concurrent caches holding the most used entries, up to the configured number. Each is
+ * read in a single query on the first check. A purchase which is not a subscription gives access to the issue of its
+ * magazine, and a subscription gives access to the issue of its magazine from the day of the purchase for the period
+ * of its plan.
+ * <p>
+ * Once their transaction commits, writes of purchases rebuild their cached entitlements, writes of magazines and
+ * subscription plans rebuild the cached entitlements derived from them, found by looking through the cache as they
+ * are rare, and writes of customers drop their cached purchase. An entry is rebuilt or dropped while no check reads
+ * it, so that an entry read before a commit never replaces the one rebuilt after it, and a write only touches the
+ * entries it concerns.
+ * <p>
+ * Writes made through another instance are not seen by these hooks, so cached entries expire after the configured time
+ * to live, and a check denied from cached entries reads the purchase of the customer and its entitlements again before
+ * answering, so that a customer who just bought an issue is never refused it.
+ */
+@Service
+public class EntitlementService {
+
+    private static final CustomerEntitlements NONE = CustomerEntitlements.builder().build();
+
+    // Purchase of the customers without any
+    private static final long NO_PURCHASE = -1L;
+
+    private final Logger log = LoggerFactory.getLogger(EntitlementService.class);
+
+    private final CustomerRepository customerRepository;
+
+    private final PurchaseRepository purchaseRepository;
+
+    private final CatalogService catalogService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache<Long, Long> purchaseOfCustomers;
+
+    private final Cache<Long, CustomerEntitlements> entitlementsOfPurchases;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    public EntitlementService(CustomerRepository customerRepository, PurchaseRepository purchaseRepository,
+                              CatalogService catalogService, PlatformTransactionManager transactionManager,
+                              ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.catalogService = catalogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // Entitlements are read out of the transaction of the caller, which may not see the latest commits
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int maxCustomers = Math.max(1, applicationProperties.getEntitlements().getMaxCustomers());
+        Duration timeToLive = applicationProperties.getEntitlements().getTimeToLive();
+        this.purchaseOfCustomers = Caffeine.newBuilder().maximumSize(maxCustomers).expireAfterWrite(timeToLive).build();
+        this.entitlementsOfPurchases = Caffeine.newBuilder().maximumSize(maxCustomers).expireAfterWrite(timeToLive).build();
+        this.hitCounter = cacheCounter(meterRegistry, "hit");
+        this.missCounter = cacheCounter(meterRegistry, "miss");
+        Gauge.builder("entitlements.customers", purchaseOfCustomers, Cache::estimatedSize)
+            .description("Number of customers whose purchase is kept in memory")
+            .register(meterRegistry);
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("entitlements.checks")
+            .description("Number of entitlement checks, by whether the entitlements of the customer were in memory")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Check whether a customer can read an issue today.
+     *
+     * @param customerId the id of the customer.
+     * @param issueId the id of the issue.
+     * @return the entitlement, or empty if the customer does not exist.
+     */
+    public Optional<EntitlementDTO> check(Long customerId, Long issueId) {
+        return check(customerId, issueId, LocalDate.now());
+    }
+
+    Optional<EntitlementDTO> check(long customerId, long issueId, LocalDate today) {
+        CustomerEntitlements customer = getIfPresent(customerId);
+        if (customer != null) {
+            hitCounter.increment();
+            EntitlementDTO entitlement = check(customer, customerId, issueId, today);
+            if (entitlement.isGranted()) {
+                return Optional.of(entitlement);
+            }
+            // The purchase may have been made through another instance
+            customer = read(customerId, true);
+        } else {
+            missCounter.increment();
+            customer = read(customerId, false);
+        }
+        return customer == null ? Optional.empty() : Optional.of(check(customer, customerId, issueId, today));
+    }
+
+    private EntitlementDTO check(CustomerEntitlements customer, long customerId, long issueId, LocalDate today) {
+        if (customer.ownsIssue(issueId)) {
+            return new EntitlementDTO(customerId, issueId, true, PurchaseType.SINGLE_ISSUE, null);
+        }
+        // The magazine selling the issue is read from the catalog in memory
+        CatalogSnapshot.MagazineEntry magazine = catalogService.getSnapshot().getMagazineOfIssue(issueId);
+        LocalDate end = magazine == null ? null : customer.findSubscriptionEnd(magazine.getId(), today);
+        return end == null
+            ? new EntitlementDTO(customerId, issueId, false, null, null)
+            : new EntitlementDTO(customerId, issueId, true, PurchaseType.SUBSCRIPTION, end);
+    }
+
+    /**
+     * Drop the purchase of a customer, once the current transaction commits.
+     *
+     * @param id the id of the saved or deleted customer.
+     */
+    public void onCustomerChanged(Long id) {
+        afterCommit(() -> purchaseOfCustomers.invalidate(id));
+    }
+
+    /**
+     * Rebuild the entitlements derived from a purchase, once the current transaction commits.
+     *
+     * @param id the id of the saved or deleted purchase.
+     */
+    public void onPurchaseChanged(Long id) {
+        afterCommit(() -> rebuild(id));
+    }
+
+    /**
+     * Rebuild the entitlements derived from a magazine, or from the purchase it is now sold through, once the current
+     * transaction commits.
+     *
+     * @param id the id of the saved or deleted magazine.
+     * @param purchaseId the id of the purchase of the saved magazine, or null.
+     */
+    public void onMagazineChanged(Long id, Long purchaseId) {
+        afterCommit(() -> {
+            rebuildAll(entitlements -> entitlements.derivesFromMagazine(id));
+            if (purchaseId != null) {
+                rebuild(purchaseId);
+            }
+        });
+    }
+
+    /**
+     * Rebuild the entitlements derived from a subscription plan, once the current transaction commits.
+     *
+     * @param id the id of the saved or deleted subscription plan.
+     */
+    public void onSubscriptionPlanChanged(Long id) {
+        afterCommit(() -> rebuildAll(entitlements -> entitlements.derivesFromSubscriptionPlan(id)));
+    }
+
+    /**
+     * Get the cached entitlements of a customer.
+     *
+     * @return the entitlements, or null if the purchase of the customer or its entitlements are not cached.
+     */
+    private CustomerEntitlements getIfPresent(long customerId) {
+        Long purchaseId = purchaseOfCustomers.getIfPresent(customerId);
+        if (purchaseId == null || purchaseId == NO_PURCHASE) {
+            return purchaseId == null ? null : NONE;
+        }
+        return entitlementsOfPurchases.getIfPresent(purchaseId);
+    }
+
+    /**
+     * Read the entitlements of a customer, caching them.
+     *
+     * @param again whether the cached purchase of the customer and its entitlements are read again.
+     * @return the entitlements, or null if the customer does not exist.
+     */
+    private CustomerEntitlements read(long customerId, boolean again) {
+        Long purchaseId = again
+            ? purchaseOfCustomers.asMap().compute(customerId, (id, cached) -> readPurchaseOfCustomer(id))
+            : purchaseOfCustomers.get(customerId, this::readPurchaseOfCustomer);
+        if (purchaseId == null) {
+            return null;
+        }
+        if (purchaseId == NO_PURCHASE) {
+            return NONE;
+        }
+        CustomerEntitlements entitlements = again
+            ? entitlementsOfPurchases.asMap().compute(purchaseId, (id, cached) -> readEntitlements(id))
+            : entitlementsOfPurchases.get(purchaseId, this::readEntitlements);
+        // A purchase deleted since the customer was read gives no access
+        return entitlements == null ? NONE : entitlements;
+    }
+
+    private Long readPurchaseOfCustomer(Long customerId) {
+        return transactionTemplate.execute(status -> customerRepository.findPurchaseLinkById(customerId)
+            .map(link -> link.getPurchaseId() == null ? NO_PURCHASE : link.getPurchaseId())
+            .orElse(null));
+    }
+
+    private CustomerEntitlements readEntitlements(Long purchaseId) {
+        return transactionTemplate.execute(status -> purchaseRepository.findEntitlementEntryById(purchaseId)
+            .map(this::entitlements)
+            .orElse(null));
+    }
+
+    private CustomerEntitlements entitlements(PurchaseRepository.EntitlementEntry entry) {
+        CustomerEntitlements.Builder builder = CustomerEntitlements.builder().purchase(entry.getPurchaseId());
+        if (entry.getSubscriptionPlanId() != null) {
+            builder.subscriptionPlan(entry.getSubscriptionPlanId());
+        }
+        if (entry.getMagazineId() == null) {
+            return builder.build();
+        }
+        if (entry.getTipo() != PurchaseType.SUBSCRIPTION) {
+            if (entry.getIssueId() != null) {
+                builder.issue(entry.getPurchaseId(), entry.getMagazineId(), entry.getIssueId());
+            }
+        } else if (entry.getSubscriptionPlanId() != null && entry.getPeriodo() != null && entry.getDate() != null) {
+            builder.subscription(entry.getPurchaseId(), entry.getSubscriptionPlanId(), entry.getMagazineId(),
+                entry.getDate(), CustomerEntitlements.subscriptionEnd(entry.getDate(), entry.getPeriodo()));
+        } else {
+            log.debug("Subscription {} has no date or period", entry.getPurchaseId());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Apply a change once the current transaction commits, so that entitlements are never read before it shows.
+     */
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * Read again the entitlements of a purchase if they are cached, waiting for a check reading them meanwhile.
+     */
+    private void rebuild(Long purchaseId) {
+        entitlementsOfPurchases.asMap().computeIfPresent(purchaseId, (id, entitlements) -> readEntitlements(id));
+    }
+
+    private void rebuildAll(Predicate<CustomerEntitlements> derived) {
+        List<Long> purchaseIds = new ArrayList<>();
+        entitlementsOfPurchases.asMap().forEach((purchaseId, entitlements) -> {
+            if (derived.test(entitlements)) {
+                purchaseIds.add(purchaseId);
+            }
+        });
+        purchaseIds.forEach(this::rebuild);
+    }
+}
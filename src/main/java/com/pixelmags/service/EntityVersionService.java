@@ -0,0 +1,410 @@
+package com.pixelmags.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Log;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service tracking a version and a last modification date per entity type, and per entity, to validate cached
+ * responses without reading the entities.
+ * <p>
+ * Writes are reported through {@link #touch(String, Long)}, by a Hibernate listener for the writes going through the
+ * persistence context, and by hand for the ones made over JDBC. Versions are kept in the {@code entity_version} and
+ * {@code entity_instance_version} tables, shared by all the instances, and are increased once the transaction writing
+ * the entities commits, in a short transaction of its own, so that concurrent writers of a type only wait on each
+ * other for that long. A response read meanwhile may be tagged with the previous version, and is then read again by
+ * its client once the version increases.
+ * <p>
+ * Logs are written too often for a shared row: their inserts are not counted, the largest log id is read instead, so
+ * only their updates and deletes increase the version of their type.
+ * <p>
+ * Versions are read again from the tables at most once per {@code application.http-cache.version-refresh}, while the
+ * ones written by this instance are known as soon as they commit. A write made through another instance may thus be
+ * answered with {@code 304 (Not Modified)} for up to that long.
+ */
+@Service
+public class EntityVersionService {
+
+    private static final String INCREMENT = "update entity_version set version = version + 1, last_modified = ? " +
+        "where entity_name = ?";
+
+    private static final String INSERT = "insert into entity_version (entity_name, version, last_modified) values (?, 1, ?)";
+
+    private static final String SELECT_ALL = "select entity_name, version, last_modified from entity_version";
+
+    private static final String SELECT = SELECT_ALL + " where entity_name = ?";
+
+    private static final String INCREMENT_INSTANCE = "update entity_instance_version set version = version + 1, " +
+        "last_modified = ? where entity_name = ? and entity_id = ?";
+
+    private static final String INSERT_INSTANCE = "insert into entity_instance_version (entity_name, entity_id, version, " +
+        "last_modified) values (?, ?, 1, ?)";
+
+    private static final String SELECT_INSTANCE = "select version, last_modified from entity_instance_version " +
+        "where entity_name = ? and entity_id = ?";
+
+    private static final RowMapper<Version> VERSION_MAPPER =
+        (rs, rowNum) -> new Version(rs.getLong("version"), rs.getTimestamp("last_modified").toInstant());
+
+    /**
+     * The queries of the largest id of the entity types whose inserts are not counted.
+     */
+    private static final Map<String, String> INSERTED_IDS = Collections.singletonMap(Log.class.getName(), "select max(id) from log");
+
+    // The largest id is added to the version of the type shifted by this many bits, so that updates and deletes always increase it
+    private static final int INSERTED_ID_BITS = 40;
+
+    // The instance version of this id counts the writes made without the ids, which may have changed any entity of the type
+    private static final long ALL_IDS = 0L;
+
+    private static final int MAX_INSTANCE_VERSIONS = 10_000;
+
+    private final Logger log = LoggerFactory.getLogger(EntityVersionService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long refreshNanos;
+
+    private final ConcurrentMap<String, Version> versions = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Version> insertedIds = new ConcurrentHashMap<>();
+
+    private final Set<String> staleInsertedIds = ConcurrentHashMap.newKeySet();
+
+    private final Cache<String, Version> instanceVersions;
+
+    private final Version initialVersion = new Version(0L, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile boolean read;
+
+    private volatile long readAt;
+
+    public EntityVersionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Called once the writing transaction committed, whose resources may still be bound
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshNanos = applicationProperties.getHttpCache().getVersionRefresh().toNanos();
+        this.instanceVersions = Caffeine.newBuilder().maximumSize(MAX_INSTANCE_VERSIONS)
+            .expireAfterWrite(refreshNanos, TimeUnit.NANOSECONDS).build();
+    }
+
+    /**
+     * Get the version of some entity types, which increases with each committed write of any of them.
+     *
+     * @param types the entity types.
+     * @return the combined version.
+     */
+    public Version getVersion(Class<?>... types) {
+        refresh();
+        Version combined = initialVersion;
+        for (Class<?> type : types) {
+            Version version = versions.getOrDefault(type.getName(), initialVersion);
+            if (INSERTED_IDS.containsKey(type.getName())) {
+                Version inserted = getInsertedId(type.getName());
+                version = new Version((version.number << INSERTED_ID_BITS) + inserted.number,
+                    latest(version.lastModified, inserted.lastModified));
+            }
+            combined = add(combined, version);
+        }
+        return combined;
+    }
+
+    /**
+     * Get the version of an entity, which increases with each committed write of it, but not with the writes of the
+     * other entities of its type.
+     *
+     * @param type the entity type.
+     * @param id the id of the entity.
+     * @return the version.
+     */
+    public Version getVersion(Class<?> type, Long id) {
+        return add(getInstanceVersion(type.getName(), id), getInstanceVersion(type.getName(), ALL_IDS));
+    }
+
+    /**
+     * Record a write of an entity, which increases its version and the version of its type once the current
+     * transaction commits.
+     *
+     * @param entityName the entity name, which is the fully qualified name of its class.
+     * @param id the id of the entity, or {@code null} if not known, which increases the version of all the entities of
+     * the type.
+     */
+    public void touch(String entityName, Long id) {
+        Long touchedId = id == null ? ALL_IDS : id;
+        TouchedEntities touched = getTouchedEntities();
+        if (touched == null) {
+            increment(Collections.singleton(entityName), Collections.singletonMap(entityName, Collections.singleton(touchedId)));
+            return;
+        }
+        touched.entityNames.add(entityName);
+        touched.ids.computeIfAbsent(entityName, name -> new HashSet<>()).add(touchedId);
+    }
+
+    /**
+     * Record a write of an entity, which increases its version and the version of its type once the current
+     * transaction commits.
+     *
+     * @param type the entity type.
+     * @param id the id of the entity.
+     */
+    public void touch(Class<?> type, Long id) {
+        touch(type.getName(), id);
+    }
+
+    /**
+     * Record a write of some entities of a type whose ids are not known, which increases the version of the type and
+     * of all its entities once the current transaction commits.
+     *
+     * @param type the entity type.
+     */
+    public void touch(Class<?> type) {
+        touch(type.getName(), null);
+    }
+
+    /**
+     * Record the insert of an entity. For the types whose inserts are not counted, the largest id is read again once
+     * the current transaction commits, otherwise this is a write like any other.
+     *
+     * @param entityName the entity name, which is the fully qualified name of its class.
+     * @param id the id of the inserted entity, or {@code null} if not known.
+     */
+    public void touchInserted(String entityName, Long id) {
+        if (!INSERTED_IDS.containsKey(entityName)) {
+            touch(entityName, id);
+            return;
+        }
+        TouchedEntities touched = getTouchedEntities();
+        if (touched == null) {
+            staleInsertedIds.add(entityName);
+            return;
+        }
+        touched.insertedEntityNames.add(entityName);
+    }
+
+    /**
+     * Record the insert of some entities of a type.
+     *
+     * @param type the entity type.
+     * @see #touchInserted(String, Long)
+     */
+    public void touchInserted(Class<?> type) {
+        touchInserted(type.getName(), null);
+    }
+
+    private TouchedEntities getTouchedEntities() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        TouchedEntities touched = (TouchedEntities) TransactionSynchronizationManager.getResource(this);
+        if (touched == null) {
+            touched = new TouchedEntities();
+            TransactionSynchronizationManager.bindResource(this, touched);
+            TransactionSynchronizationManager.registerSynchronization(touched);
+        }
+        return touched;
+    }
+
+    /**
+     * Read the versions written by all the instances, if they were not read for longer than the refresh interval.
+     * Only one caller reads them, the others go on with the versions known so far.
+     */
+    private void refresh() {
+        if (read && System.nanoTime() - readAt < refreshNanos || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            jdbcTemplate.query(SELECT_ALL, rs -> merge(versions, rs.getString("entity_name"), VERSION_MAPPER.mapRow(rs, 0)));
+            INSERTED_IDS.keySet().forEach(this::readInsertedId);
+            readAt = now;
+            read = true;
+        } catch (DataAccessException e) {
+            log.warn("Cannot read the entity versions: {}", e.getMessage());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private Version getInsertedId(String entityName) {
+        if (staleInsertedIds.remove(entityName)) {
+            try {
+                readInsertedId(entityName);
+            } catch (DataAccessException e) {
+                log.warn("Cannot read the largest id of {}: {}", entityName, e.getMessage());
+            }
+        }
+        return insertedIds.getOrDefault(entityName, initialVersion);
+    }
+
+    private void readInsertedId(String entityName) {
+        Long id = jdbcTemplate.queryForObject(INSERTED_IDS.get(entityName), Long.class);
+        merge(insertedIds, entityName, new Version(id == null ? 0L : id, Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+    private Version getInstanceVersion(String entityName, long id) {
+        return instanceVersions.get(entityName + '#' + id, key -> {
+            List<Version> read = jdbcTemplate.query(SELECT_INSTANCE, VERSION_MAPPER, entityName, id);
+            return read.isEmpty() ? initialVersion : read.get(0);
+        });
+    }
+
+    /**
+     * Increase the versions of entity types and entities in a transaction of their own, once the writing transaction
+     * committed. They are increased in name and id order, so that concurrent writers never wait on each other in turn.
+     * <p>
+     * When they cannot be increased, the writes are only seen once the versions are next increased, as they are
+     * committed already.
+     */
+    private void increment(Collection<String> entityNames, Map<String, ? extends Collection<Long>> ids) {
+        Timestamp now = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        try {
+            Map<String, Version> incremented;
+            try {
+                incremented = transactionTemplate.execute(status -> increment(entityNames, ids, now));
+            } catch (DuplicateKeyException e) {
+                log.debug("Version added by another transaction, increasing it: {}", e.getMessage());
+                incremented = transactionTemplate.execute(status -> increment(entityNames, ids, now));
+            }
+            incremented.forEach((entityName, version) -> merge(versions, entityName, version));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Cannot increase the versions of {}: {}", entityNames, e.getMessage());
+        }
+        ids.forEach((entityName, entityIds) -> entityIds.forEach(id -> instanceVersions.invalidate(entityName + '#' + id)));
+    }
+
+    private Map<String, Version> increment(Collection<String> entityNames, Map<String, ? extends Collection<Long>> ids,
+                                           Timestamp now) {
+        Map<String, Version> incremented = new HashMap<>();
+        for (String entityName : new TreeSet<>(entityNames)) {
+            if (jdbcTemplate.update(INCREMENT, now, entityName) == 0) {
+                jdbcTemplate.update(INSERT, entityName, now);
+            }
+            incremented.put(entityName, jdbcTemplate.queryForObject(SELECT, VERSION_MAPPER, entityName));
+        }
+        new TreeMap<>(ids).forEach((entityName, entityIds) -> {
+            List<Object[]> increments = new ArrayList<>();
+            for (Long id : new TreeSet<>(entityIds)) {
+                increments.add(new Object[]{now, entityName, id});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(INCREMENT_INSTANCE, increments);
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    inserts.add(new Object[]{entityName, increments.get(i)[2], now});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_INSTANCE, inserts);
+            }
+        });
+        return incremented;
+    }
+
+    private static void merge(ConcurrentMap<String, Version> versions, String entityName, Version version) {
+        versions.merge(entityName, version, (previous, next) -> next.number > previous.number ? next : previous);
+    }
+
+    private static Version add(Version first, Version second) {
+        return new Version(first.number + second.number, latest(first.lastModified, second.lastModified));
+    }
+
+    private static Instant latest(Instant first, Instant second) {
+        return second.isAfter(first) ? second : first;
+    }
+
+    /**
+     * The entities written by the current transaction, bound to it like the resources of a transaction manager.
+     */
+    private final class TouchedEntities extends TransactionSynchronizationAdapter {
+
+        private final Set<String> entityNames = new HashSet<>();
+
+        private final Map<String, Set<Long>> ids = new HashMap<>();
+
+        private final Set<String> insertedEntityNames = new HashSet<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EntityVersionService.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(EntityVersionService.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!entityNames.isEmpty()) {
+                increment(entityNames, ids);
+            }
+            staleInsertedIds.addAll(insertedEntityNames);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EntityVersionService.this);
+        }
+    }
+
+    /**
+     * A version of some entity types.
+     */
+    public static final class Version {
+
+        private final long number;
+
+        private final Instant lastModified;
+
+        public Version(long number, Instant lastModified) {
+            this.number = number;
+            this.lastModified = lastModified;
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        public Instant getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.pixelmags.service;
+
+import com.pixelmags.domain.User;
+import com.pixelmags.repository.CustomerRepository;
+import com.pixelmags.repository.UserRepository;
+import com.pixelmags.security.AuthoritiesConstants;
+import com.pixelmags.security.SecurityUtils;
+import com.pixelmags.service.blob.BlobStoreException;
+import com.pixelmags.service.blob.IssueContentStore;
+import com.pixelmags.service.dto.EntitlementDTO;
+import com.pixelmags.service.dto.IssueContentDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * Service for managing the pages and the bundle of an {@link com.pixelmags.domain.Issue}.
+ * <p>
+ * Only administrators and customers who can read the issue today may download its content: customers who bought
+ * it, or whose subscription to its magazine covers today, as told by the {@link EntitlementService}. Customers are
+ * matched to the current user by email.
+ */
+@Service
+@Transactional
+public class IssueContentService {
+
+    private final Logger log = LoggerFactory.getLogger(IssueContentService.class);
+
+    private final IssueContentStore issueContentStore;
+
+    private final CustomerRepository customerRepository;
+
+    private final UserRepository userRepository;
+
+    private final EntitlementService entitlementService;
+
+    public IssueContentService(IssueContentStore issueContentStore, CustomerRepository customerRepository,
+                               UserRepository userRepository, EntitlementService entitlementService) {
+        this.issueContentStore = issueContentStore;
+        this.customerRepository = customerRepository;
+        this.userRepository = userRepository;
+        this.entitlementService = entitlementService;
+    }
+
+    /**
+     * Get one page of an issue, without loading its bytes.
+     *
+     * @param issueId the id of the issue.
+     * @param page the page number, starting at 1.
+     * @return the page, or empty if it has not been stored.
+     * @throws AccessDeniedException if the current user cannot read the issue today.
+     */
+    @Transactional(readOnly = true)
+    public Optional<IssueContentDTO> findPage(Long issueId, int page) {
+        log.debug("Request to get page {} of Issue : {}", page, issueId);
+        checkEntitled(issueId);
+        return issueContentStore.findPage(issueId, page).map(file -> toDto(issueId, page, file));
+    }
+
+    /**
+     * Get the bundle of an issue, without loading its bytes.
+     *
+     * @param issueId the id of the issue.
+     * @return the bundle, or empty if it has not been stored.
+     * @throws AccessDeniedException if the current user cannot read the issue today.
+     */
+    @Transactional(readOnly = true)
+    public Optional<IssueContentDTO> findBundle(Long issueId) {
+        log.debug("Request to get bundle of Issue : {}", issueId);
+        checkEntitled(issueId);
+        return issueContentStore.findBundle(issueId).map(file -> toDto(issueId, null, file));
+    }
+
+    /**
+     * Get the bytes of a page or a bundle.
+     *
+     * @param content the content, as returned by {@link #findPage(Long, int)} or {@link #findBundle(Long)}.
+     * @return the file backed content, or empty if it has been deleted since.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Resource> findContent(IssueContentDTO content) {
+        Optional<Path> file = content.getPage() == null
+            ? issueContentStore.findBundle(content.getIssueId())
+            : issueContentStore.findPage(content.getIssueId(), content.getPage());
+        return file.map(FileSystemResource::new);
+    }
+
+    /**
+     * Store one page of an issue.
+     *
+     * @param issueId the id of the issue.
+     * @param page the page number, starting at 1.
+     * @param contentType the content type of the page.
+     * @param content the page content.
+     * @return the stored page.
+     */
+    public IssueContentDTO savePage(Long issueId, int page, String contentType, InputStream content) {
+        log.debug("Request to save page {} of Issue : {}", page, issueId);
+        return toDto(issueId, page, issueContentStore.putPage(issueId, page, contentType, content));
+    }
+
+    /**
+     * Store the bundle of an issue.
+     *
+     * @param issueId the id of the issue.
+     * @param content the bundle content.
+     * @return the stored bundle.
+     */
+    public IssueContentDTO saveBundle(Long issueId, InputStream content) {
+        log.debug("Request to save bundle of Issue : {}", issueId);
+        return toDto(issueId, null, issueContentStore.putBundle(issueId, content));
+    }
+
+    private void checkEntitled(Long issueId) {
+        if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN)) {
+            return;
+        }
+        boolean entitled = SecurityUtils.getCurrentUserLogin()
+            .flatMap(userRepository::findOneByLogin)
+            .map(User::getEmail)
+            .map(email -> customerRepository.findIdsByEmail(email).stream()
+                .anyMatch(customerId -> entitlementService.check(customerId, issueId)
+                    .map(EntitlementDTO::isGranted)
+                    .orElse(false)))
+            .orElse(false);
+        if (!entitled) {
+            throw new AccessDeniedException("Issue " + issueId + " cannot be read by the current user");
+        }
+    }
+
+    private IssueContentDTO toDto(Long issueId, Integer page, Path file) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new BlobStoreException("Cannot read attributes of " + file, e);
+        }
+        IssueContentDTO content = new IssueContentDTO();
+        content.setIssueId(issueId);
+        content.setPage(page);
+        content.setContentType(issueContentStore.contentType(file));
+        content.setContentLength(attributes.size());
+        content.setLastModified(attributes.lastModifiedTime().toInstant());
+        // Files are replaced by an atomic move, so their size and modification time identify a version
+        content.setVersion(Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()));
+        return content;
+    }
+}
@@ -0,0 +1,140 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Issue;
+import com.pixelmags.service.blob.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service moving the covers still stored in the legacy {@code issue.cover_thumbnail} column to the {@link BlobStore}.
+ * <p>
+ * Each batch is committed on its own and only selects rows whose column is still set, so the migration resumes
+ * where it stopped after a restart. Storing a blob twice is harmless, as the store is content-addressed.
+ * <p>
+ * The column is emptied but not dropped, as it is read here until every database is migrated, and by the fake data
+ * of the development profile. It is to be dropped together with this service.
+ */
+@Service
+public class IssueCoverMigrationService {
+
+    private static final String SELECT_PENDING_COVERS =
+        "select id, cover_thumbnail from issue where cover_thumbnail is not null order by id limit ?";
+
+    private static final String SELECT_PENDING_COVER =
+        "select cover_thumbnail from issue where id = ? and cover_thumbnail is not null";
+
+    private static final String UPDATE_MIGRATED_COVER =
+        "update issue set cover_hash = ?, cover_last_modified = coalesce(cover_last_modified, ?), cover_thumbnail = null where id = ?";
+
+    private final Logger log = LoggerFactory.getLogger(IssueCoverMigrationService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlobStore blobStore;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final CoverDerivationService coverDerivationService;
+
+    private final CatalogService catalogService;
+
+    private final EntityVersionService entityVersionService;
+
+    public IssueCoverMigrationService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, BlobStore blobStore,
+                                      EntityManagerFactory entityManagerFactory, ApplicationProperties applicationProperties,
+                                      CoverDerivationService coverDerivationService, CatalogService catalogService,
+                                      EntityVersionService entityVersionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.blobStore = blobStore;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationProperties = applicationProperties;
+        this.coverDerivationService = coverDerivationService;
+        this.catalogService = catalogService;
+        this.entityVersionService = entityVersionService;
+    }
+
+    /**
+     * Migrate all pending covers, one batch per transaction.
+     * <p>
+     * This is scheduled to get run shortly after startup, and then every hour.
+     *
+     * @return the number of migrated covers.
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 3_600_000)
+    public int migrateCovers() {
+        int batchSize = applicationProperties.getStorage().getMigrationBatchSize();
+        int total = 0;
+        int migrated;
+        do {
+            migrated = transactionTemplate.execute(status -> migrateBatch(batchSize));
+            total += migrated;
+        } while (migrated == batchSize);
+        if (total > 0) {
+            log.info("Moved {} issue covers to the blob store", total);
+        }
+        return total;
+    }
+
+    /**
+     * Migrate the cover of one issue right away, for a client requesting it before the background migration got to it.
+     *
+     * @param id the id of the issue.
+     * @return the hash of the migrated cover, or empty if the issue has no pending cover.
+     */
+    @Transactional
+    public Optional<String> migrateCover(Long id) {
+        List<byte[]> covers = jdbcTemplate.query(SELECT_PENDING_COVER, (rs, rowNum) -> rs.getBytes(1), id);
+        if (covers.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(migrate(id, covers.get(0)));
+    }
+
+    private int migrateBatch(int batchSize) {
+        List<PendingCover> covers = jdbcTemplate.query(SELECT_PENDING_COVERS,
+            (rs, rowNum) -> new PendingCover(rs.getLong(1), rs.getBytes(2)), batchSize);
+        covers.forEach(cover -> migrate(cover.id, cover.content));
+        return covers.size();
+    }
+
+    private String migrate(Long id, byte[] content) {
+        log.debug("Moving cover of Issue {} to the blob store", id);
+        String hash = blobStore.put(content);
+        jdbcTemplate.update(UPDATE_MIGRATED_COVER, hash, Timestamp.from(Instant.now()), id);
+        entityManagerFactory.getCache().evict(Issue.class, id);
+        entityVersionService.touch(Issue.class, id);
+        coverDerivationService.requestVariants(hash);
+        catalogService.onIssueCoverChanged(id, hash);
+        return hash;
+    }
+
+    private static final class PendingCover {
+
+        private final Long id;
+
+        private final byte[] content;
+
+        private PendingCover(Long id, byte[] content) {
+            this.id = id;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.pixelmags.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.JoinType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.*; // for static metamodels
+import com.pixelmags.repository.IssueRepository;
+import com.pixelmags.service.dto.IssueCriteria;
+import com.pixelmags.service.dto.IssueDTO;
+import com.pixelmags.service.mapper.IssueMapper;
+
+/**
+ * Service for executing complex queries for {@link Issue} entities in the database.
+ * The main input is a {@link IssueCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link IssueDTO} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class IssueQueryService extends KeysetQueryService<Issue> {
+
+    private static final Set<String> COVER_URL_ATTRIBUTES = new HashSet<>(Arrays.asList(
+        "coverThumbnailContentType", "coverHash"));
+
+    private final Logger log = LoggerFactory.getLogger(IssueQueryService.class);
+
+    private final IssueRepository issueRepository;
+
+    private final IssueMapper issueMapper;
+
+    public IssueQueryService(IssueRepository issueRepository, IssueMapper issueMapper, EntityManager entityManager) {
+        super(entityManager, Issue.class);
+        this.issueRepository = issueRepository;
+        this.issueMapper = issueMapper;
+    }
+
+    /**
+     * Return a {@link List} of {@link IssueDTO} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<IssueDTO> findByCriteria(IssueCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Issue> specification = createSpecification(criteria);
+        return issueMapper.toDto(issueRepository.findAll(specification));
+    }
+
+    /**
+     * Return a page of {@link IssueDTO} which matches the criteria from the database, in id order.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<IssueDTO> findByCriteria(IssueCriteria criteria, Long after, int limit) {
+        log.debug("find by criteria : {}, after : {}", criteria, after);
+        final Specification<Issue> specification = createSpecification(criteria);
+        return issueMapper.toDto(findAllAfter(specification, after, limit));
+    }
+
+    /**
+     * Return a page of {@link IssueDTO} which matches the criteria from the database, in id order, reading only some fields.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @param fields the DTO fields to read, or {@code null} for all of them.
+     * @return the matching entities, whose other fields may be unset.
+     */
+    @Transactional(readOnly = true)
+    public List<IssueDTO> findByCriteria(IssueCriteria criteria, Long after, int limit, Set<String> fields) {
+        log.debug("find by criteria : {}, after : {}, fields : {}", criteria, after, fields);
+        final Specification<Issue> specification = createSpecification(criteria);
+        return issueMapper.toDto(findAllAfter(specification, after, limit, fields));
+    }
+
+    /**
+     * Return the {@link IssueDTO}s with some ids, from the second-level cache for the ones it holds.
+     * @param ids the ids of the entities.
+     * @return the entities found, by id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, IssueDTO> findAllById(Collection<Long> ids) {
+        log.debug("find by ids : {}", ids);
+        Map<Long, IssueDTO> result = new HashMap<>();
+        findAllById(createSpecification(null), ids).forEach((id, entity) -> result.put(id, issueMapper.toDto(entity)));
+        return result;
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(IssueCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Issue> specification = createSpecification(criteria);
+        return issueRepository.count(specification);
+    }
+
+    /**
+     * The cover URL is built from the cover columns.
+     */
+    @Override
+    protected Set<String> attributesOf(String field) {
+        if ("coverUrl".equals(field)) {
+            return COVER_URL_ATTRIBUTES;
+        }
+        return super.attributesOf(field);
+    }
+
+    /**
+     * Function to convert {@link IssueCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Issue> createSpecification(IssueCriteria criteria) {
+        // Entities are fetched with the magazine, as the inverse side of the one-to-one is not lazy, counts and projections are not
+        Specification<Issue> specification = Specification.where((root, query, builder) -> {
+            if (Issue.class == query.getResultType()) {
+                root.fetch(Issue_.magazine, JoinType.LEFT);
+            }
+            return null;
+        });
+        if (criteria != null) {
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Issue_.id));
+            }
+            if (criteria.getEdicao() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getEdicao(), Issue_.edicao));
+            }
+            if (criteria.getManchete() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getManchete(), Issue_.manchete));
+            }
+            if (criteria.getDataLancamento() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getDataLancamento(), Issue_.dataLancamento));
+            }
+            if (criteria.getDescricao() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getDescricao(), Issue_.descricao));
+            }
+            if (criteria.getNumeroPaginas() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getNumeroPaginas(), Issue_.numeroPaginas));
+            }
+            if (criteria.getUrl() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getUrl(), Issue_.url));
+            }
+            if (criteria.getMagazineId() != null) {
+                specification = specification.and(buildSpecification(criteria.getMagazineId(),
+                    root -> root.join(Issue_.magazine, JoinType.LEFT).get(Magazine_.id)));
+            }
+        }
+        return specification;
+    }
+}
@@ -3,17 +3,28 @@ package com.pixelmags.service;
 import com.pixelmags.domain.Issue;
 import com.pixelmags.repository.IssueRepository;
 import com.pixelmags.repository.search.IssueSearchRepository;
+import com.pixelmags.service.blob.BlobStore;
+import com.pixelmags.service.blob.BlobStoreException;
+import com.pixelmags.service.blob.IssueContentStore;
+import com.pixelmags.service.dto.BulkResultDTO;
+import com.pixelmags.service.dto.IssueCoverDTO;
 import com.pixelmags.service.dto.IssueDTO;
 import com.pixelmags.service.mapper.IssueMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -34,10 +45,31 @@ public class IssueService {
 
     private final IssueSearchRepository issueSearchRepository;
 
-    public IssueService(IssueRepository issueRepository, IssueMapper issueMapper, IssueSearchRepository issueSearchRepository) {
+    private final BlobStore blobStore;
+
+    private final IssueCoverMigrationService issueCoverMigrationService;
+
+    private final CoverDerivationService coverDerivationService;
+
+    private final IssueContentStore issueContentStore;
+
+    private final CatalogService catalogService;
+
+    private final BulkWriteService bulkWriteService;
+
+    public IssueService(IssueRepository issueRepository, IssueMapper issueMapper, IssueSearchRepository issueSearchRepository,
+                        BlobStore blobStore, IssueCoverMigrationService issueCoverMigrationService,
+                        CoverDerivationService coverDerivationService, IssueContentStore issueContentStore,
+                        CatalogService catalogService, BulkWriteService bulkWriteService) {
         this.issueRepository = issueRepository;
         this.issueMapper = issueMapper;
         this.issueSearchRepository = issueSearchRepository;
+        this.blobStore = blobStore;
+        this.issueCoverMigrationService = issueCoverMigrationService;
+        this.coverDerivationService = coverDerivationService;
+        this.issueContentStore = issueContentStore;
+        this.catalogService = catalogService;
+        this.bulkWriteService = bulkWriteService;
     }
 
     /**
@@ -48,38 +80,48 @@ public class IssueService {
      */
     public IssueDTO save(IssueDTO issueDTO) {
         log.debug("Request to save Issue : {}", issueDTO);
-        Issue issue = issueMapper.toEntity(issueDTO);
-        issue = issueRepository.save(issue);
+        Optional<IssueRepository.CoverMetadata> existing = issueDTO.getId() == null
+            ? Optional.empty()
+            : issueRepository.findCoverMetadataById(issueDTO.getId());
+        Issue issue = saveWithoutIndexing(issueDTO, existing);
         IssueDTO result = issueMapper.toDto(issue);
         issueSearchRepository.save(issue);
         return result;
     }
 
     /**
-     * Get all the issues.
+     * Save issues in chunks, each in its own transaction and indexed with one bulk request.
      *
-     * @return the list of entities.
+     * @param issueDTOs the entities to save, which are updated when they have an id and created otherwise.
+     * @return one result per entity, in the same order.
+     * @see BulkWriteService
      */
-    @Transactional(readOnly = true)
-    public List<IssueDTO> findAll() {
-        log.debug("Request to get all Issues");
-        return issueRepository.findAll().stream()
-            .map(issueMapper::toDto)
-            .collect(Collectors.toCollection(LinkedList::new));
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkResultDTO<IssueDTO>> saveAll(List<IssueDTO> issueDTOs) {
+        log.debug("Request to save {} Issues", issueDTOs.size());
+        return bulkWriteService.saveAll(issueDTOs, IssueDTO::getId,
+            ids -> issueRepository.findAllWithMagazineByIdIn(ids).stream().collect(Collectors.toMap(Issue::getId, Function.identity())),
+            (issueDTO, stored) -> saveWithoutIndexing(issueDTO, Optional.ofNullable(stored).map(IssueService::coverMetadata)),
+            issueMapper::toDto, issueSearchRepository::saveAll);
     }
 
-
+    private Issue saveWithoutIndexing(IssueDTO issueDTO, Optional<IssueRepository.CoverMetadata> existing) {
+        Issue issue = issueMapper.toEntity(issueDTO);
+        updateCover(issue, issueDTO, existing);
+        issue = issueRepository.save(issue);
+        catalogService.onIssueSaved(issue);
+        return issue;
+    }
 
     /**
-     *  Get all the issues where Magazine is {@code null}.
-     *  @return the list of entities.
+     * Get all the issues.
+     *
+     * @return the list of entities.
      */
-    @Transactional(readOnly = true) 
-    public List<IssueDTO> findAllWhereMagazineIsNull() {
-        log.debug("Request to get all issues where Magazine is null");
-        return StreamSupport
-            .stream(issueRepository.findAll().spliterator(), false)
-            .filter(issue -> issue.getMagazine() == null)
+    @Transactional(readOnly = true)
+    public List<IssueDTO> findAll() {
+        log.debug("Request to get all Issues");
+        return issueRepository.findAllWithMagazine().stream()
             .map(issueMapper::toDto)
             .collect(Collectors.toCollection(LinkedList::new));
     }
@@ -97,8 +139,105 @@ public class IssueService {
             .map(issueMapper::toDto);
     }
 
+    /**
+     * Get the cover validators of one issue, without loading the cover bytes.
+     * <p>
+     * When a width is given, the narrowest resized variant at least that wide is picked instead of the original cover,
+     * if it has been derived already.
+     *
+     * @param id the id of the entity.
+     * @param width the display width of the cover, in pixels, or {@code null} for the original cover.
+     * @param webpAccepted whether the client accepts WebP images.
+     * @return the cover, or empty if the issue does not exist or has no cover.
+     */
+    public Optional<IssueCoverDTO> findCover(Long id, Integer width, boolean webpAccepted) {
+        log.debug("Request to get cover of Issue : {} at width {}", id, width);
+        Optional<IssueRepository.CoverMetadata> metadata = issueRepository.findCoverMetadataById(id);
+        if (metadata.isPresent() && metadata.get().getCoverHash() == null && issueCoverMigrationService.migrateCover(id).isPresent()) {
+            metadata = issueRepository.findCoverMetadataById(id);
+        }
+        return metadata
+            .filter(cover -> cover.getCoverHash() != null && cover.getCoverThumbnailContentType() != null)
+            .map(cover -> toCoverDTO(cover, width, webpAccepted));
+    }
+
+    private IssueCoverDTO toCoverDTO(IssueRepository.CoverMetadata cover, Integer width, boolean webpAccepted) {
+        return Optional.ofNullable(width)
+            .flatMap(requested -> coverDerivationService.findVariant(cover.getCoverHash(), requested, webpAccepted))
+            .map(variant -> new IssueCoverDTO(cover.getId(), variant.getBlobHash(), variant.getContentType(),
+                cover.getCoverLastModified(), cover.getCoverHash()))
+            .orElseGet(() -> new IssueCoverDTO(cover.getId(), cover.getCoverHash(), cover.getCoverThumbnailContentType(),
+                cover.getCoverLastModified()));
+    }
+
+    /**
+     * Get the cover bytes of one issue.
+     *
+     * @param cover the cover, as returned by {@link #findCover(Long, Integer, boolean)}.
+     * @return the cover bytes, or empty if they are missing from the blob store.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Resource> findCoverContent(IssueCoverDTO cover) {
+        log.debug("Request to get cover content of Issue : {}", cover.getIssueId());
+        return blobStore.get(cover.getHash());
+    }
+
+    /**
+     * Store the uploaded cover in the blob store and reference it from the entity.
+     * <p>
+     * Responses no longer carry the cover bytes, so an update that only sends back the content type keeps the stored cover.
+     * New covers get their resized variants derived in the background.
+     */
+    private void updateCover(Issue issue, IssueDTO issueDTO, Optional<IssueRepository.CoverMetadata> existing) {
+        byte[] cover = issueDTO.getCoverThumbnail();
+        if (cover != null) {
+            String hash = blobStore.put(cover);
+            issue.setCoverHash(hash);
+            issue.setCoverLastModified(existing
+                .filter(stored -> hash.equals(stored.getCoverHash()))
+                .map(IssueRepository.CoverMetadata::getCoverLastModified)
+                .orElseGet(Instant::now));
+            coverDerivationService.requestVariants(hash);
+        } else if (issueDTO.getCoverThumbnailContentType() != null && existing.isPresent()) {
+            issue.setCoverHash(existing.get().getCoverHash());
+            issue.setCoverLastModified(existing.get().getCoverLastModified());
+        }
+    }
+
+    /**
+     * Read the cover validators of a stored issue, before it is overwritten by a merge.
+     */
+    private static IssueRepository.CoverMetadata coverMetadata(Issue stored) {
+        String coverHash = stored.getCoverHash();
+        String coverThumbnailContentType = stored.getCoverThumbnailContentType();
+        Instant coverLastModified = stored.getCoverLastModified();
+        return new IssueRepository.CoverMetadata() {
+            @Override
+            public Long getId() {
+                return stored.getId();
+            }
+
+            @Override
+            public String getCoverHash() {
+                return coverHash;
+            }
+
+            @Override
+            public String getCoverThumbnailContentType() {
+                return coverThumbnailContentType;
+            }
+
+            @Override
+            public Instant getCoverLastModified() {
+                return coverLastModified;
+            }
+        };
+    }
+
     /**
      * Delete the issue by id.
+     * <p>
+     * The content files of the issue are deleted once the transaction commits, so that they are kept when it rolls back.
      *
      * @param id the id of the entity.
      */
@@ -107,6 +246,30 @@ public class IssueService {
 
         issueRepository.deleteById(id);
         issueSearchRepository.deleteById(id);
+        afterCommit(() -> deleteContent(id));
+        catalogService.onIssueDeleted(id);
+    }
+
+    private void deleteContent(Long id) {
+        try {
+            issueContentStore.delete(id);
+        } catch (BlobStoreException e) {
+            // The issue is deleted already, its files are only left behind
+            log.error("Could not delete the content of Issue {}", id, e);
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
     }
 
     /**
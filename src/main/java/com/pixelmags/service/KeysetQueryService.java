@@ -0,0 +1,378 @@
+package com.pixelmags.service;
+
+import io.github.jhipster.service.QueryService;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.ManyToOneType;
+import org.hibernate.type.Type;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.OneToOne;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Base service for executing complex queries for entities with a {@code Long} id in the database, one page at a time.
+ * <p>
+ * Pages use keyset pagination: a page starts after the last id of the previous one, so it is a range scan of the
+ * primary key index that costs the same wherever it is, unlike an {@code OFFSET}, and no {@code COUNT} is run.
+ * <p>
+ * When only some fields of the DTOs are requested, and they all map to columns of the entity table, only those columns
+ * are selected and the entities are built from them, detached, for the mapper.
+ *
+ * @param <ENTITY> the entity type.
+ */
+@Transactional(readOnly = true)
+public abstract class KeysetQueryService<ENTITY> extends QueryService<ENTITY> {
+
+    private static final String ID = "id";
+
+    /**
+     * Maximum number of projections kept per entity type, as a projection is compiled for each set of fields.
+     */
+    private static final int MAX_PROJECTIONS = 256;
+
+    private static final Projection<?> NO_PROJECTION = new Projection<>(null, Collections.emptyMap());
+
+    private final EntityManager entityManager;
+
+    private final Class<ENTITY> domainClass;
+
+    private final ConcurrentMap<Set<String>, Projection<ENTITY>> projections = new ConcurrentHashMap<>();
+
+    protected KeysetQueryService(EntityManager entityManager, Class<ENTITY> domainClass) {
+        this.entityManager = entityManager;
+        this.domainClass = domainClass;
+    }
+
+    /**
+     * Get a page of the entities matching a specification, in id order.
+     *
+     * @param specification the specification the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @return the list of entities.
+     */
+    protected List<ENTITY> findAllAfter(Specification<ENTITY> specification, Long after, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ENTITY> query = builder.createQuery(domainClass);
+        Root<ENTITY> root = query.from(domainClass);
+        where(specification, after, root, query, builder);
+        query.select(root).orderBy(builder.asc(root.get(ID)));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Get a page of the entities matching a specification, in id order, reading only the given DTO fields if they
+     * can be selected from the entity table.
+     *
+     * @param specification the specification the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @param fields the DTO fields to read, or {@code null} for all of them.
+     * @return the list of entities, detached and with only the given fields if they could be selected alone.
+     */
+    protected List<ENTITY> findAllAfter(Specification<ENTITY> specification, Long after, int limit, Set<String> fields) {
+        Optional<Projection<ENTITY>> projection = projection(fields);
+        if (!projection.isPresent()) {
+            return findAllAfter(specification, after, limit);
+        }
+        return select(specification, after, limit, projection.get());
+    }
+
+    /**
+     * Get the entities with some ids, taking them from the persistence context or the second-level cache when they are
+     * there, and reading the others with a single query.
+     * <p>
+     * Entities taken from the second-level cache are built from the cache entry alone, so they are detached and lack
+     * their to-many relationships and the inverse side of their one-to-one relationships, which the DTOs do not hold.
+     *
+     * @param specification the specification the other entities are read with, for its fetches.
+     * @param ids the ids.
+     * @return the entities found, by id.
+     */
+    protected Map<Long, ENTITY> findAllById(Specification<ENTITY> specification, Collection<Long> ids) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(domainClass);
+        Map<Long, ENTITY> entities = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            ENTITY entity = managed != null ? domainClass.cast(managed) : fromSecondLevelCache(session, persister, id);
+            if (entity != null) {
+                entities.put(id, entity);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return entities;
+        }
+        // A single collection parameter, padded by Hibernate so that few statements are prepared
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ENTITY> query = builder.createQuery(domainClass);
+        Root<ENTITY> root = query.from(domainClass);
+        ParameterExpression<Collection> idsParameter = builder.parameter(Collection.class);
+        Predicate predicate = root.get(ID).in(idsParameter);
+        Predicate specificationPredicate = specification.toPredicate(root, query, builder);
+        query.select(root).where(specificationPredicate == null ? predicate : builder.and(specificationPredicate, predicate));
+        for (ENTITY entity : entityManager.createQuery(query).setParameter(idsParameter, misses).getResultList()) {
+            entities.put((Long) persister.getIdentifier(entity, session), entity);
+        }
+        return entities;
+    }
+
+    private ENTITY fromSecondLevelCache(SharedSessionContractImplementor session, EntityPersister persister, Long id) {
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        if (cacheAccess == null || !session.getCacheMode().isGetEnabled()) {
+            return null;
+        }
+        Object cacheKey = cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+        Object cached = cacheAccess.get(session, cacheKey);
+        if (cached == null) {
+            return null;
+        }
+        CacheEntry cacheEntry = (CacheEntry) persister.getCacheEntryStructure().destructure(cached, session.getFactory());
+        if (!persister.getEntityName().equals(cacheEntry.getSubclass())) {
+            return null;
+        }
+        ENTITY entity = domainClass.cast(persister.instantiate(id, session));
+        Serializable[] state = cacheEntry.getDisassembledState();
+        Type[] types = persister.getPropertyTypes();
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] instanceof ManyToOneType) {
+                // The foreign key is cached as the target id, read back as an uninitialized reference
+                values[i] = state[i] == null ? null : entityManager.getReference(types[i].getReturnedClass(), state[i]);
+            } else if (!types[i].isAssociationType()) {
+                values[i] = types[i].assemble(state[i], session, entity);
+            }
+        }
+        persister.setPropertyValues(entity, values);
+        return entity;
+    }
+
+    /**
+     * Get the entity attributes a DTO field is read from. By default, a field is read from the attribute of the same
+     * name, or from the id of the to-one relationship {@code x} for a field {@code xId}.
+     *
+     * @param field the name of the DTO field.
+     * @return the names of the attributes.
+     */
+    protected Set<String> attributesOf(String field) {
+        return Collections.singleton(field);
+    }
+
+    private List<ENTITY> select(Specification<ENTITY> specification, Long after, int limit, Projection<ENTITY> projection) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<ENTITY> root = query.from(domainClass);
+        where(specification, after, root, query, builder);
+        List<Selection<?>> selections = new ArrayList<>(projection.columns.size());
+        for (String attribute : projection.columns.keySet()) {
+            Path<?> path = root;
+            for (String name : attribute.split("\\.")) {
+                path = path.get(name);
+            }
+            selections.add(path);
+        }
+        query.multiselect(selections).orderBy(builder.asc(root.get(ID)));
+        List<Tuple> tuples = entityManager.createQuery(query).setMaxResults(limit).getResultList();
+        List<ENTITY> entities = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            entities.add(projection.newEntity(tuple));
+        }
+        return entities;
+    }
+
+    private void where(Specification<ENTITY> specification, Long after, Root<ENTITY> root, CriteriaQuery<?> query,
+                       CriteriaBuilder builder) {
+        Path<Long> id = root.get(ID);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (after != null) {
+            predicate = predicate == null ? builder.greaterThan(id, after) : builder.and(predicate, builder.greaterThan(id, after));
+        }
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Projection<ENTITY>> projection(Set<String> fields) {
+        if (fields == null) {
+            return Optional.empty();
+        }
+        Projection<ENTITY> projection = projections.get(fields);
+        if (projection == null) {
+            projection = compile(fields).orElse((Projection<ENTITY>) NO_PROJECTION);
+            if (projections.size() < MAX_PROJECTIONS) {
+                projections.putIfAbsent(fields, projection);
+            }
+        }
+        return projection == NO_PROJECTION ? Optional.empty() : Optional.of(projection);
+    }
+
+    /**
+     * Compile the projection reading some DTO fields, resolving the columns and their setters once.
+     */
+    private Optional<Projection<ENTITY>> compile(Set<String> fields) {
+        EntityType<ENTITY> entityType = entityManager.getMetamodel().entity(domainClass);
+        try {
+            Map<String, Column> columns = new LinkedHashMap<>();
+            columns.put(ID, new Column(setter(entityType.getId(Long.class)), null, null));
+            for (String field : fields) {
+                for (String attribute : attributesOf(field)) {
+                    if (columns.containsKey(attribute)) {
+                        continue;
+                    }
+                    Attribute<? super ENTITY, ?> basic = find(entityType, attribute);
+                    if (basic != null && basic.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                        columns.put(attribute, new Column(setter(basic), null, null));
+                        continue;
+                    }
+                    Attribute<? super ENTITY, ?> relationship = attribute.endsWith("Id")
+                        ? find(entityType, attribute.substring(0, attribute.length() - 2)) : null;
+                    if (relationship == null || !isOwningToOne(relationship)) {
+                        return Optional.empty();
+                    }
+                    // The foreign key column is read, and set as the id of a detached reference
+                    EntityType<?> targetType = entityManager.getMetamodel().entity(relationship.getJavaType());
+                    columns.put(relationship.getName() + "." + ID, new Column(setter(relationship),
+                        constructor(relationship.getJavaType()), setter(targetType.getId(Long.class))));
+                }
+            }
+            return Optional.of(new Projection<>(constructor(domainClass), columns));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static <X> Attribute<? super X, ?> find(EntityType<X> entityType, String name) {
+        return entityType.getAttributes().stream().filter(attribute -> attribute.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    private static boolean isOwningToOne(Attribute<?, ?> attribute) {
+        switch (attribute.getPersistentAttributeType()) {
+            case MANY_TO_ONE:
+                return true;
+            case ONE_TO_ONE:
+                Member member = attribute.getJavaMember();
+                OneToOne oneToOne = member instanceof Field ? ((Field) member).getAnnotation(OneToOne.class) : null;
+                return oneToOne != null && oneToOne.mappedBy().isEmpty();
+            default:
+                return false;
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> type) throws ReflectiveOperationException {
+        return MethodHandles.lookup().unreflectConstructor(type.getConstructor());
+    }
+
+    private static MethodHandle setter(Attribute<?, ?> attribute) throws ReflectiveOperationException {
+        if (!(attribute.getJavaMember() instanceof Field)) {
+            throw new NoSuchFieldException(attribute.getName());
+        }
+        Field field = (Field) attribute.getJavaMember();
+        field.setAccessible(true);
+        return MethodHandles.lookup().unreflectSetter(field);
+    }
+
+    /**
+     * Specification removing the duplicates caused by a filter on a to-many relationship.
+     *
+     * @param <ENTITY> the entity type.
+     * @return the specification, which matches every entity.
+     */
+    protected static <ENTITY> Specification<ENTITY> distinct() {
+        return (root, query, builder) -> {
+            query.distinct(true);
+            return null;
+        };
+    }
+
+    /**
+     * A selected column, with the setter of the entity attribute it is read into.
+     */
+    private static final class Column {
+
+        private final MethodHandle setter;
+
+        private final MethodHandle referenceConstructor;
+
+        private final MethodHandle referenceIdSetter;
+
+        private Column(MethodHandle setter, MethodHandle referenceConstructor, MethodHandle referenceIdSetter) {
+            this.setter = setter;
+            this.referenceConstructor = referenceConstructor;
+            this.referenceIdSetter = referenceIdSetter;
+        }
+
+        private void set(Object entity, Object value) throws Throwable {
+            if (referenceConstructor == null) {
+                setter.invoke(entity, value);
+            } else if (value != null) {
+                Object reference = referenceConstructor.invoke();
+                referenceIdSetter.invoke(reference, value);
+                setter.invoke(entity, reference);
+            }
+        }
+    }
+
+    /**
+     * The columns read for a set of DTO fields, by path from the entity.
+     */
+    private static final class Projection<ENTITY> {
+
+        private final MethodHandle constructor;
+
+        private final Map<String, Column> columns;
+
+        private Projection(MethodHandle constructor, Map<String, Column> columns) {
+            this.constructor = constructor;
+            this.columns = columns;
+        }
+
+        @SuppressWarnings("unchecked")
+        private ENTITY newEntity(Tuple tuple) {
+            try {
+                ENTITY entity = (ENTITY) constructor.invoke();
+                int index = 0;
+                for (Column column : columns.values()) {
+                    column.set(entity, tuple.get(index++));
+                }
+                return entity;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Could not build a projected entity", e);
+            }
+        }
+    }
+}
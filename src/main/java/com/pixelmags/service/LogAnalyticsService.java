@@ -0,0 +1,208 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.service.dto.LogAnalyticsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Service counting {@link Log}s per event and per day, week or month.
+ * <p>
+ * Logs are counted per day and event in SQL, so that only one row per day and event is read whatever the number of
+ * logs, and the days are then added up into their weeks or months. Logs without an event are not counted. Ranges
+ * spanning several months are split into calendar months, matching the monthly partitions of the {@code log} table on
+ * PostgreSQL, which are counted in parallel on a dedicated {@link ForkJoinPool} and merged. Each month is read in its
+ * own read-only transaction, so the counts of a range are not read from a single snapshot.
+ */
+@Service
+public class LogAnalyticsService {
+
+    private static final String SELECT_COUNTS =
+        "select date, evento, count(*) from log where date between ? and ? and evento is not null group by date, evento";
+
+    private static final String SELECT_EVENT_COUNTS =
+        "select date, evento, count(*) from log where date between ? and ? and evento = ? group by date, evento";
+
+    private static final Event[] EVENTS = Event.values();
+
+    private final Logger log = LoggerFactory.getLogger(LogAnalyticsService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ForkJoinPool pool;
+
+    public LogAnalyticsService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.pool = new ForkJoinPool(Math.max(1, applicationProperties.getLogAnalytics().getParallelism()),
+            forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("log-analytics-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+    }
+
+    /**
+     * The periods logs are counted over.
+     */
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        /**
+         * Get the first day of the period of a day, weeks starting on Mondays.
+         *
+         * @param day the day.
+         * @return the first day of its period.
+         */
+        public LocalDate periodOf(LocalDate day) {
+            switch (this) {
+                case WEEK:
+                    return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH:
+                    return day.withDayOfMonth(1);
+                default:
+                    return day;
+            }
+        }
+    }
+
+    /**
+     * Count the logs of a range of days per event and period.
+     *
+     * @param from the first day, included.
+     * @param to the last day, included.
+     * @param granularity the period logs are counted over.
+     * @param evento the event to count, or null for all of them.
+     * @return the counts of the periods with logs, by period and event, periods being given by their first day.
+     */
+    public List<LogAnalyticsDTO> countByPeriod(LocalDate from, LocalDate to, Granularity granularity, Event evento) {
+        log.debug("Request to count the Logs from {} to {} by {}", from, to, granularity);
+        return count(splitByMonth(from, to), granularity, evento);
+    }
+
+    /**
+     * Count the logs of ranges of days per event and period, in parallel when there are several ranges.
+     *
+     * @param ranges the ranges of days, as pairs of first and last days.
+     * @param granularity the period logs are counted over.
+     * @param evento the event to count, or null for all of them.
+     * @return the counts of the periods with logs, by period and event.
+     */
+    List<LogAnalyticsDTO> count(List<LocalDate[]> ranges, Granularity granularity, Event evento) {
+        if (ranges.isEmpty()) {
+            return new ArrayList<>();
+        }
+        CountTask task = new CountTask(ranges, granularity, evento);
+        Map<LocalDate, long[]> counts = ranges.size() == 1 ? task.compute() : pool.invoke(task);
+        List<LogAnalyticsDTO> result = new ArrayList<>();
+        counts.forEach((period, totals) -> {
+            for (Event event : EVENTS) {
+                if (totals[event.ordinal()] > 0) {
+                    result.add(new LogAnalyticsDTO(period, event, totals[event.ordinal()]));
+                }
+            }
+        });
+        return result;
+    }
+
+    static List<LocalDate[]> splitByMonth(LocalDate from, LocalDate to) {
+        List<LocalDate[]> ranges = new ArrayList<>();
+        LocalDate start = from;
+        while (!start.isAfter(to)) {
+            LocalDate end = start.with(TemporalAdjusters.lastDayOfMonth());
+            if (end.isAfter(to)) {
+                end = to;
+            }
+            ranges.add(new LocalDate[]{start, end});
+            start = end.plusDays(1);
+        }
+        return ranges;
+    }
+
+    private Map<LocalDate, long[]> countRange(LocalDate from, LocalDate to, Granularity granularity, Event evento) {
+        Map<LocalDate, long[]> counts = new TreeMap<>();
+        RowCallbackHandler handler = rs -> counts.computeIfAbsent(granularity.periodOf(rs.getDate(1).toLocalDate()),
+            period -> new long[EVENTS.length])[Event.valueOf(rs.getString(2)).ordinal()] += rs.getLong(3);
+        transactionTemplate.execute(status -> {
+            if (evento == null) {
+                jdbcTemplate.query(SELECT_COUNTS, handler, Date.valueOf(from), Date.valueOf(to));
+            } else {
+                jdbcTemplate.query(SELECT_EVENT_COUNTS, handler, Date.valueOf(from), Date.valueOf(to), evento.name());
+            }
+            return null;
+        });
+        return counts;
+    }
+
+    /**
+     * Stop the threads of the pool when the application stops.
+     */
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Task counting ranges of days, splitting them in halves counted in parallel until one range is left.
+     */
+    private final class CountTask extends RecursiveTask<Map<LocalDate, long[]>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<LocalDate[]> ranges;
+
+        private final Granularity granularity;
+
+        private final Event evento;
+
+        private CountTask(List<LocalDate[]> ranges, Granularity granularity, Event evento) {
+            this.ranges = ranges;
+            this.granularity = granularity;
+            this.evento = evento;
+        }
+
+        @Override
+        protected Map<LocalDate, long[]> compute() {
+            if (ranges.size() == 1) {
+                return countRange(ranges.get(0)[0], ranges.get(0)[1], granularity, evento);
+            }
+            int middle = ranges.size() / 2;
+            CountTask first = new CountTask(ranges.subList(0, middle), granularity, evento);
+            CountTask second = new CountTask(ranges.subList(middle, ranges.size()), granularity, evento);
+            first.fork();
+            Map<LocalDate, long[]> counts = second.compute();
+            // A week can span two months, so periods are merged by adding up their counts
+            first.join().forEach((period, totals) -> counts.merge(period, totals, (merged, added) -> {
+                for (int i = 0; i < merged.length; i++) {
+                    merged[i] += added[i];
+                }
+                return merged;
+            }));
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.pixelmags.service;
+
+import com.pixelmags.domain.Log;
+import com.pixelmags.repository.search.LogSearchRepository;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Date;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service storing batches of new {@link Log}s over JDBC, bypassing the persistence context.
+ * <p>
+ * Ids are taken from the pooled sequence generator of the entity, as Hibernate would, and rows are inserted with
+ * multi-row statements of {@value #ROWS_PER_STATEMENT} rows, sent together as a JDBC batch. Stored logs are counted by
+ * the {@link LogRollupService} and the {@link UniqueReaderService} once their transaction commits.
+ */
+@Service
+public class LogBatchWriter {
+
+    private static final int ROWS_PER_STATEMENT = 100;
+
+    private static final int COLUMNS = 6;
+
+    private static final String INSERT_LOGS = insertStatement(ROWS_PER_STATEMENT);
+
+    private final Logger log = LoggerFactory.getLogger(LogBatchWriter.class);
+
+    private final LogSearchRepository logSearchRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager entityManager;
+
+    private final IdentifierGenerator idGenerator;
+
+    private final EntityVersionService entityVersionService;
+
+    private final LogRollupService logRollupService;
+
+    private final UniqueReaderService uniqueReaderService;
+
+    private final TrendingService trendingService;
+
+    public LogBatchWriter(LogSearchRepository logSearchRepository, JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager, EntityManager entityManager,
+                          EntityManagerFactory entityManagerFactory, EntityVersionService entityVersionService,
+                          LogRollupService logRollupService, UniqueReaderService uniqueReaderService,
+                          TrendingService trendingService) {
+        this.logSearchRepository = logSearchRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.idGenerator = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMetamodel()
+            .entityPersister(Log.class).getIdentifierGenerator();
+        this.entityVersionService = entityVersionService;
+        this.logRollupService = logRollupService;
+        this.uniqueReaderService = uniqueReaderService;
+        this.trendingService = trendingService;
+    }
+
+    /**
+     * Store new logs in one transaction, setting their ids.
+     *
+     * @param logs the logs, without ids.
+     */
+    public void store(List<Log> logs) {
+        transactionTemplate.execute(status -> {
+            insert(logs);
+            return null;
+        });
+    }
+
+    /**
+     * Index stored logs with one Elasticsearch bulk request.
+     * <p>
+     * The database stays the reference, so a failure is only logged.
+     *
+     * @param logs the logs, with their ids.
+     */
+    public void index(List<Log> logs) {
+        try {
+            logSearchRepository.saveAll(logs);
+        } catch (RuntimeException e) {
+            log.error("Could not index a batch of {} Logs", logs.size(), e);
+        }
+    }
+
+    private void insert(List<Log> logs) {
+        log.debug("Storing a batch of {} Logs", logs.size());
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        for (Log logEntry : logs) {
+            logEntry.setId((Long) idGenerator.generate(session, logEntry));
+        }
+        int remainder = logs.size() % ROWS_PER_STATEMENT;
+        int full = logs.size() - remainder;
+        List<Object[]> statements = new ArrayList<>();
+        for (int from = 0; from < full; from += ROWS_PER_STATEMENT) {
+            statements.add(parameters(logs.subList(from, from + ROWS_PER_STATEMENT)));
+        }
+        if (!statements.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_LOGS, statements, parameterTypes(ROWS_PER_STATEMENT));
+        }
+        if (remainder > 0) {
+            jdbcTemplate.update(insertStatement(remainder), parameters(logs.subList(full, logs.size())), parameterTypes(remainder));
+        }
+        entityVersionService.touchInserted(Log.class);
+        logRollupService.onLogsSaved(logs);
+        uniqueReaderService.onLogsSaved(logs);
+        trendingService.onLogsSaved(logs);
+    }
+
+    private static String insertStatement(int rows) {
+        StringBuilder sql = new StringBuilder("insert into log (id, date, evento, customer_id, event_id, issue_id) values (?, ?, ?, ?, ?, ?)");
+        for (int i = 1; i < rows; i++) {
+            sql.append(", (?, ?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private static Object[] parameters(List<Log> logs) {
+        Object[] parameters = new Object[logs.size() * COLUMNS];
+        int i = 0;
+        for (Log logEntry : logs) {
+            parameters[i++] = logEntry.getId();
+            parameters[i++] = logEntry.getDate() == null ? null : Date.valueOf(logEntry.getDate());
+            parameters[i++] = logEntry.getEvento() == null ? null : logEntry.getEvento().name();
+            parameters[i++] = logEntry.getCustomerId();
+            parameters[i++] = logEntry.getEventId();
+            parameters[i++] = logEntry.getIssue() == null ? null : logEntry.getIssue().getId();
+        }
+        return parameters;
+    }
+
+    private static int[] parameterTypes(int rows) {
+        int[] types = new int[rows * COLUMNS];
+        for (int i = 0; i < types.length; i += COLUMNS) {
+            types[i] = Types.BIGINT;
+            types[i + 1] = Types.DATE;
+            types[i + 2] = Types.VARCHAR;
+            types[i + 3] = Types.BIGINT;
+            types[i + 4] = Types.VARCHAR;
+            types[i + 5] = Types.BIGINT;
+        }
+        return types;
+    }
+}
@@ -0,0 +1,208 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Log;
+import com.pixelmags.service.sketch.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Service dropping {@link Log}s sent again by clients, such as apps retrying over flaky networks, by the id the client
+ * gave to their event.
+ * <p>
+ * Received event ids are added to rotating Bloom filters, each covering a slice of the configured window: the filters
+ * are all checked, ids are added to the current one, and the oldest one is cleared to become the current one at the
+ * end of each slice. Ids are then remembered for between {@code slices - 1} and {@code slices} slices, in a fixed
+ * amount of memory whatever the traffic. A possible duplicate is confirmed against the stored logs when the exact
+ * check is enabled, so that a false positive of the filters does not drop a unique log; logs still queued for writing
+ * are not seen by that check. Ids are only added once their log was accepted, so that a log rejected for another
+ * reason can be sent again, and concurrent copies of the same event may both be accepted. The filters are empty after
+ * a restart.
+ */
+@Service
+public class LogDeduplicationService {
+
+    /**
+     * Maximum length of the id a client gives to the event of a log.
+     */
+    public static final int MAX_EVENT_ID_LENGTH = 64;
+
+    private static final String COUNT_EVENT = "select count(*) from log where event_id = ?";
+
+    private final Logger log = LoggerFactory.getLogger(LogDeduplicationService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final boolean exactCheck;
+
+    private final long sliceMillis;
+
+    private final BloomFilter[] filters;
+
+    private final Counter uniqueCounter;
+
+    private final Counter duplicateCounter;
+
+    private final Counter falsePositiveCounter;
+
+    // The fields below are only changed while holding the lock of this service
+
+    // Also read without the lock by the fill ratio gauge
+    private volatile int current;
+
+    private long sliceIndex = -1;
+
+    public LogDeduplicationService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.LogDeduplication properties = applicationProperties.getLogDeduplication();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = properties.isEnabled();
+        this.exactCheck = properties.isExactCheck();
+        int slices = Math.max(2, properties.getSlices());
+        this.sliceMillis = Math.max(1, properties.getWindow().toMillis() / slices);
+        this.filters = new BloomFilter[enabled ? slices : 0];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = new BloomFilter(properties.getExpectedEvents(), properties.getFalsePositiveRate());
+        }
+        if (enabled) {
+            log.info("Deduplicating logs with {} Bloom filters of {} KiB and {} hashes", slices,
+                filters[0].getBitCount() / 8 / 1024, filters[0].getHashCount());
+        }
+        this.uniqueCounter = checkCounter(meterRegistry, "unique");
+        this.duplicateCounter = checkCounter(meterRegistry, "duplicate");
+        this.falsePositiveCounter = checkCounter(meterRegistry, "false-positive");
+        Gauge.builder("log.deduplication.hit.ratio", this, LogDeduplicationService::getHitRatio)
+            .description("Share of checked logs found to be duplicates")
+            .register(meterRegistry);
+        Gauge.builder("log.deduplication.fill.ratio", this, LogDeduplicationService::getFillRatio)
+            .description("Share of set bits in the current Bloom filter")
+            .register(meterRegistry);
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("log.deduplication.checks")
+            .description("Number of logs checked for duplicates, by outcome")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Check whether the event of a new log was already received.
+     *
+     * @param eventId the id the client gave to the event, or null.
+     * @return true if the log is a duplicate and should be dropped.
+     */
+    public boolean isDuplicate(String eventId) {
+        return isDuplicate(eventId, Collections.emptySet(), Instant.now());
+    }
+
+    /**
+     * Check whether the event of a new log was already received, or is among events accepted but not recorded yet.
+     *
+     * @param eventId the id the client gave to the event, or null.
+     * @param pending the ids of the events accepted by the caller but not recorded yet.
+     * @return true if the log is a duplicate and should be dropped.
+     */
+    public boolean isDuplicate(String eventId, Set<String> pending) {
+        return isDuplicate(eventId, pending, Instant.now());
+    }
+
+    boolean isDuplicate(String eventId, Set<String> pending, Instant now) {
+        if (!enabled || eventId == null) {
+            return false;
+        }
+        if (pending.contains(eventId)) {
+            duplicateCounter.increment();
+            return true;
+        }
+        if (!mightContain(eventId, now)) {
+            uniqueCounter.increment();
+            return false;
+        }
+        if (exactCheck && transactionTemplate.execute(status ->
+            jdbcTemplate.queryForObject(COUNT_EVENT, Long.class, eventId)) == 0) {
+            log.debug("False positive for event {}", eventId);
+            falsePositiveCounter.increment();
+            return false;
+        }
+        duplicateCounter.increment();
+        return true;
+    }
+
+    private synchronized boolean mightContain(String eventId, Instant now) {
+        rotate(now);
+        for (BloomFilter filter : filters) {
+            if (filter.mightContain(eventId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remember the events of accepted logs.
+     *
+     * @param eventIds the ids of the events of the accepted logs, null ids being ignored.
+     */
+    public void record(Collection<String> eventIds) {
+        record(eventIds, Instant.now());
+    }
+
+    synchronized void record(Collection<String> eventIds, Instant now) {
+        if (!enabled) {
+            return;
+        }
+        rotate(now);
+        for (String eventId : eventIds) {
+            if (eventId != null) {
+                filters[current].put(eventId);
+            }
+        }
+    }
+
+    private void rotate(Instant now) {
+        long index = now.toEpochMilli() / sliceMillis;
+        if (sliceIndex < 0) {
+            sliceIndex = index;
+            return;
+        }
+        // Clearing every filter at most once after a long pause
+        for (int i = 0; sliceIndex < index && i < filters.length; i++, sliceIndex++) {
+            current = (current + 1) % filters.length;
+            filters[current].clear();
+        }
+        sliceIndex = Math.max(sliceIndex, index);
+    }
+
+    private double getHitRatio() {
+        double duplicates = duplicateCounter.count();
+        double checks = duplicates + uniqueCounter.count() + falsePositiveCounter.count();
+        return checks == 0 ? 0 : duplicates / checks;
+    }
+
+    private double getFillRatio() {
+        return enabled ? filters[current].getFillRatio() : 0;
+    }
+}
@@ -0,0 +1,419 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Log;
+import com.pixelmags.service.dto.LogDTO;
+import com.pixelmags.service.ingest.LogRecordCodec;
+import com.pixelmags.service.ingest.RingBuffer;
+import com.pixelmags.service.ingest.SegmentLog;
+import com.pixelmags.service.mapper.LogMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionSystemException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Service queuing the created {@link Log}s in memory, for a background writer to store and index them in batches.
+ * <p>
+ * Request threads only add logs to a bounded {@link RingBuffer}, and get told when it is full so that clients can back
+ * off. A single writer thread drains the buffer, waiting up to the configured delay for a batch to fill, then stores
+ * the batch in one transaction through the {@link LogBatchWriter} and indexes it with one Elasticsearch bulk request.
+ * <p>
+ * A batch whose transaction fails for a transient reason, such as a lost connection or a timeout, is kept and written
+ * again, after a delay doubling with each failure up to {@value #MAX_RETRY_DELAY_SECONDS} seconds, and no other log is
+ * taken out of the queue meanwhile: the queue fills up during a database outage, and further logs get rejected until
+ * it is over. A batch failing for any other reason, such as a log of an issue deleted since it was checked, is stored
+ * again one log at a time, and the logs which still cannot be stored are dropped and counted, so that one bad log
+ * never blocks the queue nor the replay of the journal.
+ * <p>
+ * When a journal directory is configured, queued logs are first appended to a memory-mapped {@link SegmentLog}, and
+ * the writer saves its checkpoint in the journal after each stored batch. On startup, the logs journaled after the
+ * checkpoint are written before new logs get queued, so that logs are written at least once across a crash of this
+ * instance: the ones of the last batch before the crash may be written twice. Without a journal, the logs queued when
+ * this instance stops abruptly, or which cannot be stored when it stops, are lost.
+ */
+@Service
+public class LogIngestionService {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+    private static final long MIN_RETRY_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long MAX_RETRY_DELAY_SECONDS = 30;
+
+    private final Logger log = LoggerFactory.getLogger(LogIngestionService.class);
+
+    private final LogMapper logMapper;
+
+    private final LogBatchWriter logBatchWriter;
+
+    private final ApplicationProperties.LogIngestion properties;
+
+    private final RingBuffer<QueuedLog> buffer;
+
+    /**
+     * Batch being written, only used by the writer thread, or by the thread flushing the queue once it is stopped.
+     * A batch which could not be stored is kept here until it is.
+     */
+    private final List<QueuedLog> batch = new ArrayList<>();
+
+    /**
+     * Lock of the producers, held while appending a log to the journal and queuing it.
+     */
+    private final Object journalLock = new Object();
+
+    private final Counter acceptedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter writtenCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter droppedCounter;
+
+    private final Counter replayedCounter;
+
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+
+    private SegmentLog<Log> journal;
+
+    private Thread writer;
+
+    public LogIngestionService(LogMapper logMapper, LogBatchWriter logBatchWriter, ApplicationProperties applicationProperties,
+                               MeterRegistry meterRegistry) {
+        this.logMapper = logMapper;
+        this.logBatchWriter = logBatchWriter;
+        this.properties = applicationProperties.getLogIngestion();
+        this.buffer = new RingBuffer<>(properties.getCapacity());
+        Gauge.builder("log.ingestion.queue.depth", buffer, RingBuffer::size)
+            .description("Number of logs waiting to be written")
+            .register(meterRegistry);
+        Gauge.builder("log.ingestion.queue.capacity", buffer, RingBuffer::capacity)
+            .description("Maximum number of logs waiting to be written")
+            .register(meterRegistry);
+        this.acceptedCounter = eventCounter(meterRegistry, "accepted");
+        this.rejectedCounter = eventCounter(meterRegistry, "rejected");
+        this.writtenCounter = eventCounter(meterRegistry, "written");
+        this.failedCounter = eventCounter(meterRegistry, "failed");
+        this.droppedCounter = eventCounter(meterRegistry, "dropped");
+        this.replayedCounter = eventCounter(meterRegistry, "replayed");
+        this.flushTimer = Timer.builder("log.ingestion.flush")
+            .description("Time taken to store and index a batch of logs")
+            .register(meterRegistry);
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("log.ingestion.events")
+            .description("Number of logs submitted for ingestion, by outcome")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (properties.getJournalDir() != null) {
+            journal = new SegmentLog<>(Paths.get(properties.getJournalDir()),
+                Math.toIntExact(properties.getJournalSegmentSize().toBytes()), new LogRecordCodec());
+            replay();
+        }
+        running = true;
+        writer = new Thread(this::run, "log-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the writer thread, then write the logs still queued.
+     */
+    @PreDestroy
+    public void stop() {
+        if (writer != null) {
+            running = false;
+            LockSupport.unpark(writer);
+            try {
+                writer.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        flush();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Write the logs journaled after the last checkpoint, one batch per transaction, before any log is queued.
+     * <p>
+     * A transient failure stops the startup, and the logs are kept in the journal. Logs which cannot be stored for
+     * another reason are dropped.
+     *
+     * @throws IOException if the journal cannot be read.
+     */
+    private void replay() throws IOException {
+        long replayed = journal.replay((logEntry, position) -> {
+            batch.add(new QueuedLog(logEntry, position));
+            if (batch.size() == properties.getBatchSize()) {
+                writeReplayed();
+            }
+        });
+        if (!batch.isEmpty()) {
+            writeReplayed();
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} journaled Logs", replayed);
+        }
+    }
+
+    private void writeReplayed() {
+        int size = batch.size();
+        write();
+        if (!batch.isEmpty()) {
+            throw new IllegalStateException("Could not replay the journaled Logs, they are kept in the journal");
+        }
+        replayedCounter.increment(size);
+    }
+
+    /**
+     * Whether created logs should be submitted to this service, instead of being saved right away.
+     *
+     * @return true if the writer thread is enabled.
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Queue a log for the writer thread.
+     *
+     * @param logDTO the log to create.
+     * @return true if the log was queued, false if the queue is full.
+     */
+    public boolean submit(LogDTO logDTO) {
+        Log logEntry = logMapper.toEntity(logDTO);
+        boolean queued = journal == null ? buffer.offer(new QueuedLog(logEntry, 0L)) : journalAndOffer(logEntry);
+        if (queued) {
+            acceptedCounter.increment();
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    /**
+     * Append a log to the journal, then queue it.
+     * <p>
+     * The log is encoded before taking the lock of the producers, which is only held to copy it to the journal and
+     * queue it, so that logs are queued in the order of the journal, and a log is only journaled when there is room
+     * for it in the queue.
+     */
+    private boolean journalAndOffer(Log logEntry) {
+        ByteBuffer frame = journal.frame(logEntry);
+        synchronized (journalLock) {
+            if (buffer.size() >= buffer.capacity()) {
+                return false;
+            }
+            QueuedLog queued;
+            try {
+                queued = new QueuedLog(logEntry, journal.append(frame));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Fails only while a log is being taken out, whose slot frees up right away
+            while (!buffer.offer(queued)) {
+                Thread.yield();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write all the queued logs from the calling thread, one batch per transaction, while the writer thread is stopped.
+     * <p>
+     * Flushing stops at the first batch which cannot be stored for a transient reason, which is kept for the next
+     * flush.
+     *
+     * @return the number of written logs.
+     */
+    public int flush() {
+        int total = 0;
+        while (!batch.isEmpty() || buffer.drainTo(batch, properties.getBatchSize()) > 0) {
+            total += write();
+            if (!batch.isEmpty()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private void run() {
+        int batchSize = properties.getBatchSize();
+        long maxDelayNanos = properties.getMaxDelay().toNanos();
+        long firstQueuedAt = 0L;
+        int failures = 0;
+        long retryAt = 0L;
+        while (running) {
+            if (failures > 0) {
+                long delay = retryAt - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(this, delay);
+                    continue;
+                }
+            } else {
+                int drained = buffer.drainTo(batch, batchSize - batch.size());
+                if (drained > 0 && drained == batch.size()) {
+                    firstQueuedAt = System.nanoTime();
+                }
+                if (batch.size() < batchSize && (batch.isEmpty() || System.nanoTime() - firstQueuedAt < maxDelayNanos)) {
+                    if (drained == 0) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    continue;
+                }
+            }
+            write();
+            if (batch.isEmpty()) {
+                failures = 0;
+            } else {
+                retryAt = System.nanoTime() + retryDelayNanos(failures++);
+            }
+        }
+    }
+
+    private static long retryDelayNanos(int failures) {
+        return Math.min(MIN_RETRY_DELAY_NANOS << Math.min(failures, 16), TimeUnit.SECONDS.toNanos(MAX_RETRY_DELAY_SECONDS));
+    }
+
+    /**
+     * Store the current batch, one log at a time if it fails for a reason other than a transient one, then checkpoint
+     * the journal and index the stored logs.
+     * <p>
+     * The logs which were stored or dropped are removed from the batch, and the ones left are to be written again.
+     *
+     * @return the number of stored logs.
+     */
+    private int write() {
+        List<Log> logs = logs(batch);
+        long start = System.nanoTime();
+        try {
+            logBatchWriter.store(logs);
+            complete(batch.size(), logs);
+            return logs.size();
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                log.error("Could not store a batch of {} Logs, it will be written again", logs.size(), e);
+                failedCounter.increment(logs.size());
+                return 0;
+            }
+            log.warn("Could not store a batch of {} Logs, storing them one at a time", logs.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return writeEach();
+    }
+
+    private int writeEach() {
+        List<Log> stored = new ArrayList<>();
+        int count = 0;
+        for (QueuedLog queued : batch) {
+            try {
+                logBatchWriter.store(Collections.singletonList(queued.log));
+                stored.add(queued.log);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.error("Could not store {} Logs, they will be written again", batch.size() - count, e);
+                    failedCounter.increment(batch.size() - count);
+                    break;
+                }
+                log.error("Dropped a Log which cannot be stored: {}", queued.log, e);
+                droppedCounter.increment();
+            }
+            count++;
+        }
+        if (count > 0) {
+            complete(count, stored);
+        }
+        return stored.size();
+    }
+
+    /**
+     * Remove the first logs of the batch, which were stored or dropped, checkpointing the journal past them, then
+     * index the stored ones.
+     */
+    private void complete(int count, List<Log> stored) {
+        writtenCounter.increment(stored.size());
+        if (journal != null) {
+            try {
+                journal.checkpoint(batch.get(count - 1).position);
+            } catch (IOException e) {
+                // The logs will be written again on startup
+                log.error("Could not save the checkpoint of the Log journal", e);
+            }
+        }
+        batch.subList(0, count).clear();
+        if (!stored.isEmpty()) {
+            logBatchWriter.index(stored);
+        }
+    }
+
+    /**
+     * Tell whether a failure to store logs may not happen again, such as a lost connection or a timeout.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+            || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException
+            || e instanceof TransactionSystemException;
+    }
+
+    private static List<Log> logs(List<QueuedLog> batch) {
+        List<Log> logs = new ArrayList<>(batch.size());
+        for (QueuedLog queued : batch) {
+            logs.add(queued.log);
+        }
+        return logs;
+    }
+
+    private static final class QueuedLog {
+
+        private final Log log;
+
+        /**
+         * Position after the log in the journal.
+         */
+        private final long position;
+
+        private QueuedLog(Log log, long position) {
+            this.log = log;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Log;
+import com.pixelmags.repository.search.LogSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Service maintaining the monthly partitions of the {@code log} table, and removing the expired {@link Log}s.
+ * <p>
+ * On PostgreSQL the table is partitioned by month of date, so that queries filtered on the date only read the matching
+ * partitions. Partitions are created some months ahead of time, as logs outside of any partition land in the default
+ * partition, and expired logs are removed by detaching or dropping whole partitions instead of deleting rows, except for
+ * the few ones of the default partition, which are deleted in batches. On other databases, such as H2 in tests, the
+ * table is not partitioned and expired logs are deleted.
+ * <p>
+ * The daily counts of the {@link LogRollupService} are kept when logs expire.
+ */
+@Service
+public class LogPartitionService {
+
+    private static final String PARTITION_PREFIX = "log_";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("log_y(\\d{4})m(\\d{2})");
+
+    private static final String SELECT_PARTITIONED =
+        "select count(*) from pg_partitioned_table where partrelid = to_regclass('log')";
+
+    private static final String SELECT_PARTITIONS =
+        "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid where i.inhparent = to_regclass('log')";
+
+    private static final String DELETE_LOGS = "delete from log where date < ?";
+
+    private static final String DELETE_DEFAULT_LOGS =
+        "delete from log_default where id in (select id from log_default where date < ? limit ?)";
+
+    private final Logger log = LoggerFactory.getLogger(LogPartitionService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LogSearchRepository logSearchRepository;
+
+    private final EntityVersionService entityVersionService;
+
+    private final ApplicationProperties.LogPartitions properties;
+
+    private volatile Boolean partitioned;
+
+    public LogPartitionService(JdbcTemplate jdbcTemplate, LogSearchRepository logSearchRepository,
+                               EntityVersionService entityVersionService, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.logSearchRepository = logSearchRepository;
+        this.entityVersionService = entityVersionService;
+        this.properties = applicationProperties.getLogPartitions();
+    }
+
+    /**
+     * Create the upcoming partitions, then remove the expired logs.
+     * <p>
+     * This is scheduled to get fired every day, at 02:30 (am).
+     */
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        createPartitions(today);
+        removeExpiredLogs(today);
+    }
+
+    /**
+     * Whether the {@code log} table is partitioned, which is only the case on PostgreSQL.
+     *
+     * @return true if the table is partitioned.
+     */
+    public boolean isPartitioned() {
+        Boolean result = partitioned;
+        if (result == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equals(database) && jdbcTemplate.queryForObject(SELECT_PARTITIONED, Long.class) > 0;
+            partitioned = result;
+        }
+        return result;
+    }
+
+    /**
+     * Create the missing partitions, from the current month to the configured number of months ahead.
+     *
+     * @param today the current day.
+     * @return the names of the created partitions, empty if the table is not partitioned.
+     */
+    public List<String> createPartitions(LocalDate today) {
+        List<String> created = new ArrayList<>();
+        if (!isPartitioned()) {
+            return created;
+        }
+        List<String> existing = jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class);
+        YearMonth month = YearMonth.from(today);
+        for (int i = 0; i <= properties.getMonthsAhead(); i++, month = month.plusMonths(1)) {
+            String name = PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+            if (existing.contains(name)) {
+                continue;
+            }
+            try {
+                // Fails if the default partition already holds logs of that month, which then stay there
+                jdbcTemplate.execute("create table if not exists " + name + " partition of log for values from ('"
+                    + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')");
+                created.add(name);
+                log.info("Created the Log partition {}", name);
+            } catch (DataAccessException e) {
+                log.error("Could not create the Log partition {}", name, e);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Remove the logs older than the configured number of whole months before the current one.
+     * <p>
+     * On PostgreSQL the partitions of the expired months are detached, then dropped unless configured otherwise, and
+     * the expired logs of the default partition are deleted in batches, each in its own transaction, so that locks are
+     * held briefly. On other databases the expired logs are deleted. Expired logs are removed from the search index in
+     * both cases.
+     *
+     * @param today the current day.
+     * @return the number of removed partitions and deleted logs of the default partition if the table is partitioned,
+     * else the number of deleted logs.
+     */
+    public int removeExpiredLogs(LocalDate today) {
+        LocalDate cutoff = YearMonth.from(today).minusMonths(properties.getRetentionMonths()).atDay(1);
+        log.debug("Removing the Logs before {}", cutoff);
+        int removed = isPartitioned() ? removePartitions(cutoff) + deleteDefaultLogs(cutoff)
+            : jdbcTemplate.update(DELETE_LOGS, Date.valueOf(cutoff));
+        if (removed > 0) {
+            entityVersionService.touch(Log.class);
+            try {
+                logSearchRepository.deleteByDateBefore(cutoff);
+            } catch (RuntimeException e) {
+                log.error("Could not remove the Logs before {} from the search index", cutoff, e);
+            }
+        }
+        return removed;
+    }
+
+    private int removePartitions(LocalDate cutoff) {
+        int removed = 0;
+        for (String name : jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("alter table log detach partition " + name);
+                if (!properties.isDetachOnly()) {
+                    jdbcTemplate.execute("drop table " + name);
+                }
+                removed++;
+                log.info("Removed the Log partition {}", name);
+            } catch (DataAccessException e) {
+                log.error("Could not remove the Log partition {}", name, e);
+            }
+        }
+        return removed;
+    }
+
+    private int deleteDefaultLogs(LocalDate cutoff) {
+        int batchSize = Math.max(1, properties.getDeleteBatchSize());
+        int deleted = 0;
+        try {
+            int batch;
+            do {
+                batch = jdbcTemplate.update(DELETE_DEFAULT_LOGS, Date.valueOf(cutoff), batchSize);
+                deleted += batch;
+            } while (batch == batchSize);
+        } catch (DataAccessException e) {
+            log.error("Could not delete the Logs before {} from the default partition", cutoff, e);
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} Logs before {} from the default partition", deleted, cutoff);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,127 @@
+package com.pixelmags.service;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.JoinType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.*; // for static metamodels
+import com.pixelmags.repository.LogRepository;
+import com.pixelmags.service.dto.LogCriteria;
+import com.pixelmags.service.dto.LogDTO;
+import com.pixelmags.service.mapper.LogMapper;
+
+/**
+ * Service for executing complex queries for {@link Log} entities in the database.
+ * The main input is a {@link LogCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link LogDTO} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class LogQueryService extends KeysetQueryService<Log> {
+
+    private final Logger log = LoggerFactory.getLogger(LogQueryService.class);
+
+    private final LogRepository logRepository;
+
+    private final LogMapper logMapper;
+
+    public LogQueryService(LogRepository logRepository, LogMapper logMapper, EntityManager entityManager) {
+        super(entityManager, Log.class);
+        this.logRepository = logRepository;
+        this.logMapper = logMapper;
+    }
+
+    /**
+     * Return a {@link List} of {@link LogDTO} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<LogDTO> findByCriteria(LogCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Log> specification = createSpecification(criteria);
+        return logMapper.toDto(logRepository.findAll(specification));
+    }
+
+    /**
+     * Return a page of {@link LogDTO} which matches the criteria from the database, in id order.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<LogDTO> findByCriteria(LogCriteria criteria, Long after, int limit) {
+        log.debug("find by criteria : {}, after : {}", criteria, after);
+        final Specification<Log> specification = createSpecification(criteria);
+        return logMapper.toDto(findAllAfter(specification, after, limit));
+    }
+
+    /**
+     * Return a page of {@link LogDTO} which matches the criteria from the database, in id order, reading only some fields.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @param fields the DTO fields to read, or {@code null} for all of them.
+     * @return the matching entities, whose other fields may be unset.
+     */
+    @Transactional(readOnly = true)
+    public List<LogDTO> findByCriteria(LogCriteria criteria, Long after, int limit, Set<String> fields) {
+        log.debug("find by criteria : {}, after : {}, fields : {}", criteria, after, fields);
+        final Specification<Log> specification = createSpecification(criteria);
+        return logMapper.toDto(findAllAfter(specification, after, limit, fields));
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(LogCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Log> specification = createSpecification(criteria);
+        return logRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link LogCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Log> createSpecification(LogCriteria criteria) {
+        Specification<Log> specification = Specification.where(null);
+        if (criteria != null) {
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Log_.id));
+            }
+            if (criteria.getDate() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getDate(), Log_.date));
+            }
+            if (criteria.getEvento() != null) {
+                specification = specification.and(buildSpecification(criteria.getEvento(), Log_.evento));
+            }
+            if (criteria.getCustomerId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getCustomerId(), Log_.customerId));
+            }
+            if (criteria.getEventId() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getEventId(), Log_.eventId));
+            }
+            if (criteria.getIssueId() != null) {
+                specification = specification.and(buildSpecification(criteria.getIssueId(),
+                    root -> root.join(Log_.issue, JoinType.LEFT).get(Issue_.id)));
+            }
+        }
+        return specification;
+    }
+}
@@ -0,0 +1,238 @@
+package com.pixelmags.service;
+
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.service.dto.LogRollupDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service maintaining the daily counts of {@link Log}s per issue and event, in the {@code log_rollup} table.
+ * <p>
+ * Created logs are counted in memory once their transaction commits, with a {@link LongAdder} per day, event and
+ * issue, and the counts are added to the table every few seconds, so that reading the counts of an issue over a range
+ * of days costs one row per day and event, however many logs were recorded. Counts read from the table lag behind by
+ * up to one flush, and the counts not flushed yet are lost if this instance stops abruptly. Logs without an issue are
+ * not counted, and updates or deletions of logs do not change the counts.
+ */
+@Service
+public class LogRollupService {
+
+    private static final String UPDATE_ROLLUP =
+        "update log_rollup set total = total + ? where issue_id = ? and date = ? and evento = ?";
+
+    private static final String INSERT_ROLLUP =
+        "insert into log_rollup (issue_id, date, evento, total) values (?, ?, ?, ?)";
+
+    private static final String SELECT_ROLLUPS =
+        "select date, evento, total from log_rollup where issue_id = ? and date between ? and ? order by date, evento";
+
+    private static final String SELECT_EVENT_ROLLUPS =
+        "select date, evento, total from log_rollup where issue_id = ? and date between ? and ? and evento = ? order by date";
+
+    private final Logger log = LoggerFactory.getLogger(LogRollupService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Held shared while adding counts, and exclusively while swapping the pending counts for flushing, so that no
+     * count is added to a map being flushed.
+     */
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+
+    private Map<RollupKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public LogRollupService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Count created logs, once the current transaction commits.
+     *
+     * @param logs the created logs.
+     */
+    public void onLogsSaved(Collection<Log> logs) {
+        Map<RollupKey, Long> counts = new HashMap<>();
+        for (Log logEntry : logs) {
+            if (logEntry.getIssue() != null && logEntry.getIssue().getId() != null && logEntry.getDate() != null
+                && logEntry.getEvento() != null) {
+                counts.merge(new RollupKey(logEntry.getIssue().getId(), logEntry.getDate(), logEntry.getEvento()), 1L, Long::sum);
+            }
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(counts);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                add(counts);
+            }
+        });
+    }
+
+    private void add(Map<RollupKey, Long> counts) {
+        pendingLock.readLock().lock();
+        try {
+            counts.forEach((key, count) -> pending.computeIfAbsent(key, k -> new LongAdder()).add(count));
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add the pending counts to the {@code log_rollup} table, in one transaction.
+     * <p>
+     * This is scheduled to get run every 10 seconds. Counts are kept in memory for the next flush if the transaction
+     * fails.
+     *
+     * @return the number of updated rows.
+     */
+    @Scheduled(initialDelay = 10_000, fixedDelay = 10_000)
+    public int flush() {
+        Map<RollupKey, LongAdder> flushed;
+        pendingLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            flushed = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        Map<RollupKey, Long> counts = new HashMap<>();
+        flushed.forEach((key, adder) -> counts.put(key, adder.sum()));
+        // Rows are always updated in the same order, so that instances flushing concurrently cannot deadlock
+        List<RollupKey> keys = new ArrayList<>(counts.keySet());
+        Collections.sort(keys);
+        try {
+            transactionTemplate.execute(status -> {
+                upsert(keys, counts);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} Log rollups, they will be flushed again later", keys.size(), e);
+            add(counts);
+            return 0;
+        }
+        return keys.size();
+    }
+
+    /**
+     * Flush the pending counts when the application stops.
+     */
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    private void upsert(List<RollupKey> keys, Map<RollupKey, Long> counts) {
+        log.debug("Flushing {} Log rollups", keys.size());
+        List<Object[]> updates = new ArrayList<>(keys.size());
+        for (RollupKey key : keys) {
+            updates.add(new Object[]{counts.get(key), key.issueId, Date.valueOf(key.day), key.evento.name()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_ROLLUP, updates);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (updated[i] == 0) {
+                RollupKey key = keys.get(i);
+                inserts.add(new Object[]{key.issueId, Date.valueOf(key.day), key.evento.name(), counts.get(key)});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROLLUP, inserts);
+        }
+    }
+
+    /**
+     * Get the daily counts of the logs of an issue, as of the last flush.
+     *
+     * @param issueId the id of the issue.
+     * @param from the first day, included.
+     * @param to the last day, included.
+     * @param evento the event to count, or null for all of them.
+     * @return the counts of the days with logs, by day and event.
+     */
+    @Transactional(readOnly = true)
+    public List<LogRollupDTO> findByIssue(Long issueId, LocalDate from, LocalDate to, Event evento) {
+        log.debug("Request to get the Log rollups of Issue {} from {} to {}", issueId, from, to);
+        if (evento == null) {
+            return jdbcTemplate.query(SELECT_ROLLUPS, (rs, rowNum) -> new LogRollupDTO(rs.getDate(1).toLocalDate(),
+                Event.valueOf(rs.getString(2)), rs.getLong(3)), issueId, Date.valueOf(from), Date.valueOf(to));
+        }
+        return jdbcTemplate.query(SELECT_EVENT_ROLLUPS, (rs, rowNum) -> new LogRollupDTO(rs.getDate(1).toLocalDate(),
+            Event.valueOf(rs.getString(2)), rs.getLong(3)), issueId, Date.valueOf(from), Date.valueOf(to), evento.name());
+    }
+
+    private static final class RollupKey implements Comparable<RollupKey> {
+
+        private final long issueId;
+
+        private final LocalDate day;
+
+        private final Event evento;
+
+        private RollupKey(long issueId, LocalDate day, Event evento) {
+            this.issueId = issueId;
+            this.day = day;
+            this.evento = evento;
+        }
+
+        @Override
+        public int compareTo(RollupKey other) {
+            int result = Long.compare(issueId, other.issueId);
+            if (result == 0) {
+                result = day.compareTo(other.day);
+            }
+            return result != 0 ? result : evento.compareTo(other.evento);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RollupKey)) {
+                return false;
+            }
+            RollupKey other = (RollupKey) o;
+            return issueId == other.issueId && day.equals(other.day) && evento == other.evento;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(issueId, day, evento);
+        }
+    }
+}
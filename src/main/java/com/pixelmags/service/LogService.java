@@ -11,10 +11,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
@@ -26,6 +31,8 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 @Transactional
 public class LogService {
 
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+
     private final Logger log = LoggerFactory.getLogger(LogService.class);
 
     private final LogRepository logRepository;
@@ -34,10 +41,24 @@ public class LogService {
 
     private final LogSearchRepository logSearchRepository;
 
-    public LogService(LogRepository logRepository, LogMapper logMapper, LogSearchRepository logSearchRepository) {
+    private final EntityManager entityManager;
+
+    private final LogRollupService logRollupService;
+
+    private final UniqueReaderService uniqueReaderService;
+
+    private final TrendingService trendingService;
+
+    public LogService(LogRepository logRepository, LogMapper logMapper, LogSearchRepository logSearchRepository,
+                     EntityManager entityManager, LogRollupService logRollupService,
+                     UniqueReaderService uniqueReaderService, TrendingService trendingService) {
         this.logRepository = logRepository;
         this.logMapper = logMapper;
         this.logSearchRepository = logSearchRepository;
+        this.entityManager = entityManager;
+        this.logRollupService = logRollupService;
+        this.uniqueReaderService = uniqueReaderService;
+        this.trendingService = trendingService;
     }
 
     /**
@@ -50,6 +71,11 @@ public class LogService {
         log.debug("Request to save Log : {}", logDTO);
         Log log = logMapper.toEntity(logDTO);
         log = logRepository.save(log);
+        if (logDTO.getId() == null) {
+            logRollupService.onLogsSaved(Collections.singletonList(log));
+            uniqueReaderService.onLogsSaved(Collections.singletonList(log));
+            trendingService.onLogsSaved(Collections.singletonList(log));
+        }
         LogDTO result = logMapper.toDto(log);
         logSearchRepository.save(log);
         return result;
@@ -68,6 +94,29 @@ public class LogService {
             .collect(Collectors.toCollection(LinkedList::new));
     }
 
+    /**
+     * Export all the logs, in id order, without holding them in memory.
+     * <p>
+     * Entities are read through a database cursor, and the persistence context is cleared every
+     * {@value #EXPORT_CLEAR_INTERVAL} entities so that the exported ones can be collected.
+     *
+     * @param consumer the consumer of the entities.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<LogDTO> consumer) {
+        log.debug("Request to export all Logs");
+        try (Stream<Log> logs = logRepository.streamAll()) {
+            Iterator<Log> iterator = logs.iterator();
+            long count = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(logMapper.toDto(iterator.next()));
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
 
     /**
      * Get one log by id.
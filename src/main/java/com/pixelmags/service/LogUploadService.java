@@ -0,0 +1,252 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.service.dto.LogUploadResultDTO;
+import com.pixelmags.service.ingest.LineReader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service storing uploads of {@link Log}s as newline delimited JSON, such as the events a reader app kept while offline.
+ * <p>
+ * The upload is read one line at a time with the Jackson streaming parser, and the valid logs are stored by batches of
+ * the configured ingestion batch size, each in its own transaction. The memory used is bounded by the batch size, the
+ * maximum line length and the number of reported rejects, whatever the size of the upload. Logs whose {@code eventId}
+ * was already received, in an earlier request or earlier in the upload, are dropped as duplicates.
+ */
+@Service
+public class LogUploadService {
+
+    /**
+     * Maximum length of a line, in bytes, longer lines being rejected.
+     */
+    public static final int MAX_LINE_LENGTH = 4096;
+
+    /**
+     * Maximum number of rejected lines listed in a result, the other ones being only counted.
+     */
+    public static final int MAX_REPORTED_REJECTS = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(LogUploadService.class);
+
+    private final JsonFactory jsonFactory;
+
+    private final LogBatchWriter logBatchWriter;
+
+    private final CatalogService catalogService;
+
+    private final LogDeduplicationService logDeduplicationService;
+
+    private final int batchSize;
+
+    public LogUploadService(ObjectMapper objectMapper, LogBatchWriter logBatchWriter, CatalogService catalogService,
+                            LogDeduplicationService logDeduplicationService, ApplicationProperties applicationProperties) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.logBatchWriter = logBatchWriter;
+        this.catalogService = catalogService;
+        this.logDeduplicationService = logDeduplicationService;
+        this.batchSize = applicationProperties.getLogIngestion().getBatchSize();
+    }
+
+    /**
+     * Store the logs of an upload, one JSON object per line, with {@code date}, {@code evento} and optional
+     * {@code customerId}, {@code eventId} and {@code issueId} properties.
+     * <p>
+     * Invalid lines are rejected without stopping the upload, and blank lines are skipped. Batches stored before an
+     * error reading the stream stay stored.
+     *
+     * @param input the upload, not compressed.
+     * @return the outcome of the upload.
+     * @throws IOException if the upload cannot be read.
+     */
+    public LogUploadResultDTO upload(InputStream input) throws IOException {
+        log.debug("Request to upload Logs");
+        LogUploadResultDTO result = new LogUploadResultDTO();
+        LineReader lines = new LineReader(input, MAX_LINE_LENGTH);
+        List<Log> batch = new ArrayList<>(batchSize);
+        Set<String> batchEventIds = new HashSet<>();
+        long lineNumber = 0;
+        while (lines.next()) {
+            lineNumber++;
+            if (lines.isBlank()) {
+                continue;
+            }
+            Log logEntry;
+            try {
+                if (lines.isTruncated()) {
+                    throw new InvalidLineException("Line longer than " + MAX_LINE_LENGTH + " bytes");
+                }
+                logEntry = parse(lines.getLine(), lines.getLength());
+            } catch (InvalidLineException e) {
+                reject(result, lineNumber, e.getMessage());
+                continue;
+            }
+            if (logDeduplicationService.isDuplicate(logEntry.getEventId(), batchEventIds)) {
+                result.setDuplicates(result.getDuplicates() + 1);
+                continue;
+            }
+            batch.add(logEntry);
+            if (logEntry.getEventId() != null) {
+                batchEventIds.add(logEntry.getEventId());
+            }
+            if (batch.size() == batchSize) {
+                write(batch, batchEventIds, result);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, batchEventIds, result);
+        }
+        result.setLines(lineNumber);
+        return result;
+    }
+
+    private void write(List<Log> batch, Set<String> batchEventIds, LogUploadResultDTO result) {
+        logBatchWriter.store(batch);
+        logDeduplicationService.record(batchEventIds);
+        logBatchWriter.index(batch);
+        result.setAccepted(result.getAccepted() + batch.size());
+        batch.clear();
+        batchEventIds.clear();
+    }
+
+    private static void reject(LogUploadResultDTO result, long lineNumber, String error) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getRejects().size() < MAX_REPORTED_REJECTS) {
+            result.getRejects().add(new LogUploadResultDTO.Reject(lineNumber, error));
+        }
+    }
+
+    private Log parse(byte[] line, int length) throws IOException, InvalidLineException {
+        Log logEntry = new Log();
+        try (JsonParser parser = jsonFactory.createParser(line, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidLineException("Not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "id":
+                        if (value != JsonToken.VALUE_NULL) {
+                            throw new InvalidLineException("A new log cannot already have an ID");
+                        }
+                        break;
+                    case "date":
+                        logEntry.setDate(parseDate(parser, value));
+                        break;
+                    case "evento":
+                        logEntry.setEvento(parseEvent(parser, value));
+                        break;
+                    case "customerId":
+                        logEntry.setCustomerId(parseId(parser, value, "customerId"));
+                        break;
+                    case "eventId":
+                        logEntry.setEventId(parseEventId(parser, value));
+                        break;
+                    case "issueId":
+                        logEntry.setIssue(parseIssue(parser, value));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new InvalidLineException("More than one JSON value");
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidLineException("Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (logEntry.getDate() == null) {
+            throw new InvalidLineException("Missing date");
+        }
+        if (logEntry.getEvento() == null) {
+            throw new InvalidLineException("Missing evento");
+        }
+        return logEntry;
+    }
+
+    private static LocalDate parseDate(JsonParser parser, JsonToken value) throws IOException, InvalidLineException {
+        if (value != JsonToken.VALUE_STRING) {
+            throw new InvalidLineException("Invalid date, expected an ISO-8601 date string");
+        }
+        try {
+            return LocalDate.parse(parser.getText());
+        } catch (DateTimeParseException e) {
+            throw new InvalidLineException("Invalid date: " + parser.getText());
+        }
+    }
+
+    private static Event parseEvent(JsonParser parser, JsonToken value) throws IOException, InvalidLineException {
+        if (value != JsonToken.VALUE_STRING) {
+            throw new InvalidLineException("Invalid evento, expected a string");
+        }
+        try {
+            return Event.valueOf(parser.getText());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidLineException("Invalid evento: " + parser.getText());
+        }
+    }
+
+    private static String parseEventId(JsonParser parser, JsonToken value) throws IOException, InvalidLineException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.VALUE_STRING || parser.getTextLength() > LogDeduplicationService.MAX_EVENT_ID_LENGTH) {
+            throw new InvalidLineException("Invalid eventId, expected a string of at most "
+                + LogDeduplicationService.MAX_EVENT_ID_LENGTH + " characters");
+        }
+        return parser.getText();
+    }
+
+    private static Long parseId(JsonParser parser, JsonToken value, String name) throws IOException, InvalidLineException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.VALUE_NUMBER_INT || parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+            throw new InvalidLineException("Invalid " + name + ", expected an id");
+        }
+        return parser.getLongValue();
+    }
+
+    private Issue parseIssue(JsonParser parser, JsonToken value) throws IOException, InvalidLineException {
+        Long issueId = parseId(parser, value, "issueId");
+        if (issueId == null) {
+            return null;
+        }
+        // Checked against the catalog in memory, as an unknown issue would fail the whole batch
+        if (catalogService.getSnapshot().getIssue(issueId) == null) {
+            throw new InvalidLineException("Unknown issueId: " + issueId);
+        }
+        Issue issue = new Issue();
+        issue.setId(issueId);
+        return issue;
+    }
+
+    private static final class InvalidLineException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private InvalidLineException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
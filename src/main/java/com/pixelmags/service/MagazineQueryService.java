@@ -0,0 +1,145 @@
+package com.pixelmags.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.JoinType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pixelmags.domain.Magazine;
+import com.pixelmags.domain.*; // for static metamodels
+import com.pixelmags.repository.MagazineRepository;
+import com.pixelmags.service.dto.MagazineCriteria;
+import com.pixelmags.service.dto.MagazineDTO;
+import com.pixelmags.service.mapper.MagazineMapper;
+
+/**
+ * Service for executing complex queries for {@link Magazine} entities in the database.
+ * The main input is a {@link MagazineCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link MagazineDTO} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MagazineQueryService extends KeysetQueryService<Magazine> {
+
+    private final Logger log = LoggerFactory.getLogger(MagazineQueryService.class);
+
+    private final MagazineRepository magazineRepository;
+
+    private final MagazineMapper magazineMapper;
+
+    public MagazineQueryService(MagazineRepository magazineRepository, MagazineMapper magazineMapper, EntityManager entityManager) {
+        super(entityManager, Magazine.class);
+        this.magazineRepository = magazineRepository;
+        this.magazineMapper = magazineMapper;
+    }
+
+    /**
+     * Return a {@link List} of {@link MagazineDTO} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<MagazineDTO> findByCriteria(MagazineCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Magazine> specification = createSpecification(criteria);
+        return magazineMapper.toDto(magazineRepository.findAll(specification));
+    }
+
+    /**
+     * Return a page of {@link MagazineDTO} which matches the criteria from the database, in id order.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<MagazineDTO> findByCriteria(MagazineCriteria criteria, Long after, int limit) {
+        log.debug("find by criteria : {}, after : {}", criteria, after);
+        final Specification<Magazine> specification = createSpecification(criteria);
+        return magazineMapper.toDto(findAllAfter(specification, after, limit));
+    }
+
+    /**
+     * Return a page of {@link MagazineDTO} which matches the criteria from the database, in id order, reading only some fields.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @param fields the DTO fields to read, or {@code null} for all of them.
+     * @return the matching entities, whose other fields may be unset.
+     */
+    @Transactional(readOnly = true)
+    public List<MagazineDTO> findByCriteria(MagazineCriteria criteria, Long after, int limit, Set<String> fields) {
+        log.debug("find by criteria : {}, after : {}, fields : {}", criteria, after, fields);
+        final Specification<Magazine> specification = createSpecification(criteria);
+        return magazineMapper.toDto(findAllAfter(specification, after, limit, fields));
+    }
+
+    /**
+     * Return the {@link MagazineDTO}s with some ids, from the second-level cache for the ones it holds.
+     * @param ids the ids of the entities.
+     * @return the entities found, by id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, MagazineDTO> findAllById(Collection<Long> ids) {
+        log.debug("find by ids : {}", ids);
+        Map<Long, MagazineDTO> result = new HashMap<>();
+        findAllById(createSpecification(null), ids).forEach((id, entity) -> result.put(id, magazineMapper.toDto(entity)));
+        return result;
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(MagazineCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Magazine> specification = createSpecification(criteria);
+        return magazineRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link MagazineCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Magazine> createSpecification(MagazineCriteria criteria) {
+        Specification<Magazine> specification = Specification.where(null);
+        if (criteria != null) {
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Magazine_.id));
+            }
+            if (criteria.getCodigoRevista() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getCodigoRevista(), Magazine_.codigoRevista));
+            }
+            if (criteria.getPreco() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getPreco(), Magazine_.preco));
+            }
+            if (criteria.getIssueId() != null) {
+                specification = specification.and(buildSpecification(criteria.getIssueId(),
+                    root -> root.join(Magazine_.issue, JoinType.LEFT).get(Issue_.id)));
+            }
+            if (criteria.getPurchaseId() != null) {
+                specification = specification.and(buildSpecification(criteria.getPurchaseId(),
+                    root -> root.join(Magazine_.purchase, JoinType.LEFT).get(Purchase_.id)));
+            }
+            if (criteria.getPublisherId() != null) {
+                specification = specification.and(buildSpecification(criteria.getPublisherId(),
+                    root -> root.join(Magazine_.publisher, JoinType.LEFT).get(Publisher_.id)));
+            }
+        }
+        return specification;
+    }
+}
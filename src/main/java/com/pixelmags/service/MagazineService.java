@@ -3,17 +3,20 @@ package com.pixelmags.service;
 import com.pixelmags.domain.Magazine;
 import com.pixelmags.repository.MagazineRepository;
 import com.pixelmags.repository.search.MagazineSearchRepository;
+import com.pixelmags.service.dto.BulkResultDTO;
 import com.pixelmags.service.dto.MagazineDTO;
 import com.pixelmags.service.mapper.MagazineMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -34,10 +37,20 @@ public class MagazineService {
 
     private final MagazineSearchRepository magazineSearchRepository;
 
-    public MagazineService(MagazineRepository magazineRepository, MagazineMapper magazineMapper, MagazineSearchRepository magazineSearchRepository) {
+    private final CatalogService catalogService;
+
+    private final BulkWriteService bulkWriteService;
+
+    private final EntitlementService entitlementService;
+
+    public MagazineService(MagazineRepository magazineRepository, MagazineMapper magazineMapper, MagazineSearchRepository magazineSearchRepository,
+                           CatalogService catalogService, BulkWriteService bulkWriteService, EntitlementService entitlementService) {
         this.magazineRepository = magazineRepository;
         this.magazineMapper = magazineMapper;
         this.magazineSearchRepository = magazineSearchRepository;
+        this.catalogService = catalogService;
+        this.bulkWriteService = bulkWriteService;
+        this.entitlementService = entitlementService;
     }
 
     /**
@@ -48,13 +61,36 @@ public class MagazineService {
      */
     public MagazineDTO save(MagazineDTO magazineDTO) {
         log.debug("Request to save Magazine : {}", magazineDTO);
-        Magazine magazine = magazineMapper.toEntity(magazineDTO);
-        magazine = magazineRepository.save(magazine);
+        Magazine magazine = saveWithoutIndexing(magazineDTO);
         MagazineDTO result = magazineMapper.toDto(magazine);
         magazineSearchRepository.save(magazine);
         return result;
     }
 
+    /**
+     * Save magazines in chunks, each in its own transaction and indexed with one bulk request.
+     *
+     * @param magazineDTOs the entities to save, which are updated when they have an id and created otherwise.
+     * @return one result per entity, in the same order.
+     * @see BulkWriteService
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkResultDTO<MagazineDTO>> saveAll(List<MagazineDTO> magazineDTOs) {
+        log.debug("Request to save {} Magazines", magazineDTOs.size());
+        return bulkWriteService.saveAll(magazineDTOs, MagazineDTO::getId,
+            ids -> magazineRepository.findAllById(ids).stream().collect(Collectors.toMap(Magazine::getId, Function.identity())),
+            (magazineDTO, stored) -> saveWithoutIndexing(magazineDTO),
+            magazineMapper::toDto, magazineSearchRepository::saveAll);
+    }
+
+    private Magazine saveWithoutIndexing(MagazineDTO magazineDTO) {
+        Magazine magazine = magazineMapper.toEntity(magazineDTO);
+        magazine = magazineRepository.save(magazine);
+        catalogService.onMagazineSaved(magazine);
+        entitlementService.onMagazineChanged(magazine.getId(), magazine.getPurchase() == null ? null : magazine.getPurchase().getId());
+        return magazine;
+    }
+
     /**
      * Get all the magazines.
      *
@@ -92,6 +128,8 @@ public class MagazineService {
 
         magazineRepository.deleteById(id);
         magazineSearchRepository.deleteById(id);
+        catalogService.onMagazineDeleted(id);
+        entitlementService.onMagazineChanged(id, null);
     }
 
     /**
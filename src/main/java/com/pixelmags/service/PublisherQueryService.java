@@ -0,0 +1,138 @@
+package com.pixelmags.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.JoinType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pixelmags.domain.Publisher;
+import com.pixelmags.domain.*; // for static metamodels
+import com.pixelmags.repository.PublisherRepository;
+import com.pixelmags.service.dto.PublisherCriteria;
+import com.pixelmags.service.dto.PublisherDTO;
+import com.pixelmags.service.mapper.PublisherMapper;
+
+/**
+ * Service for executing complex queries for {@link Publisher} entities in the database.
+ * The main input is a {@link PublisherCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link PublisherDTO} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PublisherQueryService extends KeysetQueryService<Publisher> {
+
+    private final Logger log = LoggerFactory.getLogger(PublisherQueryService.class);
+
+    private final PublisherRepository publisherRepository;
+
+    private final PublisherMapper publisherMapper;
+
+    public PublisherQueryService(PublisherRepository publisherRepository, PublisherMapper publisherMapper, EntityManager entityManager) {
+        super(entityManager, Publisher.class);
+        this.publisherRepository = publisherRepository;
+        this.publisherMapper = publisherMapper;
+    }
+
+    /**
+     * Return a {@link List} of {@link PublisherDTO} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<PublisherDTO> findByCriteria(PublisherCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Publisher> specification = createSpecification(criteria);
+        return publisherMapper.toDto(publisherRepository.findAll(specification));
+    }
+
+    /**
+     * Return a page of {@link PublisherDTO} which matches the criteria from the database, in id order.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<PublisherDTO> findByCriteria(PublisherCriteria criteria, Long after, int limit) {
+        log.debug("find by criteria : {}, after : {}", criteria, after);
+        final Specification<Publisher> specification = createSpecification(criteria);
+        return publisherMapper.toDto(findAllAfter(specification, after, limit));
+    }
+
+    /**
+     * Return a page of {@link PublisherDTO} which matches the criteria from the database, in id order, reading only some fields.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @param fields the DTO fields to read, or {@code null} for all of them.
+     * @return the matching entities, whose other fields may be unset.
+     */
+    @Transactional(readOnly = true)
+    public List<PublisherDTO> findByCriteria(PublisherCriteria criteria, Long after, int limit, Set<String> fields) {
+        log.debug("find by criteria : {}, after : {}, fields : {}", criteria, after, fields);
+        final Specification<Publisher> specification = createSpecification(criteria);
+        return publisherMapper.toDto(findAllAfter(specification, after, limit, fields));
+    }
+
+    /**
+     * Return the {@link PublisherDTO}s with some ids, from the second-level cache for the ones it holds.
+     * @param ids the ids of the entities.
+     * @return the entities found, by id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, PublisherDTO> findAllById(Collection<Long> ids) {
+        log.debug("find by ids : {}", ids);
+        Map<Long, PublisherDTO> result = new HashMap<>();
+        findAllById(createSpecification(null), ids).forEach((id, entity) -> result.put(id, publisherMapper.toDto(entity)));
+        return result;
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(PublisherCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Publisher> specification = createSpecification(criteria);
+        return publisherRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link PublisherCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Publisher> createSpecification(PublisherCriteria criteria) {
+        Specification<Publisher> specification = Specification.where(null);
+        if (criteria != null) {
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Publisher_.id));
+            }
+            if (criteria.getNome() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getNome(), Publisher_.nome));
+            }
+            if (criteria.getDataCadastro() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getDataCadastro(), Publisher_.dataCadastro));
+            }
+            if (criteria.getMagazinesId() != null) {
+                specification = specification.and(buildSpecification(criteria.getMagazinesId(),
+                    root -> root.join(Publisher_.magazines, JoinType.LEFT).get(Magazine_.id)));
+                specification = specification.and(distinct());
+            }
+        }
+        return specification;
+    }
+}
@@ -34,10 +34,14 @@ public class PublisherService {
 
     private final PublisherSearchRepository publisherSearchRepository;
 
-    public PublisherService(PublisherRepository publisherRepository, PublisherMapper publisherMapper, PublisherSearchRepository publisherSearchRepository) {
+    private final CatalogService catalogService;
+
+    public PublisherService(PublisherRepository publisherRepository, PublisherMapper publisherMapper, PublisherSearchRepository publisherSearchRepository,
+                            CatalogService catalogService) {
         this.publisherRepository = publisherRepository;
         this.publisherMapper = publisherMapper;
         this.publisherSearchRepository = publisherSearchRepository;
+        this.catalogService = catalogService;
     }
 
     /**
@@ -52,6 +56,7 @@ public class PublisherService {
         publisher = publisherRepository.save(publisher);
         PublisherDTO result = publisherMapper.toDto(publisher);
         publisherSearchRepository.save(publisher);
+        catalogService.onPublisherSaved(publisher);
         return result;
     }
 
@@ -92,6 +97,7 @@ public class PublisherService {
 
         publisherRepository.deleteById(id);
         publisherSearchRepository.deleteById(id);
+        catalogService.onPublisherDeleted(id);
     }
 
     /**
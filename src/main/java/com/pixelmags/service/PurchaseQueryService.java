@@ -0,0 +1,136 @@
+package com.pixelmags.service;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.JoinType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pixelmags.domain.Purchase;
+import com.pixelmags.domain.*; // for static metamodels
+import com.pixelmags.repository.PurchaseRepository;
+import com.pixelmags.service.dto.PurchaseCriteria;
+import com.pixelmags.service.dto.PurchaseDTO;
+import com.pixelmags.service.mapper.PurchaseMapper;
+
+/**
+ * Service for executing complex queries for {@link Purchase} entities in the database.
+ * The main input is a {@link PurchaseCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link PurchaseDTO} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PurchaseQueryService extends KeysetQueryService<Purchase> {
+
+    private final Logger log = LoggerFactory.getLogger(PurchaseQueryService.class);
+
+    private final PurchaseRepository purchaseRepository;
+
+    private final PurchaseMapper purchaseMapper;
+
+    public PurchaseQueryService(PurchaseRepository purchaseRepository, PurchaseMapper purchaseMapper, EntityManager entityManager) {
+        super(entityManager, Purchase.class);
+        this.purchaseRepository = purchaseRepository;
+        this.purchaseMapper = purchaseMapper;
+    }
+
+    /**
+     * Return a {@link List} of {@link PurchaseDTO} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<PurchaseDTO> findByCriteria(PurchaseCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Purchase> specification = createSpecification(criteria);
+        return purchaseMapper.toDto(purchaseRepository.findAll(specification));
+    }
+
+    /**
+     * Return a page of {@link PurchaseDTO} which matches the criteria from the database, in id order.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<PurchaseDTO> findByCriteria(PurchaseCriteria criteria, Long after, int limit) {
+        log.debug("find by criteria : {}, after : {}", criteria, after);
+        final Specification<Purchase> specification = createSpecification(criteria);
+        return purchaseMapper.toDto(findAllAfter(specification, after, limit));
+    }
+
+    /**
+     * Return a page of {@link PurchaseDTO} which matches the criteria from the database, in id order, reading only some fields.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @param fields the DTO fields to read, or {@code null} for all of them.
+     * @return the matching entities, whose other fields may be unset.
+     */
+    @Transactional(readOnly = true)
+    public List<PurchaseDTO> findByCriteria(PurchaseCriteria criteria, Long after, int limit, Set<String> fields) {
+        log.debug("find by criteria : {}, after : {}, fields : {}", criteria, after, fields);
+        final Specification<Purchase> specification = createSpecification(criteria);
+        return purchaseMapper.toDto(findAllAfter(specification, after, limit, fields));
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(PurchaseCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Purchase> specification = createSpecification(criteria);
+        return purchaseRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link PurchaseCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Purchase> createSpecification(PurchaseCriteria criteria) {
+        // Entities are fetched with the magazine, as the inverse side of the one-to-one is not lazy, counts and projections are not
+        Specification<Purchase> specification = Specification.where((root, query, builder) -> {
+            if (Purchase.class == query.getResultType()) {
+                root.fetch(Purchase_.magazine, JoinType.LEFT);
+            }
+            return null;
+        });
+        if (criteria != null) {
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Purchase_.id));
+            }
+            if (criteria.getDate() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getDate(), Purchase_.date));
+            }
+            if (criteria.getTipo() != null) {
+                specification = specification.and(buildSpecification(criteria.getTipo(), Purchase_.tipo));
+            }
+            if (criteria.getSubscriptionId() != null) {
+                specification = specification.and(buildSpecification(criteria.getSubscriptionId(),
+                    root -> root.join(Purchase_.subscription, JoinType.LEFT).get(SubscriptionPlan_.id)));
+            }
+            if (criteria.getCustomersId() != null) {
+                specification = specification.and(buildSpecification(criteria.getCustomersId(),
+                    root -> root.join(Purchase_.customers, JoinType.LEFT).get(Customer_.id)));
+                specification = specification.and(distinct());
+            }
+            if (criteria.getMagazineId() != null) {
+                specification = specification.and(buildSpecification(criteria.getMagazineId(),
+                    root -> root.join(Purchase_.magazine, JoinType.LEFT).get(Magazine_.id)));
+            }
+        }
+        return specification;
+    }
+}
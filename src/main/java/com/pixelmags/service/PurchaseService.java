@@ -11,10 +11,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
@@ -26,6 +30,8 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 @Transactional
 public class PurchaseService {
 
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+
     private final Logger log = LoggerFactory.getLogger(PurchaseService.class);
 
     private final PurchaseRepository purchaseRepository;
@@ -34,10 +40,21 @@ public class PurchaseService {
 
     private final PurchaseSearchRepository purchaseSearchRepository;
 
-    public PurchaseService(PurchaseRepository purchaseRepository, PurchaseMapper purchaseMapper, PurchaseSearchRepository purchaseSearchRepository) {
+    private final EntityManager entityManager;
+
+    private final EntitlementService entitlementService;
+
+    private final SubscriptionExpiryService subscriptionExpiryService;
+
+    public PurchaseService(PurchaseRepository purchaseRepository, PurchaseMapper purchaseMapper, PurchaseSearchRepository purchaseSearchRepository,
+                           EntityManager entityManager, EntitlementService entitlementService,
+                           SubscriptionExpiryService subscriptionExpiryService) {
         this.purchaseRepository = purchaseRepository;
         this.purchaseMapper = purchaseMapper;
         this.purchaseSearchRepository = purchaseSearchRepository;
+        this.entityManager = entityManager;
+        this.entitlementService = entitlementService;
+        this.subscriptionExpiryService = subscriptionExpiryService;
     }
 
     /**
@@ -52,6 +69,8 @@ public class PurchaseService {
         purchase = purchaseRepository.save(purchase);
         PurchaseDTO result = purchaseMapper.toDto(purchase);
         purchaseSearchRepository.save(purchase);
+        entitlementService.onPurchaseChanged(purchase.getId());
+        subscriptionExpiryService.onPurchaseSaved(purchase.getId());
         return result;
     }
 
@@ -68,20 +87,27 @@ public class PurchaseService {
             .collect(Collectors.toCollection(LinkedList::new));
     }
 
-
-
     /**
-     *  Get all the purchases where Magazine is {@code null}.
-     *  @return the list of entities.
+     * Export all the purchases, in id order, without holding them in memory.
+     * <p>
+     * Entities are read through a database cursor, and the persistence context is cleared every
+     * {@value #EXPORT_CLEAR_INTERVAL} entities so that the exported ones can be collected.
+     *
+     * @param consumer the consumer of the entities.
      */
-    @Transactional(readOnly = true) 
-    public List<PurchaseDTO> findAllWhereMagazineIsNull() {
-        log.debug("Request to get all purchases where Magazine is null");
-        return StreamSupport
-            .stream(purchaseRepository.findAll().spliterator(), false)
-            .filter(purchase -> purchase.getMagazine() == null)
-            .map(purchaseMapper::toDto)
-            .collect(Collectors.toCollection(LinkedList::new));
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<PurchaseDTO> consumer) {
+        log.debug("Request to export all Purchases");
+        try (Stream<Purchase> purchases = purchaseRepository.streamAll()) {
+            Iterator<Purchase> iterator = purchases.iterator();
+            long count = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(purchaseMapper.toDto(iterator.next()));
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
     /**
@@ -107,6 +133,7 @@ public class PurchaseService {
 
         purchaseRepository.deleteById(id);
         purchaseSearchRepository.deleteById(id);
+        entitlementService.onPurchaseChanged(id);
     }
 
     /**
@@ -0,0 +1,55 @@
+package com.pixelmags.service;
+
+import java.time.LocalDate;
+
+/**
+ * Application event published by the {@link SubscriptionExpiryService} when a subscription is about to end, or has
+ * ended, once the change of its state is committed.
+ */
+public final class SubscriptionExpiryEvent {
+
+    /**
+     * The kind of event.
+     */
+    public enum Type {
+        RENEWAL_REMINDER, EXPIRATION
+    }
+
+    private final Type type;
+
+    private final long purchaseId;
+
+    private final LocalDate validUntil;
+
+    public SubscriptionExpiryEvent(Type type, long purchaseId, LocalDate validUntil) {
+        this.type = type;
+        this.purchaseId = purchaseId;
+        this.validUntil = validUntil;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getPurchaseId() {
+        return purchaseId;
+    }
+
+    /**
+     * Get the last day of the subscription.
+     *
+     * @return the last day, included.
+     */
+    public LocalDate getValidUntil() {
+        return validUntil;
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriptionExpiryEvent{" +
+            "type=" + type +
+            ", purchaseId=" + purchaseId +
+            ", validUntil=" + validUntil +
+            "}";
+    }
+}
@@ -0,0 +1,337 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Purchase;
+import com.pixelmags.domain.enumeration.PurchaseType;
+import com.pixelmags.repository.PurchaseRepository;
+import com.pixelmags.service.entitlement.CustomerEntitlements;
+import com.pixelmags.service.timer.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service firing the renewal reminders and the expirations of subscriptions, as {@link SubscriptionExpiryEvent}s.
+ * <p>
+ * The last day of each subscription is kept in the {@code subscription_expiry} table, updated with the purchases and
+ * subscription plans, with the progress of its events. Only the subscriptions ending within the configured horizon
+ * and reminder delay are read, by state and day, and their events scheduled in a {@link TimingWheel} advanced every
+ * second, so that they fire within a second of their date: the reminder the configured delay before the end of the
+ * subscription, and the expiration at the start of the day after its last day. Fired events are marked in the table
+ * in chunks, each in its own transaction, and published once it commits. As the state of a subscription only moves
+ * forward, a restart reads the subscriptions not expired yet, firing the overdue events at once, and instances
+ * running concurrently never publish the same event twice. An event is lost if this instance stops between the
+ * commit of its chunk and its publication.
+ */
+@Service
+public class SubscriptionExpiryService {
+
+    static final String SCHEDULED = "SCHEDULED";
+
+    static final String REMINDED = "REMINDED";
+
+    static final String EXPIRED = "EXPIRED";
+
+    private static final long TICK_MILLIS = 1000L;
+
+    // 64 slots of a second, then of about a minute, an hour and three days
+    private static final int WHEEL_SIZE = 64;
+
+    private static final int WHEEL_LEVELS = 4;
+
+    private static final String SELECT_EXPIRY = "select valid_until from subscription_expiry where purchase_id = ?";
+
+    private static final String INSERT_EXPIRY =
+        "insert into subscription_expiry (purchase_id, valid_until, state) values (?, ?, '" + SCHEDULED + "')";
+
+    private static final String UPDATE_EXPIRY =
+        "update subscription_expiry set valid_until = ?, state = '" + SCHEDULED + "' where purchase_id = ?";
+
+    private static final String DELETE_EXPIRY = "delete from subscription_expiry where purchase_id = ?";
+
+    private static final String SELECT_UPCOMING = "select purchase_id, valid_until, state from subscription_expiry " +
+        "where state in ('" + SCHEDULED + "', '" + REMINDED + "') and valid_until <= ?";
+
+    private static final String SELECT_NEXT_UPCOMING = SELECT_UPCOMING + " and valid_until > ?";
+
+    private static final String MARK_REMINDED = "update subscription_expiry set state = '" + REMINDED + "' " +
+        "where purchase_id = ? and valid_until = ? and state = '" + SCHEDULED + "'";
+
+    private static final String MARK_EXPIRED = "update subscription_expiry set state = '" + EXPIRED + "' " +
+        "where purchase_id = ? and valid_until = ? and state <> '" + EXPIRED + "'";
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionExpiryService.class);
+
+    private final PurchaseRepository purchaseRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+
+    private final Duration horizon;
+
+    private final Duration reminderBefore;
+
+    private final int chunkSize;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final Counter reminderCounter;
+
+    private final Counter expirationCounter;
+
+    // The fields below are only used while holding the lock of this service
+
+    private TimingWheel<SubscriptionExpiryEvent> wheel;
+
+    /**
+     * Last day of the subscriptions read into the wheel, the ones ending later being read when the time comes.
+     */
+    private LocalDate loadedThrough;
+
+    public SubscriptionExpiryService(PurchaseRepository purchaseRepository, JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                     ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.SubscriptionExpiry properties = applicationProperties.getSubscriptionExpiry();
+        this.purchaseRepository = purchaseRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.eventPublisher = eventPublisher;
+        this.enabled = properties.isEnabled();
+        this.horizon = properties.getHorizon();
+        this.reminderBefore = properties.getReminderBefore();
+        this.chunkSize = Math.max(1, properties.getChunkSize());
+        this.reminderCounter = eventCounter(meterRegistry, "renewal-reminder");
+        this.expirationCounter = eventCounter(meterRegistry, "expiration");
+        Gauge.builder("subscription.expiry.scheduled", this, SubscriptionExpiryService::getScheduledCount)
+            .description("Number of subscription events waiting in the timing wheel")
+            .register(meterRegistry);
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("subscription.expiry.events")
+            .description("Number of published subscription events, by type")
+            .tag("type", type)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Update the end of a subscription after its purchase was saved, in the current transaction.
+     *
+     * @param purchaseId the id of the saved purchase.
+     */
+    public void onPurchaseSaved(Long purchaseId) {
+        update(purchaseId, purchaseRepository.findExpiryEntryById(purchaseId).map(SubscriptionExpiryService::validUntil)
+            .orElse(null));
+    }
+
+    /**
+     * Update the end of the subscriptions of a subscription plan after it was saved, in the current transaction.
+     *
+     * @param subscriptionPlanId the id of the saved subscription plan.
+     */
+    public void onSubscriptionPlanSaved(Long subscriptionPlanId) {
+        for (PurchaseRepository.ExpiryEntry entry : purchaseRepository.findExpiryEntriesBySubscriptionId(subscriptionPlanId)) {
+            update(entry.getId(), validUntil(entry));
+        }
+    }
+
+    private static LocalDate validUntil(PurchaseRepository.ExpiryEntry entry) {
+        if (entry.getTipo() != PurchaseType.SUBSCRIPTION || entry.getDate() == null || entry.getPeriodo() == null) {
+            return null;
+        }
+        return CustomerEntitlements.subscriptionEnd(entry.getDate(), entry.getPeriodo());
+    }
+
+    private void update(Long purchaseId, LocalDate validUntil) {
+        List<LocalDate> current = jdbcTemplate.query(SELECT_EXPIRY, (rs, rowNum) -> rs.getDate(1).toLocalDate(), purchaseId);
+        if (validUntil == null) {
+            if (!current.isEmpty()) {
+                jdbcTemplate.update(DELETE_EXPIRY, purchaseId);
+            }
+            return;
+        }
+        if (current.isEmpty()) {
+            jdbcTemplate.update(INSERT_EXPIRY, purchaseId, Date.valueOf(validUntil));
+        } else if (!current.get(0).equals(validUntil)) {
+            // A renewed subscription is reminded and expires again
+            jdbcTemplate.update(UPDATE_EXPIRY, Date.valueOf(validUntil), purchaseId);
+        } else {
+            return;
+        }
+        log.debug("Subscription {} is valid until {}", purchaseId, validUntil);
+        afterCommit(() -> schedule(purchaseId, validUntil, SCHEDULED, Instant.now()));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * Fire the events which are due.
+     * <p>
+     * This is scheduled to get run every second.
+     */
+    @Scheduled(initialDelay = 10_000, fixedDelay = 1_000)
+    public void tick() {
+        if (enabled) {
+            advance(Instant.now());
+        }
+    }
+
+    /**
+     * Read the upcoming expiries, fire the events due at a date, and publish them.
+     *
+     * @param now the date.
+     * @return the published events.
+     */
+    List<SubscriptionExpiryEvent> advance(Instant now) {
+        List<SubscriptionExpiryEvent> fired;
+        synchronized (this) {
+            if (wheel == null) {
+                wheel = new TimingWheel<>(now.toEpochMilli(), TICK_MILLIS, WHEEL_SIZE, WHEEL_LEVELS);
+            }
+            load(now);
+            fired = wheel.advance(now.toEpochMilli());
+        }
+        List<SubscriptionExpiryEvent> published = new ArrayList<>();
+        for (int from = 0; from < fired.size(); from += chunkSize) {
+            List<SubscriptionExpiryEvent> chunk = fired.subList(from, Math.min(from + chunkSize, fired.size()));
+            List<SubscriptionExpiryEvent> marked;
+            try {
+                marked = transactionTemplate.execute(status -> mark(chunk, now));
+            } catch (RuntimeException e) {
+                log.warn("Could not mark {} subscription events, they will be fired again on the next tick", chunk.size(), e);
+                synchronized (this) {
+                    chunk.forEach(event -> wheel.schedule(now.toEpochMilli(), event));
+                }
+                continue;
+            }
+            for (SubscriptionExpiryEvent event : marked) {
+                eventPublisher.publishEvent(event);
+                (event.getType() == SubscriptionExpiryEvent.Type.EXPIRATION ? expirationCounter : reminderCounter).increment();
+            }
+            published.addAll(marked);
+        }
+        if (!published.isEmpty()) {
+            log.info("Published {} subscription events", published.size());
+        }
+        return published;
+    }
+
+    /**
+     * Read the subscriptions whose reminder falls within the horizon into the wheel. The lock is held while reading,
+     * so that a subscription saved meanwhile is either read or scheduled once its transaction commits.
+     */
+    private void load(Instant now) {
+        LocalDate through = now.plus(horizon).plus(reminderBefore).atZone(zone).toLocalDate();
+        if (loadedThrough != null && !through.isAfter(loadedThrough)) {
+            return;
+        }
+        RowMapper<Object[]> rowMapper = (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getString(3)};
+        List<Object[]> rows = readOnlyTransactionTemplate.execute(status -> loadedThrough == null
+            ? jdbcTemplate.query(SELECT_UPCOMING, rowMapper, Date.valueOf(through))
+            : jdbcTemplate.query(SELECT_NEXT_UPCOMING, rowMapper, Date.valueOf(through), Date.valueOf(loadedThrough)));
+        log.debug("Read {} subscriptions ending until {}", rows.size(), through);
+        loadedThrough = through;
+        for (Object[] row : rows) {
+            schedule((Long) row[0], (LocalDate) row[1], (String) row[2], now);
+        }
+    }
+
+    private synchronized void schedule(long purchaseId, LocalDate validUntil, String state, Instant now) {
+        if (wheel == null || validUntil.isAfter(loadedThrough)) {
+            return;
+        }
+        Instant expiration = expiration(validUntil);
+        // The reminder of a subscription which already ended would be too late
+        if (SCHEDULED.equals(state) && expiration.isAfter(now)) {
+            wheel.schedule(expiration.minus(reminderBefore).toEpochMilli(),
+                new SubscriptionExpiryEvent(SubscriptionExpiryEvent.Type.RENEWAL_REMINDER, purchaseId, validUntil));
+        }
+        wheel.schedule(expiration.toEpochMilli(),
+            new SubscriptionExpiryEvent(SubscriptionExpiryEvent.Type.EXPIRATION, purchaseId, validUntil));
+    }
+
+    private Instant expiration(LocalDate validUntil) {
+        return validUntil.plusDays(1).atStartOfDay(zone).toInstant();
+    }
+
+    /**
+     * Move the state of the subscriptions of fired events forward, skipping the events of subscriptions which changed
+     * or were already handled since they were scheduled.
+     *
+     * @return the events whose subscription was marked.
+     */
+    private List<SubscriptionExpiryEvent> mark(List<SubscriptionExpiryEvent> events, Instant now) {
+        List<SubscriptionExpiryEvent> reminders = new ArrayList<>();
+        List<SubscriptionExpiryEvent> expirations = new ArrayList<>();
+        for (SubscriptionExpiryEvent event : events) {
+            if (event.getType() == SubscriptionExpiryEvent.Type.EXPIRATION) {
+                expirations.add(event);
+            } else if (expiration(event.getValidUntil()).isAfter(now)) {
+                reminders.add(event);
+            }
+        }
+        List<SubscriptionExpiryEvent> marked = new ArrayList<>();
+        markAll(MARK_REMINDED, reminders, marked);
+        markAll(MARK_EXPIRED, expirations, marked);
+        return marked;
+    }
+
+    private void markAll(String sql, List<SubscriptionExpiryEvent> events, List<SubscriptionExpiryEvent> marked) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(events.size());
+        for (SubscriptionExpiryEvent event : events) {
+            args.add(new Object[]{event.getPurchaseId(), Date.valueOf(event.getValidUntil())});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(sql, args);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] > 0) {
+                marked.add(events.get(i));
+            }
+        }
+    }
+
+    private synchronized double getScheduledCount() {
+        return wheel == null ? 0 : wheel.size();
+    }
+}
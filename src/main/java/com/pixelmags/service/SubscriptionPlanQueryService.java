@@ -0,0 +1,146 @@
+package com.pixelmags.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.JoinType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pixelmags.domain.SubscriptionPlan;
+import com.pixelmags.domain.*; // for static metamodels
+import com.pixelmags.repository.SubscriptionPlanRepository;
+import com.pixelmags.service.dto.SubscriptionPlanCriteria;
+import com.pixelmags.service.dto.SubscriptionPlanDTO;
+import com.pixelmags.service.mapper.SubscriptionPlanMapper;
+
+/**
+ * Service for executing complex queries for {@link SubscriptionPlan} entities in the database.
+ * The main input is a {@link SubscriptionPlanCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link SubscriptionPlanDTO} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SubscriptionPlanQueryService extends KeysetQueryService<SubscriptionPlan> {
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionPlanQueryService.class);
+
+    private final SubscriptionPlanRepository subscriptionPlanRepository;
+
+    private final SubscriptionPlanMapper subscriptionPlanMapper;
+
+    public SubscriptionPlanQueryService(SubscriptionPlanRepository subscriptionPlanRepository, SubscriptionPlanMapper subscriptionPlanMapper, EntityManager entityManager) {
+        super(entityManager, SubscriptionPlan.class);
+        this.subscriptionPlanRepository = subscriptionPlanRepository;
+        this.subscriptionPlanMapper = subscriptionPlanMapper;
+    }
+
+    /**
+     * Return a {@link List} of {@link SubscriptionPlanDTO} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<SubscriptionPlanDTO> findByCriteria(SubscriptionPlanCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<SubscriptionPlan> specification = createSpecification(criteria);
+        return subscriptionPlanMapper.toDto(subscriptionPlanRepository.findAll(specification));
+    }
+
+    /**
+     * Return a page of {@link SubscriptionPlanDTO} which matches the criteria from the database, in id order.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<SubscriptionPlanDTO> findByCriteria(SubscriptionPlanCriteria criteria, Long after, int limit) {
+        log.debug("find by criteria : {}, after : {}", criteria, after);
+        final Specification<SubscriptionPlan> specification = createSpecification(criteria);
+        return subscriptionPlanMapper.toDto(findAllAfter(specification, after, limit));
+    }
+
+    /**
+     * Return a page of {@link SubscriptionPlanDTO} which matches the criteria from the database, in id order, reading only some fields.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities.
+     * @param fields the DTO fields to read, or {@code null} for all of them.
+     * @return the matching entities, whose other fields may be unset.
+     */
+    @Transactional(readOnly = true)
+    public List<SubscriptionPlanDTO> findByCriteria(SubscriptionPlanCriteria criteria, Long after, int limit, Set<String> fields) {
+        log.debug("find by criteria : {}, after : {}, fields : {}", criteria, after, fields);
+        final Specification<SubscriptionPlan> specification = createSpecification(criteria);
+        return subscriptionPlanMapper.toDto(findAllAfter(specification, after, limit, fields));
+    }
+
+    /**
+     * Return the {@link SubscriptionPlanDTO}s with some ids, from the second-level cache for the ones it holds.
+     * @param ids the ids of the entities.
+     * @return the entities found, by id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, SubscriptionPlanDTO> findAllById(Collection<Long> ids) {
+        log.debug("find by ids : {}", ids);
+        Map<Long, SubscriptionPlanDTO> result = new HashMap<>();
+        findAllById(createSpecification(null), ids).forEach((id, entity) -> result.put(id, subscriptionPlanMapper.toDto(entity)));
+        return result;
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(SubscriptionPlanCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<SubscriptionPlan> specification = createSpecification(criteria);
+        return subscriptionPlanRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link SubscriptionPlanCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<SubscriptionPlan> createSpecification(SubscriptionPlanCriteria criteria) {
+        // Entities are fetched with the purchase and its magazine, as the inverse sides of the one-to-ones are not lazy, counts and projections are not
+        Specification<SubscriptionPlan> specification = Specification.where((root, query, builder) -> {
+            if (SubscriptionPlan.class == query.getResultType()) {
+                root.fetch(SubscriptionPlan_.purchase, JoinType.LEFT).fetch(Purchase_.magazine, JoinType.LEFT);
+            }
+            return null;
+        });
+        if (criteria != null) {
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), SubscriptionPlan_.id));
+            }
+            if (criteria.getNome() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getNome(), SubscriptionPlan_.nome));
+            }
+            if (criteria.getPreco() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getPreco(), SubscriptionPlan_.preco));
+            }
+            if (criteria.getPeriodo() != null) {
+                specification = specification.and(buildSpecification(criteria.getPeriodo(), SubscriptionPlan_.periodo));
+            }
+            if (criteria.getPurchaseId() != null) {
+                specification = specification.and(buildSpecification(criteria.getPurchaseId(),
+                    root -> root.join(SubscriptionPlan_.purchase, JoinType.LEFT).get(Purchase_.id)));
+            }
+        }
+        return specification;
+    }
+}
@@ -34,10 +34,17 @@ public class SubscriptionPlanService {
 
     private final SubscriptionPlanSearchRepository subscriptionPlanSearchRepository;
 
-    public SubscriptionPlanService(SubscriptionPlanRepository subscriptionPlanRepository, SubscriptionPlanMapper subscriptionPlanMapper, SubscriptionPlanSearchRepository subscriptionPlanSearchRepository) {
+    private final EntitlementService entitlementService;
+
+    private final SubscriptionExpiryService subscriptionExpiryService;
+
+    public SubscriptionPlanService(SubscriptionPlanRepository subscriptionPlanRepository, SubscriptionPlanMapper subscriptionPlanMapper, SubscriptionPlanSearchRepository subscriptionPlanSearchRepository,
+                                   EntitlementService entitlementService, SubscriptionExpiryService subscriptionExpiryService) {
         this.subscriptionPlanRepository = subscriptionPlanRepository;
         this.subscriptionPlanMapper = subscriptionPlanMapper;
         this.subscriptionPlanSearchRepository = subscriptionPlanSearchRepository;
+        this.entitlementService = entitlementService;
+        this.subscriptionExpiryService = subscriptionExpiryService;
     }
 
     /**
@@ -52,6 +59,8 @@ public class SubscriptionPlanService {
         subscriptionPlan = subscriptionPlanRepository.save(subscriptionPlan);
         SubscriptionPlanDTO result = subscriptionPlanMapper.toDto(subscriptionPlan);
         subscriptionPlanSearchRepository.save(subscriptionPlan);
+        entitlementService.onSubscriptionPlanChanged(subscriptionPlan.getId());
+        subscriptionExpiryService.onSubscriptionPlanSaved(subscriptionPlan.getId());
         return result;
     }
 
@@ -68,22 +77,6 @@ public class SubscriptionPlanService {
             .collect(Collectors.toCollection(LinkedList::new));
     }
 
-
-
-    /**
-     *  Get all the subscriptionPlans where Purchase is {@code null}.
-     *  @return the list of entities.
-     */
-    @Transactional(readOnly = true) 
-    public List<SubscriptionPlanDTO> findAllWherePurchaseIsNull() {
-        log.debug("Request to get all subscriptionPlans where Purchase is null");
-        return StreamSupport
-            .stream(subscriptionPlanRepository.findAll().spliterator(), false)
-            .filter(subscriptionPlan -> subscriptionPlan.getPurchase() == null)
-            .map(subscriptionPlanMapper::toDto)
-            .collect(Collectors.toCollection(LinkedList::new));
-    }
-
     /**
      * Get one subscriptionPlan by id.
      *
@@ -107,6 +100,7 @@ public class SubscriptionPlanService {
 
         subscriptionPlanRepository.deleteById(id);
         subscriptionPlanSearchRepository.deleteById(id);
+        entitlementService.onSubscriptionPlanChanged(id);
     }
 
     /**
@@ -0,0 +1,301 @@
+package com.pixelmags.service;
+
+import com.pixelmags.domain.Log;
+import com.pixelmags.service.catalog.CatalogSnapshot;
+import com.pixelmags.service.dto.CatalogIssueDTO;
+import com.pixelmags.service.dto.TrendingIssueDTO;
+import com.pixelmags.service.sketch.CountMinSketch;
+import com.pixelmags.service.sketch.SpaceSaving;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service ranking the issues with the most {@link Log}s over the last hour and the last day, in memory.
+ * <p>
+ * Created logs are counted once their transaction commits, in one of several stripes picked by the calling thread, so
+ * that threads rarely wait for each other. Each stripe holds a {@link CountMinSketch} of the counts and a
+ * {@link SpaceSaving} summary of the most counted issues. Every few seconds the stripes are drained into a bucket of
+ * {@value #BUCKET_SECONDS} seconds, and the rankings are computed again: the candidates of the summaries of the window
+ * are ranked by their counts in the sketches of the window, which are kept as running sums of their buckets. The last
+ * hour slides by buckets, and the last day by hours. Reading a ranking then only copies its first items.
+ * <p>
+ * Counts are estimates, which may only exceed the true counts, and are lost when this instance stops.
+ */
+@Service
+public class TrendingService {
+
+    /**
+     * Maximum number of issues of a ranking.
+     */
+    public static final int MAX_SIZE = 100;
+
+    static final long BUCKET_SECONDS = 300;
+
+    private static final int BUCKETS_PER_HOUR = 12;
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private static final int SKETCH_WIDTH = 2048;
+
+    private static final int CANDIDATES = 2 * MAX_SIZE;
+
+    private static final Comparator<long[]> BY_COUNT_DESC = (a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1])
+        : Long.compare(a[0], b[0]);
+
+    private final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    private final CatalogService catalogService;
+
+    private final Bucket[] stripes;
+
+    // The fields below are only used while holding the lock of this service
+
+    private final Bucket current = new Bucket();
+
+    private final Bucket currentHour = new Bucket();
+
+    private final Deque<Bucket> lastHour = new ArrayDeque<>();
+
+    private final Deque<Bucket> lastDay = new ArrayDeque<>();
+
+    private final CountMinSketch lastHourCounts = newSketch();
+
+    private final CountMinSketch lastDayCounts = newSketch();
+
+    private final Deque<Bucket> spareBuckets = new ArrayDeque<>();
+
+    private long bucketIndex = -1;
+
+    private volatile Map<Window, long[][]> rankings = emptyRankings();
+
+    public TrendingService(CatalogService catalogService) {
+        this.catalogService = catalogService;
+        int size = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        this.stripes = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Bucket();
+        }
+    }
+
+    /**
+     * The time windows of the rankings.
+     */
+    public enum Window {
+        HOUR, DAY
+    }
+
+    /**
+     * Count the issues of created logs, once the current transaction commits.
+     *
+     * @param logs the created logs.
+     */
+    public void onLogsSaved(Collection<Log> logs) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Log logEntry : logs) {
+            if (logEntry.getEvento() != null && logEntry.getIssue() != null && logEntry.getIssue().getId() != null) {
+                counts.merge(logEntry.getIssue().getId(), 1L, Long::sum);
+            }
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(counts);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                record(counts);
+            }
+        });
+    }
+
+    private void record(Map<Long, Long> counts) {
+        Bucket stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        synchronized (stripe) {
+            counts.forEach(stripe::add);
+        }
+    }
+
+    /**
+     * Get the issues of the catalog with the most logs over a time window, as of the last refresh.
+     * <p>
+     * Issues no longer sold through a magazine are skipped.
+     *
+     * @param window the time window.
+     * @param size the maximum number of issues, up to {@value #MAX_SIZE}.
+     * @return the issues with their counts, most counted first.
+     */
+    public List<TrendingIssueDTO> findTrending(Window window, int size) {
+        long[][] ranking = rankings.get(window);
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        List<TrendingIssueDTO> trending = new ArrayList<>(Math.min(size, ranking.length));
+        for (int i = 0; i < ranking.length && trending.size() < size; i++) {
+            CatalogIssueDTO issue = snapshot.getCatalogIssue(ranking[i][0]);
+            if (issue != null) {
+                trending.add(new TrendingIssueDTO(issue, ranking[i][1]));
+            }
+        }
+        return trending;
+    }
+
+    /**
+     * Drain the stripes and compute the rankings again.
+     * <p>
+     * This is scheduled to get run every 5 seconds.
+     */
+    @Scheduled(initialDelay = 5_000, fixedDelay = 5_000)
+    public void refresh() {
+        refresh(Instant.now());
+    }
+
+    synchronized void refresh(Instant now) {
+        long index = now.getEpochSecond() / BUCKET_SECONDS;
+        if (bucketIndex < 0 || index - bucketIndex > BUCKETS_PER_HOUR * HOURS_PER_DAY) {
+            // Nothing left in the windows after a long pause
+            clearWindows();
+            bucketIndex = index;
+        }
+        while (bucketIndex < index) {
+            closeBucket();
+            bucketIndex++;
+        }
+        for (Bucket stripe : stripes) {
+            synchronized (stripe) {
+                current.add(stripe);
+                stripe.clear();
+            }
+        }
+        Map<Window, long[][]> next = new EnumMap<>(Window.class);
+        next.put(Window.HOUR, rank(lastHour, lastHourCounts, current));
+        next.put(Window.DAY, rank(lastDay, lastDayCounts, current, currentHour));
+        rankings = next;
+        log.trace("Refreshed the trending issues, {} logs over the last day", lastDayCounts.getTotal()
+            + currentHour.counts.getTotal() + current.counts.getTotal());
+    }
+
+    private void closeBucket() {
+        Bucket closed = spare();
+        closed.add(current);
+        current.clear();
+        lastHour.addLast(closed);
+        lastHourCounts.add(closed.counts);
+        if (lastHour.size() >= BUCKETS_PER_HOUR) {
+            Bucket expired = lastHour.removeFirst();
+            lastHourCounts.subtract(expired.counts);
+            spareBuckets.push(expired);
+        }
+        currentHour.add(closed);
+        if ((bucketIndex + 1) % BUCKETS_PER_HOUR == 0) {
+            Bucket hour = spare();
+            hour.add(currentHour);
+            currentHour.clear();
+            lastDay.addLast(hour);
+            lastDayCounts.add(hour.counts);
+            if (lastDay.size() >= HOURS_PER_DAY) {
+                Bucket expired = lastDay.removeFirst();
+                lastDayCounts.subtract(expired.counts);
+                spareBuckets.push(expired);
+            }
+        }
+    }
+
+    private void clearWindows() {
+        spareBuckets.addAll(lastHour);
+        spareBuckets.addAll(lastDay);
+        lastHour.clear();
+        lastDay.clear();
+        lastHourCounts.clear();
+        lastDayCounts.clear();
+        currentHour.clear();
+        current.clear();
+    }
+
+    private Bucket spare() {
+        Bucket bucket = spareBuckets.poll();
+        if (bucket == null) {
+            return new Bucket();
+        }
+        bucket.clear();
+        return bucket;
+    }
+
+    private static long[][] rank(Collection<Bucket> closed, CountMinSketch closedCounts, Bucket... open) {
+        Set<Long> candidates = new HashSet<>();
+        for (Bucket bucket : closed) {
+            bucket.candidates.forEachItem(candidates::add);
+        }
+        for (Bucket bucket : open) {
+            bucket.candidates.forEachItem(candidates::add);
+        }
+        List<long[]> counts = new ArrayList<>(candidates.size());
+        for (long issueId : candidates) {
+            long count = closedCounts.estimate(issueId);
+            for (Bucket bucket : open) {
+                count += bucket.counts.estimate(issueId);
+            }
+            if (count > 0) {
+                counts.add(new long[]{issueId, count});
+            }
+        }
+        counts.sort(BY_COUNT_DESC);
+        return counts.subList(0, Math.min(MAX_SIZE, counts.size())).toArray(new long[0][]);
+    }
+
+    private static Map<Window, long[][]> emptyRankings() {
+        Map<Window, long[][]> empty = new EnumMap<>(Window.class);
+        empty.put(Window.HOUR, new long[0][]);
+        empty.put(Window.DAY, new long[0][]);
+        return Collections.unmodifiableMap(empty);
+    }
+
+    private static CountMinSketch newSketch() {
+        return new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+    }
+
+    /**
+     * Counts of the issues over a period, with the candidates for the rankings.
+     */
+    private static final class Bucket {
+
+        private final CountMinSketch counts = newSketch();
+
+        private final SpaceSaving candidates = new SpaceSaving(CANDIDATES);
+
+        private void add(long issueId, long count) {
+            counts.add(issueId, count);
+            candidates.offer(issueId, count);
+        }
+
+        private void add(Bucket other) {
+            counts.add(other.counts);
+            candidates.merge(other.candidates);
+        }
+
+        private void clear() {
+            counts.clear();
+            candidates.clear();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.pixelmags.service;
+
+import com.pixelmags.domain.Log;
+import com.pixelmags.service.catalog.CatalogSnapshot;
+import com.pixelmags.service.dto.UniqueReadersDTO;
+import com.pixelmags.service.sketch.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service estimating the number of distinct customers reading the issues and the magazines of each publisher.
+ * <p>
+ * The customers of the created {@link Log}s are added to a {@link HyperLogLog} sketch per day and issue, and per day
+ * and publisher of the magazine selling the issue, once their transaction commits. Sketches are merged into the
+ * {@code reader_sketch} table every few seconds. Counting the readers over a range of days merges the sketches of the
+ * range one at a time, so it takes a fixed amount of memory whatever the number of logs or readers, for an error of
+ * about 1%. Pending sketches start sparse, so the many days and issues with few readers take a few bytes each instead
+ * of a full sketch. Magazines sell a single issue, so they share the sketches of their issue.
+ * <p>
+ * Estimates lag behind by up to one flush, and the sketches not flushed yet are lost if this instance stops abruptly.
+ * Logs without a customer, an issue or a date are not counted.
+ */
+@Service
+public class UniqueReaderService {
+
+    private static final String SELECT_SKETCH_FOR_UPDATE =
+        "select sketch from reader_sketch where scope = ? and scope_id = ? and date = ? for update";
+
+    private static final String UPDATE_SKETCH =
+        "update reader_sketch set sketch = ? where scope = ? and scope_id = ? and date = ?";
+
+    private static final String INSERT_SKETCH =
+        "insert into reader_sketch (scope, scope_id, date, sketch) values (?, ?, ?, ?)";
+
+    private static final String SELECT_SKETCHES =
+        "select sketch from reader_sketch where scope = ? and scope_id = ? and date between ? and ?";
+
+    private final Logger log = LoggerFactory.getLogger(UniqueReaderService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CatalogService catalogService;
+
+    /**
+     * Held shared while adding readers, and exclusively while swapping the pending sketches for flushing, so that no
+     * reader is added to a sketch being flushed.
+     */
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+
+    private Map<SketchKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    public UniqueReaderService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               CatalogService catalogService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogService = catalogService;
+    }
+
+    /**
+     * The subjects of the sketches.
+     */
+    public enum Scope {
+        ISSUE, PUBLISHER
+    }
+
+    /**
+     * Add the customers of created logs, once the current transaction commits.
+     *
+     * @param logs the created logs.
+     */
+    public void onLogsSaved(Collection<Log> logs) {
+        Map<SketchKey, List<Long>> readers = new HashMap<>();
+        CatalogSnapshot snapshot = null;
+        for (Log logEntry : logs) {
+            if (logEntry.getCustomerId() == null || logEntry.getDate() == null || logEntry.getIssue() == null
+                || logEntry.getIssue().getId() == null) {
+                continue;
+            }
+            long issueId = logEntry.getIssue().getId();
+            readers.computeIfAbsent(new SketchKey(Scope.ISSUE, issueId, logEntry.getDate()), key -> new ArrayList<>())
+                .add(logEntry.getCustomerId());
+            if (snapshot == null) {
+                snapshot = catalogService.getSnapshot();
+            }
+            CatalogSnapshot.MagazineEntry magazine = snapshot.getMagazineOfIssue(issueId);
+            if (magazine != null && magazine.getPublisherId() != null) {
+                readers.computeIfAbsent(new SketchKey(Scope.PUBLISHER, magazine.getPublisherId(), logEntry.getDate()),
+                    key -> new ArrayList<>()).add(logEntry.getCustomerId());
+            }
+        }
+        if (readers.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(readers);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                add(readers);
+            }
+        });
+    }
+
+    private void add(Map<SketchKey, List<Long>> readers) {
+        pendingLock.readLock().lock();
+        try {
+            // Sketches are not thread-safe, so each one is only changed within the lock of its key
+            readers.forEach((key, customerIds) -> pending.compute(key, (k, sketch) -> {
+                HyperLogLog result = sketch == null ? new HyperLogLog() : sketch;
+                customerIds.forEach(result::add);
+                return result;
+            }));
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    private void merge(Map<SketchKey, HyperLogLog> sketches) {
+        pendingLock.readLock().lock();
+        try {
+            sketches.forEach((key, sketch) -> pending.merge(key, sketch, HyperLogLog::merge));
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merge the pending sketches into the {@code reader_sketch} table, in one transaction.
+     * <p>
+     * This is scheduled to get run every 10 seconds. Sketches are kept in memory for the next flush if the transaction
+     * fails.
+     *
+     * @return the number of updated rows.
+     */
+    @Scheduled(initialDelay = 10_000, fixedDelay = 10_000)
+    public int flush() {
+        Map<SketchKey, HyperLogLog> flushed;
+        pendingLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            flushed = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        // Rows are always locked in the same order, so that instances flushing concurrently cannot deadlock
+        List<SketchKey> keys = new ArrayList<>(flushed.keySet());
+        keys.sort(null);
+        try {
+            transactionTemplate.execute(status -> {
+                keys.forEach(key -> upsert(key, flushed.get(key)));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} reader sketches, they will be flushed again later", keys.size(), e);
+            merge(flushed);
+            return 0;
+        }
+        return keys.size();
+    }
+
+    /**
+     * Flush the pending sketches when the application stops.
+     */
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    private void upsert(SketchKey key, HyperLogLog sketch) {
+        Date date = Date.valueOf(key.day);
+        List<byte[]> stored = jdbcTemplate.queryForList(SELECT_SKETCH_FOR_UPDATE, byte[].class, key.scope.name(),
+            key.id, date);
+        if (stored.isEmpty()) {
+            jdbcTemplate.update(INSERT_SKETCH, key.scope.name(), key.id, date, sketch.toBytes());
+        } else {
+            HyperLogLog merged = HyperLogLog.fromBytes(stored.get(0)).merge(sketch);
+            jdbcTemplate.update(UPDATE_SKETCH, merged.toBytes(), key.scope.name(), key.id, date);
+        }
+    }
+
+    /**
+     * Estimate the number of distinct readers of an issue or of the magazines of a publisher over a range of days, as
+     * of the last flush.
+     *
+     * @param scope the subject of the sketches.
+     * @param id the id of the issue or of the publisher.
+     * @param from the first day, included.
+     * @param to the last day, included.
+     * @return the estimate.
+     */
+    @Transactional(readOnly = true)
+    public UniqueReadersDTO estimate(Scope scope, Long id, LocalDate from, LocalDate to) {
+        log.debug("Request to estimate the unique readers of {} {} from {} to {}", scope, id, from, to);
+        HyperLogLog merged = new HyperLogLog();
+        jdbcTemplate.query(SELECT_SKETCHES, rs -> {
+            merged.merge(HyperLogLog.fromBytes(rs.getBytes(1)));
+        }, scope.name(), id, Date.valueOf(from), Date.valueOf(to));
+        return new UniqueReadersDTO(from, to, merged.estimate(), HyperLogLog.standardError(merged.getPrecision()));
+    }
+
+    private static final class SketchKey implements Comparable<SketchKey> {
+
+        private final Scope scope;
+
+        private final long id;
+
+        private final LocalDate day;
+
+        private SketchKey(Scope scope, long id, LocalDate day) {
+            this.scope = scope;
+            this.id = id;
+            this.day = day;
+        }
+
+        @Override
+        public int compareTo(SketchKey other) {
+            int result = scope.compareTo(other.scope);
+            if (result == 0) {
+                result = Long.compare(id, other.id);
+            }
+            return result != 0 ? result : day.compareTo(other.day);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SketchKey)) {
+                return false;
+            }
+            SketchKey other = (SketchKey) o;
+            return scope == other.scope && id == other.id && day.equals(other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, id, day);
+        }
+    }
+}
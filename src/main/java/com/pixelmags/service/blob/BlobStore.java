@@ -0,0 +1,60 @@
+package com.pixelmags.service.blob;
+
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage of binary content.
+ * <p>
+ * Blobs are identified by the lowercase hexadecimal SHA-256 of their bytes, so storing the same content twice
+ * is a no-op and a hash reference never goes stale. Implementations must be thread-safe.
+ */
+public interface BlobStore {
+
+    /**
+     * Store a blob.
+     *
+     * @param content the bytes to store.
+     * @return the hash of the blob.
+     * @throws BlobStoreException if the blob cannot be written.
+     */
+    String put(byte[] content);
+
+    /**
+     * Store a blob read from a stream, without holding it in memory.
+     *
+     * @param content the stream to store, consumed but not closed.
+     * @return the hash of the blob.
+     * @throws BlobStoreException if the blob cannot be written.
+     */
+    String put(InputStream content);
+
+    /**
+     * Get a blob.
+     * <p>
+     * File-backed implementations return a resource for which {@link Resource#isFile()} is {@code true},
+     * so that the web layer can send it without copying it through the heap.
+     *
+     * @param hash the hash of the blob.
+     * @return the blob, or empty if it is not stored.
+     */
+    Optional<Resource> get(String hash);
+
+    /**
+     * Check whether a blob is stored.
+     *
+     * @param hash the hash of the blob.
+     * @return {@code true} if the blob is stored.
+     */
+    boolean exists(String hash);
+
+    /**
+     * Delete a blob. Callers are responsible for checking that it is not referenced anymore.
+     *
+     * @param hash the hash of the blob.
+     * @throws BlobStoreException if the blob cannot be deleted.
+     */
+    void delete(String hash);
+}
@@ -0,0 +1,13 @@
+package com.pixelmags.service.blob;
+
+/**
+ * Thrown when a {@link BlobStore} cannot read or write a blob.
+ */
+public class BlobStoreException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BlobStoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
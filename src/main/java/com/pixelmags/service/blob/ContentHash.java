@@ -0,0 +1,50 @@
+package com.pixelmags.service.blob;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility class computing the SHA-256 hashes that identify blobs.
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    /**
+     * Create a new SHA-256 digest, for content that is hashed incrementally.
+     *
+     * @return the digest.
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Hash some content.
+     *
+     * @param content the content to hash.
+     * @return the lowercase hexadecimal SHA-256 of the content.
+     */
+    public static String sha256Hex(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    /**
+     * Format a digest.
+     *
+     * @param digest the digest bytes.
+     * @return the lowercase hexadecimal digest.
+     */
+    public static String toHex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
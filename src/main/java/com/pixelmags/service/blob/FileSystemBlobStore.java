@@ -0,0 +1,148 @@
+package com.pixelmags.service.blob;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BlobStore} keeping each blob in its own file under a root directory.
+ * <p>
+ * Blobs live in {@code <root>/<hash[0..2]>/<hash[2..4]>/<hash>}, so that no directory grows too large.
+ * They are first written to {@code <root>/tmp} and then atomically moved in place, so readers never see
+ * a partial blob and a crash only leaves garbage in the temporary directory.
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Logger log = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+    private final Path root;
+
+    private final Path tmp;
+
+    public FileSystemBlobStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+        try {
+            Files.createDirectories(tmp);
+        } catch (IOException e) {
+            throw new BlobStoreException("Cannot create blob store in " + this.root, e);
+        }
+        log.info("Blob store located in {}", this.root);
+    }
+
+    @Override
+    public String put(byte[] content) {
+        String hash = ContentHash.sha256Hex(content);
+        if (exists(hash)) {
+            return hash;
+        }
+        Path file = createTempFile();
+        try {
+            Files.write(file, content);
+            moveInPlace(file, hash);
+            return hash;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new BlobStoreException("Cannot write blob " + hash, e);
+        }
+    }
+
+    @Override
+    public String put(InputStream content) {
+        Path file = createTempFile();
+        try {
+            MessageDigest digest = ContentHash.newDigest();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String hash = ContentHash.toHex(digest.digest());
+            moveInPlace(file, hash);
+            return hash;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new BlobStoreException("Cannot write blob", e);
+        }
+    }
+
+    @Override
+    public Optional<Resource> get(String hash) {
+        Path path = path(hash);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileSystemResource(path));
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.isRegularFile(path(hash));
+    }
+
+    @Override
+    public void delete(String hash) {
+        try {
+            Files.deleteIfExists(path(hash));
+        } catch (IOException e) {
+            throw new BlobStoreException("Cannot delete blob " + hash, e);
+        }
+    }
+
+    private Path path(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Path createTempFile() {
+        try {
+            return Files.createTempFile(tmp, "blob", ".tmp");
+        } catch (IOException e) {
+            throw new BlobStoreException("Cannot create temporary blob in " + tmp, e);
+        }
+    }
+
+    private void moveInPlace(Path file, String hash) throws IOException {
+        Path target = path(hash);
+        if (Files.exists(target)) {
+            Files.delete(file);
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Another thread stored the same content first
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete temporary blob {}", file, e);
+        }
+    }
+}
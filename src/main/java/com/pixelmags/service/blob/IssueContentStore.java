@@ -0,0 +1,201 @@
+package com.pixelmags.service.blob;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Store keeping the pages and the packaged bundle of each issue in files under a root directory.
+ * <p>
+ * Files live in {@code <root>/<issueId>/page-<number>.<extension>} and {@code <root>/<issueId>/bundle.zip}, so they can
+ * be sent straight from disk. Like in {@link FileSystemBlobStore}, they are first written to {@code <root>/tmp} and then
+ * atomically moved in place, so a download never sees a partial file.
+ */
+public class IssueContentStore {
+
+    public static final String BUNDLE_CONTENT_TYPE = "application/zip";
+
+    private static final Map<String, String> PAGE_EXTENSIONS;
+
+    static {
+        Map<String, String> extensions = new LinkedHashMap<>();
+        extensions.put("image/jpeg", "jpg");
+        extensions.put("image/png", "png");
+        extensions.put("image/webp", "webp");
+        extensions.put("application/pdf", "pdf");
+        PAGE_EXTENSIONS = Collections.unmodifiableMap(extensions);
+    }
+
+    private static final String BUNDLE_FILE = "bundle.zip";
+
+    private final Logger log = LoggerFactory.getLogger(IssueContentStore.class);
+
+    private final Path root;
+
+    private final Path tmp;
+
+    public IssueContentStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+        try {
+            Files.createDirectories(tmp);
+        } catch (IOException e) {
+            throw new BlobStoreException("Cannot create issue content store in " + this.root, e);
+        }
+        log.info("Issue content store located in {}", this.root);
+    }
+
+    /**
+     * Check whether pages may be stored with a content type.
+     *
+     * @param contentType the content type.
+     * @return true for JPEG, PNG, WebP and PDF pages.
+     */
+    public static boolean isPageContentType(String contentType) {
+        return PAGE_EXTENSIONS.containsKey(contentType);
+    }
+
+    /**
+     * Find the file of one page.
+     *
+     * @param issueId the id of the issue.
+     * @param page the page number, starting at 1.
+     * @return the file, or empty if the page has not been stored.
+     */
+    public Optional<Path> findPage(long issueId, int page) {
+        return PAGE_EXTENSIONS.values().stream()
+            .map(extension -> pagePath(issueId, page, extension))
+            .filter(Files::isRegularFile)
+            .findFirst();
+    }
+
+    /**
+     * Find the bundle file of one issue.
+     *
+     * @param issueId the id of the issue.
+     * @return the file, or empty if the bundle has not been stored.
+     */
+    public Optional<Path> findBundle(long issueId) {
+        Path path = issueDirectory(issueId).resolve(BUNDLE_FILE);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Get the content type of a file returned by this store.
+     *
+     * @param file the file.
+     * @return the content type.
+     */
+    public String contentType(Path file) {
+        String name = file.getFileName().toString();
+        if (BUNDLE_FILE.equals(name)) {
+            return BUNDLE_CONTENT_TYPE;
+        }
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        return PAGE_EXTENSIONS.entrySet().stream()
+            .filter(entry -> entry.getValue().equals(extension))
+            .map(Map.Entry::getKey)
+            .findFirst()
+            .orElse("application/octet-stream");
+    }
+
+    /**
+     * Store one page, replacing the previous version, whatever its content type.
+     *
+     * @param issueId the id of the issue.
+     * @param page the page number, starting at 1.
+     * @param contentType the content type of the page, as accepted by {@link #isPageContentType(String)}.
+     * @param content the page content, read until its end but not closed.
+     * @return the stored file.
+     */
+    public Path putPage(long issueId, int page, String contentType, InputStream content) {
+        String extension = PAGE_EXTENSIONS.get(contentType);
+        if (extension == null) {
+            throw new IllegalArgumentException("Unsupported page content type: " + contentType);
+        }
+        Path target = write(pagePath(issueId, page, extension), content);
+        PAGE_EXTENSIONS.values().stream()
+            .filter(other -> !other.equals(extension))
+            .forEach(other -> deleteQuietly(pagePath(issueId, page, other)));
+        return target;
+    }
+
+    /**
+     * Store the bundle of one issue, replacing the previous version.
+     *
+     * @param issueId the id of the issue.
+     * @param content the bundle content, read until its end but not closed.
+     * @return the stored file.
+     */
+    public Path putBundle(long issueId, InputStream content) {
+        return write(issueDirectory(issueId).resolve(BUNDLE_FILE), content);
+    }
+
+    /**
+     * Delete all the content of one issue.
+     *
+     * @param issueId the id of the issue.
+     */
+    public void delete(long issueId) {
+        Path directory = issueDirectory(issueId);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            throw new BlobStoreException("Cannot delete content of issue " + issueId, e);
+        }
+    }
+
+    private Path issueDirectory(long issueId) {
+        if (issueId <= 0) {
+            throw new IllegalArgumentException("Invalid issue id: " + issueId);
+        }
+        return root.resolve(Long.toString(issueId));
+    }
+
+    private Path pagePath(long issueId, int page, String extension) {
+        if (page <= 0) {
+            throw new IllegalArgumentException("Invalid page number: " + page);
+        }
+        return issueDirectory(issueId).resolve(String.format("page-%04d.%s", page, extension));
+    }
+
+    private Path write(Path target, InputStream content) {
+        Path file;
+        try {
+            file = Files.createTempFile(tmp, "content", ".tmp");
+        } catch (IOException e) {
+            throw new BlobStoreException("Cannot create temporary file in " + tmp, e);
+        }
+        try {
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return target;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new BlobStoreException("Cannot write " + target, e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}", file, e);
+        }
+    }
+}
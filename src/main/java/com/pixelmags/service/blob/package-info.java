@@ -0,0 +1,4 @@
+/**
+ * Storage of binary content outside of the database.
+ */
+package com.pixelmags.service.blob;
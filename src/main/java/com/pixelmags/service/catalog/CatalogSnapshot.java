@@ -0,0 +1,361 @@
+package com.pixelmags.service.catalog;
+
+import com.pixelmags.service.dto.CatalogIssueDTO;
+import com.pixelmags.service.mapper.IssueMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable, versioned copy of the catalog: publishers, magazines with their price, and issues.
+ * <p>
+ * Each change returns a new snapshot with the next version, sharing what did not change, so readers holding a
+ * snapshot never see it move. The issues sold through a magazine, sorted as requested, are derived once per snapshot
+ * and sort, on the first read, as is the magazine selling each issue.
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<CatalogItem> BY_ID = Comparator.comparingLong(item -> item.issue.id);
+
+    private final long version;
+
+    private final Instant lastModified;
+
+    private final LongMap<PublisherEntry> publishers;
+
+    private final LongMap<MagazineEntry> magazines;
+
+    private final LongMap<IssueEntry> issues;
+
+    private final ConcurrentMap<Sort, CatalogItem[]> sortedItems = new ConcurrentHashMap<>();
+
+    private volatile Map<Long, MagazineEntry> magazinesByIssue;
+
+    public CatalogSnapshot(long version, Instant lastModified, LongMap<PublisherEntry> publishers,
+                           LongMap<MagazineEntry> magazines, LongMap<IssueEntry> issues) {
+        this.version = version;
+        this.lastModified = lastModified;
+        this.publishers = publishers;
+        this.magazines = magazines;
+        this.issues = issues;
+    }
+
+    /**
+     * Get the version of this snapshot, which increases with each change of the catalog.
+     *
+     * @return the version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the date of the change which created this snapshot.
+     *
+     * @return the last modification date.
+     */
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Get the number of issues, whether sold through a magazine or not.
+     *
+     * @return the number of issues.
+     */
+    public int getIssueCount() {
+        return issues.size();
+    }
+
+    public PublisherEntry getPublisher(long id) {
+        return publishers.get(id);
+    }
+
+    public MagazineEntry getMagazine(long id) {
+        return magazines.get(id);
+    }
+
+    public IssueEntry getIssue(long id) {
+        return issues.get(id);
+    }
+
+    /**
+     * Get the magazine selling an issue.
+     *
+     * @param issueId the id of the issue.
+     * @return the magazine, or null if the issue is not sold through a magazine.
+     */
+    public MagazineEntry getMagazineOfIssue(long issueId) {
+        Map<Long, MagazineEntry> index = magazinesByIssue;
+        if (index == null) {
+            Map<Long, MagazineEntry> byIssue = new HashMap<>();
+            magazines.forEach((id, magazine) -> {
+                if (magazine.issueId != null) {
+                    byIssue.put(magazine.issueId, magazine);
+                }
+            });
+            magazinesByIssue = index = byIssue;
+        }
+        return index.get(issueId);
+    }
+
+    /**
+     * Get an issue as listed in the catalog.
+     *
+     * @param issueId the id of the issue.
+     * @return the catalog issue, or null if the issue is not sold through a magazine.
+     */
+    public CatalogIssueDTO getCatalogIssue(long issueId) {
+        IssueEntry issue = issues.get(issueId);
+        MagazineEntry magazine = getMagazineOfIssue(issueId);
+        if (issue == null || magazine == null) {
+            return null;
+        }
+        PublisherEntry publisher = magazine.publisherId == null ? null : publishers.get(magazine.publisherId);
+        return new CatalogItem(issue, magazine, publisher == null ? null : publisher.nome).toDto();
+    }
+
+    public CatalogSnapshot withPublisher(PublisherEntry publisher) {
+        return changed(publishers.with(publisher.id, publisher), magazines, issues);
+    }
+
+    public CatalogSnapshot withoutPublisher(long id) {
+        return changed(publishers.without(id), magazines, issues);
+    }
+
+    public CatalogSnapshot withMagazine(MagazineEntry magazine) {
+        return changed(publishers, magazines.with(magazine.id, magazine), issues);
+    }
+
+    public CatalogSnapshot withoutMagazine(long id) {
+        return changed(publishers, magazines.without(id), issues);
+    }
+
+    public CatalogSnapshot withIssue(IssueEntry issue) {
+        return changed(publishers, magazines, issues.with(issue.id, issue));
+    }
+
+    public CatalogSnapshot withoutIssue(long id) {
+        return changed(publishers, magazines, issues.without(id));
+    }
+
+    private CatalogSnapshot changed(LongMap<PublisherEntry> publishers, LongMap<MagazineEntry> magazines,
+                                    LongMap<IssueEntry> issues) {
+        return new CatalogSnapshot(version + 1, Instant.now(), publishers, magazines, issues);
+    }
+
+    /**
+     * Copy this snapshot with a new cover hash for one issue.
+     *
+     * @param id the id of the issue.
+     * @param coverHash the hash of its cover.
+     * @return the new snapshot, or this snapshot if the issue is not in it.
+     */
+    public CatalogSnapshot withIssueCover(long id, String coverHash) {
+        IssueEntry issue = issues.get(id);
+        if (issue == null) {
+            return this;
+        }
+        return withIssue(new IssueEntry(issue.id, issue.edicao, issue.manchete, issue.dataLancamento,
+            issue.coverContentType, coverHash));
+    }
+
+    /**
+     * Get a page of the issues sold through a magazine.
+     *
+     * @param pageable the pagination information, sorted by {@code dataLancamento} or {@code id}.
+     * @return the page of catalog issues, ties broken by id so that pages do not overlap.
+     * @throws IllegalArgumentException if the sort property is not supported.
+     */
+    public Page<CatalogIssueDTO> findPage(Pageable pageable) {
+        CatalogItem[] items = sortedItems.computeIfAbsent(pageable.getSort(), this::sortItems);
+        List<CatalogIssueDTO> content = new ArrayList<>();
+        long end = Math.min(items.length, pageable.getOffset() + pageable.getPageSize());
+        for (long i = pageable.getOffset(); i < end; i++) {
+            content.add(items[(int) i].toDto());
+        }
+        return new PageImpl<>(content, pageable, items.length);
+    }
+
+    private CatalogItem[] sortItems(Sort sort) {
+        List<CatalogItem> items = new ArrayList<>(magazines.size());
+        magazines.forEach((id, magazine) -> {
+            IssueEntry issue = magazine.issueId == null ? null : issues.get(magazine.issueId);
+            if (issue != null) {
+                PublisherEntry publisher = magazine.publisherId == null ? null : publishers.get(magazine.publisherId);
+                items.add(new CatalogItem(issue, magazine, publisher == null ? null : publisher.nome));
+            }
+        });
+        CatalogItem[] sorted = items.toArray(new CatalogItem[0]);
+        Arrays.sort(sorted, comparator(sort));
+        return sorted;
+    }
+
+    private static Comparator<CatalogItem> comparator(Sort sort) {
+        Comparator<CatalogItem> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<CatalogItem> next;
+            if ("id".equals(order.getProperty())) {
+                next = order.isAscending() ? BY_ID : BY_ID.reversed();
+            } else if ("dataLancamento".equals(order.getProperty())) {
+                Comparator<LocalDate> dates = order.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+                next = Comparator.comparing(item -> item.issue.dataLancamento, Comparator.nullsLast(dates));
+            } else {
+                throw new IllegalArgumentException("Unsupported catalog sort property: " + order.getProperty());
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        if (sort.getOrderFor("id") == null) {
+            comparator = comparator == null ? BY_ID : comparator.thenComparing(BY_ID);
+        }
+        return comparator;
+    }
+
+    /**
+     * A publisher of the catalog.
+     */
+    public static final class PublisherEntry {
+
+        private final long id;
+
+        private final String nome;
+
+        public PublisherEntry(long id, String nome) {
+            this.id = id;
+            this.nome = nome;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+    }
+
+    /**
+     * A magazine of the catalog, selling one issue.
+     */
+    public static final class MagazineEntry {
+
+        private final long id;
+
+        private final BigDecimal preco;
+
+        private final Long issueId;
+
+        private final Long publisherId;
+
+        public MagazineEntry(long id, BigDecimal preco, Long issueId, Long publisherId) {
+            this.id = id;
+            this.preco = preco;
+            this.issueId = issueId;
+            this.publisherId = publisherId;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public BigDecimal getPreco() {
+            return preco;
+        }
+
+        public Long getIssueId() {
+            return issueId;
+        }
+
+        public Long getPublisherId() {
+            return publisherId;
+        }
+    }
+
+    /**
+     * An issue of the catalog, without its cover bytes.
+     */
+    public static final class IssueEntry {
+
+        private final long id;
+
+        private final String edicao;
+
+        private final String manchete;
+
+        private final LocalDate dataLancamento;
+
+        private final String coverContentType;
+
+        private final String coverHash;
+
+        public IssueEntry(long id, String edicao, String manchete, LocalDate dataLancamento, String coverContentType,
+                          String coverHash) {
+            this.id = id;
+            this.edicao = edicao;
+            this.manchete = manchete;
+            this.dataLancamento = dataLancamento;
+            this.coverContentType = coverContentType;
+            this.coverHash = coverHash;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getEdicao() {
+            return edicao;
+        }
+
+        public String getManchete() {
+            return manchete;
+        }
+
+        public LocalDate getDataLancamento() {
+            return dataLancamento;
+        }
+
+        public String getCoverUrl() {
+            return IssueMapper.coverUrl(id, coverContentType, coverHash);
+        }
+    }
+
+    private static final class CatalogItem {
+
+        private final IssueEntry issue;
+
+        private final MagazineEntry magazine;
+
+        private final String publisherNome;
+
+        private CatalogItem(IssueEntry issue, MagazineEntry magazine, String publisherNome) {
+            this.issue = issue;
+            this.magazine = magazine;
+            this.publisherNome = publisherNome;
+        }
+
+        private CatalogIssueDTO toDto() {
+            CatalogIssueDTO catalogIssue = new CatalogIssueDTO();
+            catalogIssue.setId(issue.id);
+            catalogIssue.setEdicao(issue.edicao);
+            catalogIssue.setManchete(issue.manchete);
+            catalogIssue.setDataLancamento(issue.dataLancamento);
+            catalogIssue.setPublisherNome(publisherNome);
+            catalogIssue.setPreco(magazine.preco);
+            catalogIssue.setCoverUrl(issue.getCoverUrl());
+            return catalogIssue;
+        }
+    }
+}
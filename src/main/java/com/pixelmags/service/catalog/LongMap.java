@@ -0,0 +1,134 @@
+package com.pixelmags.service.catalog;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable map with primitive {@code long} keys, kept as a sorted array of keys next to an array of values.
+ * <p>
+ * Lookups are a binary search on the keys, without boxing them, and updates copy both arrays: this suits maps read
+ * far more often than they are written, such as the ones of a {@link CatalogSnapshot}.
+ *
+ * @param <V> the type of the values.
+ */
+public final class LongMap<V> {
+
+    private static final LongMap<?> EMPTY = new LongMap<>(new long[0], new Object[0]);
+
+    private final long[] keys;
+
+    private final Object[] values;
+
+    private LongMap(long[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> LongMap<V> empty() {
+        return (LongMap<V>) EMPTY;
+    }
+
+    /**
+     * Build a map from its entries, in any order.
+     *
+     * @param keys the keys, without duplicates.
+     * @param values the values, in the order of their keys.
+     * @param <V> the type of the values.
+     * @return the map.
+     */
+    public static <V> LongMap<V> of(long[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values differ in length");
+        }
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+        long[] sortedKeys = new long[keys.length];
+        Object[] sortedValues = new Object[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedValues[i] = values[order[i]];
+            if (i > 0 && sortedKeys[i] == sortedKeys[i - 1]) {
+                throw new IllegalArgumentException("Duplicate key " + sortedKeys[i]);
+            }
+        }
+        return new LongMap<>(sortedKeys, sortedValues);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key the key.
+     * @return the value, or {@code null} if the key is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    /**
+     * Copy this map with one more entry, replacing the previous value of the key.
+     *
+     * @param key the key.
+     * @param value the value, not {@code null}.
+     * @return the new map.
+     */
+    public LongMap<V> with(long key, V value) {
+        int index = Arrays.binarySearch(keys, key);
+        if (index >= 0) {
+            Object[] newValues = values.clone();
+            newValues[index] = value;
+            return new LongMap<>(keys, newValues);
+        }
+        int insertion = -index - 1;
+        long[] newKeys = new long[keys.length + 1];
+        Object[] newValues = new Object[values.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, insertion);
+        System.arraycopy(values, 0, newValues, 0, insertion);
+        newKeys[insertion] = key;
+        newValues[insertion] = value;
+        System.arraycopy(keys, insertion, newKeys, insertion + 1, keys.length - insertion);
+        System.arraycopy(values, insertion, newValues, insertion + 1, values.length - insertion);
+        return new LongMap<>(newKeys, newValues);
+    }
+
+    /**
+     * Copy this map without a key.
+     *
+     * @param key the key.
+     * @return the new map, or this map if the key is not in it.
+     */
+    public LongMap<V> without(long key) {
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            return this;
+        }
+        long[] newKeys = new long[keys.length - 1];
+        Object[] newValues = new Object[values.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, index);
+        System.arraycopy(values, 0, newValues, 0, index);
+        System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+        System.arraycopy(values, index + 1, newValues, index, values.length - index - 1);
+        return new LongMap<>(newKeys, newValues);
+    }
+
+    /**
+     * Visit the entries in key order.
+     *
+     * @param action the action run for each entry.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<Long, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], (V) values[i]);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * In-memory catalog of publishers, magazines and issues, served without touching the database.
+ */
+package com.pixelmags.service.catalog;
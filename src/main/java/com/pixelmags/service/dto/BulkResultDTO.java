@@ -0,0 +1,79 @@
+package com.pixelmags.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for the result of one item of a bulk write: the saved entity, or the reason it was not saved.
+ *
+ * @param <T> the type of the entity DTO.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkResultDTO<T> implements Serializable {
+
+    private int index;
+
+    private int status;
+
+    private T entity;
+
+    private String error;
+
+    public BulkResultDTO() {
+    }
+
+    public BulkResultDTO(int index, int status, T entity, String error) {
+        this.index = index;
+        this.status = status;
+        this.entity = entity;
+        this.error = error;
+    }
+
+    /**
+     * @return the position of the item in the request.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * @return the HTTP status the item would have got from the single-entity endpoint.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public T getEntity() {
+        return entity;
+    }
+
+    public void setEntity(T entity) {
+        this.entity = entity;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResultDTO{" +
+            "index=" + getIndex() +
+            ", status=" + getStatus() +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,96 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A DTO for an issue of the catalog, with only what the reader app lists: its magazine price,
+ * its publisher name and the URL of its cover.
+ */
+public class CatalogIssueDTO implements Serializable {
+
+    private Long id;
+
+    private String edicao;
+
+    private String manchete;
+
+    private LocalDate dataLancamento;
+
+    private String publisherNome;
+
+    private BigDecimal preco;
+
+    private String coverUrl;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEdicao() {
+        return edicao;
+    }
+
+    public void setEdicao(String edicao) {
+        this.edicao = edicao;
+    }
+
+    public String getManchete() {
+        return manchete;
+    }
+
+    public void setManchete(String manchete) {
+        this.manchete = manchete;
+    }
+
+    public LocalDate getDataLancamento() {
+        return dataLancamento;
+    }
+
+    public void setDataLancamento(LocalDate dataLancamento) {
+        this.dataLancamento = dataLancamento;
+    }
+
+    public String getPublisherNome() {
+        return publisherNome;
+    }
+
+    public void setPublisherNome(String publisherNome) {
+        this.publisherNome = publisherNome;
+    }
+
+    public BigDecimal getPreco() {
+        return preco;
+    }
+
+    public void setPreco(BigDecimal preco) {
+        this.preco = preco;
+    }
+
+    public String getCoverUrl() {
+        return coverUrl;
+    }
+
+    public void setCoverUrl(String coverUrl) {
+        this.coverUrl = coverUrl;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CatalogIssueDTO{" +
+            "id=" + getId() +
+            ", edicao='" + getEdicao() + "'" +
+            ", manchete='" + getManchete() + "'" +
+            ", dataLancamento='" + getDataLancamento() + "'" +
+            ", publisherNome='" + getPublisherNome() + "'" +
+            ", preco=" + getPreco() +
+            ", coverUrl='" + getCoverUrl() + "'" +
+            "}";
+    }
+}
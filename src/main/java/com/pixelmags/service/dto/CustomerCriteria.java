@@ -0,0 +1,128 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import io.github.jhipster.service.Criteria;
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the {@link com.pixelmags.domain.Customer} entity. This class is used
+ * in {@link com.pixelmags.web.rest.CustomerResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /customers?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+public class CustomerCriteria implements Serializable, Criteria {
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter name;
+
+    private StringFilter email;
+
+    private StringFilter fcm;
+
+    private LongFilter purchasesId;
+
+    public CustomerCriteria() {
+    }
+
+    public CustomerCriteria(CustomerCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.name = other.name == null ? null : other.name.copy();
+        this.email = other.email == null ? null : other.email.copy();
+        this.fcm = other.fcm == null ? null : other.fcm.copy();
+        this.purchasesId = other.purchasesId == null ? null : other.purchasesId.copy();
+    }
+
+    @Override
+    public CustomerCriteria copy() {
+        return new CustomerCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getName() {
+        return name;
+    }
+
+    public void setName(StringFilter name) {
+        this.name = name;
+    }
+
+    public StringFilter getEmail() {
+        return email;
+    }
+
+    public void setEmail(StringFilter email) {
+        this.email = email;
+    }
+
+    public StringFilter getFcm() {
+        return fcm;
+    }
+
+    public void setFcm(StringFilter fcm) {
+        this.fcm = fcm;
+    }
+
+    public LongFilter getPurchasesId() {
+        return purchasesId;
+    }
+
+    public void setPurchasesId(LongFilter purchasesId) {
+        this.purchasesId = purchasesId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CustomerCriteria that = (CustomerCriteria) o;
+        return
+            Objects.equals(id, that.id) &&
+            Objects.equals(name, that.name) &&
+            Objects.equals(email, that.email) &&
+            Objects.equals(fcm, that.fcm) &&
+            Objects.equals(purchasesId, that.purchasesId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+        id,
+        name,
+        email,
+        fcm,
+        purchasesId
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CustomerCriteria{" +
+                (id != null ? "id=" + id + ", " : "") +
+                (name != null ? "name=" + name + ", " : "") +
+                (email != null ? "email=" + email + ", " : "") +
+                (fcm != null ? "fcm=" + fcm + ", " : "") +
+                (purchasesId != null ? "purchasesId=" + purchasesId + ", " : "") +
+            "}";
+    }
+
+}
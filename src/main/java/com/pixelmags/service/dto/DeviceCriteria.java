@@ -0,0 +1,128 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import io.github.jhipster.service.Criteria;
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the {@link com.pixelmags.domain.Device} entity. This class is used
+ * in {@link com.pixelmags.web.rest.DeviceResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /devices?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+public class DeviceCriteria implements Serializable, Criteria {
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter fabricante;
+
+    private StringFilter modelo;
+
+    private StringFilter os;
+
+    private LongFilter customerId;
+
+    public DeviceCriteria() {
+    }
+
+    public DeviceCriteria(DeviceCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.fabricante = other.fabricante == null ? null : other.fabricante.copy();
+        this.modelo = other.modelo == null ? null : other.modelo.copy();
+        this.os = other.os == null ? null : other.os.copy();
+        this.customerId = other.customerId == null ? null : other.customerId.copy();
+    }
+
+    @Override
+    public DeviceCriteria copy() {
+        return new DeviceCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getFabricante() {
+        return fabricante;
+    }
+
+    public void setFabricante(StringFilter fabricante) {
+        this.fabricante = fabricante;
+    }
+
+    public StringFilter getModelo() {
+        return modelo;
+    }
+
+    public void setModelo(StringFilter modelo) {
+        this.modelo = modelo;
+    }
+
+    public StringFilter getOs() {
+        return os;
+    }
+
+    public void setOs(StringFilter os) {
+        this.os = os;
+    }
+
+    public LongFilter getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(LongFilter customerId) {
+        this.customerId = customerId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final DeviceCriteria that = (DeviceCriteria) o;
+        return
+            Objects.equals(id, that.id) &&
+            Objects.equals(fabricante, that.fabricante) &&
+            Objects.equals(modelo, that.modelo) &&
+            Objects.equals(os, that.os) &&
+            Objects.equals(customerId, that.customerId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+        id,
+        fabricante,
+        modelo,
+        os,
+        customerId
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DeviceCriteria{" +
+                (id != null ? "id=" + id + ", " : "") +
+                (fabricante != null ? "fabricante=" + fabricante + ", " : "") +
+                (modelo != null ? "modelo=" + modelo + ", " : "") +
+                (os != null ? "os=" + os + ", " : "") +
+                (customerId != null ? "customerId=" + customerId + ", " : "") +
+            "}";
+    }
+
+}
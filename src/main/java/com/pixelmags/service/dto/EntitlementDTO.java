@@ -0,0 +1,97 @@
+package com.pixelmags.service.dto;
+
+import com.pixelmags.domain.enumeration.PurchaseType;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A DTO for whether a customer can read an issue, and through which kind of purchase.
+ */
+public class EntitlementDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long customerId;
+
+    private Long issueId;
+
+    private boolean granted;
+
+    private PurchaseType tipo;
+
+    private LocalDate validUntil;
+
+    public EntitlementDTO() {
+    }
+
+    public EntitlementDTO(Long customerId, Long issueId, boolean granted, PurchaseType tipo, LocalDate validUntil) {
+        this.customerId = customerId;
+        this.issueId = issueId;
+        this.granted = granted;
+        this.tipo = tipo;
+        this.validUntil = validUntil;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public Long getIssueId() {
+        return issueId;
+    }
+
+    public void setIssueId(Long issueId) {
+        this.issueId = issueId;
+    }
+
+    public boolean isGranted() {
+        return granted;
+    }
+
+    public void setGranted(boolean granted) {
+        this.granted = granted;
+    }
+
+    /**
+     * Get the kind of purchase giving access to the issue.
+     *
+     * @return the kind of purchase, or null if access is not granted.
+     */
+    public PurchaseType getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(PurchaseType tipo) {
+        this.tipo = tipo;
+    }
+
+    /**
+     * Get the last day of access to the issue, included.
+     *
+     * @return the last day, or null if access is not granted or does not expire.
+     */
+    public LocalDate getValidUntil() {
+        return validUntil;
+    }
+
+    public void setValidUntil(LocalDate validUntil) {
+        this.validUntil = validUntil;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EntitlementDTO{" +
+            "customerId=" + getCustomerId() +
+            ", issueId=" + getIssueId() +
+            ", granted=" + isGranted() +
+            ", tipo='" + getTipo() + "'" +
+            ", validUntil='" + getValidUntil() + "'" +
+            "}";
+    }
+}
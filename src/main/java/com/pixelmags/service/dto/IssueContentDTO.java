@@ -0,0 +1,89 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO describing a page or the bundle of a {@link com.pixelmags.domain.Issue}, without its bytes.
+ */
+public class IssueContentDTO implements Serializable {
+
+    private Long issueId;
+
+    private Integer page;
+
+    private String contentType;
+
+    private Long contentLength;
+
+    private Instant lastModified;
+
+    private String version;
+
+    public Long getIssueId() {
+        return issueId;
+    }
+
+    public void setIssueId(Long issueId) {
+        this.issueId = issueId;
+    }
+
+    /**
+     * The page number, starting at 1, or {@code null} for the bundle.
+     */
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * An opaque token changing whenever the content is replaced.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IssueContentDTO{" +
+            "issueId=" + getIssueId() +
+            ", page=" + getPage() +
+            ", contentType='" + getContentType() + "'" +
+            ", contentLength=" + getContentLength() +
+            ", lastModified='" + getLastModified() + "'" +
+            ", version='" + getVersion() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,90 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO describing the cover of a {@link com.pixelmags.domain.Issue}, without its bytes.
+ */
+public class IssueCoverDTO implements Serializable {
+
+    private Long issueId;
+
+    private String hash;
+
+    private String contentType;
+
+    private Instant lastModified;
+
+    private String sourceHash;
+
+    public IssueCoverDTO() {
+    }
+
+    public IssueCoverDTO(Long issueId, String hash, String contentType, Instant lastModified) {
+        this(issueId, hash, contentType, lastModified, hash);
+    }
+
+    public IssueCoverDTO(Long issueId, String hash, String contentType, Instant lastModified, String sourceHash) {
+        this.issueId = issueId;
+        this.hash = hash;
+        this.contentType = contentType;
+        this.lastModified = lastModified;
+        this.sourceHash = sourceHash;
+    }
+
+    public Long getIssueId() {
+        return issueId;
+    }
+
+    public void setIssueId(Long issueId) {
+        this.issueId = issueId;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Hash of the uploaded cover, which differs from {@link #getHash()} when a resized variant is served.
+     */
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    public void setSourceHash(String sourceHash) {
+        this.sourceHash = sourceHash;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IssueCoverDTO{" +
+            "issueId=" + getIssueId() +
+            ", hash='" + getHash() + "'" +
+            ", contentType='" + getContentType() + "'" +
+            ", lastModified='" + getLastModified() + "'" +
+            ", sourceHash='" + getSourceHash() + "'" +
+            "}";
+    }
+}
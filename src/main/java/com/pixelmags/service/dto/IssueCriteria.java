@@ -0,0 +1,172 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import io.github.jhipster.service.Criteria;
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.IntegerFilter;
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.StringFilter;
+import io.github.jhipster.service.filter.LocalDateFilter;
+
+/**
+ * Criteria class for the {@link com.pixelmags.domain.Issue} entity. This class is used
+ * in {@link com.pixelmags.web.rest.IssueResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /issues?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+public class IssueCriteria implements Serializable, Criteria {
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter edicao;
+
+    private StringFilter manchete;
+
+    private LocalDateFilter dataLancamento;
+
+    private StringFilter descricao;
+
+    private IntegerFilter numeroPaginas;
+
+    private StringFilter url;
+
+    private LongFilter magazineId;
+
+    public IssueCriteria() {
+    }
+
+    public IssueCriteria(IssueCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.edicao = other.edicao == null ? null : other.edicao.copy();
+        this.manchete = other.manchete == null ? null : other.manchete.copy();
+        this.dataLancamento = other.dataLancamento == null ? null : other.dataLancamento.copy();
+        this.descricao = other.descricao == null ? null : other.descricao.copy();
+        this.numeroPaginas = other.numeroPaginas == null ? null : other.numeroPaginas.copy();
+        this.url = other.url == null ? null : other.url.copy();
+        this.magazineId = other.magazineId == null ? null : other.magazineId.copy();
+    }
+
+    @Override
+    public IssueCriteria copy() {
+        return new IssueCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getEdicao() {
+        return edicao;
+    }
+
+    public void setEdicao(StringFilter edicao) {
+        this.edicao = edicao;
+    }
+
+    public StringFilter getManchete() {
+        return manchete;
+    }
+
+    public void setManchete(StringFilter manchete) {
+        this.manchete = manchete;
+    }
+
+    public LocalDateFilter getDataLancamento() {
+        return dataLancamento;
+    }
+
+    public void setDataLancamento(LocalDateFilter dataLancamento) {
+        this.dataLancamento = dataLancamento;
+    }
+
+    public StringFilter getDescricao() {
+        return descricao;
+    }
+
+    public void setDescricao(StringFilter descricao) {
+        this.descricao = descricao;
+    }
+
+    public IntegerFilter getNumeroPaginas() {
+        return numeroPaginas;
+    }
+
+    public void setNumeroPaginas(IntegerFilter numeroPaginas) {
+        this.numeroPaginas = numeroPaginas;
+    }
+
+    public StringFilter getUrl() {
+        return url;
+    }
+
+    public void setUrl(StringFilter url) {
+        this.url = url;
+    }
+
+    public LongFilter getMagazineId() {
+        return magazineId;
+    }
+
+    public void setMagazineId(LongFilter magazineId) {
+        this.magazineId = magazineId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final IssueCriteria that = (IssueCriteria) o;
+        return
+            Objects.equals(id, that.id) &&
+            Objects.equals(edicao, that.edicao) &&
+            Objects.equals(manchete, that.manchete) &&
+            Objects.equals(dataLancamento, that.dataLancamento) &&
+            Objects.equals(descricao, that.descricao) &&
+            Objects.equals(numeroPaginas, that.numeroPaginas) &&
+            Objects.equals(url, that.url) &&
+            Objects.equals(magazineId, that.magazineId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+        id,
+        edicao,
+        manchete,
+        dataLancamento,
+        descricao,
+        numeroPaginas,
+        url,
+        magazineId
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IssueCriteria{" +
+                (id != null ? "id=" + id + ", " : "") +
+                (edicao != null ? "edicao=" + edicao + ", " : "") +
+                (manchete != null ? "manchete=" + manchete + ", " : "") +
+                (dataLancamento != null ? "dataLancamento=" + dataLancamento + ", " : "") +
+                (descricao != null ? "descricao=" + descricao + ", " : "") +
+                (numeroPaginas != null ? "numeroPaginas=" + numeroPaginas + ", " : "") +
+                (url != null ? "url=" + url + ", " : "") +
+                (magazineId != null ? "magazineId=" + magazineId + ", " : "") +
+            "}";
+    }
+
+}
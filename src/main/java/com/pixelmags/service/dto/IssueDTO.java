@@ -1,5 +1,7 @@
 package com.pixelmags.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDate;
 import java.io.Serializable;
 import javax.persistence.Lob;
@@ -23,10 +25,18 @@ public class IssueDTO implements Serializable {
 
     private String url;
 
+    /**
+     * Cover bytes, only used to upload a new cover: responses carry {@link #coverUrl} instead.
+     */
     @Lob
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private byte[] coverThumbnail;
 
     private String coverThumbnailContentType;
+
+    private String coverUrl;
+
+    private String coverHash;
     
     public Long getId() {
         return id;
@@ -100,6 +110,22 @@ public class IssueDTO implements Serializable {
         this.coverThumbnailContentType = coverThumbnailContentType;
     }
 
+    public String getCoverUrl() {
+        return coverUrl;
+    }
+
+    public void setCoverUrl(String coverUrl) {
+        this.coverUrl = coverUrl;
+    }
+
+    public String getCoverHash() {
+        return coverHash;
+    }
+
+    public void setCoverHash(String coverHash) {
+        this.coverHash = coverHash;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -129,6 +155,8 @@ public class IssueDTO implements Serializable {
             ", numeroPaginas=" + getNumeroPaginas() +
             ", url='" + getUrl() + "'" +
             ", coverThumbnail='" + getCoverThumbnail() + "'" +
+            ", coverUrl='" + getCoverUrl() + "'" +
+            ", coverHash='" + getCoverHash() + "'" +
             "}";
     }
 }
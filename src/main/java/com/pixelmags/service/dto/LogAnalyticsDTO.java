@@ -0,0 +1,68 @@
+package com.pixelmags.service.dto;
+
+import com.pixelmags.domain.enumeration.Event;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A DTO for the number of {@link com.pixelmags.domain.Log}s of an event recorded over a day, a week or a month.
+ */
+public class LogAnalyticsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate period;
+
+    private Event evento;
+
+    private long total;
+
+    public LogAnalyticsDTO() {
+    }
+
+    public LogAnalyticsDTO(LocalDate period, Event evento, long total) {
+        this.period = period;
+        this.evento = evento;
+        this.total = total;
+    }
+
+    /**
+     * Get the first day of the period.
+     *
+     * @return the first day of the period.
+     */
+    public LocalDate getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(LocalDate period) {
+        this.period = period;
+    }
+
+    public Event getEvento() {
+        return evento;
+    }
+
+    public void setEvento(Event evento) {
+        this.evento = evento;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LogAnalyticsDTO{" +
+            "period='" + getPeriod() + "'" +
+            ", evento='" + getEvento() + "'" +
+            ", total=" + getTotal() +
+            "}";
+    }
+}
@@ -0,0 +1,163 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import io.github.jhipster.service.Criteria;
+import com.pixelmags.domain.enumeration.Event;
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.StringFilter;
+import io.github.jhipster.service.filter.LocalDateFilter;
+
+/**
+ * Criteria class for the {@link com.pixelmags.domain.Log} entity. This class is used
+ * in {@link com.pixelmags.web.rest.LogResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /logs?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+public class LogCriteria implements Serializable, Criteria {
+    /**
+     * Class for filtering Event
+     */
+    public static class EventFilter extends Filter<Event> {
+
+        public EventFilter() {
+        }
+
+        public EventFilter(EventFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public EventFilter copy() {
+            return new EventFilter(this);
+        }
+
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private LocalDateFilter date;
+
+    private EventFilter evento;
+
+    private LongFilter customerId;
+
+    private StringFilter eventId;
+
+    private LongFilter issueId;
+
+    public LogCriteria() {
+    }
+
+    public LogCriteria(LogCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.date = other.date == null ? null : other.date.copy();
+        this.evento = other.evento == null ? null : other.evento.copy();
+        this.customerId = other.customerId == null ? null : other.customerId.copy();
+        this.eventId = other.eventId == null ? null : other.eventId.copy();
+        this.issueId = other.issueId == null ? null : other.issueId.copy();
+    }
+
+    @Override
+    public LogCriteria copy() {
+        return new LogCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public LocalDateFilter getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDateFilter date) {
+        this.date = date;
+    }
+
+    public EventFilter getEvento() {
+        return evento;
+    }
+
+    public void setEvento(EventFilter evento) {
+        this.evento = evento;
+    }
+
+    public LongFilter getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(LongFilter customerId) {
+        this.customerId = customerId;
+    }
+
+    public StringFilter getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(StringFilter eventId) {
+        this.eventId = eventId;
+    }
+
+    public LongFilter getIssueId() {
+        return issueId;
+    }
+
+    public void setIssueId(LongFilter issueId) {
+        this.issueId = issueId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final LogCriteria that = (LogCriteria) o;
+        return
+            Objects.equals(id, that.id) &&
+            Objects.equals(date, that.date) &&
+            Objects.equals(evento, that.evento) &&
+            Objects.equals(customerId, that.customerId) &&
+            Objects.equals(eventId, that.eventId) &&
+            Objects.equals(issueId, that.issueId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+        id,
+        date,
+        evento,
+        customerId,
+        eventId,
+        issueId
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LogCriteria{" +
+                (id != null ? "id=" + id + ", " : "") +
+                (date != null ? "date=" + date + ", " : "") +
+                (evento != null ? "evento=" + evento + ", " : "") +
+                (customerId != null ? "customerId=" + customerId + ", " : "") +
+                (eventId != null ? "eventId=" + eventId + ", " : "") +
+                (issueId != null ? "issueId=" + issueId + ", " : "") +
+            "}";
+    }
+
+}
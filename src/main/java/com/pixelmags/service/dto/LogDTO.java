@@ -2,6 +2,7 @@ package com.pixelmags.service.dto;
 
 import java.time.LocalDate;
 import java.io.Serializable;
+import javax.validation.constraints.*;
 import com.pixelmags.domain.enumeration.Event;
 
 /**
@@ -15,6 +16,13 @@ public class LogDTO implements Serializable {
 
     private Event evento;
 
+    private Long customerId;
+
+    @Size(max = 64)
+    private String eventId;
+
+
+    private Long issueId;
     
     public Long getId() {
         return id;
@@ -40,6 +48,30 @@ public class LogDTO implements Serializable {
         this.evento = evento;
     }
 
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public Long getIssueId() {
+        return issueId;
+    }
+
+    public void setIssueId(Long issueId) {
+        this.issueId = issueId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -64,6 +96,9 @@ public class LogDTO implements Serializable {
             "id=" + getId() +
             ", date='" + getDate() + "'" +
             ", evento='" + getEvento() + "'" +
+            ", customerId=" + getCustomerId() +
+            ", eventId='" + getEventId() + "'" +
+            ", issueId=" + getIssueId() +
             "}";
     }
 }
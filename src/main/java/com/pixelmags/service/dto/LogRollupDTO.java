@@ -0,0 +1,63 @@
+package com.pixelmags.service.dto;
+
+import com.pixelmags.domain.enumeration.Event;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A DTO for the number of {@link com.pixelmags.domain.Log}s of an event recorded on a day.
+ */
+public class LogRollupDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate date;
+
+    private Event evento;
+
+    private long total;
+
+    public LogRollupDTO() {
+    }
+
+    public LogRollupDTO(LocalDate date, Event evento, long total) {
+        this.date = date;
+        this.evento = evento;
+        this.total = total;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Event getEvento() {
+        return evento;
+    }
+
+    public void setEvento(Event evento) {
+        this.evento = evento;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LogRollupDTO{" +
+            "date='" + getDate() + "'" +
+            ", evento='" + getEvento() + "'" +
+            ", total=" + getTotal() +
+            "}";
+    }
+}
@@ -0,0 +1,129 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the outcome of an upload of {@link com.pixelmags.domain.Log}s, one per line.
+ */
+public class LogUploadResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long lines;
+
+    private long accepted;
+
+    private long rejected;
+
+    private long duplicates;
+
+    private List<Reject> rejects = new ArrayList<>();
+
+    public long getLines() {
+        return lines;
+    }
+
+    public void setLines(long lines) {
+        this.lines = lines;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * Get the number of logs dropped as their event was already received.
+     *
+     * @return the number of duplicates.
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    /**
+     * Get the first rejected lines, with the reason they were rejected.
+     *
+     * @return the rejects, which may be fewer than {@link #getRejected()}.
+     */
+    public List<Reject> getRejects() {
+        return rejects;
+    }
+
+    public void setRejects(List<Reject> rejects) {
+        this.rejects = rejects;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LogUploadResultDTO{" +
+            "lines=" + getLines() +
+            ", accepted=" + getAccepted() +
+            ", rejected=" + getRejected() +
+            ", duplicates=" + getDuplicates() +
+            "}";
+    }
+
+    /**
+     * A rejected line.
+     */
+    public static class Reject implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long line;
+
+        private String error;
+
+        public Reject() {
+        }
+
+        public Reject(long line, String error) {
+            this.line = line;
+            this.error = error;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Reject{" +
+                "line=" + getLine() +
+                ", error='" + getError() + "'" +
+                "}";
+        }
+    }
+}
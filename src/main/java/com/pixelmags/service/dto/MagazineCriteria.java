@@ -0,0 +1,143 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import io.github.jhipster.service.Criteria;
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.BigDecimalFilter;
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the {@link com.pixelmags.domain.Magazine} entity. This class is used
+ * in {@link com.pixelmags.web.rest.MagazineResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /magazines?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+public class MagazineCriteria implements Serializable, Criteria {
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter codigoRevista;
+
+    private BigDecimalFilter preco;
+
+    private LongFilter issueId;
+
+    private LongFilter purchaseId;
+
+    private LongFilter publisherId;
+
+    public MagazineCriteria() {
+    }
+
+    public MagazineCriteria(MagazineCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.codigoRevista = other.codigoRevista == null ? null : other.codigoRevista.copy();
+        this.preco = other.preco == null ? null : other.preco.copy();
+        this.issueId = other.issueId == null ? null : other.issueId.copy();
+        this.purchaseId = other.purchaseId == null ? null : other.purchaseId.copy();
+        this.publisherId = other.publisherId == null ? null : other.publisherId.copy();
+    }
+
+    @Override
+    public MagazineCriteria copy() {
+        return new MagazineCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getCodigoRevista() {
+        return codigoRevista;
+    }
+
+    public void setCodigoRevista(StringFilter codigoRevista) {
+        this.codigoRevista = codigoRevista;
+    }
+
+    public BigDecimalFilter getPreco() {
+        return preco;
+    }
+
+    public void setPreco(BigDecimalFilter preco) {
+        this.preco = preco;
+    }
+
+    public LongFilter getIssueId() {
+        return issueId;
+    }
+
+    public void setIssueId(LongFilter issueId) {
+        this.issueId = issueId;
+    }
+
+    public LongFilter getPurchaseId() {
+        return purchaseId;
+    }
+
+    public void setPurchaseId(LongFilter purchaseId) {
+        this.purchaseId = purchaseId;
+    }
+
+    public LongFilter getPublisherId() {
+        return publisherId;
+    }
+
+    public void setPublisherId(LongFilter publisherId) {
+        this.publisherId = publisherId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final MagazineCriteria that = (MagazineCriteria) o;
+        return
+            Objects.equals(id, that.id) &&
+            Objects.equals(codigoRevista, that.codigoRevista) &&
+            Objects.equals(preco, that.preco) &&
+            Objects.equals(issueId, that.issueId) &&
+            Objects.equals(purchaseId, that.purchaseId) &&
+            Objects.equals(publisherId, that.publisherId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+        id,
+        codigoRevista,
+        preco,
+        issueId,
+        purchaseId,
+        publisherId
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MagazineCriteria{" +
+                (id != null ? "id=" + id + ", " : "") +
+                (codigoRevista != null ? "codigoRevista=" + codigoRevista + ", " : "") +
+                (preco != null ? "preco=" + preco + ", " : "") +
+                (issueId != null ? "issueId=" + issueId + ", " : "") +
+                (purchaseId != null ? "purchaseId=" + purchaseId + ", " : "") +
+                (publisherId != null ? "publisherId=" + publisherId + ", " : "") +
+            "}";
+    }
+
+}
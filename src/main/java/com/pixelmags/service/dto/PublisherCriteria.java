@@ -0,0 +1,115 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import io.github.jhipster.service.Criteria;
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.StringFilter;
+import io.github.jhipster.service.filter.LocalDateFilter;
+
+/**
+ * Criteria class for the {@link com.pixelmags.domain.Publisher} entity. This class is used
+ * in {@link com.pixelmags.web.rest.PublisherResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /publishers?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+public class PublisherCriteria implements Serializable, Criteria {
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter nome;
+
+    private LocalDateFilter dataCadastro;
+
+    private LongFilter magazinesId;
+
+    public PublisherCriteria() {
+    }
+
+    public PublisherCriteria(PublisherCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.nome = other.nome == null ? null : other.nome.copy();
+        this.dataCadastro = other.dataCadastro == null ? null : other.dataCadastro.copy();
+        this.magazinesId = other.magazinesId == null ? null : other.magazinesId.copy();
+    }
+
+    @Override
+    public PublisherCriteria copy() {
+        return new PublisherCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getNome() {
+        return nome;
+    }
+
+    public void setNome(StringFilter nome) {
+        this.nome = nome;
+    }
+
+    public LocalDateFilter getDataCadastro() {
+        return dataCadastro;
+    }
+
+    public void setDataCadastro(LocalDateFilter dataCadastro) {
+        this.dataCadastro = dataCadastro;
+    }
+
+    public LongFilter getMagazinesId() {
+        return magazinesId;
+    }
+
+    public void setMagazinesId(LongFilter magazinesId) {
+        this.magazinesId = magazinesId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PublisherCriteria that = (PublisherCriteria) o;
+        return
+            Objects.equals(id, that.id) &&
+            Objects.equals(nome, that.nome) &&
+            Objects.equals(dataCadastro, that.dataCadastro) &&
+            Objects.equals(magazinesId, that.magazinesId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+        id,
+        nome,
+        dataCadastro,
+        magazinesId
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PublisherCriteria{" +
+                (id != null ? "id=" + id + ", " : "") +
+                (nome != null ? "nome=" + nome + ", " : "") +
+                (dataCadastro != null ? "dataCadastro=" + dataCadastro + ", " : "") +
+                (magazinesId != null ? "magazinesId=" + magazinesId + ", " : "") +
+            "}";
+    }
+
+}
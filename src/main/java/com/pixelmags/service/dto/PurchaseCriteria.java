@@ -0,0 +1,162 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import io.github.jhipster.service.Criteria;
+import com.pixelmags.domain.enumeration.PurchaseType;
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.LocalDateFilter;
+
+/**
+ * Criteria class for the {@link com.pixelmags.domain.Purchase} entity. This class is used
+ * in {@link com.pixelmags.web.rest.PurchaseResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /purchases?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+public class PurchaseCriteria implements Serializable, Criteria {
+    /**
+     * Class for filtering PurchaseType
+     */
+    public static class PurchaseTypeFilter extends Filter<PurchaseType> {
+
+        public PurchaseTypeFilter() {
+        }
+
+        public PurchaseTypeFilter(PurchaseTypeFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public PurchaseTypeFilter copy() {
+            return new PurchaseTypeFilter(this);
+        }
+
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private LocalDateFilter date;
+
+    private PurchaseTypeFilter tipo;
+
+    private LongFilter subscriptionId;
+
+    private LongFilter customersId;
+
+    private LongFilter magazineId;
+
+    public PurchaseCriteria() {
+    }
+
+    public PurchaseCriteria(PurchaseCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.date = other.date == null ? null : other.date.copy();
+        this.tipo = other.tipo == null ? null : other.tipo.copy();
+        this.subscriptionId = other.subscriptionId == null ? null : other.subscriptionId.copy();
+        this.customersId = other.customersId == null ? null : other.customersId.copy();
+        this.magazineId = other.magazineId == null ? null : other.magazineId.copy();
+    }
+
+    @Override
+    public PurchaseCriteria copy() {
+        return new PurchaseCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public LocalDateFilter getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDateFilter date) {
+        this.date = date;
+    }
+
+    public PurchaseTypeFilter getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(PurchaseTypeFilter tipo) {
+        this.tipo = tipo;
+    }
+
+    public LongFilter getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public void setSubscriptionId(LongFilter subscriptionId) {
+        this.subscriptionId = subscriptionId;
+    }
+
+    public LongFilter getCustomersId() {
+        return customersId;
+    }
+
+    public void setCustomersId(LongFilter customersId) {
+        this.customersId = customersId;
+    }
+
+    public LongFilter getMagazineId() {
+        return magazineId;
+    }
+
+    public void setMagazineId(LongFilter magazineId) {
+        this.magazineId = magazineId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PurchaseCriteria that = (PurchaseCriteria) o;
+        return
+            Objects.equals(id, that.id) &&
+            Objects.equals(date, that.date) &&
+            Objects.equals(tipo, that.tipo) &&
+            Objects.equals(subscriptionId, that.subscriptionId) &&
+            Objects.equals(customersId, that.customersId) &&
+            Objects.equals(magazineId, that.magazineId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+        id,
+        date,
+        tipo,
+        subscriptionId,
+        customersId,
+        magazineId
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PurchaseCriteria{" +
+                (id != null ? "id=" + id + ", " : "") +
+                (date != null ? "date=" + date + ", " : "") +
+                (tipo != null ? "tipo=" + tipo + ", " : "") +
+                (subscriptionId != null ? "subscriptionId=" + subscriptionId + ", " : "") +
+                (customersId != null ? "customersId=" + customersId + ", " : "") +
+                (magazineId != null ? "magazineId=" + magazineId + ", " : "") +
+            "}";
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import io.github.jhipster.service.Criteria;
+import com.pixelmags.domain.enumeration.SubscriptionPeriod;
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.BigDecimalFilter;
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the {@link com.pixelmags.domain.SubscriptionPlan} entity. This class is used
+ * in {@link com.pixelmags.web.rest.SubscriptionPlanResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /subscription-plans?id.greaterThan=5&attr1.contains=something&attr2.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+public class SubscriptionPlanCriteria implements Serializable, Criteria {
+    /**
+     * Class for filtering SubscriptionPeriod
+     */
+    public static class SubscriptionPeriodFilter extends Filter<SubscriptionPeriod> {
+
+        public SubscriptionPeriodFilter() {
+        }
+
+        public SubscriptionPeriodFilter(SubscriptionPeriodFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public SubscriptionPeriodFilter copy() {
+            return new SubscriptionPeriodFilter(this);
+        }
+
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter nome;
+
+    private BigDecimalFilter preco;
+
+    private SubscriptionPeriodFilter periodo;
+
+    private LongFilter purchaseId;
+
+    public SubscriptionPlanCriteria() {
+    }
+
+    public SubscriptionPlanCriteria(SubscriptionPlanCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.nome = other.nome == null ? null : other.nome.copy();
+        this.preco = other.preco == null ? null : other.preco.copy();
+        this.periodo = other.periodo == null ? null : other.periodo.copy();
+        this.purchaseId = other.purchaseId == null ? null : other.purchaseId.copy();
+    }
+
+    @Override
+    public SubscriptionPlanCriteria copy() {
+        return new SubscriptionPlanCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getNome() {
+        return nome;
+    }
+
+    public void setNome(StringFilter nome) {
+        this.nome = nome;
+    }
+
+    public BigDecimalFilter getPreco() {
+        return preco;
+    }
+
+    public void setPreco(BigDecimalFilter preco) {
+        this.preco = preco;
+    }
+
+    public SubscriptionPeriodFilter getPeriodo() {
+        return periodo;
+    }
+
+    public void setPeriodo(SubscriptionPeriodFilter periodo) {
+        this.periodo = periodo;
+    }
+
+    public LongFilter getPurchaseId() {
+        return purchaseId;
+    }
+
+    public void setPurchaseId(LongFilter purchaseId) {
+        this.purchaseId = purchaseId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final SubscriptionPlanCriteria that = (SubscriptionPlanCriteria) o;
+        return
+            Objects.equals(id, that.id) &&
+            Objects.equals(nome, that.nome) &&
+            Objects.equals(preco, that.preco) &&
+            Objects.equals(periodo, that.periodo) &&
+            Objects.equals(purchaseId, that.purchaseId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+        id,
+        nome,
+        preco,
+        periodo,
+        purchaseId
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SubscriptionPlanCriteria{" +
+                (id != null ? "id=" + id + ", " : "") +
+                (nome != null ? "nome=" + nome + ", " : "") +
+                (preco != null ? "preco=" + preco + ", " : "") +
+                (periodo != null ? "periodo=" + periodo + ", " : "") +
+                (purchaseId != null ? "purchaseId=" + purchaseId + ", " : "") +
+            "}";
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for an issue of the catalog trending over a time window, with its estimated number of events.
+ */
+public class TrendingIssueDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private CatalogIssueDTO issue;
+
+    private long count;
+
+    public TrendingIssueDTO() {
+    }
+
+    public TrendingIssueDTO(CatalogIssueDTO issue, long count) {
+        this.issue = issue;
+        this.count = count;
+    }
+
+    public CatalogIssueDTO getIssue() {
+        return issue;
+    }
+
+    public void setIssue(CatalogIssueDTO issue) {
+        this.issue = issue;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TrendingIssueDTO{" +
+            "issue=" + getIssue() +
+            ", count=" + getCount() +
+            "}";
+    }
+}
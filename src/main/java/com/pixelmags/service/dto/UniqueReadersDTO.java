@@ -0,0 +1,78 @@
+package com.pixelmags.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A DTO for the estimated number of distinct customers reading over a range of days.
+ */
+public class UniqueReadersDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private long readers;
+
+    private double standardError;
+
+    public UniqueReadersDTO() {
+    }
+
+    public UniqueReadersDTO(LocalDate from, LocalDate to, long readers, double standardError) {
+        this.from = from;
+        this.to = to;
+        this.readers = readers;
+        this.standardError = standardError;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public long getReaders() {
+        return readers;
+    }
+
+    public void setReaders(long readers) {
+        this.readers = readers;
+    }
+
+    /**
+     * Get the relative standard error of the estimate.
+     *
+     * @return the relative standard error, 0.01 meaning 1%.
+     */
+    public double getStandardError() {
+        return standardError;
+    }
+
+    public void setStandardError(double standardError) {
+        this.standardError = standardError;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UniqueReadersDTO{" +
+            "from='" + getFrom() + "'" +
+            ", to='" + getTo() + "'" +
+            ", readers=" + getReaders() +
+            ", standardError=" + getStandardError() +
+            "}";
+    }
+}
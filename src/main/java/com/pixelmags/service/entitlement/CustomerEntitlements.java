@@ -0,0 +1,287 @@
+package com.pixelmags.service.entitlement;
+
+import com.pixelmags.domain.enumeration.SubscriptionPeriod;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable set of what a customer can read: the issues bought one by one, and the magazines subscribed to with the
+ * days each subscription covers.
+ * <p>
+ * Ids are kept as sorted arrays of primitive {@code long}s, checked with a binary search, which for the few purchases
+ * of a customer is smaller and faster than any bitmap. The ids of the purchases, magazines and subscription plans the
+ * entitlements were derived from are kept too, so that the entitlements to rebuild after a change of any of them can
+ * be found.
+ */
+public final class CustomerEntitlements {
+
+    private static final long[] NONE = new long[0];
+
+    private final long[] issueIds;
+
+    private final long[] subscribedMagazineIds;
+
+    private final long[] firstDays;
+
+    private final long[] lastDays;
+
+    private final long[] purchaseIds;
+
+    private final long[] magazineIds;
+
+    private final long[] subscriptionPlanIds;
+
+    private CustomerEntitlements(Builder builder) {
+        this.issueIds = distinct(Arrays.copyOf(builder.issueIds, builder.issueCount));
+        int count = builder.subscriptionCount;
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        // Subscriptions are sorted by magazine, then by first day
+        Arrays.sort(order, (a, b) -> builder.subscriptions[3 * a] != builder.subscriptions[3 * b]
+            ? Long.compare(builder.subscriptions[3 * a], builder.subscriptions[3 * b])
+            : Long.compare(builder.subscriptions[3 * a + 1], builder.subscriptions[3 * b + 1]));
+        this.subscribedMagazineIds = new long[count];
+        this.firstDays = new long[count];
+        this.lastDays = new long[count];
+        for (int i = 0; i < count; i++) {
+            subscribedMagazineIds[i] = builder.subscriptions[3 * order[i]];
+            firstDays[i] = builder.subscriptions[3 * order[i] + 1];
+            lastDays[i] = builder.subscriptions[3 * order[i] + 2];
+        }
+        this.purchaseIds = distinct(Arrays.copyOf(builder.purchaseIds, builder.purchaseCount));
+        this.magazineIds = distinct(Arrays.copyOf(builder.magazineIds, builder.magazineCount));
+        this.subscriptionPlanIds = distinct(Arrays.copyOf(builder.subscriptionPlanIds, builder.subscriptionPlanCount));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the last day covered by a subscription.
+     *
+     * @param firstDay the first day of the subscription.
+     * @param period the period of its plan.
+     * @return the last day, included.
+     */
+    public static LocalDate subscriptionEnd(LocalDate firstDay, SubscriptionPeriod period) {
+        switch (period) {
+            case DIARIO:
+                return firstDay;
+            case SEMANAL:
+                return firstDay.plusDays(6);
+            case QUINZENAL:
+                return firstDay.plusDays(14);
+            case MENSAL:
+                return firstDay.plusMonths(1).minusDays(1);
+            case ANUAL:
+                return firstDay.plusYears(1).minusDays(1);
+            default:
+                throw new IllegalArgumentException("Unsupported subscription period: " + period);
+        }
+    }
+
+    /**
+     * Tell whether an issue was bought on its own.
+     *
+     * @param issueId the id of the issue.
+     * @return true if the customer owns the issue.
+     */
+    public boolean ownsIssue(long issueId) {
+        return Arrays.binarySearch(issueIds, issueId) >= 0;
+    }
+
+    /**
+     * Find the subscriptions to a magazine covering a day.
+     *
+     * @param magazineId the id of the magazine.
+     * @param day the day.
+     * @return the last day covered by the subscriptions covering the day, included, or null if none covers it.
+     */
+    public LocalDate findSubscriptionEnd(long magazineId, LocalDate day) {
+        int index = Arrays.binarySearch(subscribedMagazineIds, magazineId);
+        if (index < 0) {
+            return null;
+        }
+        // Back to the first subscription to the magazine
+        while (index > 0 && subscribedMagazineIds[index - 1] == magazineId) {
+            index--;
+        }
+        long epochDay = day.toEpochDay();
+        long end = Long.MIN_VALUE;
+        for (; index < subscribedMagazineIds.length && subscribedMagazineIds[index] == magazineId; index++) {
+            if (firstDays[index] <= epochDay && epochDay <= lastDays[index]) {
+                end = Math.max(end, lastDays[index]);
+            }
+        }
+        return end == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(end);
+    }
+
+    /**
+     * Get the ids of the purchases these entitlements were derived from.
+     *
+     * @return the sorted ids, without duplicates.
+     */
+    public long[] getPurchaseIds() {
+        return purchaseIds.clone();
+    }
+
+    /**
+     * Get the ids of the magazines these entitlements were derived from.
+     *
+     * @return the sorted ids, without duplicates.
+     */
+    public long[] getMagazineIds() {
+        return magazineIds.clone();
+    }
+
+    /**
+     * Get the ids of the subscription plans these entitlements were derived from.
+     *
+     * @return the sorted ids, without duplicates.
+     */
+    public long[] getSubscriptionPlanIds() {
+        return subscriptionPlanIds.clone();
+    }
+
+    /**
+     * Tell whether these entitlements were derived from a magazine.
+     *
+     * @param magazineId the id of the magazine.
+     * @return true if a purchase of the magazine was read.
+     */
+    public boolean derivesFromMagazine(long magazineId) {
+        return Arrays.binarySearch(magazineIds, magazineId) >= 0;
+    }
+
+    /**
+     * Tell whether these entitlements were derived from a subscription plan.
+     *
+     * @param subscriptionPlanId the id of the subscription plan.
+     * @return true if a subscription with the plan was read.
+     */
+    public boolean derivesFromSubscriptionPlan(long subscriptionPlanId) {
+        return Arrays.binarySearch(subscriptionPlanIds, subscriptionPlanId) >= 0;
+    }
+
+    private static long[] distinct(long[] values) {
+        if (values.length == 0) {
+            return NONE;
+        }
+        Arrays.sort(values);
+        int size = 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != values[size - 1]) {
+                values[size++] = values[i];
+            }
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Builder of {@link CustomerEntitlements}, taking the purchases of a customer in any order. Instances are not
+     * thread-safe.
+     */
+    public static final class Builder {
+
+        private long[] issueIds = new long[1];
+
+        private int issueCount;
+
+        // Magazine id, first and last epoch days of each subscription
+        private long[] subscriptions = new long[3];
+
+        private int subscriptionCount;
+
+        private long[] purchaseIds = new long[1];
+
+        private int purchaseCount;
+
+        private long[] magazineIds = new long[1];
+
+        private int magazineCount;
+
+        private long[] subscriptionPlanIds = new long[1];
+
+        private int subscriptionPlanCount;
+
+        private Builder() {
+        }
+
+        /**
+         * Add a purchase which gives no access, such as one without a magazine, so that its changes are followed.
+         *
+         * @param purchaseId the id of the purchase.
+         * @return this builder.
+         */
+        public Builder purchase(long purchaseId) {
+            purchaseIds = append(purchaseIds, purchaseCount++, purchaseId);
+            return this;
+        }
+
+        /**
+         * Add a subscription plan which gives no access, such as one without a period, so that its changes are
+         * followed.
+         *
+         * @param subscriptionPlanId the id of the subscription plan.
+         * @return this builder.
+         */
+        public Builder subscriptionPlan(long subscriptionPlanId) {
+            subscriptionPlanIds = append(subscriptionPlanIds, subscriptionPlanCount++, subscriptionPlanId);
+            return this;
+        }
+
+        /**
+         * Add an issue bought on its own.
+         *
+         * @param purchaseId the id of the purchase.
+         * @param magazineId the id of the magazine selling the issue.
+         * @param issueId the id of the issue.
+         * @return this builder.
+         */
+        public Builder issue(long purchaseId, long magazineId, long issueId) {
+            purchase(purchaseId);
+            magazineIds = append(magazineIds, magazineCount++, magazineId);
+            issueIds = append(issueIds, issueCount++, issueId);
+            return this;
+        }
+
+        /**
+         * Add a subscription to a magazine.
+         *
+         * @param purchaseId the id of the purchase.
+         * @param subscriptionPlanId the id of the plan of the subscription.
+         * @param magazineId the id of the magazine.
+         * @param firstDay the first day covered by the subscription.
+         * @param lastDay the last day covered by the subscription, included.
+         * @return this builder.
+         */
+        public Builder subscription(long purchaseId, long subscriptionPlanId, long magazineId, LocalDate firstDay,
+                                    LocalDate lastDay) {
+            purchase(purchaseId);
+            subscriptionPlan(subscriptionPlanId);
+            magazineIds = append(magazineIds, magazineCount++, magazineId);
+            if (3 * subscriptionCount + 3 > subscriptions.length) {
+                subscriptions = Arrays.copyOf(subscriptions, 2 * subscriptions.length);
+            }
+            subscriptions[3 * subscriptionCount] = magazineId;
+            subscriptions[3 * subscriptionCount + 1] = firstDay.toEpochDay();
+            subscriptions[3 * subscriptionCount + 2] = lastDay.toEpochDay();
+            subscriptionCount++;
+            return this;
+        }
+
+        public CustomerEntitlements build() {
+            return new CustomerEntitlements(this);
+        }
+
+        private static long[] append(long[] values, int size, long value) {
+            long[] result = size < values.length ? values : Arrays.copyOf(values, 2 * values.length);
+            result[size] = value;
+            return result;
+        }
+    }
+}
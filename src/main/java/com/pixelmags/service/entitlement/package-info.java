@@ -0,0 +1,4 @@
+/**
+ * In-memory index of the issues customers can read, checked without touching the database.
+ */
+package com.pixelmags.service.entitlement;
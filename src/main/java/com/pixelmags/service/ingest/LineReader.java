@@ -0,0 +1,111 @@
+package com.pixelmags.service.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reader splitting a stream of bytes into lines, reusing the same buffers for each line.
+ * <p>
+ * Lines end with {@code \n} or {@code \r\n}. Bytes past the maximum line length are skipped rather than kept, so the
+ * memory used does not depend on the content read.
+ */
+public final class LineReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream input;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private final byte[] line;
+
+    private int position;
+
+    private int limit;
+
+    private int length;
+
+    private boolean truncated;
+
+    /**
+     * Create a reader.
+     *
+     * @param input the stream to read, which is not closed by the reader.
+     * @param maxLineLength the maximum number of bytes kept per line.
+     */
+    public LineReader(InputStream input, int maxLineLength) {
+        this.input = input;
+        this.line = new byte[maxLineLength];
+    }
+
+    /**
+     * Read the next line, replacing the current one.
+     *
+     * @return false at the end of the stream.
+     * @throws IOException if the stream cannot be read.
+     */
+    public boolean next() throws IOException {
+        length = 0;
+        truncated = false;
+        boolean read = false;
+        while (true) {
+            if (position == limit) {
+                limit = input.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return read;
+                }
+            }
+            byte b = buffer[position++];
+            read = true;
+            if (b == '\n') {
+                if (length > 0 && line[length - 1] == '\r' && !truncated) {
+                    length--;
+                }
+                return true;
+            }
+            if (length < line.length) {
+                line[length++] = b;
+            } else {
+                truncated = true;
+            }
+        }
+    }
+
+    /**
+     * Get the buffer holding the current line, which is overwritten by the next one.
+     *
+     * @return the buffer, of which only the first {@link #getLength()} bytes belong to the line.
+     */
+    public byte[] getLine() {
+        return line;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Whether the current line is longer than the maximum line length, and was cut.
+     *
+     * @return true if bytes of the line were skipped.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Whether the current line only holds whitespace.
+     *
+     * @return true if the line is blank.
+     */
+    public boolean isBlank() {
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t' && line[i] != '\r') {
+                return false;
+            }
+        }
+        return !truncated;
+    }
+}
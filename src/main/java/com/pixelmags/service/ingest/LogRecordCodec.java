@@ -0,0 +1,106 @@
+package com.pixelmags.service.ingest;
+
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Compact binary encoding of new {@link Log}s, for the {@link SegmentLog}.
+ * <p>
+ * A record starts with a byte of flags telling which properties are set, followed by the set ones: the date as an
+ * {@code int} epoch day, the event as a {@code byte} ordinal, the ids of the customer and of the issue as
+ * {@code long}s, and the id of the event as a {@code short} length followed by its UTF-8 bytes.
+ */
+public final class LogRecordCodec implements SegmentLog.Codec<Log> {
+
+    private static final int DATE = 1;
+
+    private static final int EVENTO = 2;
+
+    private static final int ISSUE = 4;
+
+    private static final int CUSTOMER = 8;
+
+    private static final int EVENT_ID = 16;
+
+    private static final Event[] EVENTS = Event.values();
+
+    @Override
+    public int size(Log log) {
+        int size = 1;
+        if (log.getDate() != null) {
+            size += Integer.BYTES;
+        }
+        if (log.getEvento() != null) {
+            size += Byte.BYTES;
+        }
+        if (log.getCustomerId() != null) {
+            size += Long.BYTES;
+        }
+        if (hasIssue(log)) {
+            size += Long.BYTES;
+        }
+        if (log.getEventId() != null) {
+            size += Short.BYTES + log.getEventId().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    @Override
+    public void encode(Log log, ByteBuffer buffer) {
+        int flags = (log.getDate() != null ? DATE : 0) | (log.getEvento() != null ? EVENTO : 0)
+            | (log.getCustomerId() != null ? CUSTOMER : 0) | (hasIssue(log) ? ISSUE : 0)
+            | (log.getEventId() != null ? EVENT_ID : 0);
+        buffer.put((byte) flags);
+        if (log.getDate() != null) {
+            buffer.putInt(Math.toIntExact(log.getDate().toEpochDay()));
+        }
+        if (log.getEvento() != null) {
+            buffer.put((byte) log.getEvento().ordinal());
+        }
+        if (log.getCustomerId() != null) {
+            buffer.putLong(log.getCustomerId());
+        }
+        if (hasIssue(log)) {
+            buffer.putLong(log.getIssue().getId());
+        }
+        if (log.getEventId() != null) {
+            byte[] eventId = log.getEventId().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) eventId.length).put(eventId);
+        }
+    }
+
+    @Override
+    public Log decode(ByteBuffer buffer) {
+        Log log = new Log();
+        int flags = buffer.get();
+        if ((flags & DATE) != 0) {
+            log.setDate(LocalDate.ofEpochDay(buffer.getInt()));
+        }
+        if ((flags & EVENTO) != 0) {
+            log.setEvento(EVENTS[buffer.get()]);
+        }
+        if ((flags & CUSTOMER) != 0) {
+            log.setCustomerId(buffer.getLong());
+        }
+        if ((flags & ISSUE) != 0) {
+            Issue issue = new Issue();
+            issue.setId(buffer.getLong());
+            log.setIssue(issue);
+        }
+        if ((flags & EVENT_ID) != 0) {
+            byte[] eventId = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(eventId);
+            log.setEventId(new String(eventId, StandardCharsets.UTF_8));
+        }
+        return log;
+    }
+
+    private static boolean hasIssue(Log log) {
+        return log.getIssue() != null && log.getIssue().getId() != null;
+    }
+}
@@ -0,0 +1,317 @@
+package com.pixelmags.service.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of records, kept in a directory as fixed-size memory-mapped segment files.
+ * <p>
+ * Each record is framed by its length and the CRC-32 of its bytes, the length being written last so that a record cut
+ * short by a crash reads as the end of its segment. Segments are preallocated with zeros, and a new one is started
+ * when a record does not fit in the current one. Positions combine the index of a segment with an offset in it, and
+ * grow with each append.
+ * <p>
+ * The consumer of the records saves its {@linkplain #checkpoint(long) checkpoint} once they are safely stored
+ * elsewhere, which deletes the segments it no longer needs. When reopened, the records appended after the checkpoint
+ * are {@linkplain #replay(RecordConsumer) replayed}, so that records are delivered at least once. Records are in the
+ * page cache once appended, which keeps them across a crash of the process, but not across a crash of the host until
+ * the operating system writes them back.
+ *
+ * @param <E> the type of the records.
+ */
+public final class SegmentLog<E> implements Closeable {
+
+    private static final int FRAME_HEADER = 8;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d{20})\\.segment");
+
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final Codec<E> codec;
+
+    private final List<Long> replayedSegments;
+
+    private long checkpoint;
+
+    private long segment;
+
+    private MappedByteBuffer buffer;
+
+    /**
+     * Open the log kept in a directory, creating it if needed. Appends go to a new segment.
+     *
+     * @param directory the directory of the segment files.
+     * @param segmentSize the size of a segment file, in bytes.
+     * @param codec the codec of the records.
+     * @throws IOException if the directory cannot be read.
+     */
+    public SegmentLog(Path directory, int segmentSize, Codec<E> codec) throws IOException {
+        if (segmentSize <= FRAME_HEADER) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.codec = codec;
+        Path checkpointFile = directory.resolve(CHECKPOINT);
+        this.checkpoint = Files.exists(checkpointFile) ? ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).getLong() : 0L;
+        this.replayedSegments = listSegments();
+        long last = replayedSegments.isEmpty() ? segmentOf(checkpoint) : replayedSegments.get(replayedSegments.size() - 1);
+        this.segment = last;
+    }
+
+    /**
+     * Get the position of a record in a segment.
+     *
+     * @param segment the index of the segment.
+     * @param offset the offset in the segment.
+     * @return the position.
+     */
+    public static long position(long segment, int offset) {
+        return segment << 32 | offset;
+    }
+
+    private static long segmentOf(long position) {
+        return position >>> 32;
+    }
+
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    /**
+     * Get the last saved checkpoint.
+     *
+     * @return the position after the last stored record.
+     */
+    public synchronized long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Append a record.
+     *
+     * @param record the record.
+     * @return the position after the record, to be saved as checkpoint once it is stored.
+     * @throws IOException if a new segment cannot be created.
+     */
+    public long append(E record) throws IOException {
+        return append(frame(record));
+    }
+
+    /**
+     * Encode a record with its frame, to be appended with {@link #append(ByteBuffer)}. This does not take the lock of
+     * this log, so that producers can encode their records concurrently.
+     *
+     * @param record the record.
+     * @return the framed record.
+     */
+    public ByteBuffer frame(E record) {
+        int size = codec.size(record);
+        if (size <= 0 || FRAME_HEADER + size > segmentSize) {
+            throw new IllegalArgumentException("Invalid record size: " + size);
+        }
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + size);
+        frame.position(FRAME_HEADER);
+        codec.encode(record, frame);
+        if (frame.position() != FRAME_HEADER + size) {
+            throw new IllegalStateException("Record encoded to " + (frame.position() - FRAME_HEADER)
+                + " bytes instead of " + size);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), FRAME_HEADER, size);
+        frame.putInt(0, size);
+        frame.putInt(4, (int) crc.getValue());
+        return frame;
+    }
+
+    /**
+     * Append a framed record.
+     *
+     * @param frame the record, framed by {@link #frame(Object)}.
+     * @return the position after the record, to be saved as checkpoint once it is stored.
+     * @throws IOException if a new segment cannot be created.
+     */
+    public synchronized long append(ByteBuffer frame) throws IOException {
+        int length = frame.limit();
+        if (buffer == null || buffer.remaining() < length) {
+            roll();
+        }
+        int start = buffer.position();
+        // The length goes last, so that a frame cut short reads as the end of the segment
+        ByteBuffer rest = frame.duplicate();
+        rest.position(4);
+        buffer.position(start + 4);
+        buffer.put(rest);
+        buffer.putInt(start, frame.getInt(0));
+        return position(segment, buffer.position());
+    }
+
+    private void roll() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        segment++;
+        try (FileChannel channel = FileChannel.open(segmentFile(segment), StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    /**
+     * Deliver the records appended after the checkpoint, before this log was opened.
+     * <p>
+     * Replay stops at the first record of a segment failing its CRC check, which is taken as cut short by a crash.
+     *
+     * @param consumer the consumer of the records.
+     * @return the number of delivered records.
+     * @throws IOException if a segment cannot be read.
+     */
+    public long replay(RecordConsumer<E> consumer) throws IOException {
+        long replayed = 0;
+        long from = getCheckpoint();
+        CRC32 replayCrc = new CRC32();
+        for (long index : replayedSegments) {
+            if (index < segmentOf(from)) {
+                continue;
+            }
+            ByteBuffer segmentBuffer;
+            try (FileChannel channel = FileChannel.open(segmentFile(index), StandardOpenOption.READ)) {
+                segmentBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            int offset = index == segmentOf(from) ? offsetOf(from) : 0;
+            while (offset + FRAME_HEADER <= segmentBuffer.limit()) {
+                int size = segmentBuffer.getInt(offset);
+                if (size <= 0 || offset + FRAME_HEADER + size > segmentBuffer.limit()) {
+                    break;
+                }
+                ByteBuffer payload = segmentBuffer.duplicate();
+                payload.position(offset + FRAME_HEADER);
+                payload.limit(offset + FRAME_HEADER + size);
+                replayCrc.reset();
+                replayCrc.update(payload.duplicate());
+                if ((int) replayCrc.getValue() != segmentBuffer.getInt(offset + 4)) {
+                    break;
+                }
+                offset += FRAME_HEADER + size;
+                consumer.accept(codec.decode(payload), position(index, offset));
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Save the position after the last stored record, and delete the segments before it.
+     *
+     * @param position the position returned by {@link #append(Object)} or given by {@link #replay(RecordConsumer)}.
+     * @throws IOException if the checkpoint cannot be saved.
+     */
+    public synchronized void checkpoint(long position) throws IOException {
+        if (position <= checkpoint) {
+            return;
+        }
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write((ByteBuffer) ByteBuffer.allocate(Long.BYTES).putLong(position).flip());
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = position;
+        for (long index : listSegments()) {
+            if (index < segmentOf(position)) {
+                Files.deleteIfExists(segmentFile(index));
+            }
+        }
+    }
+
+    /**
+     * Write the appended records of the current segment back to disk.
+     */
+    @Override
+    public synchronized void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+    }
+
+    private Path segmentFile(long index) {
+        return directory.resolve(String.format("%020d.segment", index));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Encoding of records to bytes.
+     *
+     * @param <E> the type of the records.
+     */
+    public interface Codec<E> {
+
+        /**
+         * @param record the record.
+         * @return the number of bytes of the encoded record.
+         */
+        int size(E record);
+
+        /**
+         * @param record the record.
+         * @param buffer the buffer to put exactly {@link #size(Object)} bytes in.
+         */
+        void encode(E record, ByteBuffer buffer);
+
+        /**
+         * @param buffer the buffer holding the bytes of one record.
+         * @return the record.
+         */
+        E decode(ByteBuffer buffer);
+    }
+
+    /**
+     * Consumer of replayed records.
+     *
+     * @param <E> the type of the records.
+     */
+    @FunctionalInterface
+    public interface RecordConsumer<E> {
+
+        /**
+         * @param record the record.
+         * @param position the position after the record, to be saved as checkpoint once it is stored.
+         * @throws IOException if the record cannot be stored.
+         */
+        void accept(E record, long position) throws IOException;
+    }
+}
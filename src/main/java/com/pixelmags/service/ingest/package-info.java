@@ -0,0 +1,4 @@
+/**
+ * Buffers taking events from request threads for writers running in the background.
+ */
+package com.pixelmags.service.ingest;
@@ -12,10 +12,41 @@ import org.mapstruct.*;
 @Mapper(componentModel = "spring", uses = {})
 public interface IssueMapper extends EntityMapper<IssueDTO, Issue> {
 
+    @Mapping(target = "coverThumbnail", ignore = true)
+    @Mapping(target = "coverUrl", expression = "java(coverUrl(issue))")
+    IssueDTO toDto(Issue issue);
 
     @Mapping(target = "magazine", ignore = true)
+    @Mapping(target = "coverHash", ignore = true)
+    @Mapping(target = "coverLastModified", ignore = true)
     Issue toEntity(IssueDTO issueDTO);
 
+    /**
+     * Build the URL of the binary cover endpoint, versioned by the cover hash so clients can cache it for good.
+     *
+     * @param issue the issue.
+     * @return the cover URL, or {@code null} if the issue has no cover.
+     */
+    default String coverUrl(Issue issue) {
+        return coverUrl(issue.getId(), issue.getCoverThumbnailContentType(), issue.getCoverHash());
+    }
+
+    /**
+     * Build the URL of the binary cover endpoint from the cover columns of an issue.
+     *
+     * @param id the id of the issue.
+     * @param coverContentType the content type of the cover, {@code null} if the issue has no cover.
+     * @param coverHash the hash of the cover, if already computed.
+     * @return the cover URL, or {@code null} if the issue has no cover.
+     */
+    static String coverUrl(Long id, String coverContentType, String coverHash) {
+        if (id == null || coverContentType == null) {
+            return null;
+        }
+        String url = "/api/issues/" + id + "/cover";
+        return coverHash == null ? url : url + "?v=" + coverHash;
+    }
+
     default Issue fromId(Long id) {
         if (id == null) {
             return null;
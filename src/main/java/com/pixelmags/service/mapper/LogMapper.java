@@ -9,10 +9,14 @@ import org.mapstruct.*;
 /**
  * Mapper for the entity {@link Log} and its DTO {@link LogDTO}.
  */
-@Mapper(componentModel = "spring", uses = {})
+@Mapper(componentModel = "spring", uses = {IssueMapper.class})
 public interface LogMapper extends EntityMapper<LogDTO, Log> {
 
+    @Mapping(source = "issue.id", target = "issueId")
+    LogDTO toDto(Log log);
 
+    @Mapping(source = "issueId", target = "issue")
+    Log toEntity(LogDTO logDTO);
 
     default Log fromId(Long id) {
         if (id == null) {
@@ -0,0 +1,121 @@
+package com.pixelmags.service.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Bloom filter, telling whether a string may have been added to it in a fixed amount of memory.
+ * <p>
+ * Each string sets {@code k} bits picked by hashes of the string, and is reported as possibly added when all of its
+ * bits are set. Strings added are always reported, and strings not added are reported with a probability which grows
+ * with the number of strings added, as sized by the constructor. The {@code k} hashes are derived from the two halves
+ * of one 64-bit hash. Instances are not thread-safe, except for {@link #getFillRatio()}, which may be read at any time
+ * as the number of set bits is kept up to date on each change.
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    // Only written by the thread changing the filter
+    private volatile long setBitCount;
+
+    /**
+     * Create an empty filter.
+     *
+     * @param expectedItems the number of strings the filter is sized for.
+     * @param falsePositiveRate the rate of false positives once the filter holds the expected number of strings.
+     */
+    public BloomFilter(long expectedItems, double falsePositiveRate) {
+        if (expectedItems < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid sizing: " + expectedItems + " items at " + falsePositiveRate);
+        }
+        long bits = (long) Math.ceil(-expectedItems * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long wordCount = (bits + Long.SIZE - 1) / Long.SIZE;
+        if (wordCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Filter too large: " + bits + " bits");
+        }
+        this.words = new long[(int) wordCount];
+        this.bitCount = wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedItems * LN2));
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Add a string.
+     *
+     * @param item the string.
+     * @return true if the filter changed, in which case the string was certainly not added before.
+     */
+    public boolean put(CharSequence item) {
+        long hash = Hashes.hash(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int changed = 0;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1, h2, i);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                changed++;
+            }
+        }
+        if (changed == 0) {
+            return false;
+        }
+        setBitCount += changed;
+        return true;
+    }
+
+    /**
+     * Tell whether a string may have been added.
+     *
+     * @param item the string.
+     * @return false if the string was certainly not added, true if it may have been.
+     */
+    public boolean mightContain(CharSequence item) {
+        long hash = Hashes.hash(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1, h2, i);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int h1, int h2, int i) {
+        return ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * Get the share of set bits, which gives the current rate of false positives raised to the number of hashes.
+     *
+     * @return the share of set bits, from 0 to 1.
+     */
+    public double getFillRatio() {
+        return (double) setBitCount / bitCount;
+    }
+
+    /**
+     * Remove all the strings.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+        setBitCount = 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.pixelmags.service.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch, estimating how often each item was added in a fixed amount of memory.
+ * <p>
+ * Each item is counted in one counter per row, picked by a hash of the item, and its estimate is the smallest of its
+ * counters. Estimates never fall below the true count, and exceed it by at most {@code e / width} of the total count
+ * with probability {@code 1 - e^-depth}. Sketches of the same dimensions can be added to and subtracted from each
+ * other, as with the counts of time windows. Instances are not thread-safe.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+
+    private final int mask;
+
+    private final long[] counters;
+
+    private long total;
+
+    /**
+     * Create an empty sketch.
+     *
+     * @param depth the number of rows.
+     * @param width the minimum number of counters per row, rounded up to a power of two.
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > 16 || width < 1 || width > 1 << 24) {
+            throw new IllegalArgumentException("Invalid dimensions: " + depth + "x" + width);
+        }
+        int size = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.counters = new long[depth * size];
+    }
+
+    /**
+     * Count an item.
+     *
+     * @param item the item.
+     * @param count the number of times it was seen.
+     */
+    public void add(long item, long count) {
+        long hash = Hashes.mix(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters[index(row, h1, h2)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * Estimate how often an item was seen.
+     *
+     * @param item the item.
+     * @return the estimate, at least the true count.
+     */
+    public long estimate(long item) {
+        long hash = Hashes.mix(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[index(row, h1, h2)]);
+        }
+        return estimate;
+    }
+
+    private int index(int row, int h1, int h2) {
+        // Row hashes derived from two halves of one hash, which keeps the error bounds of independent hashes
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    /**
+     * Get the total count of the items.
+     *
+     * @return the total count.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Add the counts of another sketch to this one.
+     *
+     * @param other the other sketch, of the same dimensions.
+     */
+    public void add(CountMinSketch other) {
+        checkDimensions(other);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * Remove the counts of another sketch, previously added to this one.
+     *
+     * @param other the other sketch, of the same dimensions.
+     */
+    public void subtract(CountMinSketch other) {
+        checkDimensions(other);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] -= other.counters[i];
+        }
+        total -= other.total;
+    }
+
+    /**
+     * Reset all the counts.
+     */
+    public void clear() {
+        Arrays.fill(counters, 0L);
+        total = 0L;
+    }
+
+    private void checkDimensions(CountMinSketch other) {
+        if (other.depth != depth || other.mask != mask) {
+            throw new IllegalArgumentException("Cannot combine sketches of different dimensions");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.pixelmags.service.sketch;
+
+/**
+ * Hash functions shared by the sketches.
+ */
+final class Hashes {
+
+    private Hashes() {
+    }
+
+    /**
+     * Mix the bits of a value, with the finalizer of SplitMix64, so that close values get unrelated hashes.
+     *
+     * @param value the value.
+     * @return the hash.
+     */
+    static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Hash a string, with 64-bit FNV-1a over its characters followed by {@link #mix(long)}.
+     *
+     * @param value the string.
+     * @return the hash.
+     */
+    static long hash(CharSequence value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+}
@@ -0,0 +1,311 @@
+package com.pixelmags.service.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch, estimating the number of distinct values added to it in a fixed amount of memory.
+ * <p>
+ * Values are hashed to 64 bits: the first bits of the hash select one of the 2<sup>precision</sup> registers, which
+ * keeps the highest rank of the first set bit among the remaining bits. The relative standard error of the estimate is
+ * about {@code 1.04 / sqrt(2^precision)}, 0.81% with the default precision of {@value #DEFAULT_PRECISION}. Sketches of
+ * the same precision merge into the sketch of the union of their values.
+ * <p>
+ * A sketch starts sparse, keeping only its set registers in a sorted array, and becomes dense with one byte per
+ * register once an eighth of its registers are set, so that the many sketches of few values stay small. Sketches are
+ * serialized in the smaller of a sparse encoding, listing the set registers, and a dense encoding, packing all the
+ * registers in 6 bits each. Instances are not thread-safe.
+ */
+public final class HyperLogLog {
+
+    /**
+     * Default number of bits selecting a register.
+     */
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final int MIN_PRECISION = 4;
+
+    private static final int MAX_PRECISION = 16;
+
+    private static final byte SPARSE = 1;
+
+    private static final byte DENSE = 2;
+
+    private static final int REGISTER_BITS = 6;
+
+    private static final int REGISTER_MASK = (1 << REGISTER_BITS) - 1;
+
+    private final int precision;
+
+    // Set registers of a sparse sketch, as index << 8 | rank sorted by index, or null once dense
+    private int[] sparse;
+
+    private int sparseCount;
+
+    // Registers of a dense sketch, or null while sparse
+    private byte[] registers;
+
+    /**
+     * Create an empty sketch of the default precision.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Create an empty sketch.
+     *
+     * @param precision the number of bits selecting a register, from 4 to 16.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Invalid precision: " + precision);
+        }
+        this.precision = precision;
+        this.sparse = new int[4];
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    boolean isSparse() {
+        return registers == null;
+    }
+
+    /**
+     * Add a value.
+     *
+     * @param value the value.
+     */
+    public void add(long value) {
+        long hash = Hashes.mix(value);
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // The sentinel bit bounds the rank when all the remaining bits are zeros
+        int rank = Long.numberOfLeadingZeros(hash << precision | 1L << (precision - 1)) + 1;
+        set(index, rank);
+    }
+
+    /**
+     * Raise a register to a rank, if lower.
+     */
+    private void set(int index, int rank) {
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+        int low = 0;
+        int high = sparseCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleIndex = sparse[middle] >>> 8;
+            if (middleIndex < index) {
+                low = middle + 1;
+            } else if (middleIndex > index) {
+                high = middle - 1;
+            } else {
+                if (rank > (sparse[middle] & 0xFF)) {
+                    sparse[middle] = index << 8 | rank;
+                }
+                return;
+            }
+        }
+        int maxSparseCount = (1 << precision) / 8;
+        if (sparseCount == maxSparseCount) {
+            registers = denseRegisters();
+            sparse = null;
+            sparseCount = 0;
+            registers[index] = (byte) rank;
+            return;
+        }
+        if (sparseCount == sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.min(2 * sparse.length, maxSparseCount));
+        }
+        System.arraycopy(sparse, low, sparse, low + 1, sparseCount - low);
+        sparse[low] = index << 8 | rank;
+        sparseCount++;
+    }
+
+    private byte[] denseRegisters() {
+        if (registers != null) {
+            return registers;
+        }
+        byte[] dense = new byte[1 << precision];
+        for (int i = 0; i < sparseCount; i++) {
+            dense[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+        }
+        return dense;
+    }
+
+    /**
+     * Add the values of another sketch to this one.
+     *
+     * @param other the other sketch, of the same precision.
+     * @return this sketch.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge a sketch of precision " + other.precision
+                + " into a sketch of precision " + precision);
+        }
+        if (other.registers == null) {
+            for (int i = 0; i < other.sparseCount; i++) {
+                set(other.sparse[i] >>> 8, other.sparse[i] & 0xFF);
+            }
+            return this;
+        }
+        if (registers == null) {
+            registers = denseRegisters();
+            sparse = null;
+            sparseCount = 0;
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Estimate the number of distinct values added.
+     *
+     * @return the estimate.
+     */
+    public long estimate() {
+        int m = 1 << precision;
+        double sum = 0;
+        int zeros = 0;
+        if (registers == null) {
+            zeros = m - sparseCount;
+            sum = zeros;
+            for (int i = 0; i < sparseCount; i++) {
+                sum += 1.0 / (1L << (sparse[i] & 0xFF));
+            }
+        } else {
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate for small cardinalities
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Get the relative standard error of the estimates of a sketch.
+     *
+     * @param precision the precision of the sketch.
+     * @return the relative standard error.
+     */
+    public static double standardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    /**
+     * Serialize this sketch.
+     *
+     * @return the bytes of the sketch.
+     */
+    public byte[] toBytes() {
+        int set = sparseCount;
+        if (registers != null) {
+            for (byte register : registers) {
+                if (register != 0) {
+                    set++;
+                }
+            }
+        }
+        int sparseSize = 2 + set * 3;
+        int denseSize = 2 + ((1 << precision) * REGISTER_BITS + 7) / 8;
+        if (sparseSize < denseSize) {
+            ByteBuffer buffer = ByteBuffer.allocate(sparseSize).put(SPARSE).put((byte) precision);
+            if (registers == null) {
+                for (int i = 0; i < sparseCount; i++) {
+                    buffer.putShort((short) (sparse[i] >>> 8)).put((byte) (sparse[i] & 0xFF));
+                }
+            } else {
+                for (int i = 0; i < registers.length; i++) {
+                    if (registers[i] != 0) {
+                        buffer.putShort((short) i).put(registers[i]);
+                    }
+                }
+            }
+            return buffer.array();
+        }
+        byte[] registers = denseRegisters();
+        byte[] bytes = new byte[denseSize];
+        bytes[0] = DENSE;
+        bytes[1] = (byte) precision;
+        long bits = 0;
+        int pending = 0;
+        int position = 2;
+        for (byte register : registers) {
+            bits = bits << REGISTER_BITS | register;
+            pending += REGISTER_BITS;
+            while (pending >= 8) {
+                pending -= 8;
+                bytes[position++] = (byte) (bits >>> pending);
+            }
+        }
+        if (pending > 0) {
+            bytes[position] = (byte) (bits << (8 - pending));
+        }
+        return bytes;
+    }
+
+    /**
+     * Deserialize a sketch.
+     *
+     * @param bytes the bytes of the sketch, as given by {@link #toBytes()}.
+     * @return the sketch.
+     * @throws IllegalArgumentException if the bytes are not a serialized sketch.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length < 2) {
+            throw new IllegalArgumentException("Truncated sketch");
+        }
+        HyperLogLog sketch = new HyperLogLog(bytes[1]);
+        int m = 1 << sketch.precision;
+        if (bytes[0] == SPARSE) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+            while (buffer.remaining() >= 3) {
+                int index = buffer.getShort() & 0xFFFF;
+                if (index >= m) {
+                    throw new IllegalArgumentException("Invalid register: " + index);
+                }
+                sketch.set(index, buffer.get() & REGISTER_MASK);
+            }
+        } else if (bytes[0] == DENSE) {
+            byte[] registers = new byte[m];
+            sketch.registers = registers;
+            sketch.sparse = null;
+            if (bytes.length != 2 + (registers.length * REGISTER_BITS + 7) / 8) {
+                throw new IllegalArgumentException("Invalid sketch size: " + bytes.length);
+            }
+            long bits = 0;
+            int pending = 0;
+            int position = 2;
+            for (int i = 0; i < registers.length; i++) {
+                while (pending < REGISTER_BITS) {
+                    bits = bits << 8 | (bytes[position++] & 0xFF);
+                    pending += 8;
+                }
+                pending -= REGISTER_BITS;
+                registers[i] = (byte) (bits >>> pending & REGISTER_MASK);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown sketch encoding: " + bytes[0]);
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,106 @@
+package com.pixelmags.service.sketch;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Space-Saving summary, keeping the items seen most often in a fixed number of counters.
+ * <p>
+ * An item not yet counted takes over the counter of the least counted item once all the counters are taken, so that
+ * any item seen more than {@code 1 / capacity} of the times is kept. Counts may be overestimated by the count of the
+ * counter taken over. Finding that counter scans all the counters, which is cheap for the small capacities of top
+ * lists. Instances are not thread-safe.
+ */
+public final class SpaceSaving {
+
+    private final int capacity;
+
+    private final Map<Long, long[]> counts;
+
+    /**
+     * Create an empty summary.
+     *
+     * @param capacity the number of counters.
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counts = new HashMap<>(capacity * 2);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Count an item.
+     *
+     * @param item the item.
+     * @param count the number of times it was seen.
+     */
+    public void offer(long item, long count) {
+        long[] counter = counts.get(item);
+        if (counter != null) {
+            counter[0] += count;
+            return;
+        }
+        if (counts.size() < capacity) {
+            counts.put(item, new long[]{count});
+            return;
+        }
+        Long minItem = null;
+        long[] min = null;
+        for (Map.Entry<Long, long[]> entry : counts.entrySet()) {
+            if (min == null || entry.getValue()[0] < min[0]) {
+                minItem = entry.getKey();
+                min = entry.getValue();
+            }
+        }
+        counts.remove(minItem);
+        min[0] += count;
+        counts.put(item, min);
+    }
+
+    /**
+     * Count the items of another summary.
+     *
+     * @param other the other summary.
+     */
+    public void merge(SpaceSaving other) {
+        other.counts.forEach((item, counter) -> offer(item, counter[0]));
+    }
+
+    /**
+     * Get the counted items, the most frequent ones among them.
+     *
+     * @param action the action to perform on each item.
+     */
+    public void forEachItem(LongConsumer action) {
+        counts.keySet().forEach(action::accept);
+    }
+
+    /**
+     * Get the count of an item.
+     *
+     * @param item the item.
+     * @return the count, possibly overestimated, or 0 if the item is not counted.
+     */
+    public long getCount(long item) {
+        long[] counter = counts.get(item);
+        return counter == null ? 0L : counter[0];
+    }
+
+    public int size() {
+        return counts.size();
+    }
+
+    /**
+     * Reset all the counts.
+     */
+    public void clear() {
+        counts.clear();
+    }
+}
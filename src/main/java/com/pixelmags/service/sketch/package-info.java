@@ -0,0 +1,4 @@
+/**
+ * Probabilistic summaries of events, answering approximate queries in a fixed amount of memory.
+ */
+package com.pixelmags.service.sketch;
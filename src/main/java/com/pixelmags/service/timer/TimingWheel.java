@@ -0,0 +1,175 @@
+package com.pixelmags.service.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel, firing items at their deadline without keeping them sorted nor scanning them.
+ * <p>
+ * Time is counted in ticks from a start date. The first wheel has one slot per tick for its {@code wheelSize} next
+ * ticks, and each next wheel has slots spanning a whole turn of the previous one, so that a few levels cover years of
+ * ticks. An item goes to the slot of its deadline in the lowest wheel it fits in, and the items of a slot of an upper
+ * wheel are moved down when the time reaches the slot, until they fire from the first wheel. Scheduling an item and
+ * advancing by one tick take a constant time, whatever the number of items. Items are fired at the first tick at or
+ * after their deadline, and items with a deadline already past are fired on the next advance. Instances are not
+ * thread-safe.
+ *
+ * @param <T> the type of the items.
+ */
+public final class TimingWheel<T> {
+
+    private final long startMillis;
+
+    private final long tickMillis;
+
+    private final int wheelSize;
+
+    /**
+     * Number of ticks spanned by one slot of each wheel.
+     */
+    private final long[] spans;
+
+    private final List<Entry<T>>[][] slots;
+
+    private List<Entry<T>> due = new ArrayList<>();
+
+    private List<Entry<T>> overflow = new ArrayList<>();
+
+    private long current;
+
+    private int size;
+
+    /**
+     * Create an empty timing wheel.
+     *
+     * @param startMillis the start date, in milliseconds since the epoch.
+     * @param tickMillis the duration of a tick, in milliseconds.
+     * @param wheelSize the number of slots of each wheel.
+     * @param levels the number of wheels, the items beyond the last one being kept aside until it turns.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long startMillis, long tickMillis, int wheelSize, int levels) {
+        if (tickMillis < 1 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid wheel: " + levels + " levels of " + wheelSize + " ticks of " + tickMillis + " ms");
+        }
+        this.startMillis = startMillis;
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levels + 1];
+        spans[0] = 1;
+        for (int level = 1; level <= levels; level++) {
+            spans[level] = Math.multiplyExact(spans[level - 1], wheelSize);
+        }
+        this.slots = new List[levels][wheelSize];
+    }
+
+    /**
+     * Get the number of scheduled items, fired ones excluded.
+     *
+     * @return the number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedule an item.
+     *
+     * @param deadlineMillis the date the item fires at, in milliseconds since the epoch.
+     * @param item the item.
+     */
+    public void schedule(long deadlineMillis, T item) {
+        long tick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        insert(new Entry<>(tick, item));
+        size++;
+    }
+
+    /**
+     * Advance the time, firing the items with a deadline up to it.
+     *
+     * @param nowMillis the current date, in milliseconds since the epoch.
+     * @return the fired items, the ones scheduled with a deadline already past first, then by deadline rounded to the
+     * tick.
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> fired = new ArrayList<>();
+        fire(due, fired);
+        long target = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (current < target) {
+            if (size == 0) {
+                current = target;
+                break;
+            }
+            current++;
+            int levels = slots.length;
+            if (!overflow.isEmpty() && current % spans[levels] == 0) {
+                List<Entry<T>> entries = overflow;
+                overflow = new ArrayList<>();
+                entries.forEach(this::insert);
+            }
+            // Upper wheels first, so that their items can move down several wheels at once
+            for (int level = levels - 1; level > 0; level--) {
+                if (current % spans[level] == 0) {
+                    int slot = (int) ((current / spans[level]) % wheelSize);
+                    List<Entry<T>> entries = slots[level][slot];
+                    if (entries != null) {
+                        slots[level][slot] = null;
+                        entries.forEach(this::insert);
+                    }
+                }
+            }
+            int slot = (int) (current % wheelSize);
+            List<Entry<T>> entries = slots[0][slot];
+            if (entries != null) {
+                slots[0][slot] = null;
+                fire(entries, fired);
+            }
+            fire(due, fired);
+        }
+        return fired;
+    }
+
+    private void insert(Entry<T> entry) {
+        long delta = entry.tick - current;
+        if (delta <= 0) {
+            due.add(entry);
+            return;
+        }
+        for (int level = 0; level < slots.length; level++) {
+            if (delta < spans[level + 1]) {
+                int slot = (int) ((entry.tick / spans[level]) % wheelSize);
+                if (slots[level][slot] == null) {
+                    slots[level][slot] = new ArrayList<>();
+                }
+                slots[level][slot].add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private void fire(List<Entry<T>> entries, List<T> fired) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        for (Entry<T> entry : entries) {
+            fired.add(entry.item);
+        }
+        size -= entries.size();
+        if (entries == due) {
+            due = new ArrayList<>();
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final long tick;
+
+        private final T item;
+
+        private Entry(long tick, T item) {
+            this.tick = tick;
+            this.item = item;
+        }
+    }
+}
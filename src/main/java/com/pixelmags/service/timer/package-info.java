@@ -0,0 +1,4 @@
+/**
+ * Timers firing large numbers of deadlines without scanning them.
+ */
+package com.pixelmags.service.timer;
@@ -0,0 +1,112 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.service.CatalogService;
+import com.pixelmags.service.TrendingService;
+import com.pixelmags.service.catalog.CatalogSnapshot;
+import com.pixelmags.service.dto.CatalogIssueDTO;
+import com.pixelmags.service.dto.TrendingIssueDTO;
+import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.ConditionalRequestUtil;
+
+import io.github.jhipster.web.util.PaginationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * REST controller for reading the catalog of {@link com.pixelmags.domain.Issue}s.
+ */
+@RestController
+@RequestMapping("/api")
+public class CatalogResource {
+
+    private final Logger log = LoggerFactory.getLogger(CatalogResource.class);
+
+    private static final String ENTITY_NAME = "catalog";
+
+    private static final Set<String> SORT_PROPERTIES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("dataLancamento", "id")));
+
+    private final CatalogService catalogService;
+
+    private final TrendingService trendingService;
+
+    private final CacheControl cacheControl;
+
+    public CatalogResource(CatalogService catalogService, TrendingService trendingService,
+                           ApplicationProperties applicationProperties) {
+        this.catalogService = catalogService;
+        this.trendingService = trendingService;
+        this.cacheControl = ConditionalRequestUtil.cacheControl(applicationProperties.getHttpCache(), ENTITY_NAME);
+    }
+
+    /**
+     * {@code GET  /catalog} : get a page of the catalog, the latest releases first by default.
+     *
+     * @param pageable the pagination information, sorted by {@code dataLancamento} or {@code id}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of catalog issues in body,
+     * or with status {@code 304 (Not Modified)} if the catalog did not change,
+     * or with status {@code 400 (Bad Request)} if the sort property is not supported.
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<List<CatalogIssueDTO>> getCatalog(
+        @PageableDefault(sort = "dataLancamento", direction = Sort.Direction.DESC) Pageable pageable, WebRequest request) {
+        log.debug("REST request to get a page of the catalog");
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new BadRequestAlertException("Invalid sort property", ENTITY_NAME, "sortinvalid");
+            }
+        }
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, snapshot.getVersion(), snapshot.getLastModified())) {
+            return null;
+        }
+        Page<CatalogIssueDTO> page = catalogService.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /catalog/trending} : get the issues of the catalog with the most logs over the last hour or day.
+     * <p>
+     * The rankings are refreshed every few seconds, and the counts are estimates.
+     *
+     * @param window the time window, {@code 1h} or {@code 24h}.
+     * @param size the maximum number of issues, up to {@value TrendingService#MAX_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of trending issues in body,
+     * or with status {@code 400 (Bad Request)} if the window or the size is not supported.
+     */
+    @GetMapping("/catalog/trending")
+    public ResponseEntity<List<TrendingIssueDTO>> getTrending(@RequestParam(defaultValue = "24h") String window,
+                                                              @RequestParam(defaultValue = "10") int size) {
+        log.debug("REST request to get the trending issues over {}", window);
+        TrendingService.Window trendingWindow;
+        if ("1h".equals(window)) {
+            trendingWindow = TrendingService.Window.HOUR;
+        } else if ("24h".equals(window)) {
+            trendingWindow = TrendingService.Window.DAY;
+        } else {
+            throw new BadRequestAlertException("Invalid window", ENTITY_NAME, "windowinvalid");
+        }
+        if (size < 1 || size > TrendingService.MAX_SIZE) {
+            throw new BadRequestAlertException("Invalid size", ENTITY_NAME, "sizeinvalid");
+        }
+        return ResponseEntity.ok(trendingService.findTrending(trendingWindow, size));
+    }
+}
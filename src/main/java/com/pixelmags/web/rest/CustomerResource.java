@@ -1,21 +1,35 @@
 package com.pixelmags.web.rest;
 
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Customer;
+import com.pixelmags.domain.Purchase;
 import com.pixelmags.service.CustomerService;
+import com.pixelmags.service.CustomerQueryService;
+import com.pixelmags.service.EntityVersionService;
 import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.ConditionalRequestUtil;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
+import com.pixelmags.web.rest.util.MultiGetUtil;
+import com.pixelmags.web.rest.util.SparseFieldsetUtil;
+import com.pixelmags.web.rest.vm.ItemResultVM;
 import com.pixelmags.service.dto.CustomerDTO;
+import com.pixelmags.service.dto.CustomerCriteria;
 
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
@@ -31,13 +45,28 @@ public class CustomerResource {
 
     private static final String ENTITY_NAME = "customer";
 
+    /**
+     * The entities the responses are read from, including the ones the criteria may filter on.
+     */
+    private static final Class<?>[] VERSIONED_ENTITIES = {Customer.class, Purchase.class};
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final CustomerService customerService;
 
-    public CustomerResource(CustomerService customerService) {
+    private final CustomerQueryService customerQueryService;
+
+    private final EntityVersionService entityVersionService;
+
+    private final CacheControl cacheControl;
+
+    public CustomerResource(CustomerService customerService, CustomerQueryService customerQueryService,
+                            EntityVersionService entityVersionService, ApplicationProperties applicationProperties) {
         this.customerService = customerService;
+        this.customerQueryService = customerQueryService;
+        this.entityVersionService = entityVersionService;
+        this.cacheControl = ConditionalRequestUtil.cacheControl(applicationProperties.getHttpCache(), ENTITY_NAME);
     }
 
     /**
@@ -82,23 +111,80 @@ public class CustomerResource {
 
     /**
      * {@code GET  /customers} : get all the customers.
+     * <p>
+     * A single page is returned, in id order, and the {@code Link} header holds the URL of the next page, as the table
+     * is too large to be listed at once.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body.
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the id after which the page starts.
+     * @param limit the maximum number of customers, {@value KeysetPaginationUtil#DEFAULT_LIMIT} by default.
+     * @param fields the comma-separated properties of the DTOs to return, all of them by default.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body,
+     * or with status {@code 304 (Not Modified)} if the customers did not change.
      */
     @GetMapping("/customers")
-    public List<CustomerDTO> getAllCustomers() {
-        log.debug("REST request to get all Customers");
-        return customerService.findAll();
+    public ResponseEntity<List<CustomerDTO>> getAllCustomers(CustomerCriteria criteria, @RequestParam(required = false) Long after,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String fields, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        Set<String> fieldset = SparseFieldsetUtil.parse(CustomerDTO.class, fields, ENTITY_NAME);
+        log.debug("REST request to get a page of Customers after {} by criteria: {}", after, criteria);
+        return KeysetPaginationUtil.page(ENTITY_NAME, after, limit,
+            (from, size) -> customerQueryService.findByCriteria(criteria, from, size, fieldset), CustomerDTO::getId);
+    }
+
+    /**
+     * {@code GET  /customers?ids=:ids} : get the customers with some ids.
+     *
+     * @param ids the ids of the customers, at most {@value MultiGetUtil#MAX_IDS}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and one result per id in body, in the same order,
+     * with status {@code 404} for the customers that do not exist,
+     * or with status {@code 400 (Bad Request)} if there are no ids or too many,
+     * or with status {@code 304 (Not Modified)} if the customers did not change.
+     */
+    @GetMapping(value = "/customers", params = "ids")
+    public ResponseEntity<List<ItemResultVM<CustomerDTO>>> getCustomersById(@RequestParam List<Long> ids, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to get Customers : {}", ids);
+        return MultiGetUtil.wrap(ENTITY_NAME, ids, customerQueryService::findAllById);
+    }
+
+    /**
+     * {@code GET  /customers/count} : count all the customers.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body,
+     * or with status {@code 304 (Not Modified)} if the customers did not change.
+     */
+    @GetMapping("/customers/count")
+    public ResponseEntity<Long> countCustomers(CustomerCriteria criteria, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to count Customers by criteria: {}", criteria);
+        return ResponseEntity.ok().body(customerQueryService.countByCriteria(criteria));
     }
 
     /**
      * {@code GET  /customers/:id} : get the "id" customer.
      *
      * @param id the id of the customerDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the customerDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the customerDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the customer did not change.
      */
     @GetMapping("/customers/{id}")
-    public ResponseEntity<CustomerDTO> getCustomer(@PathVariable Long id) {
+    public ResponseEntity<CustomerDTO> getCustomer(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(Customer.class, id))) {
+            return null;
+        }
         log.debug("REST request to get Customer : {}", id);
         Optional<CustomerDTO> customerDTO = customerService.findOne(id);
         return ResponseUtil.wrapOrNotFound(customerDTO);
@@ -1,21 +1,35 @@
 package com.pixelmags.web.rest;
 
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Customer;
+import com.pixelmags.domain.Device;
 import com.pixelmags.service.DeviceService;
+import com.pixelmags.service.DeviceQueryService;
+import com.pixelmags.service.EntityVersionService;
 import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.ConditionalRequestUtil;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
+import com.pixelmags.web.rest.util.MultiGetUtil;
+import com.pixelmags.web.rest.util.SparseFieldsetUtil;
+import com.pixelmags.web.rest.vm.ItemResultVM;
 import com.pixelmags.service.dto.DeviceDTO;
+import com.pixelmags.service.dto.DeviceCriteria;
 
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
@@ -31,13 +45,28 @@ public class DeviceResource {
 
     private static final String ENTITY_NAME = "device";
 
+    /**
+     * The entities the responses are read from, including the ones the criteria may filter on.
+     */
+    private static final Class<?>[] VERSIONED_ENTITIES = {Device.class, Customer.class};
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final DeviceService deviceService;
 
-    public DeviceResource(DeviceService deviceService) {
+    private final DeviceQueryService deviceQueryService;
+
+    private final EntityVersionService entityVersionService;
+
+    private final CacheControl cacheControl;
+
+    public DeviceResource(DeviceService deviceService, DeviceQueryService deviceQueryService,
+                          EntityVersionService entityVersionService, ApplicationProperties applicationProperties) {
         this.deviceService = deviceService;
+        this.deviceQueryService = deviceQueryService;
+        this.entityVersionService = entityVersionService;
+        this.cacheControl = ConditionalRequestUtil.cacheControl(applicationProperties.getHttpCache(), ENTITY_NAME);
     }
 
     /**
@@ -82,23 +111,80 @@ public class DeviceResource {
 
     /**
      * {@code GET  /devices} : get all the devices.
+     * <p>
+     * A single page is returned, in id order, and the {@code Link} header holds the URL of the next page, as the table
+     * is too large to be listed at once.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of devices in body.
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the id after which the page starts.
+     * @param limit the maximum number of devices, {@value KeysetPaginationUtil#DEFAULT_LIMIT} by default.
+     * @param fields the comma-separated properties of the DTOs to return, all of them by default.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of devices in body,
+     * or with status {@code 304 (Not Modified)} if the devices did not change.
      */
     @GetMapping("/devices")
-    public List<DeviceDTO> getAllDevices() {
-        log.debug("REST request to get all Devices");
-        return deviceService.findAll();
+    public ResponseEntity<List<DeviceDTO>> getAllDevices(DeviceCriteria criteria, @RequestParam(required = false) Long after,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         @RequestParam(required = false) String fields, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        Set<String> fieldset = SparseFieldsetUtil.parse(DeviceDTO.class, fields, ENTITY_NAME);
+        log.debug("REST request to get a page of Devices after {} by criteria: {}", after, criteria);
+        return KeysetPaginationUtil.page(ENTITY_NAME, after, limit,
+            (from, size) -> deviceQueryService.findByCriteria(criteria, from, size, fieldset), DeviceDTO::getId);
+    }
+
+    /**
+     * {@code GET  /devices?ids=:ids} : get the devices with some ids.
+     *
+     * @param ids the ids of the devices, at most {@value MultiGetUtil#MAX_IDS}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and one result per id in body, in the same order,
+     * with status {@code 404} for the devices that do not exist,
+     * or with status {@code 400 (Bad Request)} if there are no ids or too many,
+     * or with status {@code 304 (Not Modified)} if the devices did not change.
+     */
+    @GetMapping(value = "/devices", params = "ids")
+    public ResponseEntity<List<ItemResultVM<DeviceDTO>>> getDevicesById(@RequestParam List<Long> ids, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to get Devices : {}", ids);
+        return MultiGetUtil.wrap(ENTITY_NAME, ids, deviceQueryService::findAllById);
+    }
+
+    /**
+     * {@code GET  /devices/count} : count all the devices.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body,
+     * or with status {@code 304 (Not Modified)} if the devices did not change.
+     */
+    @GetMapping("/devices/count")
+    public ResponseEntity<Long> countDevices(DeviceCriteria criteria, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to count Devices by criteria: {}", criteria);
+        return ResponseEntity.ok().body(deviceQueryService.countByCriteria(criteria));
     }
 
     /**
      * {@code GET  /devices/:id} : get the "id" device.
      *
      * @param id the id of the deviceDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the deviceDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the deviceDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the device did not change.
      */
     @GetMapping("/devices/{id}")
-    public ResponseEntity<DeviceDTO> getDevice(@PathVariable Long id) {
+    public ResponseEntity<DeviceDTO> getDevice(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(Device.class, id))) {
+            return null;
+        }
         log.debug("REST request to get Device : {}", id);
         Optional<DeviceDTO> deviceDTO = deviceService.findOne(id);
         return ResponseUtil.wrapOrNotFound(deviceDTO);
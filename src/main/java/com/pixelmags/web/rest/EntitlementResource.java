@@ -0,0 +1,42 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.service.EntitlementService;
+import com.pixelmags.service.dto.EntitlementDTO;
+
+import io.github.jhipster.web.util.ResponseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for checking what customers can read.
+ * <p>
+ * Checks are answered from entitlements kept in memory, so opening a page in the reader does not query the purchases.
+ */
+@RestController
+@RequestMapping("/api")
+public class EntitlementResource {
+
+    private final Logger log = LoggerFactory.getLogger(EntitlementResource.class);
+
+    private final EntitlementService entitlementService;
+
+    public EntitlementResource(EntitlementService entitlementService) {
+        this.entitlementService = entitlementService;
+    }
+
+    /**
+     * {@code GET  /entitlements/:customerId/issues/:issueId} : check whether a customer can read an issue today.
+     *
+     * @param customerId the id of the customer.
+     * @param issueId the id of the issue.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the entitlement in body,
+     * or with status {@code 404 (Not Found)} if the customer does not exist.
+     */
+    @GetMapping("/entitlements/{customerId}/issues/{issueId}")
+    public ResponseEntity<EntitlementDTO> getEntitlement(@PathVariable Long customerId, @PathVariable Long issueId) {
+        log.debug("REST request to check the entitlement of Customer {} to Issue {}", customerId, issueId);
+        return ResponseUtil.wrapOrNotFound(entitlementService.check(customerId, issueId));
+    }
+}
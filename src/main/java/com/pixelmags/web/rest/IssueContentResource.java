@@ -0,0 +1,170 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.security.AuthoritiesConstants;
+import com.pixelmags.service.IssueContentService;
+import com.pixelmags.service.IssueService;
+import com.pixelmags.service.blob.IssueContentStore;
+import com.pixelmags.service.dto.IssueContentDTO;
+import com.pixelmags.service.dto.IssueDTO;
+import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.BinaryResponseUtil;
+
+import io.github.jhipster.web.util.HeaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * REST controller for managing the pages and the bundle of an {@link com.pixelmags.domain.Issue}.
+ * <p>
+ * Content is sent straight from disk, and downloads can be resumed with {@code Range} and {@code If-Range} requests.
+ */
+@RestController
+@RequestMapping("/api")
+public class IssueContentResource {
+
+    private final Logger log = LoggerFactory.getLogger(IssueContentResource.class);
+
+    private static final String ENTITY_NAME = "issue";
+
+    private static final CacheControl CONTENT_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    @Value("${jhipster.clientApp.name}")
+    private String applicationName;
+
+    private final IssueContentService issueContentService;
+
+    private final IssueService issueService;
+
+    public IssueContentResource(IssueContentService issueContentService, IssueService issueService) {
+        this.issueContentService = issueContentService;
+        this.issueService = issueService;
+    }
+
+    /**
+     * {@code PUT  /issues/:id/pages/:page} : Store a page of the "id" issue, replacing the previous version.
+     *
+     * @param id the id of the issue.
+     * @param page the page number, starting at 1.
+     * @param request the current request, whose body is the page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the stored page,
+     * or with status {@code 400 (Bad Request)} if the page number is out of the issue,
+     * or with status {@code 404 (Not Found)} if the issue does not exist.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PutMapping(value = "/issues/{id}/pages/{page}",
+        consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, "image/webp", MediaType.APPLICATION_PDF_VALUE})
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<IssueContentDTO> updateIssuePage(@PathVariable Long id, @PathVariable int page,
+                                                           HttpServletRequest request) throws IOException {
+        log.debug("REST request to update page {} of Issue : {}", page, id);
+        Optional<IssueDTO> issue = issueService.findOne(id);
+        if (!issue.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (page <= 0 || (issue.get().getNumeroPaginas() != null && page > issue.get().getNumeroPaginas())) {
+            throw new BadRequestAlertException("Invalid page number", ENTITY_NAME, "pageinvalid");
+        }
+        MediaType mediaType = MediaType.parseMediaType(request.getContentType());
+        String contentType = mediaType.getType() + "/" + mediaType.getSubtype();
+        if (!IssueContentStore.isPageContentType(contentType)) {
+            throw new BadRequestAlertException("Invalid page content type", ENTITY_NAME, "contenttypeinvalid");
+        }
+        IssueContentDTO result;
+        try (InputStream content = request.getInputStream()) {
+            result = issueContentService.savePage(id, page, contentType, content);
+        }
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString()))
+            .body(result);
+    }
+
+    /**
+     * {@code PUT  /issues/:id/bundle} : Store the packaged bundle of the "id" issue, replacing the previous version.
+     *
+     * @param id the id of the issue.
+     * @param request the current request, whose body is the bundle.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the stored bundle,
+     * or with status {@code 404 (Not Found)} if the issue does not exist.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PutMapping(value = "/issues/{id}/bundle", consumes = IssueContentStore.BUNDLE_CONTENT_TYPE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<IssueContentDTO> updateIssueBundle(@PathVariable Long id, HttpServletRequest request) throws IOException {
+        log.debug("REST request to update bundle of Issue : {}", id);
+        if (!issueService.findOne(id).isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        IssueContentDTO result;
+        try (InputStream content = request.getInputStream()) {
+            result = issueContentService.saveBundle(id, content);
+        }
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString()))
+            .body(result);
+    }
+
+    /**
+     * {@code GET  /issues/:id/pages/:page} : get a page of the "id" issue.
+     *
+     * @param id the id of the issue.
+     * @param page the page number, starting at 1.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} or {@code 206 (Partial Content)} and with the page in body,
+     * or with status {@code 304 (Not Modified)}, or with status {@code 403 (Forbidden)} if the issue cannot be read today,
+     * or with status {@code 404 (Not Found)}.
+     * @throws IOException if the page cannot be read.
+     */
+    @GetMapping("/issues/{id}/pages/{page}")
+    public ResponseEntity<Resource> getIssuePage(@PathVariable Long id, @PathVariable int page, WebRequest request) throws IOException {
+        log.debug("REST request to get page {} of Issue : {}", page, id);
+        if (page <= 0) {
+            return ResponseEntity.notFound().build();
+        }
+        return wrapContent(issueContentService.findPage(id, page), request);
+    }
+
+    /**
+     * {@code GET  /issues/:id/bundle} : get the packaged bundle of the "id" issue.
+     *
+     * @param id the id of the issue.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} or {@code 206 (Partial Content)} and with the bundle in body,
+     * or with status {@code 304 (Not Modified)}, or with status {@code 403 (Forbidden)} if the issue cannot be read today,
+     * or with status {@code 404 (Not Found)}.
+     * @throws IOException if the bundle cannot be read.
+     */
+    @GetMapping("/issues/{id}/bundle")
+    public ResponseEntity<Resource> getIssueBundle(@PathVariable Long id, WebRequest request) throws IOException {
+        log.debug("REST request to get bundle of Issue : {}", id);
+        return wrapContent(issueContentService.findBundle(id), request);
+    }
+
+    private ResponseEntity<Resource> wrapContent(Optional<IssueContentDTO> content, WebRequest request) throws IOException {
+        if (!content.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = BinaryResponseUtil.strongETag(content.get().getVersion());
+        if (request.checkNotModified(eTag, BinaryResponseUtil.toTimestamp(content.get().getLastModified()))) {
+            return null;
+        }
+        Optional<Resource> resource = issueContentService.findContent(content.get());
+        if (!resource.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return BinaryResponseUtil.wrapContent(request, resource.get(), MediaType.parseMediaType(content.get().getContentType()),
+            eTag, content.get().getLastModified(), CONTENT_CACHE_CONTROL);
+    }
+}
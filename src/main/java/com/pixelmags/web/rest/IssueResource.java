@@ -1,21 +1,47 @@
 package com.pixelmags.web.rest;
 
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.Magazine;
+import com.pixelmags.service.CoverDerivationService;
 import com.pixelmags.service.IssueService;
+import com.pixelmags.service.IssueQueryService;
+import com.pixelmags.service.EntityVersionService;
 import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.ConditionalRequestUtil;
+import com.pixelmags.web.rest.util.BinaryResponseUtil;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
+import com.pixelmags.web.rest.util.MultiGetUtil;
+import com.pixelmags.web.rest.util.SparseFieldsetUtil;
+import com.pixelmags.web.rest.vm.ItemResultVM;
+import com.pixelmags.service.dto.IssueCoverDTO;
+import com.pixelmags.service.dto.BulkResultDTO;
 import com.pixelmags.service.dto.IssueDTO;
+import com.pixelmags.service.dto.IssueCriteria;
 
+import io.github.jhipster.service.filter.LongFilter;
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
@@ -31,13 +57,37 @@ public class IssueResource {
 
     private static final String ENTITY_NAME = "issue";
 
+    /**
+     * The entities the responses are read from, including the ones the criteria may filter on.
+     */
+    private static final Class<?>[] VERSIONED_ENTITIES = {Issue.class, Magazine.class};
+
+    private static final CacheControl VERSIONED_COVER_CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate();
+
+    private static final CacheControl UNVERSIONED_COVER_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private static final MediaType WEBP = MediaType.parseMediaType(CoverDerivationService.WEBP);
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final IssueService issueService;
 
-    public IssueResource(IssueService issueService) {
+    private final IssueQueryService issueQueryService;
+
+    private final EntityVersionService entityVersionService;
+
+    private final CacheControl cacheControl;
+
+    private final int bulkMaxItems;
+
+    public IssueResource(IssueService issueService, IssueQueryService issueQueryService,
+                         EntityVersionService entityVersionService, ApplicationProperties applicationProperties) {
         this.issueService = issueService;
+        this.issueQueryService = issueQueryService;
+        this.entityVersionService = entityVersionService;
+        this.cacheControl = ConditionalRequestUtil.cacheControl(applicationProperties.getHttpCache(), ENTITY_NAME);
+        this.bulkMaxItems = applicationProperties.getBulk().getMaxItems();
     }
 
     /**
@@ -59,6 +109,25 @@ public class IssueResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /issues/bulk} : Create or update many issues.
+     * <p>
+     * The issues with an id are updated, the others are created. They are written in chunks, each in its own transaction,
+     * so the results of the chunks written before a failure are kept.
+     *
+     * @param issueDTOs the issueDTOs to save.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and one result per issueDTO in body, in the same order,
+     * or with status {@code 400 (Bad Request)} if there are no issues or too many.
+     */
+    @PostMapping("/issues/bulk")
+    public ResponseEntity<List<BulkResultDTO<IssueDTO>>> saveIssues(@RequestBody List<IssueDTO> issueDTOs) {
+        log.debug("REST request to save {} Issues", issueDTOs.size());
+        if (issueDTOs.isEmpty() || issueDTOs.size() > bulkMaxItems || issueDTOs.contains(null)) {
+            throw new BadRequestAlertException("Between 1 and " + bulkMaxItems + " issues must be sent", ENTITY_NAME, "bulkinvalid");
+        }
+        return ResponseEntity.ok(issueService.saveAll(issueDTOs));
+    }
+
     /**
      * {@code PUT  /issues} : Updates an existing issue.
      *
@@ -82,33 +151,160 @@ public class IssueResource {
 
     /**
      * {@code GET  /issues} : get all the issues.
+     * <p>
+     * A single page is returned, in id order, and the {@code Link} header holds the URL of the next page, as the table
+     * is too large to be listed at once.
      *
+     * @param criteria the criteria which the requested entities should match.
      * @param filter the filter of the request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of issues in body.
+     * @param after the id after which the page starts.
+     * @param limit the maximum number of issues, {@value KeysetPaginationUtil#DEFAULT_LIMIT} by default.
+     * @param fields the comma-separated properties of the DTOs to return, all of them by default.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of issues in body,
+     * or with status {@code 304 (Not Modified)} if the issues did not change.
      */
     @GetMapping("/issues")
-    public List<IssueDTO> getAllIssues(@RequestParam(required = false) String filter) {
+    public ResponseEntity<List<IssueDTO>> getAllIssues(IssueCriteria criteria, @RequestParam(required = false) String filter,
+                                                       @RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) String fields, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        Set<String> fieldset = SparseFieldsetUtil.parse(IssueDTO.class, fields, ENTITY_NAME);
         if ("magazine-is-null".equals(filter)) {
-            log.debug("REST request to get all Issues where magazine is null");
-            return issueService.findAllWhereMagazineIsNull();
+            log.debug("REST request to get a page of Issues where magazine is null");
+            LongFilter magazineId = new LongFilter();
+            magazineId.setSpecified(false);
+            criteria.setMagazineId(magazineId);
+        }
+        log.debug("REST request to get a page of Issues after {} by criteria: {}", after, criteria);
+        return KeysetPaginationUtil.page(ENTITY_NAME, after, limit,
+            (from, size) -> issueQueryService.findByCriteria(criteria, from, size, fieldset), IssueDTO::getId);
+    }
+
+    /**
+     * {@code GET  /issues?ids=:ids} : get the issues with some ids.
+     *
+     * @param ids the ids of the issues, at most {@value MultiGetUtil#MAX_IDS}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and one result per id in body, in the same order,
+     * with status {@code 404} for the issues that do not exist,
+     * or with status {@code 400 (Bad Request)} if there are no ids or too many,
+     * or with status {@code 304 (Not Modified)} if the issues did not change.
+     */
+    @GetMapping(value = "/issues", params = "ids")
+    public ResponseEntity<List<ItemResultVM<IssueDTO>>> getIssuesById(@RequestParam List<Long> ids, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
         }
-        log.debug("REST request to get all Issues");
-        return issueService.findAll();
+        log.debug("REST request to get Issues : {}", ids);
+        return MultiGetUtil.wrap(ENTITY_NAME, ids, issueQueryService::findAllById);
+    }
+
+    /**
+     * {@code GET  /issues/count} : count all the issues.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body,
+     * or with status {@code 304 (Not Modified)} if the issues did not change.
+     */
+    @GetMapping("/issues/count")
+    public ResponseEntity<Long> countIssues(IssueCriteria criteria, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to count Issues by criteria: {}", criteria);
+        return ResponseEntity.ok().body(issueQueryService.countByCriteria(criteria));
     }
 
     /**
      * {@code GET  /issues/:id} : get the "id" issue.
      *
      * @param id the id of the issueDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the issueDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the issueDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the issue did not change.
      */
     @GetMapping("/issues/{id}")
-    public ResponseEntity<IssueDTO> getIssue(@PathVariable Long id) {
+    public ResponseEntity<IssueDTO> getIssue(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(Issue.class, id))) {
+            return null;
+        }
         log.debug("REST request to get Issue : {}", id);
         Optional<IssueDTO> issueDTO = issueService.findOne(id);
         return ResponseUtil.wrapOrNotFound(issueDTO);
     }
 
+    /**
+     * {@code GET  /issues/:id/cover} : get the cover bytes of the "id" issue.
+     * <p>
+     * Supports conditional requests and byte ranges. When the {@code v} parameter matches the current cover hash,
+     * as in {@link IssueDTO#getCoverUrl()}, the response may be cached for a year.
+     * <p>
+     * With the {@code size} parameter, a resized copy at least that wide is sent when one has been derived,
+     * in WebP if the client accepts it, and in JPEG otherwise. The original cover is sent until then.
+     *
+     * @param id the id of the issue whose cover to retrieve.
+     * @param version the cover hash expected by the client.
+     * @param size the display width of the cover, in pixels.
+     * @param request the current request.
+     * @param response the current response.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} or {@code 206 (Partial Content)} and with the cover in body,
+     * or with status {@code 304 (Not Modified)}, or with status {@code 400 (Bad Request)} if the size is not positive,
+     * or with status {@code 404 (Not Found)}.
+     * @throws IOException if the cover cannot be read.
+     */
+    @GetMapping("/issues/{id}/cover")
+    public ResponseEntity<Resource> getIssueCover(@PathVariable Long id, @RequestParam(name = "v", required = false) String version,
+                                                  @RequestParam(required = false) Integer size,
+                                                  WebRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to get cover of Issue : {}", id);
+        if (size != null && size <= 0) {
+            throw new BadRequestAlertException("Invalid cover size", ENTITY_NAME, "sizeinvalid");
+        }
+        if (size != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        Optional<IssueCoverDTO> cover = issueService.findCover(id, size, size != null && acceptsWebp(request));
+        if (!cover.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = BinaryResponseUtil.strongETag(cover.get().getHash());
+        if (request.checkNotModified(eTag, BinaryResponseUtil.toTimestamp(cover.get().getLastModified()))) {
+            return null;
+        }
+        Optional<Resource> content = issueService.findCoverContent(cover.get());
+        if (!content.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        CacheControl cacheControl = cover.get().getSourceHash().equals(version) ? VERSIONED_COVER_CACHE_CONTROL : UNVERSIONED_COVER_CACHE_CONTROL;
+        return BinaryResponseUtil.wrapContent(request, content.get(), coverMediaType(cover.get()),
+            eTag, cover.get().getLastModified(), cacheControl);
+    }
+
+    private boolean acceptsWebp(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> WEBP.equalsTypeAndSubtype(mediaType) && mediaType.getQualityValue() > 0);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private MediaType coverMediaType(IssueCoverDTO cover) {
+        try {
+            return MediaType.parseMediaType(cover.getContentType());
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
     /**
      * {@code DELETE  /issues/:id} : delete the "id" issue.
      *
@@ -0,0 +1,59 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.service.LogAnalyticsService;
+import com.pixelmags.service.dto.LogAnalyticsDTO;
+import com.pixelmags.web.rest.errors.BadRequestAlertException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * REST controller for counting {@link com.pixelmags.domain.Log}s per event and period.
+ */
+@RestController
+@RequestMapping("/api")
+public class LogAnalyticsResource {
+
+    /**
+     * Maximum number of days counted per request.
+     */
+    public static final int MAX_DAYS = 3660;
+
+    private final Logger log = LoggerFactory.getLogger(LogAnalyticsResource.class);
+
+    private static final String ENTITY_NAME = "logAnalytics";
+
+    private final LogAnalyticsService logAnalyticsService;
+
+    public LogAnalyticsResource(LogAnalyticsService logAnalyticsService) {
+        this.logAnalyticsService = logAnalyticsService;
+    }
+
+    /**
+     * {@code GET  /log-analytics} : count the logs of a range of days per event and day, week or month.
+     *
+     * @param from the first day, included.
+     * @param to the last day, included.
+     * @param granularity the period logs are counted over, {@code DAY} by default.
+     * @param evento the event to count, all of them by default.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts of the periods with logs in body,
+     * or with status {@code 400 (Bad Request)} if the range of days is not valid.
+     */
+    @GetMapping("/log-analytics")
+    public ResponseEntity<List<LogAnalyticsDTO>> getLogAnalytics(@RequestParam LocalDate from, @RequestParam LocalDate to,
+                                                                 @RequestParam(defaultValue = "DAY") LogAnalyticsService.Granularity granularity,
+                                                                 @RequestParam(required = false) Event evento) {
+        log.debug("REST request to count the Logs from {} to {} by {}", from, to, granularity);
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new BadRequestAlertException("Invalid range of days", ENTITY_NAME, "rangeinvalid");
+        }
+        return ResponseEntity.ok(logAnalyticsService.countByPeriod(from, to, granularity, evento));
+    }
+}
@@ -1,22 +1,51 @@
 package com.pixelmags.web.rest;
 
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Log;
+import com.pixelmags.security.AuthoritiesConstants;
+import com.pixelmags.service.CatalogService;
+import com.pixelmags.service.LogDeduplicationService;
+import com.pixelmags.service.LogIngestionService;
 import com.pixelmags.service.LogService;
+import com.pixelmags.service.LogUploadService;
+import com.pixelmags.service.LogQueryService;
+import com.pixelmags.service.EntityVersionService;
 import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.ConditionalRequestUtil;
+import com.pixelmags.web.rest.util.ExportUtil;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
+import com.pixelmags.web.rest.util.SparseFieldsetUtil;
 import com.pixelmags.service.dto.LogDTO;
+import com.pixelmags.service.dto.LogCriteria;
+import com.pixelmags.service.dto.LogUploadResultDTO;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
@@ -31,20 +60,66 @@ public class LogResource {
 
     private static final String ENTITY_NAME = "log";
 
+    /**
+     * The entities the responses are read from, including the ones the criteria may filter on.
+     */
+    private static final Class<?>[] VERSIONED_ENTITIES = {Log.class};
+
+    /**
+     * How long clients should wait before sending a log again when the ingestion queue is full.
+     */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final LogService logService;
 
-    public LogResource(LogService logService) {
+    private final LogQueryService logQueryService;
+
+    private final LogIngestionService logIngestionService;
+
+    private final LogUploadService logUploadService;
+
+    private final LogDeduplicationService logDeduplicationService;
+
+    private final CatalogService catalogService;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityVersionService entityVersionService;
+
+    private final CacheControl cacheControl;
+
+    public LogResource(LogService logService, LogQueryService logQueryService, LogIngestionService logIngestionService,
+                       LogUploadService logUploadService, LogDeduplicationService logDeduplicationService,
+                       CatalogService catalogService, ObjectMapper objectMapper,
+                       EntityVersionService entityVersionService, ApplicationProperties applicationProperties) {
         this.logService = logService;
+        this.logQueryService = logQueryService;
+        this.logIngestionService = logIngestionService;
+        this.logUploadService = logUploadService;
+        this.logDeduplicationService = logDeduplicationService;
+        this.catalogService = catalogService;
+        this.objectMapper = objectMapper;
+        this.entityVersionService = entityVersionService;
+        this.cacheControl = ConditionalRequestUtil.cacheControl(applicationProperties.getHttpCache(), ENTITY_NAME);
     }
 
     /**
      * {@code POST  /logs} : Create a new log.
+     * <p>
+     * When log ingestion is enabled, the log is queued and written in the background. A log whose {@code eventId} was
+     * already received is dropped.
      *
      * @param logDTO the logDTO to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new logDTO, or with status {@code 400 (Bad Request)} if the log has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new logDTO,
+     * or with status {@code 202 (Accepted)} if the log was queued or dropped as a duplicate,
+     * or with status {@code 429 (Too Many Requests)} if the queue is full,
+     * or with status {@code 400 (Bad Request)} if the log has already an ID, its event id is too long or its issue is
+     * unknown.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/logs")
@@ -53,12 +128,54 @@ public class LogResource {
         if (logDTO.getId() != null) {
             throw new BadRequestAlertException("A new log cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        if (logDTO.getEventId() != null && logDTO.getEventId().length() > LogDeduplicationService.MAX_EVENT_ID_LENGTH) {
+            throw new BadRequestAlertException("Event id too long", ENTITY_NAME, "eventidinvalid");
+        }
+        if (logDeduplicationService.isDuplicate(logDTO.getEventId())) {
+            return ResponseEntity.accepted().build();
+        }
+        if (logIngestionService.isEnabled()) {
+            // Checked against the catalog in memory, as an unknown issue would fail the whole batch of the log
+            if (logDTO.getIssueId() != null && catalogService.getSnapshot().getIssue(logDTO.getIssueId()) == null) {
+                throw new BadRequestAlertException("Unknown issue", ENTITY_NAME, "issueinvalid");
+            }
+            if (!logIngestionService.submit(logDTO)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+            }
+            logDeduplicationService.record(Collections.singleton(logDTO.getEventId()));
+            return ResponseEntity.accepted().build();
+        }
         LogDTO result = logService.save(logDTO);
+        logDeduplicationService.record(Collections.singleton(result.getEventId()));
         return ResponseEntity.created(new URI("/api/logs/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /logs/batch} : Create logs uploaded as newline delimited JSON, one log per line.
+     * <p>
+     * The upload may be compressed with {@code Content-Encoding: gzip}. It is read as a stream, and stored by batches.
+     *
+     * @param request the current request, whose body is the upload.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of created logs and the
+     * rejected lines, or with status {@code 400 (Bad Request)} if the upload is not valid gzip.
+     * @throws IOException if the upload cannot be read.
+     */
+    @PostMapping("/logs/batch")
+    public ResponseEntity<LogUploadResultDTO> uploadLogs(HttpServletRequest request) throws IOException {
+        log.debug("REST request to upload Logs");
+        InputStream input = request.getInputStream();
+        try {
+            if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+                input = new GZIPInputStream(input, GZIP_BUFFER_SIZE);
+            }
+            return ResponseEntity.ok(logUploadService.upload(input));
+        } catch (ZipException e) {
+            throw new BadRequestAlertException("Invalid gzip upload", ENTITY_NAME, "gzipinvalid");
+        }
+    }
+
     /**
      * {@code PUT  /logs} : Updates an existing log.
      *
@@ -82,23 +199,84 @@ public class LogResource {
 
     /**
      * {@code GET  /logs} : get all the logs.
+     * <p>
+     * A single page is returned, in id order, and the {@code Link} header holds the URL of the next page, as the table
+     * is too large to be listed at once.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of logs in body.
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the id after which the page starts.
+     * @param limit the maximum number of logs, {@value KeysetPaginationUtil#DEFAULT_LIMIT} by default.
+     * @param fields the comma-separated properties of the DTOs to return, all of them by default.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of logs in body,
+     * or with status {@code 304 (Not Modified)} if the logs did not change.
      */
     @GetMapping("/logs")
-    public List<LogDTO> getAllLogs() {
-        log.debug("REST request to get all Logs");
-        return logService.findAll();
+    public ResponseEntity<List<LogDTO>> getAllLogs(LogCriteria criteria, @RequestParam(required = false) Long after,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(required = false) String fields, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        Set<String> fieldset = SparseFieldsetUtil.parse(LogDTO.class, fields, ENTITY_NAME);
+        log.debug("REST request to get a page of Logs after {} by criteria: {}", after, criteria);
+        return KeysetPaginationUtil.page(ENTITY_NAME, after, limit,
+            (from, size) -> logQueryService.findByCriteria(criteria, from, size, fieldset), LogDTO::getId);
+    }
+
+    /**
+     * {@code GET  /logs/count} : count all the logs.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body,
+     * or with status {@code 304 (Not Modified)} if the logs did not change.
+     */
+    @GetMapping("/logs/count")
+    public ResponseEntity<Long> countLogs(LogCriteria criteria, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to count Logs by criteria: {}", criteria);
+        return ResponseEntity.ok().body(logQueryService.countByCriteria(criteria));
+    }
+
+    /**
+     * {@code GET  /logs/export} : export all the logs, in id order.
+     * <p>
+     * The export is streamed as it is read from the database, whatever its size.
+     *
+     * @param format {@code ndjson} for newline delimited JSON, or {@code csv}.
+     * @param gzip whether to compress the export.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the logs in body,
+     * or with status {@code 400 (Bad Request)} if the format is unknown.
+     */
+    @GetMapping("/logs/export")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<StreamingResponseBody> exportLogs(@RequestParam(defaultValue = ExportUtil.NDJSON) String format,
+                                                            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.debug("REST request to export Logs as {}", format);
+        return ExportUtil.export(ENTITY_NAME, format, gzip, objectMapper, LogDTO.class,
+            new ExportUtil.Columns<LogDTO>()
+                .add("id", LogDTO::getId)
+                .add("date", LogDTO::getDate)
+                .add("evento", LogDTO::getEvento),
+            logService::exportAll);
     }
 
     /**
      * {@code GET  /logs/:id} : get the "id" log.
      *
      * @param id the id of the logDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the logDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the logDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the log did not change.
      */
     @GetMapping("/logs/{id}")
-    public ResponseEntity<LogDTO> getLog(@PathVariable Long id) {
+    public ResponseEntity<LogDTO> getLog(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(Log.class, id))) {
+            return null;
+        }
         log.debug("REST request to get Log : {}", id);
         Optional<LogDTO> logDTO = logService.findOne(id);
         return ResponseUtil.wrapOrNotFound(logDTO);
@@ -0,0 +1,95 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.service.CatalogService;
+import com.pixelmags.service.LogRollupService;
+import com.pixelmags.service.catalog.CatalogSnapshot;
+import com.pixelmags.service.dto.LogRollupDTO;
+import com.pixelmags.web.rest.errors.BadRequestAlertException;
+
+import io.github.jhipster.web.util.ResponseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * REST controller for reading the daily counts of {@link com.pixelmags.domain.Log}s.
+ */
+@RestController
+@RequestMapping("/api")
+public class LogRollupResource {
+
+    /**
+     * Maximum number of days read per request.
+     */
+    public static final int MAX_DAYS = 366;
+
+    private final Logger log = LoggerFactory.getLogger(LogRollupResource.class);
+
+    private static final String ENTITY_NAME = "logRollup";
+
+    private final LogRollupService logRollupService;
+
+    private final CatalogService catalogService;
+
+    public LogRollupResource(LogRollupService logRollupService, CatalogService catalogService) {
+        this.logRollupService = logRollupService;
+        this.catalogService = catalogService;
+    }
+
+    /**
+     * {@code GET  /log-rollups/issues/:issueId} : get the daily counts of the logs of an issue.
+     *
+     * @param issueId the id of the issue.
+     * @param from the first day, included.
+     * @param to the last day, included.
+     * @param evento the event to count, all of them by default.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts of the days with logs in body,
+     * or with status {@code 400 (Bad Request)} if the range of days is not valid.
+     */
+    @GetMapping("/log-rollups/issues/{issueId}")
+    public ResponseEntity<List<LogRollupDTO>> getIssueLogRollups(@PathVariable Long issueId, @RequestParam LocalDate from,
+                                                                 @RequestParam LocalDate to,
+                                                                 @RequestParam(required = false) Event evento) {
+        log.debug("REST request to get the Log rollups of Issue {} from {} to {}", issueId, from, to);
+        checkRange(from, to);
+        return ResponseEntity.ok(logRollupService.findByIssue(issueId, from, to, evento));
+    }
+
+    /**
+     * {@code GET  /log-rollups/magazines/:magazineId} : get the daily counts of the logs of the issue a magazine sells.
+     *
+     * @param magazineId the id of the magazine.
+     * @param from the first day, included.
+     * @param to the last day, included.
+     * @param evento the event to count, all of them by default.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts of the days with logs in body,
+     * or with status {@code 404 (Not Found)} if the magazine does not exist,
+     * or with status {@code 400 (Bad Request)} if the range of days is not valid.
+     */
+    @GetMapping("/log-rollups/magazines/{magazineId}")
+    public ResponseEntity<List<LogRollupDTO>> getMagazineLogRollups(@PathVariable Long magazineId, @RequestParam LocalDate from,
+                                                                    @RequestParam LocalDate to,
+                                                                    @RequestParam(required = false) Event evento) {
+        log.debug("REST request to get the Log rollups of Magazine {} from {} to {}", magazineId, from, to);
+        checkRange(from, to);
+        // The issue of the magazine is read from the catalog in memory
+        Optional<CatalogSnapshot.MagazineEntry> magazine = Optional.ofNullable(catalogService.getSnapshot().getMagazine(magazineId));
+        return ResponseUtil.wrapOrNotFound(magazine.map(entry -> entry.getIssueId() == null
+            ? Collections.<LogRollupDTO>emptyList()
+            : logRollupService.findByIssue(entry.getIssueId(), from, to, evento)));
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new BadRequestAlertException("Invalid range of days", ENTITY_NAME, "rangeinvalid");
+        }
+    }
+}
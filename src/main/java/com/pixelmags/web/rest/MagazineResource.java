@@ -1,21 +1,38 @@
 package com.pixelmags.web.rest;
 
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.Magazine;
+import com.pixelmags.domain.Publisher;
+import com.pixelmags.domain.Purchase;
 import com.pixelmags.service.MagazineService;
+import com.pixelmags.service.MagazineQueryService;
+import com.pixelmags.service.EntityVersionService;
 import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.ConditionalRequestUtil;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
+import com.pixelmags.web.rest.util.MultiGetUtil;
+import com.pixelmags.web.rest.util.SparseFieldsetUtil;
+import com.pixelmags.web.rest.vm.ItemResultVM;
+import com.pixelmags.service.dto.BulkResultDTO;
 import com.pixelmags.service.dto.MagazineDTO;
+import com.pixelmags.service.dto.MagazineCriteria;
 
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
@@ -31,13 +48,31 @@ public class MagazineResource {
 
     private static final String ENTITY_NAME = "magazine";
 
+    /**
+     * The entities the responses are read from, including the ones the criteria may filter on.
+     */
+    private static final Class<?>[] VERSIONED_ENTITIES = {Magazine.class, Issue.class, Purchase.class, Publisher.class};
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final MagazineService magazineService;
 
-    public MagazineResource(MagazineService magazineService) {
+    private final MagazineQueryService magazineQueryService;
+
+    private final EntityVersionService entityVersionService;
+
+    private final CacheControl cacheControl;
+
+    private final int bulkMaxItems;
+
+    public MagazineResource(MagazineService magazineService, MagazineQueryService magazineQueryService,
+                            EntityVersionService entityVersionService, ApplicationProperties applicationProperties) {
         this.magazineService = magazineService;
+        this.magazineQueryService = magazineQueryService;
+        this.entityVersionService = entityVersionService;
+        this.cacheControl = ConditionalRequestUtil.cacheControl(applicationProperties.getHttpCache(), ENTITY_NAME);
+        this.bulkMaxItems = applicationProperties.getBulk().getMaxItems();
     }
 
     /**
@@ -59,6 +94,25 @@ public class MagazineResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /magazines/bulk} : Create or update many magazines.
+     * <p>
+     * The magazines with an id are updated, the others are created. They are written in chunks, each in its own transaction,
+     * so the results of the chunks written before a failure are kept.
+     *
+     * @param magazineDTOs the magazineDTOs to save.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and one result per magazineDTO in body, in the same order,
+     * or with status {@code 400 (Bad Request)} if there are no magazines or too many.
+     */
+    @PostMapping("/magazines/bulk")
+    public ResponseEntity<List<BulkResultDTO<MagazineDTO>>> saveMagazines(@RequestBody List<MagazineDTO> magazineDTOs) {
+        log.debug("REST request to save {} Magazines", magazineDTOs.size());
+        if (magazineDTOs.isEmpty() || magazineDTOs.size() > bulkMaxItems || magazineDTOs.contains(null)) {
+            throw new BadRequestAlertException("Between 1 and " + bulkMaxItems + " magazines must be sent", ENTITY_NAME, "bulkinvalid");
+        }
+        return ResponseEntity.ok(magazineService.saveAll(magazineDTOs));
+    }
+
     /**
      * {@code PUT  /magazines} : Updates an existing magazine.
      *
@@ -82,23 +136,80 @@ public class MagazineResource {
 
     /**
      * {@code GET  /magazines} : get all the magazines.
+     * <p>
+     * A single page is returned, in id order, and the {@code Link} header holds the URL of the next page, as the table
+     * is too large to be listed at once.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of magazines in body.
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the id after which the page starts.
+     * @param limit the maximum number of magazines, {@value KeysetPaginationUtil#DEFAULT_LIMIT} by default.
+     * @param fields the comma-separated properties of the DTOs to return, all of them by default.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of magazines in body,
+     * or with status {@code 304 (Not Modified)} if the magazines did not change.
      */
     @GetMapping("/magazines")
-    public List<MagazineDTO> getAllMagazines() {
-        log.debug("REST request to get all Magazines");
-        return magazineService.findAll();
+    public ResponseEntity<List<MagazineDTO>> getAllMagazines(MagazineCriteria criteria, @RequestParam(required = false) Long after,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String fields, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        Set<String> fieldset = SparseFieldsetUtil.parse(MagazineDTO.class, fields, ENTITY_NAME);
+        log.debug("REST request to get a page of Magazines after {} by criteria: {}", after, criteria);
+        return KeysetPaginationUtil.page(ENTITY_NAME, after, limit,
+            (from, size) -> magazineQueryService.findByCriteria(criteria, from, size, fieldset), MagazineDTO::getId);
+    }
+
+    /**
+     * {@code GET  /magazines?ids=:ids} : get the magazines with some ids.
+     *
+     * @param ids the ids of the magazines, at most {@value MultiGetUtil#MAX_IDS}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and one result per id in body, in the same order,
+     * with status {@code 404} for the magazines that do not exist,
+     * or with status {@code 400 (Bad Request)} if there are no ids or too many,
+     * or with status {@code 304 (Not Modified)} if the magazines did not change.
+     */
+    @GetMapping(value = "/magazines", params = "ids")
+    public ResponseEntity<List<ItemResultVM<MagazineDTO>>> getMagazinesById(@RequestParam List<Long> ids, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to get Magazines : {}", ids);
+        return MultiGetUtil.wrap(ENTITY_NAME, ids, magazineQueryService::findAllById);
+    }
+
+    /**
+     * {@code GET  /magazines/count} : count all the magazines.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body,
+     * or with status {@code 304 (Not Modified)} if the magazines did not change.
+     */
+    @GetMapping("/magazines/count")
+    public ResponseEntity<Long> countMagazines(MagazineCriteria criteria, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to count Magazines by criteria: {}", criteria);
+        return ResponseEntity.ok().body(magazineQueryService.countByCriteria(criteria));
     }
 
     /**
      * {@code GET  /magazines/:id} : get the "id" magazine.
      *
      * @param id the id of the magazineDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the magazineDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the magazineDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the magazine did not change.
      */
     @GetMapping("/magazines/{id}")
-    public ResponseEntity<MagazineDTO> getMagazine(@PathVariable Long id) {
+    public ResponseEntity<MagazineDTO> getMagazine(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(Magazine.class, id))) {
+            return null;
+        }
         log.debug("REST request to get Magazine : {}", id);
         Optional<MagazineDTO> magazineDTO = magazineService.findOne(id);
         return ResponseUtil.wrapOrNotFound(magazineDTO);
@@ -1,21 +1,35 @@
 package com.pixelmags.web.rest;
 
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Magazine;
+import com.pixelmags.domain.Publisher;
 import com.pixelmags.service.PublisherService;
+import com.pixelmags.service.PublisherQueryService;
+import com.pixelmags.service.EntityVersionService;
 import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.ConditionalRequestUtil;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
+import com.pixelmags.web.rest.util.MultiGetUtil;
+import com.pixelmags.web.rest.util.SparseFieldsetUtil;
+import com.pixelmags.web.rest.vm.ItemResultVM;
 import com.pixelmags.service.dto.PublisherDTO;
+import com.pixelmags.service.dto.PublisherCriteria;
 
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
@@ -31,13 +45,28 @@ public class PublisherResource {
 
     private static final String ENTITY_NAME = "publisher";
 
+    /**
+     * The entities the responses are read from, including the ones the criteria may filter on.
+     */
+    private static final Class<?>[] VERSIONED_ENTITIES = {Publisher.class, Magazine.class};
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final PublisherService publisherService;
 
-    public PublisherResource(PublisherService publisherService) {
+    private final PublisherQueryService publisherQueryService;
+
+    private final EntityVersionService entityVersionService;
+
+    private final CacheControl cacheControl;
+
+    public PublisherResource(PublisherService publisherService, PublisherQueryService publisherQueryService,
+                             EntityVersionService entityVersionService, ApplicationProperties applicationProperties) {
         this.publisherService = publisherService;
+        this.publisherQueryService = publisherQueryService;
+        this.entityVersionService = entityVersionService;
+        this.cacheControl = ConditionalRequestUtil.cacheControl(applicationProperties.getHttpCache(), ENTITY_NAME);
     }
 
     /**
@@ -82,23 +111,80 @@ public class PublisherResource {
 
     /**
      * {@code GET  /publishers} : get all the publishers.
+     * <p>
+     * A single page is returned, in id order, and the {@code Link} header holds the URL of the next page, as the table
+     * is too large to be listed at once.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of publishers in body.
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the id after which the page starts.
+     * @param limit the maximum number of publishers, {@value KeysetPaginationUtil#DEFAULT_LIMIT} by default.
+     * @param fields the comma-separated properties of the DTOs to return, all of them by default.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of publishers in body,
+     * or with status {@code 304 (Not Modified)} if the publishers did not change.
      */
     @GetMapping("/publishers")
-    public List<PublisherDTO> getAllPublishers() {
-        log.debug("REST request to get all Publishers");
-        return publisherService.findAll();
+    public ResponseEntity<List<PublisherDTO>> getAllPublishers(PublisherCriteria criteria, @RequestParam(required = false) Long after,
+                                                               @RequestParam(required = false) Integer limit,
+                                                               @RequestParam(required = false) String fields, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        Set<String> fieldset = SparseFieldsetUtil.parse(PublisherDTO.class, fields, ENTITY_NAME);
+        log.debug("REST request to get a page of Publishers after {} by criteria: {}", after, criteria);
+        return KeysetPaginationUtil.page(ENTITY_NAME, after, limit,
+            (from, size) -> publisherQueryService.findByCriteria(criteria, from, size, fieldset), PublisherDTO::getId);
+    }
+
+    /**
+     * {@code GET  /publishers?ids=:ids} : get the publishers with some ids.
+     *
+     * @param ids the ids of the publishers, at most {@value MultiGetUtil#MAX_IDS}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and one result per id in body, in the same order,
+     * with status {@code 404} for the publishers that do not exist,
+     * or with status {@code 400 (Bad Request)} if there are no ids or too many,
+     * or with status {@code 304 (Not Modified)} if the publishers did not change.
+     */
+    @GetMapping(value = "/publishers", params = "ids")
+    public ResponseEntity<List<ItemResultVM<PublisherDTO>>> getPublishersById(@RequestParam List<Long> ids, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to get Publishers : {}", ids);
+        return MultiGetUtil.wrap(ENTITY_NAME, ids, publisherQueryService::findAllById);
+    }
+
+    /**
+     * {@code GET  /publishers/count} : count all the publishers.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body,
+     * or with status {@code 304 (Not Modified)} if the publishers did not change.
+     */
+    @GetMapping("/publishers/count")
+    public ResponseEntity<Long> countPublishers(PublisherCriteria criteria, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to count Publishers by criteria: {}", criteria);
+        return ResponseEntity.ok().body(publisherQueryService.countByCriteria(criteria));
     }
 
     /**
      * {@code GET  /publishers/:id} : get the "id" publisher.
      *
      * @param id the id of the publisherDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the publisherDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the publisherDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the publisher did not change.
      */
     @GetMapping("/publishers/{id}")
-    public ResponseEntity<PublisherDTO> getPublisher(@PathVariable Long id) {
+    public ResponseEntity<PublisherDTO> getPublisher(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(Publisher.class, id))) {
+            return null;
+        }
         log.debug("REST request to get Publisher : {}", id);
         Optional<PublisherDTO> publisherDTO = publisherService.findOne(id);
         return ResponseUtil.wrapOrNotFound(publisherDTO);
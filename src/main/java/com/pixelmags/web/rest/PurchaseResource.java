@@ -1,21 +1,41 @@
 package com.pixelmags.web.rest;
 
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Customer;
+import com.pixelmags.domain.Magazine;
+import com.pixelmags.domain.Purchase;
+import com.pixelmags.domain.SubscriptionPlan;
+import com.pixelmags.security.AuthoritiesConstants;
 import com.pixelmags.service.PurchaseService;
+import com.pixelmags.service.PurchaseQueryService;
+import com.pixelmags.service.EntityVersionService;
 import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.ConditionalRequestUtil;
+import com.pixelmags.web.rest.util.ExportUtil;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
+import com.pixelmags.web.rest.util.SparseFieldsetUtil;
 import com.pixelmags.service.dto.PurchaseDTO;
+import com.pixelmags.service.dto.PurchaseCriteria;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.jhipster.service.filter.LongFilter;
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
@@ -31,13 +51,31 @@ public class PurchaseResource {
 
     private static final String ENTITY_NAME = "purchase";
 
+    /**
+     * The entities the responses are read from, including the ones the criteria may filter on.
+     */
+    private static final Class<?>[] VERSIONED_ENTITIES = {Purchase.class, SubscriptionPlan.class, Customer.class, Magazine.class};
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final PurchaseService purchaseService;
 
-    public PurchaseResource(PurchaseService purchaseService) {
+    private final PurchaseQueryService purchaseQueryService;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityVersionService entityVersionService;
+
+    private final CacheControl cacheControl;
+
+    public PurchaseResource(PurchaseService purchaseService, PurchaseQueryService purchaseQueryService, ObjectMapper objectMapper,
+                            EntityVersionService entityVersionService, ApplicationProperties applicationProperties) {
         this.purchaseService = purchaseService;
+        this.purchaseQueryService = purchaseQueryService;
+        this.objectMapper = objectMapper;
+        this.entityVersionService = entityVersionService;
+        this.cacheControl = ConditionalRequestUtil.cacheControl(applicationProperties.getHttpCache(), ENTITY_NAME);
     }
 
     /**
@@ -82,28 +120,92 @@ public class PurchaseResource {
 
     /**
      * {@code GET  /purchases} : get all the purchases.
+     * <p>
+     * A single page is returned, in id order, and the {@code Link} header holds the URL of the next page, as the table
+     * is too large to be listed at once.
      *
+     * @param criteria the criteria which the requested entities should match.
      * @param filter the filter of the request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of purchases in body.
+     * @param after the id after which the page starts.
+     * @param limit the maximum number of purchases, {@value KeysetPaginationUtil#DEFAULT_LIMIT} by default.
+     * @param fields the comma-separated properties of the DTOs to return, all of them by default.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of purchases in body,
+     * or with status {@code 304 (Not Modified)} if the purchases did not change.
      */
     @GetMapping("/purchases")
-    public List<PurchaseDTO> getAllPurchases(@RequestParam(required = false) String filter) {
+    public ResponseEntity<List<PurchaseDTO>> getAllPurchases(PurchaseCriteria criteria, @RequestParam(required = false) String filter,
+                                                             @RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String fields, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        Set<String> fieldset = SparseFieldsetUtil.parse(PurchaseDTO.class, fields, ENTITY_NAME);
         if ("magazine-is-null".equals(filter)) {
-            log.debug("REST request to get all Purchases where magazine is null");
-            return purchaseService.findAllWhereMagazineIsNull();
+            log.debug("REST request to get a page of Purchases where magazine is null");
+            LongFilter magazineId = new LongFilter();
+            magazineId.setSpecified(false);
+            criteria.setMagazineId(magazineId);
+        }
+        log.debug("REST request to get a page of Purchases after {} by criteria: {}", after, criteria);
+        return KeysetPaginationUtil.page(ENTITY_NAME, after, limit,
+            (from, size) -> purchaseQueryService.findByCriteria(criteria, from, size, fieldset), PurchaseDTO::getId);
+    }
+
+    /**
+     * {@code GET  /purchases/count} : count all the purchases.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body,
+     * or with status {@code 304 (Not Modified)} if the purchases did not change.
+     */
+    @GetMapping("/purchases/count")
+    public ResponseEntity<Long> countPurchases(PurchaseCriteria criteria, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
         }
-        log.debug("REST request to get all Purchases");
-        return purchaseService.findAll();
+        log.debug("REST request to count Purchases by criteria: {}", criteria);
+        return ResponseEntity.ok().body(purchaseQueryService.countByCriteria(criteria));
+    }
+
+    /**
+     * {@code GET  /purchases/export} : export all the purchases, in id order.
+     * <p>
+     * The export is streamed as it is read from the database, whatever its size.
+     *
+     * @param format {@code ndjson} for newline delimited JSON, or {@code csv}.
+     * @param gzip whether to compress the export.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the purchases in body,
+     * or with status {@code 400 (Bad Request)} if the format is unknown.
+     */
+    @GetMapping("/purchases/export")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<StreamingResponseBody> exportPurchases(@RequestParam(defaultValue = ExportUtil.NDJSON) String format,
+                                                                 @RequestParam(defaultValue = "false") boolean gzip) {
+        log.debug("REST request to export Purchases as {}", format);
+        return ExportUtil.export(ENTITY_NAME, format, gzip, objectMapper, PurchaseDTO.class,
+            new ExportUtil.Columns<PurchaseDTO>()
+                .add("id", PurchaseDTO::getId)
+                .add("date", PurchaseDTO::getDate)
+                .add("tipo", PurchaseDTO::getTipo)
+                .add("subscriptionId", PurchaseDTO::getSubscriptionId),
+            purchaseService::exportAll);
     }
 
     /**
      * {@code GET  /purchases/:id} : get the "id" purchase.
      *
      * @param id the id of the purchaseDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the purchaseDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the purchaseDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the purchase did not change.
      */
     @GetMapping("/purchases/{id}")
-    public ResponseEntity<PurchaseDTO> getPurchase(@PathVariable Long id) {
+    public ResponseEntity<PurchaseDTO> getPurchase(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(Purchase.class, id))) {
+            return null;
+        }
         log.debug("REST request to get Purchase : {}", id);
         Optional<PurchaseDTO> purchaseDTO = purchaseService.findOne(id);
         return ResponseUtil.wrapOrNotFound(purchaseDTO);
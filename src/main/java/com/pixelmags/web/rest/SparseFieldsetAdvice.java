@@ -0,0 +1,41 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.web.rest.util.SparseFieldsetUtil;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Advice limiting the DTOs written by the REST controllers to the properties of the {@code fields} parameter.
+ * <p>
+ * This applies to every JSON response of DTOs, including the ones whose query service could not read fewer columns, and
+ * to the DTOs of the items of a multi-get.
+ */
+@ControllerAdvice
+public class SparseFieldsetAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType, MethodParameter returnType,
+                                           ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+        String fields = ((ServletServerHttpRequest) request).getServletRequest().getParameter(SparseFieldsetUtil.FIELDS_PARAM);
+        Class<?> type = fields == null ? null : SparseFieldsetUtil.dtoType(bodyContainer.getValue());
+        if (type == null) {
+            return;
+        }
+        String entityName = StringUtils.uncapitalize(type.getSimpleName().replaceFirst("DTO$", ""));
+        SparseFieldsetUtil.Fieldset fieldset = SparseFieldsetUtil.fieldset(type, fields, entityName);
+        if (fieldset != null) {
+            bodyContainer.setFilters(fieldset.getFilters());
+        }
+    }
+}
@@ -1,21 +1,36 @@
 package com.pixelmags.web.rest;
 
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Purchase;
+import com.pixelmags.domain.SubscriptionPlan;
 import com.pixelmags.service.SubscriptionPlanService;
+import com.pixelmags.service.SubscriptionPlanQueryService;
+import com.pixelmags.service.EntityVersionService;
 import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.util.ConditionalRequestUtil;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
+import com.pixelmags.web.rest.util.MultiGetUtil;
+import com.pixelmags.web.rest.util.SparseFieldsetUtil;
+import com.pixelmags.web.rest.vm.ItemResultVM;
 import com.pixelmags.service.dto.SubscriptionPlanDTO;
+import com.pixelmags.service.dto.SubscriptionPlanCriteria;
 
+import io.github.jhipster.service.filter.LongFilter;
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
@@ -31,13 +46,28 @@ public class SubscriptionPlanResource {
 
     private static final String ENTITY_NAME = "subscriptionPlan";
 
+    /**
+     * The entities the responses are read from, including the ones the criteria may filter on.
+     */
+    private static final Class<?>[] VERSIONED_ENTITIES = {SubscriptionPlan.class, Purchase.class};
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final SubscriptionPlanService subscriptionPlanService;
 
-    public SubscriptionPlanResource(SubscriptionPlanService subscriptionPlanService) {
+    private final SubscriptionPlanQueryService subscriptionPlanQueryService;
+
+    private final EntityVersionService entityVersionService;
+
+    private final CacheControl cacheControl;
+
+    public SubscriptionPlanResource(SubscriptionPlanService subscriptionPlanService, SubscriptionPlanQueryService subscriptionPlanQueryService,
+                                    EntityVersionService entityVersionService, ApplicationProperties applicationProperties) {
         this.subscriptionPlanService = subscriptionPlanService;
+        this.subscriptionPlanQueryService = subscriptionPlanQueryService;
+        this.entityVersionService = entityVersionService;
+        this.cacheControl = ConditionalRequestUtil.cacheControl(applicationProperties.getHttpCache(), ENTITY_NAME);
     }
 
     /**
@@ -82,28 +112,87 @@ public class SubscriptionPlanResource {
 
     /**
      * {@code GET  /subscription-plans} : get all the subscriptionPlans.
+     * <p>
+     * A single page is returned, in id order, and the {@code Link} header holds the URL of the next page, as the table
+     * is too large to be listed at once.
      *
+     * @param criteria the criteria which the requested entities should match.
      * @param filter the filter of the request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of subscriptionPlans in body.
+     * @param after the id after which the page starts.
+     * @param limit the maximum number of subscriptionPlans, {@value KeysetPaginationUtil#DEFAULT_LIMIT} by default.
+     * @param fields the comma-separated properties of the DTOs to return, all of them by default.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of subscriptionPlans in body,
+     * or with status {@code 304 (Not Modified)} if the subscription plans did not change.
      */
     @GetMapping("/subscription-plans")
-    public List<SubscriptionPlanDTO> getAllSubscriptionPlans(@RequestParam(required = false) String filter) {
+    public ResponseEntity<List<SubscriptionPlanDTO>> getAllSubscriptionPlans(SubscriptionPlanCriteria criteria, @RequestParam(required = false) String filter,
+                                                                             @RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit,
+                                                                             @RequestParam(required = false) String fields, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        Set<String> fieldset = SparseFieldsetUtil.parse(SubscriptionPlanDTO.class, fields, ENTITY_NAME);
         if ("purchase-is-null".equals(filter)) {
-            log.debug("REST request to get all SubscriptionPlans where purchase is null");
-            return subscriptionPlanService.findAllWherePurchaseIsNull();
+            log.debug("REST request to get a page of SubscriptionPlans where purchase is null");
+            LongFilter purchaseId = new LongFilter();
+            purchaseId.setSpecified(false);
+            criteria.setPurchaseId(purchaseId);
+        }
+        log.debug("REST request to get a page of SubscriptionPlans after {} by criteria: {}", after, criteria);
+        return KeysetPaginationUtil.page(ENTITY_NAME, after, limit,
+            (from, size) -> subscriptionPlanQueryService.findByCriteria(criteria, from, size, fieldset), SubscriptionPlanDTO::getId);
+    }
+
+    /**
+     * {@code GET  /subscription-plans?ids=:ids} : get the subscription plans with some ids.
+     *
+     * @param ids the ids of the subscription plans, at most {@value MultiGetUtil#MAX_IDS}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and one result per id in body, in the same order,
+     * with status {@code 404} for the subscription plans that do not exist,
+     * or with status {@code 400 (Bad Request)} if there are no ids or too many,
+     * or with status {@code 304 (Not Modified)} if the subscription plans did not change.
+     */
+    @GetMapping(value = "/subscription-plans", params = "ids")
+    public ResponseEntity<List<ItemResultVM<SubscriptionPlanDTO>>> getSubscriptionPlansById(@RequestParam List<Long> ids, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
+        }
+        log.debug("REST request to get SubscriptionPlans : {}", ids);
+        return MultiGetUtil.wrap(ENTITY_NAME, ids, subscriptionPlanQueryService::findAllById);
+    }
+
+    /**
+     * {@code GET  /subscription-plans/count} : count all the subscriptionPlans.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body,
+     * or with status {@code 304 (Not Modified)} if the subscription plans did not change.
+     */
+    @GetMapping("/subscription-plans/count")
+    public ResponseEntity<Long> countSubscriptionPlans(SubscriptionPlanCriteria criteria, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(VERSIONED_ENTITIES))) {
+            return null;
         }
-        log.debug("REST request to get all SubscriptionPlans");
-        return subscriptionPlanService.findAll();
+        log.debug("REST request to count SubscriptionPlans by criteria: {}", criteria);
+        return ResponseEntity.ok().body(subscriptionPlanQueryService.countByCriteria(criteria));
     }
 
     /**
      * {@code GET  /subscription-plans/:id} : get the "id" subscriptionPlan.
      *
      * @param id the id of the subscriptionPlanDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the subscriptionPlanDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the subscriptionPlanDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the subscription plan did not change.
      */
     @GetMapping("/subscription-plans/{id}")
-    public ResponseEntity<SubscriptionPlanDTO> getSubscriptionPlan(@PathVariable Long id) {
+    public ResponseEntity<SubscriptionPlanDTO> getSubscriptionPlan(@PathVariable Long id, WebRequest request) {
+        if (ConditionalRequestUtil.checkNotModified(request, cacheControl, entityVersionService.getVersion(SubscriptionPlan.class, id))) {
+            return null;
+        }
         log.debug("REST request to get SubscriptionPlan : {}", id);
         Optional<SubscriptionPlanDTO> subscriptionPlanDTO = subscriptionPlanService.findOne(id);
         return ResponseUtil.wrapOrNotFound(subscriptionPlanDTO);
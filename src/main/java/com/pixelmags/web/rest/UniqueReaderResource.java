@@ -0,0 +1,106 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.service.CatalogService;
+import com.pixelmags.service.UniqueReaderService;
+import com.pixelmags.service.catalog.CatalogSnapshot;
+import com.pixelmags.service.dto.UniqueReadersDTO;
+import com.pixelmags.service.sketch.HyperLogLog;
+import com.pixelmags.web.rest.errors.BadRequestAlertException;
+
+import io.github.jhipster.web.util.ResponseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * REST controller for estimating the number of distinct customers reading issues.
+ * <p>
+ * Estimates merge daily sketches, so any range of days is answered in a fixed amount of memory, for an error of about
+ * 1%.
+ */
+@RestController
+@RequestMapping("/api")
+public class UniqueReaderResource {
+
+    private final Logger log = LoggerFactory.getLogger(UniqueReaderResource.class);
+
+    private static final String ENTITY_NAME = "uniqueReaders";
+
+    private final UniqueReaderService uniqueReaderService;
+
+    private final CatalogService catalogService;
+
+    public UniqueReaderResource(UniqueReaderService uniqueReaderService, CatalogService catalogService) {
+        this.uniqueReaderService = uniqueReaderService;
+        this.catalogService = catalogService;
+    }
+
+    /**
+     * {@code GET  /unique-readers/issues/:issueId} : estimate the distinct readers of an issue.
+     *
+     * @param issueId the id of the issue.
+     * @param from the first day, included.
+     * @param to the last day, included.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the estimate in body,
+     * or with status {@code 400 (Bad Request)} if the range of days is not valid.
+     */
+    @GetMapping("/unique-readers/issues/{issueId}")
+    public ResponseEntity<UniqueReadersDTO> getIssueUniqueReaders(@PathVariable Long issueId, @RequestParam LocalDate from,
+                                                                  @RequestParam LocalDate to) {
+        log.debug("REST request to estimate the unique readers of Issue {} from {} to {}", issueId, from, to);
+        checkRange(from, to);
+        return ResponseEntity.ok(uniqueReaderService.estimate(UniqueReaderService.Scope.ISSUE, issueId, from, to));
+    }
+
+    /**
+     * {@code GET  /unique-readers/magazines/:magazineId} : estimate the distinct readers of the issue a magazine sells.
+     *
+     * @param magazineId the id of the magazine.
+     * @param from the first day, included.
+     * @param to the last day, included.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the estimate in body,
+     * or with status {@code 404 (Not Found)} if the magazine does not exist,
+     * or with status {@code 400 (Bad Request)} if the range of days is not valid.
+     */
+    @GetMapping("/unique-readers/magazines/{magazineId}")
+    public ResponseEntity<UniqueReadersDTO> getMagazineUniqueReaders(@PathVariable Long magazineId,
+                                                                     @RequestParam LocalDate from,
+                                                                     @RequestParam LocalDate to) {
+        log.debug("REST request to estimate the unique readers of Magazine {} from {} to {}", magazineId, from, to);
+        checkRange(from, to);
+        // The issue of the magazine is read from the catalog in memory
+        Optional<CatalogSnapshot.MagazineEntry> magazine = Optional.ofNullable(catalogService.getSnapshot().getMagazine(magazineId));
+        return ResponseUtil.wrapOrNotFound(magazine.map(entry -> entry.getIssueId() == null
+            ? new UniqueReadersDTO(from, to, 0L, HyperLogLog.standardError(HyperLogLog.DEFAULT_PRECISION))
+            : uniqueReaderService.estimate(UniqueReaderService.Scope.ISSUE, entry.getIssueId(), from, to)));
+    }
+
+    /**
+     * {@code GET  /unique-readers/publishers/:publisherId} : estimate the distinct readers of the magazines of a
+     * publisher.
+     *
+     * @param publisherId the id of the publisher.
+     * @param from the first day, included.
+     * @param to the last day, included.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the estimate in body,
+     * or with status {@code 400 (Bad Request)} if the range of days is not valid.
+     */
+    @GetMapping("/unique-readers/publishers/{publisherId}")
+    public ResponseEntity<UniqueReadersDTO> getPublisherUniqueReaders(@PathVariable Long publisherId,
+                                                                      @RequestParam LocalDate from,
+                                                                      @RequestParam LocalDate to) {
+        log.debug("REST request to estimate the unique readers of Publisher {} from {} to {}", publisherId, from, to);
+        checkRange(from, to);
+        return ResponseEntity.ok(uniqueReaderService.estimate(UniqueReaderService.Scope.PUBLISHER, publisherId, from, to));
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestAlertException("Invalid range of days", ENTITY_NAME, "rangeinvalid");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.pixelmags.web.rest.util;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Utility class for serving binary content with validators and byte range support.
+ * <p>
+ * Callers are expected to evaluate the preconditions first with {@link WebRequest#checkNotModified(String, long)},
+ * before loading the content, which also writes the {@code ETag} and {@code Last-Modified} headers.
+ */
+public final class BinaryResponseUtil {
+
+    private BinaryResponseUtil() {
+    }
+
+    /**
+     * Build a strong entity tag from a content hash.
+     *
+     * @param hash the content hash.
+     * @return the quoted entity tag.
+     */
+    public static String strongETag(String hash) {
+        return "\"" + hash + "\"";
+    }
+
+    /**
+     * Wrap binary content in a {@code 200 (OK)} response.
+     * <p>
+     * Spring MVC answers {@code Range} requests on {@link Resource} bodies with {@code 206 (Partial Content)}.
+     * When the {@code If-Range} validator sent by the client no longer matches, the content is wrapped in an
+     * {@link InputStreamResource} instead, which Spring MVC always writes in full.
+     *
+     * @param request the current request.
+     * @param content the content to send.
+     * @param contentType the media type of the content.
+     * @param eTag the strong entity tag of the content.
+     * @param lastModified the last modification date of the content, may be {@code null}.
+     * @param cacheControl the caching directives of the response.
+     * @return the response entity.
+     * @throws IOException if the content length cannot be read.
+     */
+    public static ResponseEntity<Resource> wrapContent(WebRequest request, Resource content, MediaType contentType,
+                                                       String eTag, Instant lastModified, CacheControl cacheControl) throws IOException {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+            .contentType(contentType)
+            .cacheControl(cacheControl);
+        if (request.getHeader(HttpHeaders.RANGE) != null && !isIfRangeSatisfied(request, eTag, lastModified)) {
+            return builder
+                .contentLength(content.contentLength())
+                .body(new InputStreamResource(content.getInputStream()));
+        }
+        return builder.body(content);
+    }
+
+    /**
+     * Evaluate the {@code If-Range} precondition: a range may only be served if the client copy is still current.
+     * Only strong entity tags and exact dates match, as required by RFC 7233.
+     */
+    private static boolean isIfRangeSatisfied(WebRequest request, String eTag, Instant lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag);
+        }
+        if (lastModified == null) {
+            return false;
+        }
+        try {
+            Instant date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return date.getEpochSecond() == lastModified.getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Convert a last modification date to the timestamp expected by {@link WebRequest#checkNotModified(String, long)}.
+     *
+     * @param lastModified the last modification date, may be {@code null}.
+     * @return the timestamp in milliseconds, or {@code -1} if unknown.
+     */
+    public static long toTimestamp(Instant lastModified) {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+}
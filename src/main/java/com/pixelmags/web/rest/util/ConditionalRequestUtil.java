@@ -0,0 +1,87 @@
+package com.pixelmags.web.rest.util;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.service.EntityVersionService;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Utility class for answering conditional {@code GET} requests on JSON resources.
+ * <p>
+ * Entity tags are built from a version, not from the response body, so that an unchanged resource is answered with
+ * {@code 304 (Not Modified)} before any service access. Entity versions are shared by all the instances, while other
+ * versions are kept in memory, so their tags include the start time of this instance as they start over on each
+ * restart.
+ */
+public final class ConditionalRequestUtil {
+
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private ConditionalRequestUtil() {
+    }
+
+    /**
+     * Build the caching directives of a resource from its configured max age.
+     *
+     * @param httpCache the HTTP cache properties.
+     * @param resource the name of the resource, as used in the properties.
+     * @return private directives, with {@code no-cache} if the resource has no max age so that clients always revalidate.
+     */
+    public static CacheControl cacheControl(ApplicationProperties.HttpCache httpCache, String resource) {
+        Duration maxAge = httpCache.getMaxAge().get(resource);
+        if (maxAge == null || maxAge.isZero() || maxAge.isNegative()) {
+            return CacheControl.noCache().cachePrivate();
+        }
+        return CacheControl.maxAge(maxAge).cachePrivate();
+    }
+
+    /**
+     * Evaluate the {@code If-None-Match} and {@code If-Modified-Since} preconditions against a version kept in the
+     * memory of this instance.
+     * <p>
+     * The {@code ETag}, {@code Last-Modified} and {@code Cache-Control} headers are set on the response either way.
+     * When this returns true, the response is a complete {@code 304 (Not Modified)} and the handler should return
+     * {@code null}.
+     *
+     * @param request the current request.
+     * @param cacheControl the caching directives of the resource.
+     * @param version the version of the resource content.
+     * @param lastModified the last modification date of the resource content.
+     * @return true if the client copy is current.
+     */
+    public static boolean checkNotModified(WebRequest request, CacheControl cacheControl, long version, Instant lastModified) {
+        return checkNotModified(request, cacheControl, "\"" + EPOCH + "-" + Long.toString(version, Character.MAX_RADIX) + "\"",
+            lastModified);
+    }
+
+    /**
+     * Evaluate the {@code If-None-Match} and {@code If-Modified-Since} preconditions against the version of entities.
+     *
+     * @param request the current request.
+     * @param cacheControl the caching directives of the resource.
+     * @param version the version of the entities the resource content is read from.
+     * @return true if the client copy is current.
+     * @see #checkNotModified(WebRequest, CacheControl, long, Instant)
+     */
+    public static boolean checkNotModified(WebRequest request, CacheControl cacheControl, EntityVersionService.Version version) {
+        return checkNotModified(request, cacheControl, "\"" + Long.toString(version.getNumber(), Character.MAX_RADIX) + "\"",
+            version.getLastModified());
+    }
+
+    private static boolean checkNotModified(WebRequest request, CacheControl cacheControl, String eTag, Instant lastModified) {
+        if (request instanceof ServletWebRequest) {
+            HttpServletResponse response = ((ServletWebRequest) request).getResponse();
+            if (response != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            }
+        }
+        return request.checkNotModified(eTag, lastModified.toEpochMilli());
+    }
+}
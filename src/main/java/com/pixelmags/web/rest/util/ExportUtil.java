@@ -0,0 +1,144 @@
+package com.pixelmags.web.rest.util;
+
+import com.pixelmags.web.rest.errors.BadRequestAlertException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Utility class for streaming exports of entities, as newline delimited JSON or CSV.
+ * <p>
+ * Rows are written as they are read, through a {@link StreamingResponseBody}, so the heap use of an export does not
+ * depend on its size.
+ */
+public final class ExportUtil {
+
+    public static final String NDJSON = "ndjson";
+
+    public static final String CSV = "csv";
+
+    private static final MediaType NDJSON_MEDIA_TYPE = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final MediaType CSV_MEDIA_TYPE = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ExportUtil() {
+    }
+
+    /**
+     * Columns of a CSV export, in order.
+     *
+     * @param <T> the type of the exported entities.
+     */
+    public static final class Columns<T> {
+
+        private final Map<String, Function<T, ?>> columns = new LinkedHashMap<>();
+
+        /**
+         * Add a column.
+         *
+         * @param name the name of the column, in the header row.
+         * @param value the value of the column for an entity.
+         * @return this.
+         */
+        public Columns<T> add(String name, Function<T, ?> value) {
+            columns.put(name, value);
+            return this;
+        }
+    }
+
+    /**
+     * Stream the export of entities.
+     *
+     * @param entityName the name of the entity, for errors and the file name.
+     * @param format {@link #NDJSON} or {@link #CSV}.
+     * @param gzip whether to compress the export.
+     * @param objectMapper the object mapper writing NDJSON rows.
+     * @param type the type of the exported entities.
+     * @param columns the columns of CSV rows.
+     * @param exporter the service method passing each entity to a consumer.
+     * @param <T> the type of the exported entities.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the export in body.
+     * @throws BadRequestAlertException if the format is unknown.
+     */
+    public static <T> ResponseEntity<StreamingResponseBody> export(String entityName, String format, boolean gzip,
+                                                                   ObjectMapper objectMapper, Class<T> type, Columns<T> columns,
+                                                                   Consumer<Consumer<T>> exporter) {
+        boolean csv = CSV.equals(format);
+        if (!csv && !NDJSON.equals(format)) {
+            throw new BadRequestAlertException("Unknown export format", entityName, "formatinvalid");
+        }
+        ObjectWriter objectWriter = objectMapper.writerFor(type);
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            OutputStream target = new BufferedOutputStream(compressed != null ? compressed : out, BUFFER_SIZE);
+            try {
+                if (csv) {
+                    writeCsvRow(target, columns.columns.keySet().toArray());
+                }
+                exporter.accept(entity -> {
+                    try {
+                        if (csv) {
+                            writeCsvRow(target, columns.columns.values().stream().map(column -> column.apply(entity)).toArray());
+                        } else {
+                            target.write(objectWriter.writeValueAsBytes(entity));
+                            target.write('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            // Finishes the gzip stream without closing the response, which is the container's job
+            target.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+        };
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(csv ? CSV_MEDIA_TYPE : NDJSON_MEDIA_TYPE);
+        headers.setContentDisposition(ContentDisposition.builder("attachment").filename(entityName + "s." + format).build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    private static void writeCsvRow(OutputStream out, Object[] values) throws IOException {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            if (values[i] != null) {
+                String value = values[i].toString();
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    row.append('"').append(value.replace("\"", "\"\"")).append('"');
+                } else {
+                    row.append(value);
+                }
+            }
+        }
+        row.append("\r\n");
+        out.write(row.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
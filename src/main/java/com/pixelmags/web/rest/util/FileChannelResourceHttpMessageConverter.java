@@ -0,0 +1,24 @@
+package com.pixelmags.web.rest.util;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * {@link ResourceHttpMessageConverter} sending file-backed resources through a {@link java.nio.channels.FileChannel}
+ * instead of copying them through a heap buffer.
+ */
+public class FileChannelResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    @Override
+    protected void writeInternal(Resource resource, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        if (!resource.isFile()) {
+            super.writeInternal(resource, outputMessage);
+            return;
+        }
+        FileChannelTransfer.transfer(resource.getFile().toPath(), 0, Long.MAX_VALUE, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,45 @@
+package com.pixelmags.web.rest.util;
+
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * {@link ResourceRegionHttpMessageConverter} sending single byte ranges of file-backed resources through a
+ * {@link java.nio.channels.FileChannel}. Multipart byte ranges, which resuming clients do not use, are left to Spring.
+ */
+public class FileChannelResourceRegionHttpMessageConverter extends ResourceRegionHttpMessageConverter {
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        ResourceRegion region = singleRegion(object);
+        if (region == null || !region.getResource().isFile()) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long resourceLength = region.getResource().contentLength();
+        long start = region.getPosition();
+        long end = Math.min(start + region.getCount(), resourceLength) - 1;
+        HttpHeaders headers = outputMessage.getHeaders();
+        headers.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + resourceLength);
+        headers.setContentLength(end - start + 1);
+        FileChannelTransfer.transfer(region.getResource().getFile().toPath(), start, end - start + 1, outputMessage.getBody());
+    }
+
+    private static ResourceRegion singleRegion(Object object) {
+        if (object instanceof ResourceRegion) {
+            return (ResourceRegion) object;
+        }
+        if (object instanceof Collection && ((Collection<?>) object).size() == 1) {
+            Object region = ((Collection<?>) object).iterator().next();
+            return region instanceof ResourceRegion ? (ResourceRegion) region : null;
+        }
+        return null;
+    }
+}
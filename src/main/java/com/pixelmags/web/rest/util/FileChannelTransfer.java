@@ -0,0 +1,37 @@
+package com.pixelmags.web.rest.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Copies a file range to a response with {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+ * <p>
+ * The JDK hands the transfer to the kernel when the target is a socket or a file, and otherwise maps the file
+ * instead of reading it into heap buffers, so large files are sent without churning the heap.
+ */
+final class FileChannelTransfer {
+
+    private FileChannelTransfer() {
+    }
+
+    static void transfer(Path file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Not closed: closing it would close the response stream
+            WritableByteChannel target = Channels.newChannel(out);
+            long end = Math.min(position + count, channel.size());
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.pixelmags.web.rest.util;
+
+import com.pixelmags.web.rest.errors.BadRequestAlertException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Utility class for handling keyset pagination.
+ * <p>
+ * A page is requested with {@code ?after=<id>&limit=<n>}, and the {@code Link} header of the response holds the
+ * URL of the next page, if any, following the <a href="https://tools.ietf.org/html/rfc5988">RFC 5988</a> format.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    public static final int MAX_LIMIT = 1000;
+
+    private static final String AFTER_PARAM = "after";
+
+    private static final String LIMIT_PARAM = "limit";
+
+    private KeysetPaginationUtil() {
+    }
+
+    /**
+     * Read a page of entities and wrap it in a response with the pagination {@code Link} header.
+     * <p>
+     * One more entity than the limit is read to tell whether there is a next page, without counting.
+     *
+     * @param entityName the name of the entity, for errors.
+     * @param after the id after which the page starts, or {@code null} for the first page.
+     * @param limit the maximum number of entities, or {@code null} for {@link #DEFAULT_LIMIT}.
+     * @param finder the service method reading a page from an id and a limit.
+     * @param idExtractor the id of an entity.
+     * @param <T> the type of the entities.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page in body.
+     * @throws BadRequestAlertException if the limit is not between 1 and {@link #MAX_LIMIT}.
+     */
+    public static <T> ResponseEntity<List<T>> page(String entityName, Long after, Integer limit,
+                                                   BiFunction<Long, Integer, List<T>> finder, Function<T, Long> idExtractor) {
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size <= 0 || size > MAX_LIMIT) {
+            throw new BadRequestAlertException("The limit must be between 1 and " + MAX_LIMIT, entityName, "limitinvalid");
+        }
+        List<T> entities = finder.apply(after, size + 1);
+        boolean hasNext = entities.size() > size;
+        List<T> page = hasNext ? new ArrayList<>(entities.subList(0, size)) : entities;
+        HttpHeaders headers = generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(),
+            hasNext ? idExtractor.apply(page.get(size - 1)) : null, size);
+        return ResponseEntity.ok().headers(headers).body(page);
+    }
+
+    /**
+     * Generate the pagination {@code Link} header.
+     *
+     * @param uriBuilder the URI of the current page.
+     * @param nextAfter the id after which the next page starts, or {@code null} if this is the last page.
+     * @param limit the maximum number of entities per page.
+     * @return the http headers.
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, Long nextAfter, int limit) {
+        StringBuilder link = new StringBuilder();
+        if (nextAfter != null) {
+            link.append('<').append(uriBuilder.cloneBuilder()
+                .replaceQueryParam(AFTER_PARAM, nextAfter)
+                .replaceQueryParam(LIMIT_PARAM, limit)
+                .toUriString()).append(">; rel=\"next\",");
+        }
+        link.append('<').append(uriBuilder.cloneBuilder()
+            .replaceQueryParam(AFTER_PARAM)
+            .replaceQueryParam(LIMIT_PARAM, limit)
+            .toUriString()).append(">; rel=\"first\"");
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+}
@@ -0,0 +1,52 @@
+package com.pixelmags.web.rest.util;
+
+import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.vm.ItemResultVM;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Utility class for handling multi-gets.
+ * <p>
+ * Entities are requested with {@code ?ids=<id>,<id>}, and the response holds one result per requested id, in the
+ * same order, with status {@code 404} for the ids that do not exist.
+ */
+public final class MultiGetUtil {
+
+    public static final int MAX_IDS = 1000;
+
+    private MultiGetUtil() {
+    }
+
+    /**
+     * Read entities by id and wrap them in a response, in the order of the ids.
+     *
+     * @param entityName the name of the entity, for errors.
+     * @param ids the requested ids.
+     * @param finder the service method reading the entities found, by id.
+     * @param <T> the type of the entities.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the results in body.
+     * @throws BadRequestAlertException if there is no id, or more than {@link #MAX_IDS}.
+     */
+    public static <T> ResponseEntity<List<ItemResultVM<T>>> wrap(String entityName, List<Long> ids,
+                                                                 Function<Collection<Long>, Map<Long, T>> finder) {
+        if (ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new BadRequestAlertException("Between 1 and " + MAX_IDS + " ids must be requested", entityName, "idsinvalid");
+        }
+        if (ids.contains(null)) {
+            throw new BadRequestAlertException("Invalid id", entityName, "idnull");
+        }
+        Map<Long, T> entities = finder.apply(ids);
+        List<ItemResultVM<T>> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            results.add(new ItemResultVM<>(id, entities.get(id)));
+        }
+        return ResponseEntity.ok(results);
+    }
+}
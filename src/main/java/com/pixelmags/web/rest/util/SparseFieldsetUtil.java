@@ -0,0 +1,175 @@
+package com.pixelmags.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.pixelmags.config.JacksonConfiguration;
+import com.pixelmags.web.rest.errors.BadRequestAlertException;
+import com.pixelmags.web.rest.vm.ItemResultVM;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Utility class for handling sparse fieldsets.
+ * <p>
+ * The properties of the DTOs in a response are limited with {@code ?fields=<name>,<name>}. A fieldset is validated and
+ * compiled once per DTO type and parameter value, into the set of names handed to the query services and into the
+ * Jackson filter of the response, so nothing is introspected per request.
+ */
+public final class SparseFieldsetUtil {
+
+    public static final String FIELDS_PARAM = "fields";
+
+    /**
+     * Maximum number of fieldsets kept per DTO type, as the parameter values come from clients.
+     */
+    private static final int MAX_FIELDSETS = 1024;
+
+    private static final ConcurrentMap<Class<?>, Set<String>> PROPERTIES = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Fieldset>> FIELDSETS = new ConcurrentHashMap<>();
+
+    private SparseFieldsetUtil() {
+    }
+
+    /**
+     * Parse the {@code fields} parameter of a request for DTOs.
+     *
+     * @param type the type of the DTOs.
+     * @param fields the value of the parameter, possibly {@code null}.
+     * @param entityName the name of the entity, for errors.
+     * @return the names of the requested properties, or {@code null} for all of them.
+     * @throws BadRequestAlertException if a property does not exist.
+     */
+    public static Set<String> parse(Class<?> type, String fields, String entityName) {
+        Fieldset fieldset = fieldset(type, fields, entityName);
+        return fieldset == null ? null : fieldset.getNames();
+    }
+
+    /**
+     * Get the compiled fieldset of a request for DTOs.
+     *
+     * @param type the type of the DTOs.
+     * @param fields the value of the {@code fields} parameter, possibly {@code null}.
+     * @param entityName the name of the entity, for errors.
+     * @return the fieldset, or {@code null} if all properties are requested.
+     * @throws BadRequestAlertException if a property does not exist.
+     */
+    public static Fieldset fieldset(Class<?> type, String fields, String entityName) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return null;
+        }
+        ConcurrentMap<String, Fieldset> fieldsets = FIELDSETS.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+        Fieldset fieldset = fieldsets.get(fields);
+        if (fieldset == null) {
+            fieldset = compile(type, fields, entityName);
+            if (fieldsets.size() < MAX_FIELDSETS) {
+                fieldsets.putIfAbsent(fields, fieldset);
+            }
+        }
+        return fieldset;
+    }
+
+    /**
+     * Get the type of the DTOs in a response body.
+     *
+     * @param body the response body, a DTO, a collection of DTOs, or the {@link ItemResultVM}s of a multi-get.
+     * @return the type, or {@code null} if the body is empty or does not hold DTOs.
+     */
+    public static Class<?> dtoType(Object body) {
+        Object element = body;
+        if (body instanceof Collection) {
+            element = null;
+            Iterator<?> iterator = ((Collection<?>) body).iterator();
+            while (element == null && iterator.hasNext()) {
+                element = iterator.next();
+                // The ids of a multi-get which were not found hold no DTO
+                if (element instanceof ItemResultVM) {
+                    element = ((ItemResultVM<?>) element).getEntity();
+                }
+            }
+        }
+        if (element == null || !JacksonConfiguration.isFieldsFiltered(element.getClass())) {
+            return null;
+        }
+        return element.getClass();
+    }
+
+    private static Fieldset compile(Class<?> type, String fields, String entityName) {
+        Set<String> properties = PROPERTIES.computeIfAbsent(type, SparseFieldsetUtil::properties);
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!properties.contains(name)) {
+                throw new BadRequestAlertException("Unknown field " + name, entityName, "fieldsinvalid");
+            }
+            names.add(name);
+        }
+        return new Fieldset(type, Collections.unmodifiableSet(names));
+    }
+
+    private static Set<String> properties(Class<?> type) {
+        try {
+            Set<String> properties = new HashSet<>();
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+                if (descriptor.getReadMethod() != null) {
+                    properties.add(descriptor.getName());
+                }
+            }
+            return properties;
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("Could not introspect " + type, e);
+        }
+    }
+
+    /**
+     * The properties requested for a DTO type, with the Jackson filter writing only them.
+     */
+    public static final class Fieldset {
+
+        private final Set<String> names;
+
+        private final FilterProvider filters;
+
+        private Fieldset(Class<?> type, Set<String> names) {
+            this.names = names;
+            this.filters = new SimpleFilterProvider().addFilter(JacksonConfiguration.FIELDS_FILTER_ID,
+                new SimpleBeanPropertyFilter() {
+                    @Override
+                    public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider,
+                                                 PropertyWriter writer) throws Exception {
+                        // Nested beans of other types are written whole
+                        if (!type.isInstance(pojo) || names.contains(writer.getName())) {
+                            writer.serializeAsField(pojo, jgen, provider);
+                        } else if (!jgen.canOmitFields()) {
+                            writer.serializeAsOmittedField(pojo, jgen, provider);
+                        }
+                    }
+                });
+        }
+
+        public Set<String> getNames() {
+            return names;
+        }
+
+        public FilterProvider getFilters() {
+            return filters;
+        }
+    }
+}
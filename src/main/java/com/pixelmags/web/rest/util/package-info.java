@@ -0,0 +1,4 @@
+/**
+ * Utility classes shared by the Spring MVC REST controllers.
+ */
+package com.pixelmags.web.rest.util;
@@ -0,0 +1,45 @@
+package com.pixelmags.web.rest.vm;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+/**
+ * View Model object for the result of one id in a multi-get: the entity, or a {@code 404} marker.
+ *
+ * @param <T> the type of the entity.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemResultVM<T> {
+
+    private final Long id;
+
+    private final int status;
+
+    private final T entity;
+
+    public ItemResultVM(Long id, T entity) {
+        this.id = id;
+        this.status = entity == null ? HttpStatus.NOT_FOUND.value() : HttpStatus.OK.value();
+        this.entity = entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public T getEntity() {
+        return entity;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemResultVM{" +
+            "id=" + id +
+            ", status=" + status +
+            "}";
+    }
+}
@@ -37,7 +37,7 @@ export class CustomerMagazineUpdateComponent implements OnInit {
     this.activatedRoute.data.subscribe(({ customer }) => {
       this.updateForm(customer);
 
-      this.purchaseService.query().subscribe((res: HttpResponse<IPurchaseMagazine[]>) => (this.purchases = res.body || []));
+      this.purchaseService.queryAll().subscribe((purchases: IPurchaseMagazine[]) => (this.purchases = purchases));
     });
   }
 
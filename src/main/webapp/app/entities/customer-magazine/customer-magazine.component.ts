@@ -6,6 +6,7 @@ import { JhiEventManager } from 'ng-jhipster';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { ICustomerMagazine } from 'app/shared/model/customer-magazine.model';
+import { parseNextAfter } from 'app/shared/util/request-util';
 import { CustomerMagazineService } from './customer-magazine.service';
 import { CustomerMagazineDeleteDialogComponent } from './customer-magazine-delete-dialog.component';
 
@@ -17,6 +18,7 @@ export class CustomerMagazineComponent implements OnInit, OnDestroy {
   customers?: ICustomerMagazine[];
   eventSubscriber?: Subscription;
   currentSearch: string;
+  nextAfter?: number;
 
   constructor(
     protected customerService: CustomerMagazineService,
@@ -31,6 +33,7 @@ export class CustomerMagazineComponent implements OnInit, OnDestroy {
   }
 
   loadAll(): void {
+    this.nextAfter = undefined;
     if (this.currentSearch) {
       this.customerService
         .search({
@@ -40,7 +43,20 @@ export class CustomerMagazineComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.customerService.query().subscribe((res: HttpResponse<ICustomerMagazine[]>) => (this.customers = res.body || []));
+    this.customerService.query().subscribe((res: HttpResponse<ICustomerMagazine[]>) => {
+      this.customers = res.body || [];
+      this.nextAfter = parseNextAfter(res);
+    });
+  }
+
+  loadNextPage(): void {
+    if (this.nextAfter === undefined) {
+      return;
+    }
+    this.customerService.query({ after: this.nextAfter }).subscribe((res: HttpResponse<ICustomerMagazine[]>) => {
+      this.customers = (this.customers || []).concat(res.body || []);
+      this.nextAfter = parseNextAfter(res);
+    });
   }
 
   search(query: string): void {
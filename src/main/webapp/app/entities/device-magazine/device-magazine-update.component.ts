@@ -37,7 +37,7 @@ export class DeviceMagazineUpdateComponent implements OnInit {
     this.activatedRoute.data.subscribe(({ device }) => {
       this.updateForm(device);
 
-      this.customerService.query().subscribe((res: HttpResponse<ICustomerMagazine[]>) => (this.customers = res.body || []));
+      this.customerService.queryAll().subscribe((customers: ICustomerMagazine[]) => (this.customers = customers));
     });
   }
 
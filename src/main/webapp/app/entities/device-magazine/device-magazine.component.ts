@@ -6,6 +6,7 @@ import { JhiEventManager } from 'ng-jhipster';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { IDeviceMagazine } from 'app/shared/model/device-magazine.model';
+import { parseNextAfter } from 'app/shared/util/request-util';
 import { DeviceMagazineService } from './device-magazine.service';
 import { DeviceMagazineDeleteDialogComponent } from './device-magazine-delete-dialog.component';
 
@@ -17,6 +18,7 @@ export class DeviceMagazineComponent implements OnInit, OnDestroy {
   devices?: IDeviceMagazine[];
   eventSubscriber?: Subscription;
   currentSearch: string;
+  nextAfter?: number;
 
   constructor(
     protected deviceService: DeviceMagazineService,
@@ -31,6 +33,7 @@ export class DeviceMagazineComponent implements OnInit, OnDestroy {
   }
 
   loadAll(): void {
+    this.nextAfter = undefined;
     if (this.currentSearch) {
       this.deviceService
         .search({
@@ -40,7 +43,20 @@ export class DeviceMagazineComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.deviceService.query().subscribe((res: HttpResponse<IDeviceMagazine[]>) => (this.devices = res.body || []));
+    this.deviceService.query().subscribe((res: HttpResponse<IDeviceMagazine[]>) => {
+      this.devices = res.body || [];
+      this.nextAfter = parseNextAfter(res);
+    });
+  }
+
+  loadNextPage(): void {
+    if (this.nextAfter === undefined) {
+      return;
+    }
+    this.deviceService.query({ after: this.nextAfter }).subscribe((res: HttpResponse<IDeviceMagazine[]>) => {
+      this.devices = (this.devices || []).concat(res.body || []);
+      this.nextAfter = parseNextAfter(res);
+    });
   }
 
   search(query: string): void {
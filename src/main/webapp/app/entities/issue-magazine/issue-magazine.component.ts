@@ -6,6 +6,7 @@ import { JhiEventManager, JhiDataUtils } from 'ng-jhipster';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { IIssueMagazine } from 'app/shared/model/issue-magazine.model';
+import { parseNextAfter } from 'app/shared/util/request-util';
 import { IssueMagazineService } from './issue-magazine.service';
 import { IssueMagazineDeleteDialogComponent } from './issue-magazine-delete-dialog.component';
 
@@ -17,6 +18,7 @@ export class IssueMagazineComponent implements OnInit, OnDestroy {
   issues?: IIssueMagazine[];
   eventSubscriber?: Subscription;
   currentSearch: string;
+  nextAfter?: number;
 
   constructor(
     protected issueService: IssueMagazineService,
@@ -32,6 +34,7 @@ export class IssueMagazineComponent implements OnInit, OnDestroy {
   }
 
   loadAll(): void {
+    this.nextAfter = undefined;
     if (this.currentSearch) {
       this.issueService
         .search({
@@ -41,7 +44,20 @@ export class IssueMagazineComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.issueService.query().subscribe((res: HttpResponse<IIssueMagazine[]>) => (this.issues = res.body || []));
+    this.issueService.query().subscribe((res: HttpResponse<IIssueMagazine[]>) => {
+      this.issues = res.body || [];
+      this.nextAfter = parseNextAfter(res);
+    });
+  }
+
+  loadNextPage(): void {
+    if (this.nextAfter === undefined) {
+      return;
+    }
+    this.issueService.query({ after: this.nextAfter }).subscribe((res: HttpResponse<IIssueMagazine[]>) => {
+      this.issues = (this.issues || []).concat(res.body || []);
+      this.nextAfter = parseNextAfter(res);
+    });
   }
 
   search(query: string): void {
@@ -6,6 +6,7 @@ import { JhiEventManager } from 'ng-jhipster';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { ILogMagazine } from 'app/shared/model/log-magazine.model';
+import { parseNextAfter } from 'app/shared/util/request-util';
 import { LogMagazineService } from './log-magazine.service';
 import { LogMagazineDeleteDialogComponent } from './log-magazine-delete-dialog.component';
 
@@ -17,6 +18,7 @@ export class LogMagazineComponent implements OnInit, OnDestroy {
   logs?: ILogMagazine[];
   eventSubscriber?: Subscription;
   currentSearch: string;
+  nextAfter?: number;
 
   constructor(
     protected logService: LogMagazineService,
@@ -31,6 +33,7 @@ export class LogMagazineComponent implements OnInit, OnDestroy {
   }
 
   loadAll(): void {
+    this.nextAfter = undefined;
     if (this.currentSearch) {
       this.logService
         .search({
@@ -40,7 +43,20 @@ export class LogMagazineComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.logService.query().subscribe((res: HttpResponse<ILogMagazine[]>) => (this.logs = res.body || []));
+    this.logService.query().subscribe((res: HttpResponse<ILogMagazine[]>) => {
+      this.logs = res.body || [];
+      this.nextAfter = parseNextAfter(res);
+    });
+  }
+
+  loadNextPage(): void {
+    if (this.nextAfter === undefined) {
+      return;
+    }
+    this.logService.query({ after: this.nextAfter }).subscribe((res: HttpResponse<ILogMagazine[]>) => {
+      this.logs = (this.logs || []).concat(res.body || []);
+      this.nextAfter = parseNextAfter(res);
+    });
   }
 
   search(query: string): void {
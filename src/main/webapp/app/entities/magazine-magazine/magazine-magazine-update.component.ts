@@ -49,51 +49,37 @@ export class MagazineMagazineUpdateComponent implements OnInit {
     this.activatedRoute.data.subscribe(({ magazine }) => {
       this.updateForm(magazine);
 
-      this.issueService
-        .query({ filter: 'magazine-is-null' })
-        .pipe(
-          map((res: HttpResponse<IIssueMagazine[]>) => {
-            return res.body || [];
-          })
-        )
-        .subscribe((resBody: IIssueMagazine[]) => {
-          if (!magazine.issueId) {
-            this.issues = resBody;
-          } else {
-            this.issueService
-              .find(magazine.issueId)
-              .pipe(
-                map((subRes: HttpResponse<IIssueMagazine>) => {
-                  return subRes.body ? [subRes.body].concat(resBody) : resBody;
-                })
-              )
-              .subscribe((concatRes: IIssueMagazine[]) => (this.issues = concatRes));
-          }
-        });
-
-      this.purchaseService
-        .query({ filter: 'magazine-is-null' })
-        .pipe(
-          map((res: HttpResponse<IPurchaseMagazine[]>) => {
-            return res.body || [];
-          })
-        )
-        .subscribe((resBody: IPurchaseMagazine[]) => {
-          if (!magazine.purchaseId) {
-            this.purchases = resBody;
-          } else {
-            this.purchaseService
-              .find(magazine.purchaseId)
-              .pipe(
-                map((subRes: HttpResponse<IPurchaseMagazine>) => {
-                  return subRes.body ? [subRes.body].concat(resBody) : resBody;
-                })
-              )
-              .subscribe((concatRes: IPurchaseMagazine[]) => (this.purchases = concatRes));
-          }
-        });
-
-      this.publisherService.query().subscribe((res: HttpResponse<IPublisherMagazine[]>) => (this.publishers = res.body || []));
+      this.issueService.queryAll({ filter: 'magazine-is-null' }).subscribe((resBody: IIssueMagazine[]) => {
+        if (!magazine.issueId) {
+          this.issues = resBody;
+        } else {
+          this.issueService
+            .find(magazine.issueId)
+            .pipe(
+              map((subRes: HttpResponse<IIssueMagazine>) => {
+                return subRes.body ? [subRes.body].concat(resBody) : resBody;
+              })
+            )
+            .subscribe((concatRes: IIssueMagazine[]) => (this.issues = concatRes));
+        }
+      });
+
+      this.purchaseService.queryAll({ filter: 'magazine-is-null' }).subscribe((resBody: IPurchaseMagazine[]) => {
+        if (!magazine.purchaseId) {
+          this.purchases = resBody;
+        } else {
+          this.purchaseService
+            .find(magazine.purchaseId)
+            .pipe(
+              map((subRes: HttpResponse<IPurchaseMagazine>) => {
+                return subRes.body ? [subRes.body].concat(resBody) : resBody;
+              })
+            )
+            .subscribe((concatRes: IPurchaseMagazine[]) => (this.purchases = concatRes));
+        }
+      });
+
+      this.publisherService.queryAll().subscribe((publishers: IPublisherMagazine[]) => (this.publishers = publishers));
     });
   }
 
@@ -6,6 +6,7 @@ import { JhiEventManager } from 'ng-jhipster';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { IMagazineMagazine } from 'app/shared/model/magazine-magazine.model';
+import { parseNextAfter } from 'app/shared/util/request-util';
 import { MagazineMagazineService } from './magazine-magazine.service';
 import { MagazineMagazineDeleteDialogComponent } from './magazine-magazine-delete-dialog.component';
 
@@ -17,6 +18,7 @@ export class MagazineMagazineComponent implements OnInit, OnDestroy {
   magazines?: IMagazineMagazine[];
   eventSubscriber?: Subscription;
   currentSearch: string;
+  nextAfter?: number;
 
   constructor(
     protected magazineService: MagazineMagazineService,
@@ -31,6 +33,7 @@ export class MagazineMagazineComponent implements OnInit, OnDestroy {
   }
 
   loadAll(): void {
+    this.nextAfter = undefined;
     if (this.currentSearch) {
       this.magazineService
         .search({
@@ -40,7 +43,20 @@ export class MagazineMagazineComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.magazineService.query().subscribe((res: HttpResponse<IMagazineMagazine[]>) => (this.magazines = res.body || []));
+    this.magazineService.query().subscribe((res: HttpResponse<IMagazineMagazine[]>) => {
+      this.magazines = res.body || [];
+      this.nextAfter = parseNextAfter(res);
+    });
+  }
+
+  loadNextPage(): void {
+    if (this.nextAfter === undefined) {
+      return;
+    }
+    this.magazineService.query({ after: this.nextAfter }).subscribe((res: HttpResponse<IMagazineMagazine[]>) => {
+      this.magazines = (this.magazines || []).concat(res.body || []);
+      this.nextAfter = parseNextAfter(res);
+    });
   }
 
   search(query: string): void {
@@ -6,6 +6,7 @@ import { JhiEventManager } from 'ng-jhipster';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { IPublisherMagazine } from 'app/shared/model/publisher-magazine.model';
+import { parseNextAfter } from 'app/shared/util/request-util';
 import { PublisherMagazineService } from './publisher-magazine.service';
 import { PublisherMagazineDeleteDialogComponent } from './publisher-magazine-delete-dialog.component';
 
@@ -17,6 +18,7 @@ export class PublisherMagazineComponent implements OnInit, OnDestroy {
   publishers?: IPublisherMagazine[];
   eventSubscriber?: Subscription;
   currentSearch: string;
+  nextAfter?: number;
 
   constructor(
     protected publisherService: PublisherMagazineService,
@@ -31,6 +33,7 @@ export class PublisherMagazineComponent implements OnInit, OnDestroy {
   }
 
   loadAll(): void {
+    this.nextAfter = undefined;
     if (this.currentSearch) {
       this.publisherService
         .search({
@@ -40,7 +43,20 @@ export class PublisherMagazineComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.publisherService.query().subscribe((res: HttpResponse<IPublisherMagazine[]>) => (this.publishers = res.body || []));
+    this.publisherService.query().subscribe((res: HttpResponse<IPublisherMagazine[]>) => {
+      this.publishers = res.body || [];
+      this.nextAfter = parseNextAfter(res);
+    });
+  }
+
+  loadNextPage(): void {
+    if (this.nextAfter === undefined) {
+      return;
+    }
+    this.publisherService.query({ after: this.nextAfter }).subscribe((res: HttpResponse<IPublisherMagazine[]>) => {
+      this.publishers = (this.publishers || []).concat(res.body || []);
+      this.nextAfter = parseNextAfter(res);
+    });
   }
 
   search(query: string): void {
@@ -38,27 +38,20 @@ export class PurchaseMagazineUpdateComponent implements OnInit {
     this.activatedRoute.data.subscribe(({ purchase }) => {
       this.updateForm(purchase);
 
-      this.subscriptionPlanService
-        .query({ filter: 'purchase-is-null' })
-        .pipe(
-          map((res: HttpResponse<ISubscriptionPlanMagazine[]>) => {
-            return res.body || [];
-          })
-        )
-        .subscribe((resBody: ISubscriptionPlanMagazine[]) => {
-          if (!purchase.subscriptionId) {
-            this.subscriptions = resBody;
-          } else {
-            this.subscriptionPlanService
-              .find(purchase.subscriptionId)
-              .pipe(
-                map((subRes: HttpResponse<ISubscriptionPlanMagazine>) => {
-                  return subRes.body ? [subRes.body].concat(resBody) : resBody;
-                })
-              )
-              .subscribe((concatRes: ISubscriptionPlanMagazine[]) => (this.subscriptions = concatRes));
-          }
-        });
+      this.subscriptionPlanService.queryAll({ filter: 'purchase-is-null' }).subscribe((resBody: ISubscriptionPlanMagazine[]) => {
+        if (!purchase.subscriptionId) {
+          this.subscriptions = resBody;
+        } else {
+          this.subscriptionPlanService
+            .find(purchase.subscriptionId)
+            .pipe(
+              map((subRes: HttpResponse<ISubscriptionPlanMagazine>) => {
+                return subRes.body ? [subRes.body].concat(resBody) : resBody;
+              })
+            )
+            .subscribe((concatRes: ISubscriptionPlanMagazine[]) => (this.subscriptions = concatRes));
+        }
+      });
     });
   }
 
@@ -6,6 +6,7 @@ import { JhiEventManager } from 'ng-jhipster';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { IPurchaseMagazine } from 'app/shared/model/purchase-magazine.model';
+import { parseNextAfter } from 'app/shared/util/request-util';
 import { PurchaseMagazineService } from './purchase-magazine.service';
 import { PurchaseMagazineDeleteDialogComponent } from './purchase-magazine-delete-dialog.component';
 
@@ -17,6 +18,7 @@ export class PurchaseMagazineComponent implements OnInit, OnDestroy {
   purchases?: IPurchaseMagazine[];
   eventSubscriber?: Subscription;
   currentSearch: string;
+  nextAfter?: number;
 
   constructor(
     protected purchaseService: PurchaseMagazineService,
@@ -31,6 +33,7 @@ export class PurchaseMagazineComponent implements OnInit, OnDestroy {
   }
 
   loadAll(): void {
+    this.nextAfter = undefined;
     if (this.currentSearch) {
       this.purchaseService
         .search({
@@ -40,7 +43,20 @@ export class PurchaseMagazineComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.purchaseService.query().subscribe((res: HttpResponse<IPurchaseMagazine[]>) => (this.purchases = res.body || []));
+    this.purchaseService.query().subscribe((res: HttpResponse<IPurchaseMagazine[]>) => {
+      this.purchases = res.body || [];
+      this.nextAfter = parseNextAfter(res);
+    });
+  }
+
+  loadNextPage(): void {
+    if (this.nextAfter === undefined) {
+      return;
+    }
+    this.purchaseService.query({ after: this.nextAfter }).subscribe((res: HttpResponse<IPurchaseMagazine[]>) => {
+      this.purchases = (this.purchases || []).concat(res.body || []);
+      this.nextAfter = parseNextAfter(res);
+    });
   }
 
   search(query: string): void {
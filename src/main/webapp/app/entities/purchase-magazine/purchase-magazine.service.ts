@@ -1,12 +1,12 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpResponse } from '@angular/common/http';
-import { Observable } from 'rxjs';
-import { map } from 'rxjs/operators';
+import { EMPTY, Observable } from 'rxjs';
+import { expand, map, reduce } from 'rxjs/operators';
 import * as moment from 'moment';
 
 import { DATE_FORMAT } from 'app/shared/constants/input.constants';
 import { SERVER_API_URL } from 'app/app.constants';
-import { createRequestOption, Search } from 'app/shared/util/request-util';
+import { createRequestOption, parseNextAfter, Search } from 'app/shared/util/request-util';
 import { IPurchaseMagazine } from 'app/shared/model/purchase-magazine.model';
 
 type EntityResponseType = HttpResponse<IPurchaseMagazine>;
@@ -46,6 +46,19 @@ export class PurchaseMagazineService {
       .pipe(map((res: EntityArrayResponseType) => this.convertDateArrayFromServer(res)));
   }
 
+  /**
+   * Reads all the pages of the list, following the keyset pagination Link header.
+   */
+  queryAll(req?: any): Observable<IPurchaseMagazine[]> {
+    return this.query(req).pipe(
+      expand((res: EntityArrayResponseType) => {
+        const after = parseNextAfter(res);
+        return after === undefined ? EMPTY : this.query({ ...req, after });
+      }),
+      reduce((purchases: IPurchaseMagazine[], res: EntityArrayResponseType) => purchases.concat(res.body || []), [])
+    );
+  }
+
   delete(id: number): Observable<HttpResponse<{}>> {
     return this.http.delete(`${this.resourceUrl}/${id}`, { observe: 'response' });
   }
@@ -6,6 +6,7 @@ import { JhiEventManager } from 'ng-jhipster';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { ISubscriptionPlanMagazine } from 'app/shared/model/subscription-plan-magazine.model';
+import { parseNextAfter } from 'app/shared/util/request-util';
 import { SubscriptionPlanMagazineService } from './subscription-plan-magazine.service';
 import { SubscriptionPlanMagazineDeleteDialogComponent } from './subscription-plan-magazine-delete-dialog.component';
 
@@ -17,6 +18,7 @@ export class SubscriptionPlanMagazineComponent implements OnInit, OnDestroy {
   subscriptionPlans?: ISubscriptionPlanMagazine[];
   eventSubscriber?: Subscription;
   currentSearch: string;
+  nextAfter?: number;
 
   constructor(
     protected subscriptionPlanService: SubscriptionPlanMagazineService,
@@ -31,6 +33,7 @@ export class SubscriptionPlanMagazineComponent implements OnInit, OnDestroy {
   }
 
   loadAll(): void {
+    this.nextAfter = undefined;
     if (this.currentSearch) {
       this.subscriptionPlanService
         .search({
@@ -40,9 +43,20 @@ export class SubscriptionPlanMagazineComponent implements OnInit, OnDestroy {
       return;
     }
 
-    this.subscriptionPlanService
-      .query()
-      .subscribe((res: HttpResponse<ISubscriptionPlanMagazine[]>) => (this.subscriptionPlans = res.body || []));
+    this.subscriptionPlanService.query().subscribe((res: HttpResponse<ISubscriptionPlanMagazine[]>) => {
+      this.subscriptionPlans = res.body || [];
+      this.nextAfter = parseNextAfter(res);
+    });
+  }
+
+  loadNextPage(): void {
+    if (this.nextAfter === undefined) {
+      return;
+    }
+    this.subscriptionPlanService.query({ after: this.nextAfter }).subscribe((res: HttpResponse<ISubscriptionPlanMagazine[]>) => {
+      this.subscriptionPlans = (this.subscriptionPlans || []).concat(res.body || []);
+      this.nextAfter = parseNextAfter(res);
+    });
   }
 
   search(query: string): void {
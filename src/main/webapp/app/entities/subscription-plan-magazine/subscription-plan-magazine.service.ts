@@ -1,9 +1,10 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpResponse } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { EMPTY, Observable } from 'rxjs';
+import { expand, reduce } from 'rxjs/operators';
 
 import { SERVER_API_URL } from 'app/app.constants';
-import { createRequestOption, Search } from 'app/shared/util/request-util';
+import { createRequestOption, parseNextAfter, Search } from 'app/shared/util/request-util';
 import { ISubscriptionPlanMagazine } from 'app/shared/model/subscription-plan-magazine.model';
 
 type EntityResponseType = HttpResponse<ISubscriptionPlanMagazine>;
@@ -33,6 +34,19 @@ export class SubscriptionPlanMagazineService {
     return this.http.get<ISubscriptionPlanMagazine[]>(this.resourceUrl, { params: options, observe: 'response' });
   }
 
+  /**
+   * Reads all the pages of the list, following the keyset pagination Link header.
+   */
+  queryAll(req?: any): Observable<ISubscriptionPlanMagazine[]> {
+    return this.query(req).pipe(
+      expand((res: EntityArrayResponseType) => {
+        const after = parseNextAfter(res);
+        return after === undefined ? EMPTY : this.query({ ...req, after });
+      }),
+      reduce((subscriptionPlans: ISubscriptionPlanMagazine[], res: EntityArrayResponseType) => subscriptionPlans.concat(res.body || []), [])
+    );
+  }
+
   delete(id: number): Observable<HttpResponse<{}>> {
     return this.http.delete(`${this.resourceUrl}/${id}`, { observe: 'response' });
   }
@@ -11,6 +11,8 @@ export interface IIssueMagazine {
   coverThumbnailContentType?: string;
   coverThumbnail?: any;
   magazineId?: number;
+  coverUrl?: string;
+  coverHash?: string;
 }
 
 export class IssueMagazine implements IIssueMagazine {
@@ -24,6 +26,8 @@ export class IssueMagazine implements IIssueMagazine {
     public url?: string,
     public coverThumbnailContentType?: string,
     public coverThumbnail?: any,
-    public magazineId?: number
+    public magazineId?: number,
+    public coverUrl?: string,
+    public coverHash?: string
   ) {}
 }
@@ -5,8 +5,18 @@ export interface ILogMagazine {
   id?: number;
   date?: Moment;
   evento?: Event;
+  customerId?: number;
+  eventId?: string;
+  issueId?: number;
 }
 
 export class LogMagazine implements ILogMagazine {
-  constructor(public id?: number, public date?: Moment, public evento?: Event) {}
+  constructor(
+    public id?: number,
+    public date?: Moment,
+    public evento?: Event,
+    public customerId?: number,
+    public eventId?: string,
+    public issueId?: number
+  ) {}
 }
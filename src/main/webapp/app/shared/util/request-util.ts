@@ -1,4 +1,4 @@
-import { HttpParams } from '@angular/common/http';
+import { HttpParams, HttpResponse } from '@angular/common/http';
 
 export interface Pagination {
   page: number;
@@ -31,3 +31,12 @@ export const createRequestOption = (req?: any): HttpParams => {
 
   return options;
 };
+
+/**
+ * Returns the id after which the next page starts, from the keyset pagination Link header, if there is a next page.
+ */
+export const parseNextAfter = (res: HttpResponse<any>): number | undefined => {
+  const link = res.headers.get('link');
+  const next = link ? /[?&]after=(\d+)[^>]*>; rel="next"/.exec(link) : null;
+  return next ? +next[1] : undefined;
+};
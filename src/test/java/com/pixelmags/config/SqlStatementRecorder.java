@@ -0,0 +1,47 @@
+package com.pixelmags.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hibernate {@link StatementInspector} recording the SQL statements run by the current thread, so that tests can
+ * check what a request actually queries.
+ * <p>
+ * It is registered through {@code hibernate.session_factory.statement_inspector} in the test configuration.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    /**
+     * Start recording the statements run by the current thread.
+     */
+    public static void start() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    /**
+     * Stop recording the statements run by the current thread.
+     *
+     * @return the statements recorded since {@link #start()}.
+     */
+    public static List<String> stop() {
+        List<String> statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements == null ? Collections.emptyList() : statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,105 @@
+package com.pixelmags.service;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Issue;
+import com.pixelmags.repository.IssueRepository;
+import com.pixelmags.repository.MagazineRepository;
+import com.pixelmags.repository.PublisherRepository;
+import com.pixelmags.web.rest.IssueResourceIT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link CatalogService}.
+ * <p>
+ * The issues are written through the repository only, as another instance would, and committed without a test
+ * transaction.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+public class CatalogServiceIT {
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private MagazineRepository magazineRepository;
+
+    @Autowired
+    private PublisherRepository publisherRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Another instance, reading the entity versions on each call
+    private CatalogService otherInstance;
+
+    private Issue issue;
+
+    @BeforeEach
+    public void init() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getHttpCache().setVersionRefresh(Duration.ZERO);
+        EntityVersionService entityVersionService = new EntityVersionService(jdbcTemplate, transactionManager, applicationProperties);
+        otherInstance = new CatalogService(issueRepository, magazineRepository, publisherRepository,
+            entityVersionService, transactionManager);
+        otherInstance.getSnapshot();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (issue != null && issueRepository.existsById(issue.getId())) {
+            issueRepository.deleteById(issue.getId());
+        }
+    }
+
+    @Test
+    public void testRefreshReadsIssueSavedThroughRepository() {
+        long version = otherInstance.getVersion();
+        issue = new TransactionTemplate(transactionManager).execute(status -> issueRepository.save(IssueResourceIT.createEntity(em)));
+
+        otherInstance.refresh();
+
+        assertThat(otherInstance.getSnapshot().getIssue(issue.getId())).isNotNull();
+        assertThat(otherInstance.getVersion()).isGreaterThan(version);
+    }
+
+    @Test
+    public void testRefreshDropsIssueDeletedThroughRepository() {
+        issue = new TransactionTemplate(transactionManager).execute(status -> issueRepository.save(IssueResourceIT.createEntity(em)));
+        otherInstance.refresh();
+        assertThat(otherInstance.getSnapshot().getIssue(issue.getId())).isNotNull();
+
+        issueRepository.deleteById(issue.getId());
+        otherInstance.refresh();
+
+        assertThat(otherInstance.getSnapshot().getIssue(issue.getId())).isNull();
+    }
+
+    @Test
+    public void testRefreshKeepsSnapshotWhenNothingChanged() {
+        otherInstance.refresh();
+        long version = otherInstance.getVersion();
+
+        otherInstance.refresh();
+
+        assertThat(otherInstance.getVersion()).isEqualTo(version);
+    }
+}
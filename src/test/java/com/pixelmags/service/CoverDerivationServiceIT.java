@@ -0,0 +1,106 @@
+package com.pixelmags.service;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.CoverVariant;
+import com.pixelmags.service.blob.BlobStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link CoverDerivationService}.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@Transactional
+public class CoverDerivationServiceIT {
+
+    @Autowired
+    private CoverDerivationService coverDerivationService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    /**
+     * Create a PNG cover of the given size.
+     */
+    public static byte[] createCover(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, width, height / 2);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testDeriveVariants() throws IOException {
+        String hash = blobStore.put(createCover(800, 1000));
+
+        List<CoverVariant> variants = coverDerivationService.deriveVariants(hash);
+
+        assertThat(variants)
+            .filteredOn(variant -> CoverDerivationService.JPEG.equals(variant.getContentType()))
+            .extracting(CoverVariant::getWidth)
+            .containsExactlyInAnyOrder(160, 320, 640);
+        for (CoverVariant variant : variants) {
+            assertThat(variant.getSourceHash()).isEqualTo(hash);
+            Resource content = blobStore.get(variant.getBlobHash()).get();
+            assertThat(content.contentLength()).isEqualTo(variant.getBlobSize());
+            if (CoverDerivationService.JPEG.equals(variant.getContentType())) {
+                try (InputStream in = content.getInputStream()) {
+                    BufferedImage image = ImageIO.read(in);
+                    assertThat(image.getWidth()).isEqualTo(variant.getWidth());
+                    assertThat(image.getHeight()).isEqualTo(variant.getWidth() * 5 / 4);
+                }
+            }
+        }
+
+        // Identical uploads reuse the variants
+        assertThat(coverDerivationService.deriveVariants(hash)).hasSameSizeAs(variants);
+    }
+
+    @Test
+    public void testDeriveVariantsOnlyNarrowerThanTheCover() throws IOException {
+        String hash = blobStore.put(createCover(200, 300));
+
+        assertThat(coverDerivationService.deriveVariants(hash))
+            .extracting(CoverVariant::getWidth)
+            .containsOnly(160);
+    }
+
+    @Test
+    public void testDeriveVariantsOfNonImage() {
+        String hash = blobStore.put("not an image".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(coverDerivationService.deriveVariants(hash)).isEmpty();
+    }
+
+    @Test
+    public void testFindVariant() throws IOException {
+        String hash = blobStore.put(createCover(800, 1000));
+        coverDerivationService.deriveVariants(hash);
+
+        assertThat(coverDerivationService.findVariant(hash, 200, false))
+            .hasValueSatisfying(variant -> {
+                assertThat(variant.getWidth()).isEqualTo(320);
+                assertThat(variant.getContentType()).isEqualTo(CoverDerivationService.JPEG);
+            });
+        assertThat(coverDerivationService.findVariant(hash, 1000, false)).isEmpty();
+    }
+}
@@ -0,0 +1,137 @@
+package com.pixelmags.service;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.Publisher;
+import com.pixelmags.repository.LogRepository;
+import com.pixelmags.web.rest.LogResourceIT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link EntityVersionService}.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+public class EntityVersionServiceIT {
+
+    @Autowired
+    private EntityVersionService entityVersionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LogRepository logRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    // Another instance, reading the versions on each call
+    private EntityVersionService otherInstance;
+
+    @BeforeEach
+    public void init() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getHttpCache().setVersionRefresh(Duration.ZERO);
+        otherInstance = new EntityVersionService(jdbcTemplate, transactionManager, applicationProperties);
+    }
+
+    @Test
+    public void testVersionIsSharedByInstances() {
+        long version = otherInstance.getVersion(Publisher.class).getNumber();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            entityVersionService.touch(Publisher.class);
+            return null;
+        });
+
+        assertThat(entityVersionService.getVersion(Publisher.class).getNumber()).isEqualTo(version + 1);
+        assertThat(otherInstance.getVersion(Publisher.class).getNumber()).isEqualTo(version + 1);
+    }
+
+    @Test
+    public void testVersionIsKeptOnRollback() {
+        long version = otherInstance.getVersion(Publisher.class).getNumber();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            entityVersionService.touch(Publisher.class);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(otherInstance.getVersion(Publisher.class).getNumber()).isEqualTo(version);
+    }
+
+    @Test
+    public void testVersionIsIncreasedAfterCommit() {
+        long version = otherInstance.getVersion(Publisher.class).getNumber();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            entityVersionService.touch(Publisher.class);
+            // Not written by the transaction, so that concurrent writers do not wait on it
+            assertThat(otherInstance.getVersion(Publisher.class).getNumber()).isEqualTo(version);
+            return null;
+        });
+
+        assertThat(otherInstance.getVersion(Publisher.class).getNumber()).isEqualTo(version + 1);
+    }
+
+    @Test
+    public void testEntityVersionIsIncreasedByItsOwnWrites() {
+        long version = otherInstance.getVersion(Publisher.class, 1L).getNumber();
+        long otherVersion = otherInstance.getVersion(Publisher.class, 2L).getNumber();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            entityVersionService.touch(Publisher.class, 1L);
+            return null;
+        });
+
+        assertThat(entityVersionService.getVersion(Publisher.class, 1L).getNumber()).isEqualTo(version + 1);
+        assertThat(otherInstance.getVersion(Publisher.class, 1L).getNumber()).isEqualTo(version + 1);
+        assertThat(otherInstance.getVersion(Publisher.class, 2L).getNumber()).isEqualTo(otherVersion);
+    }
+
+    @Test
+    public void testEntityVersionIsIncreasedByWritesWithoutIds() {
+        long version = otherInstance.getVersion(Publisher.class, 2L).getNumber();
+
+        entityVersionService.touch(Publisher.class);
+
+        assertThat(otherInstance.getVersion(Publisher.class, 2L).getNumber()).isEqualTo(version + 1);
+    }
+
+    @Test
+    public void testLogInsertIncreasesVersionWithoutWritingIt() {
+        long version = otherInstance.getVersion(Log.class).getNumber();
+        long localVersion = entityVersionService.getVersion(Log.class).getNumber();
+        Integer rows = countVersionRows(Log.class);
+
+        Log log = new TransactionTemplate(transactionManager).execute(status -> logRepository.save(LogResourceIT.createEntity(em)));
+        try {
+            assertThat(countVersionRows(Log.class)).isEqualTo(rows);
+            assertThat(entityVersionService.getVersion(Log.class).getNumber()).isGreaterThan(localVersion);
+            assertThat(otherInstance.getVersion(Log.class).getNumber()).isGreaterThan(version);
+        } finally {
+            logRepository.deleteById(log.getId());
+        }
+    }
+
+    private Integer countVersionRows(Class<?> type) {
+        return jdbcTemplate.queryForObject("select count(*) from entity_version where entity_name = ?", Integer.class,
+            type.getName());
+    }
+}
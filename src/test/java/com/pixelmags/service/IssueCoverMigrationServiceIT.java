@@ -0,0 +1,60 @@
+package com.pixelmags.service;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.service.blob.BlobStore;
+import com.pixelmags.service.blob.ContentHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link IssueCoverMigrationService}.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@Transactional
+public class IssueCoverMigrationServiceIT {
+
+    private static final byte[] LEGACY_COVER = "legacy cover".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private IssueCoverMigrationService issueCoverMigrationService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testMigrateCoversMovesBlobsOutOfTheTable() {
+        jdbcTemplate.update("insert into issue (id, edicao, cover_thumbnail, cover_thumbnail_content_type) values (?, ?, ?, ?)",
+            -1L, "legacy", LEGACY_COVER, "image/png");
+
+        assertThat(issueCoverMigrationService.migrateCovers()).isGreaterThanOrEqualTo(1);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("select cover_hash, cover_thumbnail from issue where id = ?", -1L);
+        String hash = ContentHash.sha256Hex(LEGACY_COVER);
+        assertThat(row.get("cover_hash")).isEqualTo(hash);
+        assertThat(row.get("cover_thumbnail")).isNull();
+        assertThat(blobStore.exists(hash)).isTrue();
+
+        // Nothing left to do on the next run
+        assertThat(issueCoverMigrationService.migrateCovers()).isZero();
+    }
+
+    @Test
+    public void testMigrateCoverOnDemand() {
+        jdbcTemplate.update("insert into issue (id, edicao, cover_thumbnail, cover_thumbnail_content_type) values (?, ?, ?, ?)",
+            -2L, "legacy", LEGACY_COVER, "image/png");
+
+        assertThat(issueCoverMigrationService.migrateCover(-2L)).contains(ContentHash.sha256Hex(LEGACY_COVER));
+        assertThat(issueCoverMigrationService.migrateCover(-2L)).isEmpty();
+    }
+}
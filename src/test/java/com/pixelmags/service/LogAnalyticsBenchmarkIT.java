@@ -0,0 +1,119 @@
+package com.pixelmags.service;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.service.dto.LogAnalyticsDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of {@link LogAnalyticsService} counting a synthetic dataset of logs spread over two years, by month in
+ * parallel against a single query over the whole range.
+ * <p>
+ * Run with {@code ./mvnw verify -Dit.test=LogAnalyticsBenchmarkIT -Dbenchmark=true}, adding
+ * {@code -Dbenchmark.rows=1000000} for a smaller dataset than the default 50 million rows, and a PostgreSQL datasource
+ * to measure the partitioned table.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class LogAnalyticsBenchmarkIT {
+
+    private static final long FIRST_ID = 10_000_000_000L;
+
+    private static final int ROWS_PER_TRANSACTION = 1_000_000;
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2018, 1, 1);
+
+    private static final LocalDate LAST_DAY = LocalDate.of(2019, 12, 31);
+
+    private static final int ROUNDS = 5;
+
+    private static final String INSERT_LOGS_H2 = "insert into log (id, date, evento) " +
+        "select x, cast(dateadd('DAY', mod(x, ?), ?) as date), casewhen(mod(x, 4) = 0, 'DOWNLOAD', 'VIEW') " +
+        "from system_range(?, ?)";
+
+    private static final String INSERT_LOGS_POSTGRESQL = "insert into log (id, date, evento) " +
+        "select x, ? + (x % ?)::int, case when x % 4 = 0 then 'DOWNLOAD' else 'VIEW' end " +
+        "from generate_series(?::bigint, ?::bigint) x";
+
+    private final Logger log = LoggerFactory.getLogger(LogAnalyticsBenchmarkIT.class);
+
+    @Autowired
+    private LogAnalyticsService logAnalyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long rows;
+
+    @BeforeEach
+    public void createLogs() {
+        rows = Long.getLong("benchmark.rows", 50_000_000L);
+        int days = (int) (LAST_DAY.toEpochDay() - FIRST_DAY.toEpochDay() + 1);
+        boolean postgresql = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName()));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        for (long first = FIRST_ID; first < FIRST_ID + rows; first += ROWS_PER_TRANSACTION) {
+            long last = Math.min(first + ROWS_PER_TRANSACTION, FIRST_ID + rows) - 1;
+            long from = first;
+            transactionTemplate.execute(status -> postgresql
+                ? jdbcTemplate.update(INSERT_LOGS_POSTGRESQL, Date.valueOf(FIRST_DAY), days, from, last)
+                : jdbcTemplate.update(INSERT_LOGS_H2, days, Date.valueOf(FIRST_DAY), from, last));
+        }
+        log.info("Created {} logs in {} s", rows, String.format("%.1f", (System.nanoTime() - start) / 1e9));
+    }
+
+    @AfterEach
+    public void deleteLogs() {
+        jdbcTemplate.update("delete from log where id >= ?", FIRST_ID);
+    }
+
+    @Test
+    public void benchmarkCountByMonth() {
+        List<LocalDate[]> wholeRange = Collections.singletonList(new LocalDate[]{FIRST_DAY, LAST_DAY});
+        Supplier<List<LogAnalyticsDTO>> parallel = () ->
+            logAnalyticsService.countByPeriod(FIRST_DAY, LAST_DAY, LogAnalyticsService.Granularity.MONTH, null);
+        Supplier<List<LogAnalyticsDTO>> single = () ->
+            logAnalyticsService.count(wholeRange, LogAnalyticsService.Granularity.MONTH, null);
+
+        // Warm up both paths before measuring
+        List<LogAnalyticsDTO> expected = single.get();
+        assertThat(parallel.get()).usingFieldByFieldElementComparator().isEqualTo(expected);
+        assertThat(expected.stream().mapToLong(LogAnalyticsDTO::getTotal).sum()).isEqualTo(rows);
+
+        double parallelSeconds = measure(parallel);
+        double singleSeconds = measure(single);
+        log.info("Counted {} logs by month: {} s split by month in parallel, {} s in a single query",
+            rows, String.format("%.2f", parallelSeconds), String.format("%.2f", singleSeconds));
+    }
+
+    private static double measure(Supplier<List<LogAnalyticsDTO>> count) {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            count.get();
+        }
+        return (System.nanoTime() - start) / 1e9 / ROUNDS;
+    }
+}
@@ -0,0 +1,99 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LogDeduplicationServiceTest {
+
+    private static final Instant START = Instant.ofEpochSecond(Duration.ofDays(20_000).getSeconds());
+
+    private static final Set<String> NONE = Collections.emptySet();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getLogDeduplication().setExpectedEvents(1_000);
+        applicationProperties.getLogDeduplication().setExactCheck(false);
+    }
+
+    private LogDeduplicationService createService() {
+        return new LogDeduplicationService(jdbcTemplate, mock(PlatformTransactionManager.class), applicationProperties,
+            meterRegistry);
+    }
+
+    @Test
+    public void testRecordedEventsAreDuplicates() {
+        LogDeduplicationService service = createService();
+
+        assertThat(service.isDuplicate("a", NONE, START)).isFalse();
+        service.record(Collections.singleton("a"), START);
+
+        assertThat(service.isDuplicate("a", NONE, START)).isTrue();
+        assertThat(service.isDuplicate("b", Collections.singleton("b"), START)).isTrue();
+        assertThat(service.isDuplicate(null, NONE, START)).isFalse();
+        assertThat(meterRegistry.get("log.deduplication.checks").tag("result", "duplicate").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("log.deduplication.hit.ratio").gauge().value()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    public void testEventsAreForgottenAfterTheWindow() {
+        LogDeduplicationService service = createService();
+        service.record(Collections.singleton("a"), START);
+
+        // Four slices of six hours, the slice of the event being cleared once the window has passed
+        assertThat(service.isDuplicate("a", NONE, START.plus(Duration.ofHours(23)))).isTrue();
+        assertThat(service.isDuplicate("a", NONE, START.plus(Duration.ofHours(24)))).isFalse();
+        service.record(Collections.singleton("b"), START.plus(Duration.ofHours(24)));
+        assertThat(service.isDuplicate("b", NONE, START.plus(Duration.ofDays(30)))).isFalse();
+    }
+
+    @Test
+    public void testExactCheckConfirmsPossibleDuplicates() {
+        applicationProperties.getLogDeduplication().setExactCheck(true);
+        LogDeduplicationService service = createService();
+        service.record(Collections.singleton("stored"), START);
+        service.record(Collections.singleton("lost"), START);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("stored"))).thenReturn(1L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("lost"))).thenReturn(0L);
+
+        assertThat(service.isDuplicate("stored", NONE, START)).isTrue();
+        assertThat(service.isDuplicate("lost", NONE, START)).isFalse();
+        assertThat(service.isDuplicate("new", NONE, START)).isFalse();
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class), eq("new"));
+        assertThat(meterRegistry.get("log.deduplication.checks").tag("result", "false-positive").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDisabled() {
+        applicationProperties.getLogDeduplication().setEnabled(false);
+        LogDeduplicationService service = createService();
+        service.record(Collections.singleton("a"), START);
+
+        assertThat(service.isDuplicate("a", NONE, START)).isFalse();
+    }
+}
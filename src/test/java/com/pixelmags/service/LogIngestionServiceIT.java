@@ -0,0 +1,107 @@
+package com.pixelmags.service;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.repository.LogRepository;
+import com.pixelmags.repository.search.LogSearchRepository;
+import com.pixelmags.service.dto.LogDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Integration tests for {@link LogIngestionService}.
+ * <p>
+ * The writer thread is disabled in tests, so queued logs are written by flushing the queue from the test thread.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@Transactional
+public class LogIngestionServiceIT {
+
+    private static final LocalDate DATE = LocalDate.ofEpochDay(1L);
+
+    @Autowired
+    private LogIngestionService logIngestionService;
+
+    @Autowired
+    private LogRepository logRepository;
+
+    /**
+     * This repository is mocked in the com.pixelmags.repository.search test package.
+     *
+     * @see com.pixelmags.repository.search.LogSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private LogSearchRepository mockLogSearchRepository;
+
+    @Test
+    public void testFlushWritesQueuedLogsInOneBatch() {
+        int databaseSizeBeforeFlush = logRepository.findAll().size();
+        assertThat(logIngestionService.submit(logDTO(Event.VIEW))).isTrue();
+        assertThat(logIngestionService.submit(logDTO(Event.DOWNLOAD))).isTrue();
+        assertThat(logIngestionService.submit(logDTO(null))).isTrue();
+
+        assertThat(logIngestionService.flush()).isEqualTo(3);
+
+        List<Log> logList = logRepository.findAll();
+        assertThat(logList).hasSize(databaseSizeBeforeFlush + 3);
+        assertThat(logList.subList(databaseSizeBeforeFlush, logList.size()))
+            .extracting(Log::getEvento).containsExactly(Event.VIEW, Event.DOWNLOAD, null);
+        assertThat(logList.get(logList.size() - 1).getDate()).isEqualTo(DATE);
+        verify(mockLogSearchRepository, times(1)).saveAll(anyIterable());
+
+        // Nothing left to write
+        assertThat(logIngestionService.flush()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testFlushDropsLogOfDeletedIssue() {
+        LogDTO deletedIssueLog = logDTO(Event.VIEW);
+        deletedIssueLog.setEventId("deleted-issue");
+        // An issue deleted once the log was checked
+        deletedIssueLog.setIssueId(Long.MAX_VALUE);
+        LogDTO nextLog = logDTO(Event.DOWNLOAD);
+        nextLog.setEventId("next");
+        assertThat(logIngestionService.submit(deletedIssueLog)).isTrue();
+        assertThat(logIngestionService.submit(nextLog)).isTrue();
+
+        try {
+            assertThat(logIngestionService.flush()).isEqualTo(1);
+
+            assertThat(storedEventIds()).containsExactly("next");
+            assertThat(logIngestionService.flush()).isZero();
+        } finally {
+            logRepository.deleteAll(logRepository.findAll().stream()
+                .filter(logEntry -> "next".equals(logEntry.getEventId()))
+                .collect(Collectors.toList()));
+        }
+    }
+
+    private List<String> storedEventIds() {
+        return logRepository.findAll().stream()
+            .map(Log::getEventId)
+            .filter(Arrays.asList("deleted-issue", "next")::contains)
+            .collect(Collectors.toList());
+    }
+
+    private static LogDTO logDTO(Event evento) {
+        LogDTO logDTO = new LogDTO();
+        logDTO.setDate(DATE);
+        logDTO.setEvento(evento);
+        return logDTO;
+    }
+}
@@ -0,0 +1,81 @@
+package com.pixelmags.service;
+
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.Log;
+import com.pixelmags.service.dto.LogDTO;
+import com.pixelmags.service.mapper.LogMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LogIngestionServiceTest {
+
+    private LogBatchWriter logBatchWriter;
+
+    private LogIngestionService logIngestionService;
+
+    @BeforeEach
+    public void setUp() {
+        LogMapper logMapper = mock(LogMapper.class);
+        when(logMapper.toEntity(any(LogDTO.class)))
+            .thenAnswer(invocation -> new Log().eventId(invocation.<LogDTO>getArgument(0).getEventId()));
+        logBatchWriter = mock(LogBatchWriter.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getLogIngestion().setBatchSize(2);
+        logIngestionService = new LogIngestionService(logMapper, logBatchWriter, applicationProperties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testKeepsBatchWhichCannotBeStored() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(logIngestionService.submit(new LogDTO())).isTrue();
+        }
+        doThrow(new DataAccessResourceFailureException("Database down")).when(logBatchWriter).store(anyList());
+
+        assertThat(logIngestionService.flush()).isZero();
+        verify(logBatchWriter, times(1)).store(anyList());
+        verify(logBatchWriter, never()).index(anyList());
+
+        doNothing().when(logBatchWriter).store(anyList());
+
+        // The failed batch first, then the rest of the queue
+        assertThat(logIngestionService.flush()).isEqualTo(3);
+        verify(logBatchWriter, times(3)).store(anyList());
+        verify(logBatchWriter, times(2)).index(anyList());
+        assertThat(logIngestionService.flush()).isZero();
+    }
+
+    @Test
+    public void testDropsLogsWhichCannotBeStored() {
+        for (String eventId : new String[]{"first", "bad", "last"}) {
+            LogDTO logDTO = new LogDTO();
+            logDTO.setEventId(eventId);
+            assertThat(logIngestionService.submit(logDTO)).isTrue();
+        }
+        doThrow(new DataIntegrityViolationException("fk_log_issue_id")).when(logBatchWriter)
+            .store(argThat(logs -> logs.stream().anyMatch(logEntry -> "bad".equals(logEntry.getEventId()))));
+
+        // The first batch is stored one log at a time, without the bad one, then the last log
+        assertThat(logIngestionService.flush()).isEqualTo(2);
+        verify(logBatchWriter).store(argThat((List<Log> logs) -> logs.size() == 1 && "first".equals(logs.get(0).getEventId())));
+        verify(logBatchWriter).store(argThat((List<Log> logs) -> logs.size() == 1 && "last".equals(logs.get(0).getEventId())));
+        verify(logBatchWriter, times(2)).index(anyList());
+        assertThat(logIngestionService.flush()).isZero();
+    }
+}
@@ -0,0 +1,65 @@
+package com.pixelmags.service;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.repository.LogRepository;
+import com.pixelmags.repository.search.LogSearchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Integration tests for {@link LogPartitionService}.
+ * <p>
+ * The {@code log} table is not partitioned on H2, so expired logs are deleted.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@Transactional
+public class LogPartitionServiceIT {
+
+    private static final LocalDate TODAY = LocalDate.of(2020, 5, 22);
+
+    // 24 whole months before May 2020
+    private static final LocalDate CUTOFF = LocalDate.of(2018, 5, 1);
+
+    @Autowired
+    private LogPartitionService logPartitionService;
+
+    @Autowired
+    private LogRepository logRepository;
+
+    /**
+     * This repository is mocked in the com.pixelmags.repository.search test package.
+     *
+     * @see com.pixelmags.repository.search.LogSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private LogSearchRepository mockLogSearchRepository;
+
+    @Test
+    public void testTableIsNotPartitioned() {
+        assertThat(logPartitionService.isPartitioned()).isFalse();
+        assertThat(logPartitionService.createPartitions(TODAY)).isEmpty();
+    }
+
+    @Test
+    public void testRemoveExpiredLogs() {
+        Log expired = logRepository.saveAndFlush(new Log().date(CUTOFF.minusDays(1)).evento(Event.VIEW));
+        Log kept = logRepository.saveAndFlush(new Log().date(CUTOFF).evento(Event.VIEW));
+        Log undated = logRepository.saveAndFlush(new Log().evento(Event.DOWNLOAD));
+
+        assertThat(logPartitionService.removeExpiredLogs(TODAY)).isGreaterThanOrEqualTo(1);
+
+        assertThat(logRepository.existsById(expired.getId())).isFalse();
+        assertThat(logRepository.existsById(kept.getId())).isTrue();
+        assertThat(logRepository.existsById(undated.getId())).isTrue();
+        verify(mockLogSearchRepository).deleteByDateBefore(CUTOFF);
+    }
+}
@@ -0,0 +1,207 @@
+package com.pixelmags.service;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.config.ApplicationProperties;
+import com.pixelmags.domain.enumeration.PurchaseType;
+import com.pixelmags.domain.enumeration.SubscriptionPeriod;
+import com.pixelmags.repository.PurchaseRepository;
+import com.pixelmags.service.dto.PurchaseDTO;
+import com.pixelmags.service.dto.SubscriptionPlanDTO;
+import com.pixelmags.service.mapper.SubscriptionPlanMapper;
+import com.pixelmags.web.rest.SubscriptionPlanResourceIT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link SubscriptionExpiryService}.
+ * <p>
+ * The expiries are saved once their transaction commits, so the data is saved through the services without a test
+ * transaction, and deleted after each test. Events are fired by new instances of the service, at the dates chosen by
+ * the tests, and filtered by purchase, as the table may hold the expiries of other tests.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+public class SubscriptionExpiryServiceIT {
+
+    private static final LocalDate DATE = LocalDate.of(2020, 1, 10);
+
+    // One month after the 10th of January
+    private static final LocalDate VALID_UNTIL = LocalDate.of(2020, 2, 9);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private SubscriptionPlanService subscriptionPlanService;
+
+    @Autowired
+    private SubscriptionPlanMapper subscriptionPlanMapper;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<SubscriptionExpiryEvent> events = new ArrayList<>();
+
+    private PurchaseDTO purchase;
+
+    private SubscriptionPlanDTO subscriptionPlan;
+
+    @BeforeEach
+    public void initTest() {
+        PurchaseDTO purchaseDTO = new PurchaseDTO();
+        purchaseDTO.setDate(DATE);
+        purchaseDTO.setTipo(PurchaseType.SINGLE_ISSUE);
+        purchase = purchaseService.save(purchaseDTO);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        purchaseService.delete(purchase.getId());
+        if (subscriptionPlan != null) {
+            subscriptionPlanService.delete(subscriptionPlan.getId());
+        }
+    }
+
+    private void subscribe(SubscriptionPeriod periodo) {
+        SubscriptionPlanDTO subscriptionPlanDTO = subscriptionPlanMapper.toDto(SubscriptionPlanResourceIT.createEntity(em));
+        subscriptionPlanDTO.setPeriodo(periodo);
+        subscriptionPlan = subscriptionPlanService.save(subscriptionPlanDTO);
+        purchase.setTipo(PurchaseType.SUBSCRIPTION);
+        purchase.setSubscriptionId(subscriptionPlan.getId());
+        purchase = purchaseService.save(purchase);
+    }
+
+    private SubscriptionExpiryService newService() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        // A chunk per event
+        applicationProperties.getSubscriptionExpiry().setChunkSize(1);
+        return new SubscriptionExpiryService(purchaseRepository, jdbcTemplate, transactionManager, events::add,
+            applicationProperties, new SimpleMeterRegistry());
+    }
+
+    private static Instant at(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+
+    private List<SubscriptionExpiryEvent.Type> advance(SubscriptionExpiryService service, Instant now) {
+        return service.advance(now).stream()
+            .filter(event -> event.getPurchaseId() == purchase.getId())
+            .map(SubscriptionExpiryEvent::getType)
+            .collect(Collectors.toList());
+    }
+
+    private List<Map<String, Object>> findExpiries() {
+        return jdbcTemplate.queryForList("select valid_until, state from subscription_expiry where purchase_id = ?",
+            purchase.getId());
+    }
+
+    private void assertExpiry(LocalDate validUntil, String state) {
+        List<Map<String, Object>> expiries = findExpiries();
+        assertThat(expiries).hasSize(1);
+        assertThat(((Date) expiries.get(0).get("VALID_UNTIL")).toLocalDate()).isEqualTo(validUntil);
+        assertThat(expiries.get(0).get("STATE")).isEqualTo(state);
+    }
+
+    @Test
+    public void testSavesSubscriptionEnd() {
+        assertThat(findExpiries()).isEmpty();
+
+        subscribe(SubscriptionPeriod.MENSAL);
+
+        assertExpiry(VALID_UNTIL, SubscriptionExpiryService.SCHEDULED);
+    }
+
+    @Test
+    public void testFiresReminderThenExpiration() {
+        subscribe(SubscriptionPeriod.MENSAL);
+        SubscriptionExpiryService service = newService();
+
+        assertThat(advance(service, at(VALID_UNTIL.minusDays(3)))).isEmpty();
+        // Three days before the start of the day after the last one
+        assertThat(advance(service, at(VALID_UNTIL.minusDays(2))))
+            .containsExactly(SubscriptionExpiryEvent.Type.RENEWAL_REMINDER);
+        assertExpiry(VALID_UNTIL, SubscriptionExpiryService.REMINDED);
+        assertThat(advance(service, at(VALID_UNTIL).plusSeconds(1))).isEmpty();
+        assertThat(advance(service, at(VALID_UNTIL.plusDays(1))))
+            .containsExactly(SubscriptionExpiryEvent.Type.EXPIRATION);
+        assertExpiry(VALID_UNTIL, SubscriptionExpiryService.EXPIRED);
+        assertThat(events).extracting(SubscriptionExpiryEvent::getValidUntil).containsOnly(VALID_UNTIL);
+    }
+
+    @Test
+    public void testDoesNotFireAgainAfterRestart() {
+        subscribe(SubscriptionPeriod.MENSAL);
+        assertThat(advance(newService(), at(VALID_UNTIL.minusDays(2))))
+            .containsExactly(SubscriptionExpiryEvent.Type.RENEWAL_REMINDER);
+
+        SubscriptionExpiryService restarted = newService();
+
+        assertThat(advance(restarted, at(VALID_UNTIL.minusDays(2)).plusSeconds(60))).isEmpty();
+        assertThat(advance(restarted, at(VALID_UNTIL.plusDays(1))))
+            .containsExactly(SubscriptionExpiryEvent.Type.EXPIRATION);
+        assertThat(advance(newService(), at(VALID_UNTIL.plusDays(2)))).isEmpty();
+    }
+
+    @Test
+    public void testSkipsReminderOfEndedSubscription() {
+        subscribe(SubscriptionPeriod.MENSAL);
+
+        assertThat(advance(newService(), at(VALID_UNTIL.plusDays(5))))
+            .containsExactly(SubscriptionExpiryEvent.Type.EXPIRATION);
+        assertExpiry(VALID_UNTIL, SubscriptionExpiryService.EXPIRED);
+    }
+
+    @Test
+    public void testLoadsLaterExpiriesWhenTheTimeComes() {
+        subscribe(SubscriptionPeriod.MENSAL);
+        SubscriptionExpiryService service = newService();
+
+        assertThat(advance(service, at(DATE))).isEmpty();
+        assertThat(advance(service, at(VALID_UNTIL.minusDays(2))))
+            .containsExactly(SubscriptionExpiryEvent.Type.RENEWAL_REMINDER);
+    }
+
+    @Test
+    public void testMovesEndWithSubscription() {
+        subscribe(SubscriptionPeriod.MENSAL);
+        assertThat(advance(newService(), at(VALID_UNTIL.plusDays(1))))
+            .containsExactly(SubscriptionExpiryEvent.Type.EXPIRATION);
+
+        subscriptionPlan.setPeriodo(SubscriptionPeriod.ANUAL);
+        subscriptionPlan = subscriptionPlanService.save(subscriptionPlan);
+
+        // The renewed subscription is reminded and expires again
+        assertExpiry(LocalDate.of(2021, 1, 9), SubscriptionExpiryService.SCHEDULED);
+
+        purchase.setTipo(PurchaseType.SINGLE_ISSUE);
+        purchase = purchaseService.save(purchase);
+
+        assertThat(findExpiries()).isEmpty();
+    }
+}
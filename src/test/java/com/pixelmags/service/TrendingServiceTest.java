@@ -0,0 +1,100 @@
+package com.pixelmags.service;
+
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.service.catalog.CatalogSnapshot;
+import com.pixelmags.service.catalog.LongMap;
+import com.pixelmags.service.dto.TrendingIssueDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TrendingServiceTest {
+
+    private static final Instant START = Instant.ofEpochSecond(Duration.ofHours(500_000).getSeconds());
+
+    private TrendingService trendingService;
+
+    @BeforeEach
+    public void setUp() {
+        CatalogSnapshot snapshot = new CatalogSnapshot(1L, Instant.EPOCH, LongMap.empty(), LongMap.empty(), LongMap.empty())
+            .withPublisher(new CatalogSnapshot.PublisherEntry(1L, "AAAAAAAAAA"))
+            .withIssue(new CatalogSnapshot.IssueEntry(1L, "1", "AAA", LocalDate.ofEpochDay(1L), null, null))
+            .withIssue(new CatalogSnapshot.IssueEntry(2L, "2", "BBB", LocalDate.ofEpochDay(2L), null, null))
+            .withIssue(new CatalogSnapshot.IssueEntry(3L, "3", "CCC", LocalDate.ofEpochDay(3L), null, null))
+            .withMagazine(new CatalogSnapshot.MagazineEntry(10L, BigDecimal.ONE, 1L, 1L))
+            .withMagazine(new CatalogSnapshot.MagazineEntry(11L, BigDecimal.TEN, 2L, null));
+        CatalogService catalogService = mock(CatalogService.class);
+        when(catalogService.getSnapshot()).thenReturn(snapshot);
+        trendingService = new TrendingService(catalogService);
+        trendingService.refresh(START);
+    }
+
+    @Test
+    public void testRanksIssuesSoldThroughAMagazine() {
+        trendingService.onLogsSaved(logs(1L, 3));
+        trendingService.onLogsSaved(logs(2L, 5));
+        // Issue 3 is not sold through a magazine
+        trendingService.onLogsSaved(logs(3L, 9));
+        trendingService.onLogsSaved(logs(null, 9));
+
+        assertThat(trendingService.findTrending(TrendingService.Window.HOUR, 10)).isEmpty();
+
+        trendingService.refresh(START.plusSeconds(10));
+
+        List<TrendingIssueDTO> trending = trendingService.findTrending(TrendingService.Window.HOUR, 10);
+        assertThat(trending).extracting(dto -> dto.getIssue().getId()).containsExactly(2L, 1L);
+        assertThat(trending).extracting(TrendingIssueDTO::getCount).containsExactly(5L, 3L);
+        assertThat(trending.get(0).getIssue().getPreco()).isEqualTo(BigDecimal.TEN);
+        assertThat(trendingService.findTrending(TrendingService.Window.DAY, 1))
+            .extracting(dto -> dto.getIssue().getId()).containsExactly(2L);
+    }
+
+    @Test
+    public void testWindowsExpire() {
+        trendingService.onLogsSaved(logs(1L, 3));
+        trendingService.refresh(START.plusSeconds(10));
+        trendingService.refresh(START.plus(Duration.ofMinutes(30)));
+        trendingService.onLogsSaved(logs(2L, 1));
+
+        trendingService.refresh(START.plus(Duration.ofMinutes(61)));
+
+        assertThat(trendingService.findTrending(TrendingService.Window.HOUR, 10))
+            .extracting(dto -> dto.getIssue().getId()).containsExactly(2L);
+        assertThat(trendingService.findTrending(TrendingService.Window.DAY, 10))
+            .extracting(TrendingIssueDTO::getCount).containsExactly(3L, 1L);
+
+        trendingService.refresh(START.plus(Duration.ofHours(24)));
+
+        assertThat(trendingService.findTrending(TrendingService.Window.DAY, 10))
+            .extracting(dto -> dto.getIssue().getId()).containsExactly(2L);
+
+        trendingService.refresh(START.plus(Duration.ofHours(48)));
+
+        assertThat(trendingService.findTrending(TrendingService.Window.DAY, 10)).isEmpty();
+    }
+
+    private static List<Log> logs(Long issueId, int count) {
+        List<Log> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Issue issue = null;
+            if (issueId != null) {
+                issue = new Issue();
+                issue.setId(issueId);
+            }
+            logs.add(new Log().date(LocalDate.now()).evento(Event.VIEW).issue(issue));
+        }
+        return logs;
+    }
+}
@@ -0,0 +1,69 @@
+package com.pixelmags.service.blob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FileSystemBlobStoreTest {
+
+    private static final byte[] CONTENT = "hipster".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+
+    @BeforeEach
+    public void setUp() {
+        blobStore = new FileSystemBlobStore(root);
+    }
+
+    @Test
+    public void testPutIsContentAddressed() throws Exception {
+        String hash = blobStore.put(CONTENT);
+
+        assertThat(hash).isEqualTo(ContentHash.sha256Hex(CONTENT));
+        assertThat(blobStore.put(new ByteArrayInputStream(CONTENT))).isEqualTo(hash);
+        assertThat(blobStore.exists(hash)).isTrue();
+        Resource blob = blobStore.get(hash).get();
+        assertThat(blob.isFile()).isTrue();
+        assertThat(StreamUtils.copyToByteArray(blob.getInputStream())).isEqualTo(CONTENT);
+        assertThat(blob.getFile().toPath()).isEqualTo(root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash));
+    }
+
+    @Test
+    public void testPutLeavesNoTemporaryFile() throws Exception {
+        blobStore.put(CONTENT);
+        blobStore.put(CONTENT);
+
+        try (Stream<Path> files = Files.list(root.resolve("tmp"))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void testDelete() {
+        String hash = blobStore.put(CONTENT);
+
+        blobStore.delete(hash);
+
+        assertThat(blobStore.exists(hash)).isFalse();
+        assertThat(blobStore.get(hash)).isEmpty();
+    }
+
+    @Test
+    public void testInvalidHashIsRejected() {
+        assertThatThrownBy(() -> blobStore.get("../../etc/passwd")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.pixelmags.service.catalog;
+
+import com.pixelmags.service.dto.CatalogIssueDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CatalogSnapshotTest {
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    public void setUp() {
+        snapshot = new CatalogSnapshot(1L, Instant.EPOCH, LongMap.empty(), LongMap.empty(), LongMap.empty())
+            .withPublisher(new CatalogSnapshot.PublisherEntry(1L, "AAAAAAAAAA"))
+            .withIssue(new CatalogSnapshot.IssueEntry(3L, "3", "CCC", LocalDate.ofEpochDay(2L), "image/png", "abc"))
+            .withIssue(new CatalogSnapshot.IssueEntry(1L, "1", "AAA", LocalDate.ofEpochDay(1L), null, null))
+            .withIssue(new CatalogSnapshot.IssueEntry(2L, "2", "BBB", null, null, null))
+            .withMagazine(new CatalogSnapshot.MagazineEntry(10L, BigDecimal.ONE, 3L, 1L))
+            .withMagazine(new CatalogSnapshot.MagazineEntry(11L, BigDecimal.TEN, 1L, null));
+    }
+
+    @Test
+    public void testChangesIncreaseVersion() {
+        assertThat(snapshot.getVersion()).isEqualTo(7L);
+        CatalogSnapshot changed = snapshot.withoutIssue(3L);
+
+        assertThat(changed.getVersion()).isEqualTo(8L);
+        assertThat(changed.getLastModified()).isAfter(Instant.EPOCH);
+        assertThat(changed.getIssue(3L)).isNull();
+        assertThat(snapshot.getIssue(3L)).isNotNull();
+        assertThat(snapshot.getIssueCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testFindPageListsIssuesSoldThroughAMagazine() {
+        Page<CatalogIssueDTO> page = snapshot.findPage(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "dataLancamento")));
+
+        assertThat(page.getTotalElements()).isEqualTo(2L);
+        assertThat(page.getContent()).extracting(CatalogIssueDTO::getId).containsExactly(3L, 1L);
+        CatalogIssueDTO latest = page.getContent().get(0);
+        assertThat(latest.getPublisherNome()).isEqualTo("AAAAAAAAAA");
+        assertThat(latest.getPreco()).isEqualTo(BigDecimal.ONE);
+        assertThat(latest.getCoverUrl()).isEqualTo("/api/issues/3/cover?v=abc");
+        assertThat(page.getContent().get(1).getPublisherNome()).isNull();
+    }
+
+    @Test
+    public void testFindPageFollowsDeltas() {
+        CatalogSnapshot changed = snapshot
+            .withMagazine(new CatalogSnapshot.MagazineEntry(12L, BigDecimal.ONE, 2L, 1L))
+            .withoutMagazine(10L)
+            .withPublisher(new CatalogSnapshot.PublisherEntry(1L, "BBBBBBBBBB"))
+            .withIssueCover(1L, "def");
+
+        Page<CatalogIssueDTO> page = changed.findPage(PageRequest.of(0, 10, Sort.by("dataLancamento")));
+
+        // Releases without a date come last
+        assertThat(page.getContent()).extracting(CatalogIssueDTO::getId).containsExactly(1L, 2L);
+        assertThat(page.getContent().get(1).getPublisherNome()).isEqualTo("BBBBBBBBBB");
+        assertThat(page.getContent().get(0).getCoverUrl()).isNull();
+        assertThat(snapshot.findPage(PageRequest.of(0, 10, Sort.by("id"))).getContent())
+            .extracting(CatalogIssueDTO::getId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    public void testFindPageOutOfRange() {
+        Page<CatalogIssueDTO> page = snapshot.findPage(PageRequest.of(1, 2, Sort.by("id")));
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testFindPageWithUnsupportedSort() {
+        assertThatThrownBy(() -> snapshot.findPage(PageRequest.of(0, 10, Sort.by("manchete"))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.pixelmags.service.entitlement;
+
+import com.pixelmags.domain.enumeration.SubscriptionPeriod;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CustomerEntitlementsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2020, 1, 31);
+
+    @Test
+    public void testOwnsIssuesInAnyOrder() {
+        CustomerEntitlements entitlements = CustomerEntitlements.builder()
+            .issue(1L, 10L, 300L)
+            .issue(2L, 20L, 100L)
+            .issue(3L, 30L, 200L)
+            .issue(3L, 30L, 200L)
+            .build();
+
+        assertThat(entitlements.ownsIssue(100L)).isTrue();
+        assertThat(entitlements.ownsIssue(200L)).isTrue();
+        assertThat(entitlements.ownsIssue(300L)).isTrue();
+        assertThat(entitlements.ownsIssue(150L)).isFalse();
+        assertThat(entitlements.getPurchaseIds()).containsExactly(1L, 2L, 3L);
+        assertThat(entitlements.getMagazineIds()).containsExactly(10L, 20L, 30L);
+        assertThat(entitlements.getSubscriptionPlanIds()).isEmpty();
+    }
+
+    @Test
+    public void testFindSubscriptionEndCoveringDay() {
+        CustomerEntitlements entitlements = CustomerEntitlements.builder()
+            .subscription(1L, 5L, 20L, DAY.plusDays(10), DAY.plusDays(19))
+            .subscription(2L, 6L, 10L, DAY, DAY.plusDays(6))
+            .subscription(3L, 7L, 20L, DAY, DAY.plusDays(4))
+            .subscription(4L, 8L, 20L, DAY.plusDays(2), DAY.plusDays(8))
+            .build();
+
+        assertThat(entitlements.findSubscriptionEnd(10L, DAY.plusDays(6))).isEqualTo(DAY.plusDays(6));
+        assertThat(entitlements.findSubscriptionEnd(10L, DAY.plusDays(7))).isNull();
+        assertThat(entitlements.findSubscriptionEnd(10L, DAY.minusDays(1))).isNull();
+        // The latest end of the overlapping subscriptions
+        assertThat(entitlements.findSubscriptionEnd(20L, DAY.plusDays(3))).isEqualTo(DAY.plusDays(8));
+        // Not covered between two subscriptions
+        assertThat(entitlements.findSubscriptionEnd(20L, DAY.plusDays(9))).isNull();
+        assertThat(entitlements.findSubscriptionEnd(20L, DAY.plusDays(19))).isEqualTo(DAY.plusDays(19));
+        assertThat(entitlements.findSubscriptionEnd(30L, DAY)).isNull();
+        assertThat(entitlements.ownsIssue(10L)).isFalse();
+        assertThat(entitlements.getSubscriptionPlanIds()).containsExactly(5L, 6L, 7L, 8L);
+        assertThat(entitlements.derivesFromSubscriptionPlan(6L)).isTrue();
+        assertThat(entitlements.derivesFromSubscriptionPlan(9L)).isFalse();
+        assertThat(entitlements.derivesFromMagazine(20L)).isTrue();
+        assertThat(entitlements.derivesFromMagazine(30L)).isFalse();
+    }
+
+    @Test
+    public void testEmpty() {
+        CustomerEntitlements entitlements = CustomerEntitlements.builder().build();
+
+        assertThat(entitlements.ownsIssue(1L)).isFalse();
+        assertThat(entitlements.findSubscriptionEnd(1L, DAY)).isNull();
+        assertThat(entitlements.getPurchaseIds()).isEmpty();
+    }
+
+    @Test
+    public void testSubscriptionEnd() {
+        assertThat(CustomerEntitlements.subscriptionEnd(DAY, SubscriptionPeriod.DIARIO)).isEqualTo(DAY);
+        assertThat(CustomerEntitlements.subscriptionEnd(DAY, SubscriptionPeriod.SEMANAL)).isEqualTo(LocalDate.of(2020, 2, 6));
+        assertThat(CustomerEntitlements.subscriptionEnd(DAY, SubscriptionPeriod.QUINZENAL)).isEqualTo(LocalDate.of(2020, 2, 14));
+        // One month after the 31st of January is the 29th of February
+        assertThat(CustomerEntitlements.subscriptionEnd(DAY, SubscriptionPeriod.MENSAL)).isEqualTo(LocalDate.of(2020, 2, 28));
+        assertThat(CustomerEntitlements.subscriptionEnd(DAY, SubscriptionPeriod.ANUAL)).isEqualTo(LocalDate.of(2021, 1, 30));
+    }
+}
@@ -0,0 +1,49 @@
+package com.pixelmags.service.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LineReaderTest {
+
+    @Test
+    public void testNextSplitsLines() throws IOException {
+        LineReader lines = reader("first\r\n\n  \nlast", 16);
+
+        assertThat(lines.next()).isTrue();
+        assertThat(current(lines)).isEqualTo("first");
+        assertThat(lines.next()).isTrue();
+        assertThat(lines.isBlank()).isTrue();
+        assertThat(lines.next()).isTrue();
+        assertThat(lines.isBlank()).isTrue();
+        assertThat(lines.next()).isTrue();
+        assertThat(current(lines)).isEqualTo("last");
+        assertThat(lines.next()).isFalse();
+    }
+
+    @Test
+    public void testNextCutsLongLines() throws IOException {
+        LineReader lines = reader("0123456789\nabc\n", 4);
+
+        assertThat(lines.next()).isTrue();
+        assertThat(lines.isTruncated()).isTrue();
+        assertThat(lines.isBlank()).isFalse();
+        assertThat(current(lines)).isEqualTo("0123");
+        assertThat(lines.next()).isTrue();
+        assertThat(lines.isTruncated()).isFalse();
+        assertThat(current(lines)).isEqualTo("abc");
+        assertThat(lines.next()).isFalse();
+    }
+
+    private static LineReader reader(String content, int maxLineLength) {
+        return new LineReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), maxLineLength);
+    }
+
+    private static String current(LineReader lines) {
+        return new String(lines.getLine(), 0, lines.getLength(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package com.pixelmags.service.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RingBufferTest {
+
+    @Test
+    public void testCapacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new RingBuffer<>(1).capacity()).isEqualTo(1);
+        assertThat(new RingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new RingBuffer<>(8).capacity()).isEqualTo(8);
+        assertThatThrownBy(() -> new RingBuffer<>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testOfferRejectsElementsWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+    }
+
+    @Test
+    public void testPollAndDrainInInsertionOrder() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        assertThat(buffer.poll()).isNull();
+        // Wrap around the ring a few times
+        for (int round = 0; round < 3; round++) {
+            buffer.offer(1);
+            buffer.offer(2);
+            buffer.offer(3);
+            assertThat(buffer.poll()).isEqualTo(1);
+
+            List<Integer> drained = new ArrayList<>();
+            assertThat(buffer.drainTo(drained, 1)).isEqualTo(1);
+            assertThat(buffer.drainTo(drained, 10)).isEqualTo(1);
+            assertThat(drained).containsExactly(2, 3);
+            assertThat(buffer.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumer() throws Exception {
+        int producers = 4;
+        int elementsPerProducer = 10_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        AtomicInteger offered = new AtomicInteger();
+        try {
+            for (int p = 0; p < producers; p++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < elementsPerProducer; i++) {
+                        while (!buffer.offer(i)) {
+                            Thread.yield();
+                        }
+                        offered.incrementAndGet();
+                    }
+                    done.countDown();
+                });
+            }
+            long sum = 0;
+            int received = 0;
+            List<Integer> batch = new ArrayList<>();
+            while (received < producers * elementsPerProducer) {
+                if (buffer.drainTo(batch, 16) == 0) {
+                    Thread.yield();
+                }
+                for (Integer element : batch) {
+                    sum += element;
+                }
+                received += batch.size();
+                batch.clear();
+            }
+
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(offered.get()).isEqualTo(received);
+            assertThat(sum).isEqualTo((long) producers * elementsPerProducer * (elementsPerProducer - 1) / 2);
+            assertThat(buffer.isEmpty()).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
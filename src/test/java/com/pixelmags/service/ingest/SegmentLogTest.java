@@ -0,0 +1,116 @@
+package com.pixelmags.service.ingest;
+
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SegmentLogTest {
+
+    private static final LocalDate DATE = LocalDate.of(2020, 5, 22);
+
+    @TempDir
+    public Path directory;
+
+    @Test
+    public void testReplayDeliversRecordsAfterCheckpoint() throws IOException {
+        SegmentLog<Log> journal = open(64);
+        long first = journal.append(log(Event.VIEW, 1L));
+        journal.append(log(Event.DOWNLOAD, null));
+        journal.append(new Log());
+        journal.checkpoint(first);
+        journal.close();
+
+        List<Log> replayed = new ArrayList<>();
+        List<Long> positions = new ArrayList<>();
+        SegmentLog<Log> reopened = open(64);
+        assertThat(reopened.replay((record, position) -> {
+            replayed.add(record);
+            positions.add(position);
+        })).isEqualTo(2);
+
+        assertThat(replayed).extracting(Log::getEvento).containsExactly(Event.DOWNLOAD, null);
+        assertThat(replayed.get(0).getDate()).isEqualTo(DATE);
+        assertThat(replayed.get(0).getIssue()).isNull();
+        assertThat(replayed.get(1).getDate()).isNull();
+        assertThat(positions.get(0)).isGreaterThan(first);
+
+        // New records go to a new segment, after the replayed ones
+        assertThat(reopened.append(log(Event.VIEW, 2L))).isGreaterThan(positions.get(1));
+        reopened.checkpoint(positions.get(1));
+        reopened.close();
+        List<Log> again = new ArrayList<>();
+        open(64).replay((record, position) -> again.add(record));
+        assertThat(again).hasSize(1);
+        assertThat(again.get(0).getIssue().getId()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testCheckpointDeletesConsumedSegments() throws IOException {
+        // Each record takes 8 bytes of frame and 14 bytes of payload, so two records fit in a segment
+        SegmentLog<Log> journal = open(48);
+        long last = 0L;
+        for (int i = 0; i < 5; i++) {
+            last = journal.append(log(Event.VIEW, (long) i));
+        }
+        assertThat(segments()).hasSize(3);
+
+        journal.checkpoint(last);
+
+        assertThat(segments()).hasSize(1);
+        journal.close();
+        assertThat(open(48).replay((record, position) -> { })).isZero();
+    }
+
+    @Test
+    public void testReplayStopsAtCorruptRecord() throws IOException {
+        SegmentLog<Log> journal = open(64);
+        journal.append(log(Event.VIEW, 1L));
+        journal.append(log(Event.VIEW, 2L));
+        journal.close();
+        try (RandomAccessFile segment = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            // Last byte of the issue id of the second record
+            segment.seek(2 * 22 - 1);
+            segment.write(42);
+        }
+
+        List<Log> replayed = new ArrayList<>();
+        open(64).replay((record, position) -> replayed.add(record));
+
+        assertThat(replayed).hasSize(1);
+        assertThat(replayed.get(0).getIssue().getId()).isEqualTo(1L);
+    }
+
+    private SegmentLog<Log> open(int segmentSize) throws IOException {
+        return new SegmentLog<>(directory, segmentSize, new LogRecordCodec());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".segment")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static Log log(Event evento, Long issueId) {
+        Log log = new Log().date(DATE).evento(evento);
+        if (issueId != null) {
+            Issue issue = new Issue();
+            issue.setId(issueId);
+            log.setIssue(issue);
+        }
+        return log;
+    }
+}
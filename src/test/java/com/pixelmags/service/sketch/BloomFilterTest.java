@@ -0,0 +1,53 @@
+package com.pixelmags.service.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testAddedItemsAreReported() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        assertThat(filter.put("event-0")).isTrue();
+        for (int i = 1; i < 10_000; i++) {
+            filter.put("event-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("event-" + i)).isTrue();
+        }
+        assertThat(filter.put("event-0")).isFalse();
+        assertThat(filter.getHashCount()).isEqualTo(7);
+    }
+
+    @Test
+    public void testFalsePositiveRateIsWithinSizing() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("event-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(1_500);
+        assertThat(filter.getFillRatio()).isBetween(0.4, 0.6);
+    }
+
+    @Test
+    public void testClear() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.put("event");
+
+        filter.clear();
+
+        assertThat(filter.mightContain("event")).isFalse();
+        assertThat(filter.getFillRatio()).isZero();
+        assertThatThrownBy(() -> new BloomFilter(100, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
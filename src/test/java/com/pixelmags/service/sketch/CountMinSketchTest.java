@@ -0,0 +1,53 @@
+package com.pixelmags.service.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void testEstimateIsAtLeastTheCount() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        for (long i = 0; i < 1_000; i++) {
+            sketch.add(i, i % 10 + 1);
+        }
+
+        assertThat(sketch.getTotal()).isEqualTo(5_500L);
+        long overestimated = 0;
+        for (long i = 0; i < 1_000; i++) {
+            long estimate = sketch.estimate(i);
+            assertThat(estimate).isGreaterThanOrEqualTo(i % 10 + 1);
+            // e / width of the total count
+            if (estimate - (i % 10 + 1) > Math.E / 256 * 5_500) {
+                overestimated++;
+            }
+        }
+        assertThat(overestimated).isLessThan(50L);
+        assertThat(new CountMinSketch(4, 256).estimate(1L)).isZero();
+    }
+
+    @Test
+    public void testAddAndSubtractSketches() {
+        CountMinSketch first = new CountMinSketch(4, 64);
+        CountMinSketch second = new CountMinSketch(4, 64);
+        first.add(1L, 3L);
+        second.add(1L, 2L);
+        second.add(2L, 5L);
+
+        first.add(second);
+        assertThat(first.estimate(1L)).isEqualTo(5L);
+        assertThat(first.estimate(2L)).isEqualTo(5L);
+        assertThat(first.getTotal()).isEqualTo(10L);
+
+        first.subtract(second);
+        assertThat(first.estimate(1L)).isEqualTo(3L);
+        assertThat(first.estimate(2L)).isZero();
+        assertThat(first.getTotal()).isEqualTo(3L);
+
+        first.clear();
+        assertThat(first.estimate(1L)).isZero();
+        assertThatThrownBy(() -> first.add(new CountMinSketch(4, 128))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
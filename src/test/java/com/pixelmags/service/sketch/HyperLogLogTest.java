@@ -0,0 +1,95 @@
+package com.pixelmags.service.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testEstimateIgnoresDuplicates() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 3; i++) {
+            sketch.add(1L);
+            sketch.add(2L);
+            sketch.add(3L);
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(3L);
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    public void testEstimateIsWithinError() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long i = 0; i < 100_000; i++) {
+            sketch.add(i);
+        }
+
+        // Three standard errors
+        assertThat((double) sketch.estimate()).isCloseTo(100_000, within(100_000 * 3 * HyperLogLog.standardError(14)));
+    }
+
+    @Test
+    public void testMergeEstimatesUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (long i = 0; i < 20_000; i++) {
+            first.add(i);
+            second.add(i + 10_000);
+            union.add(i);
+            union.add(i + 10_000);
+        }
+
+        assertThat(first.merge(second).estimate()).isEqualTo(union.estimate());
+        assertThatThrownBy(() -> first.merge(new HyperLogLog(10))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testSparseSketchBecomesDense() {
+        HyperLogLog sparse = new HyperLogLog();
+        HyperLogLog dense = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (long i = 0; i < 20_000; i++) {
+            if (i < 100) {
+                sparse.add(i);
+            }
+            dense.add(i + 10_000);
+            union.add(i + 10_000);
+        }
+        for (long i = 0; i < 100; i++) {
+            union.add(i);
+        }
+
+        assertThat(sparse.isSparse()).isTrue();
+        assertThat(sparse.estimate()).isCloseTo(100L, within(3L));
+        assertThat(dense.isSparse()).isFalse();
+        assertThat(new HyperLogLog().merge(sparse).merge(dense).estimate()).isEqualTo(union.estimate());
+        assertThat(dense.merge(sparse).estimate()).isEqualTo(union.estimate());
+    }
+
+    @Test
+    public void testBytesRoundTrip() {
+        HyperLogLog sparse = new HyperLogLog();
+        HyperLogLog dense = new HyperLogLog();
+        for (long i = 0; i < 50_000; i++) {
+            if (i < 100) {
+                sparse.add(i);
+            }
+            dense.add(i);
+        }
+
+        byte[] sparseBytes = sparse.toBytes();
+        byte[] denseBytes = dense.toBytes();
+
+        assertThat(sparseBytes.length).isLessThan(400);
+        assertThat(denseBytes.length).isEqualTo(2 + (1 << 14) * 6 / 8);
+        assertThat(HyperLogLog.fromBytes(sparseBytes).estimate()).isEqualTo(sparse.estimate());
+        assertThat(HyperLogLog.fromBytes(denseBytes).toBytes()).isEqualTo(denseBytes);
+        assertThat(HyperLogLog.fromBytes(denseBytes).estimate()).isEqualTo(dense.estimate());
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[]{9, 14})).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.pixelmags.service.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpaceSavingTest {
+
+    @Test
+    public void testKeepsFrequentItems() {
+        SpaceSaving summary = new SpaceSaving(10);
+        for (long i = 0; i < 10_000; i++) {
+            // Items 1 to 3 make up half of the stream
+            summary.offer(i % 2 == 0 ? i % 3 + 1 : 100 + i, 1L);
+        }
+
+        Set<Long> items = new HashSet<>();
+        summary.forEachItem(items::add);
+        assertThat(summary.size()).isEqualTo(10);
+        assertThat(items).contains(1L, 2L, 3L);
+        assertThat(summary.getCount(1L)).isGreaterThanOrEqualTo(1_666L);
+        assertThat(summary.getCount(99L)).isZero();
+    }
+
+    @Test
+    public void testMerge() {
+        SpaceSaving first = new SpaceSaving(2);
+        SpaceSaving second = new SpaceSaving(2);
+        first.offer(1L, 5L);
+        first.offer(2L, 1L);
+        second.offer(1L, 2L);
+        second.offer(3L, 4L);
+
+        first.merge(second);
+
+        assertThat(first.getCount(1L)).isEqualTo(7L);
+        // Item 3 takes over the counter of item 2
+        assertThat(first.getCount(3L)).isEqualTo(5L);
+        assertThat(first.getCount(2L)).isZero();
+
+        first.clear();
+        assertThat(first.size()).isZero();
+    }
+}
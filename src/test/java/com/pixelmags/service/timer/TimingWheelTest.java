@@ -0,0 +1,93 @@
+package com.pixelmags.service.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    private static final long TICK = 10L;
+
+    @Test
+    public void testFiresAtDeadlineRoundedUpToTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(START, TICK, 4, 2);
+        wheel.schedule(START + 25, "a");
+        wheel.schedule(START + 30, "b");
+
+        assertThat(wheel.advance(START + 29)).isEmpty();
+        assertThat(wheel.advance(START + 30)).containsExactly("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void testFiresPastDeadlinesOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(START, TICK, 4, 2);
+        wheel.advance(START + 100);
+        wheel.schedule(START, "late");
+        wheel.schedule(START + 200, "later");
+
+        assertThat(wheel.advance(START + 100)).containsExactly("late");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMovesItemsDownFromUpperWheels() {
+        // 4 ticks in the first wheel, 16 in the second and 64 in the third
+        TimingWheel<Integer> wheel = new TimingWheel<>(START, TICK, 4, 3);
+        wheel.advance(START + 3 * TICK);
+        for (int tick = 4; tick < 64; tick += 7) {
+            wheel.schedule(START + tick * TICK, tick);
+        }
+
+        List<Integer> fired = new ArrayList<>();
+        for (int tick = 4; tick < 64; tick++) {
+            int now = tick;
+            List<Integer> items = wheel.advance(START + now * TICK);
+            assertThat(items).allMatch(item -> item == now);
+            fired.addAll(items);
+        }
+
+        assertThat(fired).containsExactly(4, 11, 18, 25, 32, 39, 46, 53, 60);
+    }
+
+    @Test
+    public void testKeepsItemsBeyondLastWheelAside() {
+        // 16 ticks covered by the two wheels
+        TimingWheel<String> wheel = new TimingWheel<>(START, TICK, 4, 2);
+        wheel.schedule(START + 40 * TICK, "far");
+
+        assertThat(wheel.advance(START + 39 * TICK)).isEmpty();
+        assertThat(wheel.advance(START + 40 * TICK)).containsExactly("far");
+    }
+
+    @Test
+    public void testFiresRandomDeadlinesInOrder() {
+        TimingWheel<Long> wheel = new TimingWheel<>(START, TICK, 8, 3);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = START + random.nextInt(5_000 * (int) TICK);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        long fired = 0;
+        // Uneven steps, so that some advances cross several ticks
+        for (long now = START; now <= START + 5_000 * TICK; now += 1 + random.nextInt(3 * (int) TICK)) {
+            for (long deadline : wheel.advance(now)) {
+                assertThat(deadline).isLessThanOrEqualTo(now).isGreaterThan(now - 3 * TICK - TICK);
+                fired++;
+            }
+        }
+        fired += wheel.advance(START + 5_001 * TICK).size();
+
+        assertThat(fired).isEqualTo(deadlines.size());
+        assertThat(wheel.size()).isZero();
+    }
+}
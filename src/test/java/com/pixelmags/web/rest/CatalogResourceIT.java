@@ -0,0 +1,263 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.config.SqlStatementRecorder;
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.service.CatalogService;
+import com.pixelmags.service.IssueService;
+import com.pixelmags.service.MagazineService;
+import com.pixelmags.service.PublisherService;
+import com.pixelmags.service.TrendingService;
+import com.pixelmags.service.dto.IssueDTO;
+import com.pixelmags.service.dto.MagazineDTO;
+import com.pixelmags.service.dto.PublisherDTO;
+import com.pixelmags.service.mapper.IssueMapper;
+import com.pixelmags.service.mapper.MagazineMapper;
+import com.pixelmags.service.mapper.PublisherMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link CatalogResource} REST controller.
+ * <p>
+ * The catalog is only updated once writes commit, so the data is saved through the services without a test
+ * transaction, and deleted after each test.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+public class CatalogResourceIT {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PublisherService publisherService;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private MagazineService magazineService;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private PublisherMapper publisherMapper;
+
+    @Autowired
+    private IssueMapper issueMapper;
+
+    @Autowired
+    private MagazineMapper magazineMapper;
+
+    @Autowired
+    private MockMvc restCatalogMockMvc;
+
+    private PublisherDTO publisher;
+
+    private IssueDTO issue;
+
+    private IssueDTO latestIssue;
+
+    private IssueDTO unsoldIssue;
+
+    private List<MagazineDTO> magazines;
+
+    @BeforeEach
+    public void initTest() {
+        publisher = publisherService.save(publisherMapper.toDto(PublisherResourceIT.createEntity(em)));
+        issue = issueService.save(issueMapper.toDto(IssueResourceIT.createEntity(em)));
+        latestIssue = issueService.save(issueMapper.toDto(IssueResourceIT.createUpdatedEntity(em)));
+        unsoldIssue = issueService.save(issueMapper.toDto(IssueResourceIT.createEntity(em)));
+        magazines = new ArrayList<>();
+        magazines.add(saveMagazine(magazineMapper.toDto(MagazineResourceIT.createEntity(em)), issue));
+        magazines.add(saveMagazine(magazineMapper.toDto(MagazineResourceIT.createUpdatedEntity(em)), latestIssue));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        Collections.reverse(magazines);
+        magazines.forEach(magazine -> magazineService.delete(magazine.getId()));
+        issueService.delete(issue.getId());
+        issueService.delete(latestIssue.getId());
+        issueService.delete(unsoldIssue.getId());
+        publisherService.delete(publisher.getId());
+    }
+
+    private MagazineDTO saveMagazine(MagazineDTO magazine, IssueDTO soldIssue) {
+        magazine.setIssueId(soldIssue.getId());
+        magazine.setPublisherId(publisher.getId());
+        return magazineService.save(magazine);
+    }
+
+    @Test
+    public void getCatalog() throws Exception {
+        restCatalogMockMvc.perform(get("/api/catalog"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "2"))
+            // The latest releases first, and only the issues sold through a magazine
+            .andExpect(jsonPath("$.[0].id").value(latestIssue.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(issue.getId().intValue()))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(unsoldIssue.getId().intValue()))))
+            .andExpect(jsonPath("$.[1].edicao").value(issue.getEdicao()))
+            .andExpect(jsonPath("$.[1].manchete").value(issue.getManchete()))
+            .andExpect(jsonPath("$.[1].dataLancamento").value(issue.getDataLancamento().toString()))
+            .andExpect(jsonPath("$.[1].publisherNome").value(publisher.getNome()))
+            .andExpect(jsonPath("$.[1].preco").value(1))
+            .andExpect(jsonPath("$.[1].coverUrl").value(issue.getCoverUrl()))
+            .andExpect(jsonPath("$.[1].descricao").doesNotExist());
+    }
+
+    @Test
+    public void getCatalogIsServedFromMemory() throws Exception {
+        catalogService.getSnapshot();
+
+        SqlStatementRecorder.start();
+        try {
+            restCatalogMockMvc.perform(get("/api/catalog"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"));
+        } finally {
+            assertThat(SqlStatementRecorder.stop()).isEmpty();
+        }
+    }
+
+    @Test
+    public void getCatalogNotModified() throws Exception {
+        String eTag = restCatalogMockMvc.perform(get("/api/catalog"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        SqlStatementRecorder.start();
+        try {
+            restCatalogMockMvc.perform(get("/api/catalog").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        } finally {
+            assertThat(SqlStatementRecorder.stop()).isEmpty();
+        }
+
+        MagazineDTO magazine = magazines.get(0);
+        magazine.setPreco(new BigDecimal(3));
+        magazineService.save(magazine);
+
+        restCatalogMockMvc.perform(get("/api/catalog").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    public void getCatalogAfterWrites() throws Exception {
+        long version = catalogService.getVersion();
+
+        MagazineDTO magazine = magazines.get(0);
+        magazine.setPreco(new BigDecimal(3));
+        magazineService.save(magazine);
+        magazines.add(saveMagazine(magazineMapper.toDto(MagazineResourceIT.createEntity(em)), unsoldIssue));
+
+        assertThat(catalogService.getVersion()).isEqualTo(version + 2);
+        restCatalogMockMvc.perform(get("/api/catalog?sort=id,asc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$.[0].id").value(issue.getId().intValue()))
+            .andExpect(jsonPath("$.[0].preco").value(3))
+            .andExpect(jsonPath("$.[2].id").value(unsoldIssue.getId().intValue()));
+
+        magazineService.delete(magazines.remove(2).getId());
+
+        assertThat(catalogService.getVersion()).isEqualTo(version + 3);
+        restCatalogMockMvc.perform(get("/api/catalog"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"));
+    }
+
+    @Test
+    public void getCatalogPageSortedByReleaseDate() throws Exception {
+        restCatalogMockMvc.perform(get("/api/catalog?sort=dataLancamento,asc&page=0&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(issue.getId().intValue()));
+
+        restCatalogMockMvc.perform(get("/api/catalog?sort=dataLancamento,asc&page=1&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(latestIssue.getId().intValue()));
+    }
+
+    @Test
+    public void getCatalogWithInvalidSort() throws Exception {
+        restCatalogMockMvc.perform(get("/api/catalog?sort=descricao,asc"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getTrending() throws Exception {
+        trendingService.onLogsSaved(views(latestIssue, 1));
+        trendingService.onLogsSaved(views(issue, 3));
+        trendingService.onLogsSaved(views(unsoldIssue, 5));
+        trendingService.refresh();
+
+        restCatalogMockMvc.perform(get("/api/catalog/trending?window=1h&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].issue.id").value(issue.getId().intValue()))
+            .andExpect(jsonPath("$.[0].issue.publisherNome").value(publisher.getNome()))
+            .andExpect(jsonPath("$.[0].count").value(3))
+            .andExpect(jsonPath("$.[1].issue.id").value(latestIssue.getId().intValue()));
+        restCatalogMockMvc.perform(get("/api/catalog/trending"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].issue.id").value(hasItem(issue.getId().intValue())))
+            .andExpect(jsonPath("$.[*].issue.id").value(not(hasItem(unsoldIssue.getId().intValue()))));
+    }
+
+    @Test
+    public void getTrendingWithInvalidParameters() throws Exception {
+        restCatalogMockMvc.perform(get("/api/catalog/trending?window=7d"))
+            .andExpect(status().isBadRequest());
+        restCatalogMockMvc.perform(get("/api/catalog/trending?size=" + (TrendingService.MAX_SIZE + 1)))
+            .andExpect(status().isBadRequest());
+    }
+
+    private static List<Log> views(IssueDTO issueDTO, int count) {
+        Issue viewed = new Issue();
+        viewed.setId(issueDTO.getId());
+        List<Log> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logs.add(new Log().date(LocalDate.now()).evento(Event.VIEW).issue(viewed));
+        }
+        return logs;
+    }
+}
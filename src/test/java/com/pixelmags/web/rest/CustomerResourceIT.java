@@ -7,6 +7,7 @@ import com.pixelmags.repository.search.CustomerSearchRepository;
 import com.pixelmags.service.CustomerService;
 import com.pixelmags.service.dto.CustomerDTO;
 import com.pixelmags.service.mapper.CustomerMapper;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -26,7 +28,9 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -160,15 +164,87 @@ public class CustomerResourceIT {
         // Initialize the database
         customerRepository.saveAndFlush(customer);
 
-        // Get all the customerList
-        restCustomerMockMvc.perform(get("/api/customers?sort=id,desc"))
+        // Get the first page of the customerList, which is never returned whole
+        restCustomerMockMvc.perform(get("/api/customers?after={after}", customer.getId() - 1))
             .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK,
+                containsString("limit=" + KeysetPaginationUtil.DEFAULT_LIMIT + ">; rel=\"first\"")))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(customer.getId().intValue())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
             .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)))
             .andExpect(jsonPath("$.[*].fcm").value(hasItem(DEFAULT_FCM)));
     }
+
+    @Test
+    @Transactional
+    public void getAllCustomersByKeyset() throws Exception {
+        // Initialize the database
+        customerRepository.saveAndFlush(customer);
+        Customer nextCustomer = createUpdatedEntity(em);
+        customerRepository.saveAndFlush(nextCustomer);
+
+        // Get the first page, which links to the next one
+        restCustomerMockMvc.perform(get("/api/customers?after={after}&limit=1", customer.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(customer.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + customer.getId() + "&limit=1>; rel=\"next\"")));
+
+        // Get the last page
+        restCustomerMockMvc.perform(get("/api/customers?after={after}&limit=1", customer.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nextCustomer.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllCustomersByEmailIsEqualToSomething() throws Exception {
+        // Initialize the database
+        customerRepository.saveAndFlush(customer);
+
+        // Get all the customerList where email equals to DEFAULT_EMAIL
+        defaultCustomerShouldBeFound("email.equals=" + DEFAULT_EMAIL);
+
+        // Get all the customerList where email equals to UPDATED_EMAIL
+        defaultCustomerShouldNotBeFound("email.equals=" + UPDATED_EMAIL);
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultCustomerShouldBeFound(String filter) throws Exception {
+        restCustomerMockMvc.perform(get("/api/customers?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(customer.getId().intValue())))
+            .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)));
+
+        // Check, that the count call also returns 1
+        restCustomerMockMvc.perform(get("/api/customers/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultCustomerShouldNotBeFound(String filter) throws Exception {
+        restCustomerMockMvc.perform(get("/api/customers?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restCustomerMockMvc.perform(get("/api/customers/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
     
     @Test
     @Transactional
@@ -1,12 +1,14 @@
 package com.pixelmags.web.rest;
 
 import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.Customer;
 import com.pixelmags.domain.Device;
 import com.pixelmags.repository.DeviceRepository;
 import com.pixelmags.repository.search.DeviceSearchRepository;
 import com.pixelmags.service.DeviceService;
 import com.pixelmags.service.dto.DeviceDTO;
 import com.pixelmags.service.mapper.DeviceMapper;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -26,7 +29,9 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -160,15 +165,93 @@ public class DeviceResourceIT {
         // Initialize the database
         deviceRepository.saveAndFlush(device);
 
-        // Get all the deviceList
-        restDeviceMockMvc.perform(get("/api/devices?sort=id,desc"))
+        // Get the first page of the deviceList, which is never returned whole
+        restDeviceMockMvc.perform(get("/api/devices?after={after}", device.getId() - 1))
             .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK,
+                containsString("limit=" + KeysetPaginationUtil.DEFAULT_LIMIT + ">; rel=\"first\"")))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(device.getId().intValue())))
             .andExpect(jsonPath("$.[*].fabricante").value(hasItem(DEFAULT_FABRICANTE)))
             .andExpect(jsonPath("$.[*].modelo").value(hasItem(DEFAULT_MODELO)))
             .andExpect(jsonPath("$.[*].os").value(hasItem(DEFAULT_OS)));
     }
+
+    @Test
+    @Transactional
+    public void getAllDevicesByKeyset() throws Exception {
+        // Initialize the database
+        deviceRepository.saveAndFlush(device);
+        Device nextDevice = createUpdatedEntity(em);
+        deviceRepository.saveAndFlush(nextDevice);
+
+        // Get the first page, which links to the next one
+        restDeviceMockMvc.perform(get("/api/devices?after={after}&limit=1", device.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(device.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + device.getId() + "&limit=1>; rel=\"next\"")));
+
+        // Get the last page
+        restDeviceMockMvc.perform(get("/api/devices?after={after}&limit=1", device.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nextDevice.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllDevicesByCustomerIsEqualToSomething() throws Exception {
+        // Initialize the database
+        deviceRepository.saveAndFlush(device);
+        Customer customer = CustomerResourceIT.createEntity(em);
+        em.persist(customer);
+        em.flush();
+        device.setCustomer(customer);
+        deviceRepository.saveAndFlush(device);
+        Long customerId = customer.getId();
+
+        // Get all the deviceList where customer equals to customerId
+        defaultDeviceShouldBeFound("customerId.equals=" + customerId);
+
+        // Get all the deviceList where customer equals to customerId + 1
+        defaultDeviceShouldNotBeFound("customerId.equals=" + (customerId + 1));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultDeviceShouldBeFound(String filter) throws Exception {
+        restDeviceMockMvc.perform(get("/api/devices?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(device.getId().intValue())))
+            .andExpect(jsonPath("$.[*].modelo").value(hasItem(DEFAULT_MODELO)));
+
+        // Check, that the count call also returns 1
+        restDeviceMockMvc.perform(get("/api/devices/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultDeviceShouldNotBeFound(String filter) throws Exception {
+        restDeviceMockMvc.perform(get("/api/devices?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restDeviceMockMvc.perform(get("/api/devices/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
     
     @Test
     @Transactional
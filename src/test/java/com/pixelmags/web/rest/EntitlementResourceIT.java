@@ -0,0 +1,215 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.enumeration.PurchaseType;
+import com.pixelmags.domain.enumeration.SubscriptionPeriod;
+import com.pixelmags.service.CustomerService;
+import com.pixelmags.service.IssueService;
+import com.pixelmags.service.MagazineService;
+import com.pixelmags.service.PurchaseService;
+import com.pixelmags.service.SubscriptionPlanService;
+import com.pixelmags.service.dto.CustomerDTO;
+import com.pixelmags.service.dto.IssueDTO;
+import com.pixelmags.service.dto.MagazineDTO;
+import com.pixelmags.service.dto.PurchaseDTO;
+import com.pixelmags.service.dto.SubscriptionPlanDTO;
+import com.pixelmags.service.mapper.CustomerMapper;
+import com.pixelmags.service.mapper.IssueMapper;
+import com.pixelmags.service.mapper.MagazineMapper;
+import com.pixelmags.service.mapper.SubscriptionPlanMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link EntitlementResource} REST controller.
+ * <p>
+ * Entitlements are only dropped once their transaction commits, so the data is saved through the services without a
+ * test transaction, and deleted after each test.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+public class EntitlementResourceIT {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private MagazineService magazineService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private SubscriptionPlanService subscriptionPlanService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private IssueMapper issueMapper;
+
+    @Autowired
+    private MagazineMapper magazineMapper;
+
+    @Autowired
+    private SubscriptionPlanMapper subscriptionPlanMapper;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    @Autowired
+    private MockMvc restEntitlementMockMvc;
+
+    private IssueDTO issue;
+
+    private PurchaseDTO purchase;
+
+    private MagazineDTO magazine;
+
+    private CustomerDTO customer;
+
+    private SubscriptionPlanDTO subscriptionPlan;
+
+    @BeforeEach
+    public void initTest() {
+        issue = issueService.save(issueMapper.toDto(IssueResourceIT.createEntity(em)));
+        PurchaseDTO purchaseDTO = new PurchaseDTO();
+        purchaseDTO.setDate(LocalDate.now());
+        purchaseDTO.setTipo(PurchaseType.SINGLE_ISSUE);
+        purchase = purchaseService.save(purchaseDTO);
+        MagazineDTO magazineDTO = magazineMapper.toDto(MagazineResourceIT.createEntity(em));
+        magazineDTO.setIssueId(issue.getId());
+        magazineDTO.setPurchaseId(purchase.getId());
+        magazine = magazineService.save(magazineDTO);
+        CustomerDTO customerDTO = customerMapper.toDto(CustomerResourceIT.createEntity(em));
+        customerDTO.setPurchasesId(purchase.getId());
+        customer = customerService.save(customerDTO);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        customerService.delete(customer.getId());
+        magazineService.delete(magazine.getId());
+        purchaseService.delete(purchase.getId());
+        if (subscriptionPlan != null) {
+            subscriptionPlanService.delete(subscriptionPlan.getId());
+        }
+        issueService.delete(issue.getId());
+    }
+
+    private void subscribe(LocalDate date, SubscriptionPeriod periodo) {
+        SubscriptionPlanDTO subscriptionPlanDTO = subscriptionPlanMapper.toDto(SubscriptionPlanResourceIT.createEntity(em));
+        subscriptionPlanDTO.setPeriodo(periodo);
+        subscriptionPlan = subscriptionPlanService.save(subscriptionPlanDTO);
+        purchase.setTipo(PurchaseType.SUBSCRIPTION);
+        purchase.setDate(date);
+        purchase.setSubscriptionId(subscriptionPlan.getId());
+        purchase = purchaseService.save(purchase);
+    }
+
+    @Test
+    public void getSingleIssueEntitlement() throws Exception {
+        restEntitlementMockMvc.perform(get("/api/entitlements/{customerId}/issues/{issueId}", customer.getId(), issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.customerId").value(customer.getId().intValue()))
+            .andExpect(jsonPath("$.issueId").value(issue.getId().intValue()))
+            .andExpect(jsonPath("$.granted").value(true))
+            .andExpect(jsonPath("$.tipo").value(PurchaseType.SINGLE_ISSUE.toString()))
+            .andExpect(jsonPath("$.validUntil").doesNotExist());
+    }
+
+    @Test
+    public void getEntitlementToOtherIssue() throws Exception {
+        restEntitlementMockMvc.perform(get("/api/entitlements/{customerId}/issues/{issueId}", customer.getId(), Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.granted").value(false))
+            .andExpect(jsonPath("$.tipo").doesNotExist());
+    }
+
+    @Test
+    public void getEntitlementOfNonExistingCustomer() throws Exception {
+        restEntitlementMockMvc.perform(get("/api/entitlements/{customerId}/issues/{issueId}", Long.MAX_VALUE, issue.getId()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void getSubscriptionEntitlement() throws Exception {
+        // Checked first so that the entitlements of the single issue are kept in memory
+        getSingleIssueEntitlement();
+        LocalDate today = LocalDate.now();
+        subscribe(today, SubscriptionPeriod.MENSAL);
+
+        restEntitlementMockMvc.perform(get("/api/entitlements/{customerId}/issues/{issueId}", customer.getId(), issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.granted").value(true))
+            .andExpect(jsonPath("$.tipo").value(PurchaseType.SUBSCRIPTION.toString()))
+            .andExpect(jsonPath("$.validUntil").value(today.plusMonths(1).minusDays(1).toString()));
+    }
+
+    @Test
+    public void getExpiredSubscriptionEntitlement() throws Exception {
+        subscribe(LocalDate.now().minusDays(7), SubscriptionPeriod.SEMANAL);
+
+        restEntitlementMockMvc.perform(get("/api/entitlements/{customerId}/issues/{issueId}", customer.getId(), issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.granted").value(false));
+    }
+
+    @Test
+    public void getEntitlementAfterSubscriptionPlanChange() throws Exception {
+        subscribe(LocalDate.now().minusDays(7), SubscriptionPeriod.SEMANAL);
+        restEntitlementMockMvc.perform(get("/api/entitlements/{customerId}/issues/{issueId}", customer.getId(), issue.getId()))
+            .andExpect(jsonPath("$.granted").value(false));
+
+        subscriptionPlan.setPeriodo(SubscriptionPeriod.QUINZENAL);
+        subscriptionPlanService.save(subscriptionPlan);
+
+        restEntitlementMockMvc.perform(get("/api/entitlements/{customerId}/issues/{issueId}", customer.getId(), issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.granted").value(true))
+            .andExpect(jsonPath("$.validUntil").value(LocalDate.now().plusDays(7).toString()));
+    }
+
+    @Test
+    public void getEntitlementAfterMagazineChange() throws Exception {
+        getSingleIssueEntitlement();
+
+        magazine.setPurchaseId(null);
+        magazine = magazineService.save(magazine);
+
+        restEntitlementMockMvc.perform(get("/api/entitlements/{customerId}/issues/{issueId}", customer.getId(), issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.granted").value(false));
+    }
+
+    @Test
+    public void getEntitlementAfterCustomerChange() throws Exception {
+        getSingleIssueEntitlement();
+
+        customer.setPurchasesId(null);
+        customer = customerService.save(customer);
+
+        restEntitlementMockMvc.perform(get("/api/entitlements/{customerId}/issues/{issueId}", customer.getId(), issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.granted").value(false));
+    }
+}
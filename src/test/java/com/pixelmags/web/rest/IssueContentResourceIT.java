@@ -0,0 +1,350 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.enumeration.PurchaseType;
+import com.pixelmags.domain.enumeration.SubscriptionPeriod;
+import com.pixelmags.repository.CustomerRepository;
+import com.pixelmags.repository.PurchaseRepository;
+import com.pixelmags.security.AuthoritiesConstants;
+import com.pixelmags.service.CustomerService;
+import com.pixelmags.service.IssueService;
+import com.pixelmags.service.MagazineService;
+import com.pixelmags.service.PurchaseService;
+import com.pixelmags.service.SubscriptionPlanService;
+import com.pixelmags.service.blob.IssueContentStore;
+import com.pixelmags.service.dto.CustomerDTO;
+import com.pixelmags.service.dto.IssueDTO;
+import com.pixelmags.service.dto.MagazineDTO;
+import com.pixelmags.service.dto.PurchaseDTO;
+import com.pixelmags.service.dto.SubscriptionPlanDTO;
+import com.pixelmags.service.mapper.CustomerMapper;
+import com.pixelmags.service.mapper.IssueMapper;
+import com.pixelmags.service.mapper.MagazineMapper;
+import com.pixelmags.service.mapper.SubscriptionPlanMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link IssueContentResource} REST controller.
+ * <p>
+ * Entitlements are only rebuilt once their transaction commits, so the purchases of the issue are saved through the
+ * services without a test transaction, and deleted after each test.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+public class IssueContentResourceIT {
+
+    private static final byte[] PAGE = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] BUNDLE = "PK bundle".getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private IssueContentStore issueContentStore;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private MagazineService magazineService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private SubscriptionPlanService subscriptionPlanService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private IssueMapper issueMapper;
+
+    @Autowired
+    private MagazineMapper magazineMapper;
+
+    @Autowired
+    private SubscriptionPlanMapper subscriptionPlanMapper;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc restIssueContentMockMvc;
+
+    private Issue issue;
+
+    private IssueDTO savedIssue;
+
+    private PurchaseDTO purchase;
+
+    private MagazineDTO magazine;
+
+    private CustomerDTO customer;
+
+    private SubscriptionPlanDTO subscriptionPlan;
+
+    @BeforeEach
+    public void initTest() {
+        issue = IssueResourceIT.createEntity(em);
+    }
+
+    private void persistIssue() {
+        em.persist(issue);
+        em.flush();
+        // Content of an issue with the same id left over by a previous run
+        issueContentStore.delete(issue.getId());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        if (customer != null) {
+            customerService.delete(customer.getId());
+        }
+        if (magazine != null) {
+            magazineService.delete(magazine.getId());
+        }
+        if (purchase != null) {
+            purchaseService.delete(purchase.getId());
+        }
+        if (subscriptionPlan != null) {
+            subscriptionPlanService.delete(subscriptionPlan.getId());
+        }
+        if (savedIssue != null) {
+            issueContentStore.delete(savedIssue.getId());
+            issueService.delete(savedIssue.getId());
+        }
+    }
+
+    private void saveIssuePage() {
+        savedIssue = issueService.save(issueMapper.toDto(issue));
+        issueContentStore.delete(savedIssue.getId());
+        issueContentStore.putPage(savedIssue.getId(), 1, MediaType.IMAGE_JPEG_VALUE, new ByteArrayInputStream(PAGE));
+    }
+
+    private void purchaseIssue(String email, PurchaseType tipo, LocalDate date) {
+        PurchaseDTO purchaseDTO = new PurchaseDTO();
+        purchaseDTO.setDate(date);
+        purchaseDTO.setTipo(tipo);
+        if (tipo == PurchaseType.SUBSCRIPTION) {
+            SubscriptionPlanDTO subscriptionPlanDTO = subscriptionPlanMapper.toDto(SubscriptionPlanResourceIT.createEntity(em));
+            subscriptionPlanDTO.setPeriodo(SubscriptionPeriod.SEMANAL);
+            subscriptionPlan = subscriptionPlanService.save(subscriptionPlanDTO);
+            purchaseDTO.setSubscriptionId(subscriptionPlan.getId());
+        }
+        purchase = purchaseService.save(purchaseDTO);
+        MagazineDTO magazineDTO = magazineMapper.toDto(MagazineResourceIT.createEntity(em));
+        magazineDTO.setIssueId(savedIssue.getId());
+        magazineDTO.setPurchaseId(purchase.getId());
+        magazine = magazineService.save(magazineDTO);
+        CustomerDTO customerDTO = customerMapper.toDto(CustomerResourceIT.createEntity(em).email(email));
+        customerDTO.setPurchasesId(purchase.getId());
+        customer = customerService.save(customerDTO);
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void updateAndGetIssuePage() throws Exception {
+        persistIssue();
+
+        restIssueContentMockMvc.perform(put("/api/issues/{id}/pages/{page}", issue.getId(), 1).with(csrf())
+            .contentType(MediaType.IMAGE_PNG)
+            .content(PAGE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.page").value(1))
+            .andExpect(jsonPath("$.contentType").value(MediaType.IMAGE_PNG_VALUE))
+            .andExpect(jsonPath("$.contentLength").value(PAGE.length));
+
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/pages/{page}", issue.getId(), 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.IMAGE_PNG))
+            .andExpect(content().bytes(PAGE))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void resumeIssueBundleDownload() throws Exception {
+        persistIssue();
+        issueContentStore.putBundle(issue.getId(), new ByteArrayInputStream(BUNDLE));
+
+        MvcResult result = restIssueContentMockMvc.perform(get("/api/issues/{id}/bundle", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(IssueContentStore.BUNDLE_CONTENT_TYPE))
+            .andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Resume with a current validator
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/bundle", issue.getId())
+            .header(HttpHeaders.RANGE, "bytes=3-")
+            .header(HttpHeaders.IF_RANGE, eTag))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 3-8/9"))
+            .andExpect(content().bytes("bundle".getBytes(StandardCharsets.US_ASCII)));
+
+        // Resume with a stale validator gets the whole bundle again
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/bundle", issue.getId())
+            .header(HttpHeaders.RANGE, "bytes=3-")
+            .header(HttpHeaders.IF_RANGE, "\"stale\""))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(BUNDLE));
+
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/bundle", issue.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void getIssuePageOfPurchasedIssue() throws Exception {
+        saveIssuePage();
+        purchaseIssue("user@localhost", PurchaseType.SINGLE_ISSUE, LocalDate.now());
+
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/pages/{page}", savedIssue.getId(), 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+            .andExpect(content().bytes(PAGE));
+    }
+
+    @Test
+    public void getIssuePageOfIssueNotPurchased() throws Exception {
+        saveIssuePage();
+        purchaseIssue("someone-else@localhost", PurchaseType.SINGLE_ISSUE, LocalDate.now());
+
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/pages/{page}", savedIssue.getId(), 1))
+            .andExpect(status().isForbidden());
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/bundle", savedIssue.getId()))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void getIssuePageOfIssuePurchasedThroughAnotherInstance() throws Exception {
+        saveIssuePage();
+        customer = customerService.save(customerMapper.toDto(CustomerResourceIT.createEntity(em).email("user@localhost")));
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/pages/{page}", savedIssue.getId(), 1))
+            .andExpect(status().isForbidden());
+
+        PurchaseDTO purchaseDTO = new PurchaseDTO();
+        purchaseDTO.setDate(LocalDate.now());
+        purchaseDTO.setTipo(PurchaseType.SINGLE_ISSUE);
+        purchase = purchaseService.save(purchaseDTO);
+        MagazineDTO magazineDTO = magazineMapper.toDto(MagazineResourceIT.createEntity(em));
+        magazineDTO.setIssueId(savedIssue.getId());
+        magazineDTO.setPurchaseId(purchase.getId());
+        magazine = magazineService.save(magazineDTO);
+        // The customer is linked to the purchase through the repository only, as another instance would
+        new TransactionTemplate(transactionManager).execute(status -> {
+            customerRepository.findById(customer.getId())
+                .ifPresent(saved -> saved.setPurchases(purchaseRepository.getOne(purchase.getId())));
+            return null;
+        });
+
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/pages/{page}", savedIssue.getId(), 1))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(PAGE));
+    }
+
+    @Test
+    public void getIssuePageOfExpiredSubscription() throws Exception {
+        saveIssuePage();
+        purchaseIssue("user@localhost", PurchaseType.SUBSCRIPTION, LocalDate.now().minusDays(7));
+
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/pages/{page}", savedIssue.getId(), 1))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void getNonExistingIssuePage() throws Exception {
+        persistIssue();
+
+        restIssueContentMockMvc.perform(get("/api/issues/{id}/pages/{page}", issue.getId(), 1))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void updateIssuePageOutOfIssue() throws Exception {
+        persistIssue();
+
+        restIssueContentMockMvc.perform(put("/api/issues/{id}/pages/{page}", issue.getId(), issue.getNumeroPaginas() + 1).with(csrf())
+            .contentType(MediaType.IMAGE_PNG)
+            .content(PAGE))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void updateIssuePageAsUser() throws Exception {
+        persistIssue();
+
+        restIssueContentMockMvc.perform(put("/api/issues/{id}/pages/{page}", issue.getId(), 1).with(csrf())
+            .contentType(MediaType.IMAGE_PNG)
+            .content(PAGE))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void deleteIssueDeletesItsContentOnCommit() {
+        saveIssuePage();
+        Long id = savedIssue.getId();
+
+        issueService.delete(id);
+        savedIssue = null;
+
+        assertThat(issueContentStore.findPage(id, 1)).isEmpty();
+    }
+
+    @Test
+    public void deleteIssueKeepsItsContentOnRollback() {
+        saveIssuePage();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            issueService.delete(savedIssue.getId());
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(issueContentStore.findPage(savedIssue.getId(), 1)).isPresent();
+    }
+}
@@ -1,12 +1,21 @@
 package com.pixelmags.web.rest;
 
 import com.pixelmags.PixelmagsApp;
+import com.pixelmags.config.SqlStatementRecorder;
 import com.pixelmags.domain.Issue;
+import com.pixelmags.domain.Magazine;
 import com.pixelmags.repository.IssueRepository;
 import com.pixelmags.repository.search.IssueSearchRepository;
+import com.pixelmags.service.CoverDerivationService;
+import com.pixelmags.service.CoverDerivationServiceIT;
 import com.pixelmags.service.IssueService;
+import com.pixelmags.service.blob.BlobStore;
 import com.pixelmags.service.dto.IssueDTO;
 import com.pixelmags.service.mapper.IssueMapper;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
+import com.pixelmags.web.rest.util.MultiGetUtil;
+
+import com.jayway.jsonpath.JsonPath;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,20 +25,28 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.Base64Utils;
 import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -52,6 +69,7 @@ public class IssueResourceIT {
 
     private static final LocalDate DEFAULT_DATA_LANCAMENTO = LocalDate.ofEpochDay(0L);
     private static final LocalDate UPDATED_DATA_LANCAMENTO = LocalDate.now(ZoneId.systemDefault());
+    private static final LocalDate SMALLER_DATA_LANCAMENTO = LocalDate.ofEpochDay(-1L);
 
     private static final String DEFAULT_DESCRICAO = "AAAAAAAAAA";
     private static final String UPDATED_DESCRICAO = "BBBBBBBBBB";
@@ -66,6 +84,11 @@ public class IssueResourceIT {
     private static final byte[] UPDATED_COVER_THUMBNAIL = TestUtil.createByteArray(1, "1");
     private static final String DEFAULT_COVER_THUMBNAIL_CONTENT_TYPE = "image/jpg";
     private static final String UPDATED_COVER_THUMBNAIL_CONTENT_TYPE = "image/png";
+    private static final String DEFAULT_COVER_HASH = "6e340b9cffb37a989ca544e6bb780a2c78901d3fb33738768511a30617afa01d";
+    private static final Instant DEFAULT_COVER_LAST_MODIFIED = Instant.parse("2020-05-22T17:17:51Z");
+    private static final String UPDATED_COVER_HASH = "4bf5122f344554c53bde2ebb8cd2b7e3d1600ad631c385a5d7cce23c7785459a";
+
+    private static final Pattern COVER_BYTES_COLUMN = Pattern.compile("\\bcover_thumbnail\\b", Pattern.CASE_INSENSITIVE);
 
     @Autowired
     private IssueRepository issueRepository;
@@ -84,6 +107,12 @@ public class IssueResourceIT {
     @Autowired
     private IssueSearchRepository mockIssueSearchRepository;
 
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private CoverDerivationService coverDerivationService;
+
     @Autowired
     private EntityManager em;
 
@@ -106,8 +135,9 @@ public class IssueResourceIT {
             .descricao(DEFAULT_DESCRICAO)
             .numeroPaginas(DEFAULT_NUMERO_PAGINAS)
             .url(DEFAULT_URL)
-            .coverThumbnail(DEFAULT_COVER_THUMBNAIL)
-            .coverThumbnailContentType(DEFAULT_COVER_THUMBNAIL_CONTENT_TYPE);
+            .coverThumbnailContentType(DEFAULT_COVER_THUMBNAIL_CONTENT_TYPE)
+            .coverHash(DEFAULT_COVER_HASH)
+            .coverLastModified(DEFAULT_COVER_LAST_MODIFIED);
         return issue;
     }
     /**
@@ -124,8 +154,9 @@ public class IssueResourceIT {
             .descricao(UPDATED_DESCRICAO)
             .numeroPaginas(UPDATED_NUMERO_PAGINAS)
             .url(UPDATED_URL)
-            .coverThumbnail(UPDATED_COVER_THUMBNAIL)
-            .coverThumbnailContentType(UPDATED_COVER_THUMBNAIL_CONTENT_TYPE);
+            .coverThumbnailContentType(UPDATED_COVER_THUMBNAIL_CONTENT_TYPE)
+            .coverHash(UPDATED_COVER_HASH)
+            .coverLastModified(DEFAULT_COVER_LAST_MODIFIED);
         return issue;
     }
 
@@ -140,10 +171,13 @@ public class IssueResourceIT {
         int databaseSizeBeforeCreate = issueRepository.findAll().size();
         // Create the Issue
         IssueDTO issueDTO = issueMapper.toDto(issue);
+        issueDTO.setCoverThumbnail(DEFAULT_COVER_THUMBNAIL);
         restIssueMockMvc.perform(post("/api/issues").with(csrf())
             .contentType(MediaType.APPLICATION_JSON)
             .content(TestUtil.convertObjectToJsonBytes(issueDTO)))
-            .andExpect(status().isCreated());
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.coverHash").value(DEFAULT_COVER_HASH))
+            .andExpect(jsonPath("$.coverThumbnail").doesNotExist());
 
         // Validate the Issue in the database
         List<Issue> issueList = issueRepository.findAll();
@@ -155,13 +189,68 @@ public class IssueResourceIT {
         assertThat(testIssue.getDescricao()).isEqualTo(DEFAULT_DESCRICAO);
         assertThat(testIssue.getNumeroPaginas()).isEqualTo(DEFAULT_NUMERO_PAGINAS);
         assertThat(testIssue.getUrl()).isEqualTo(DEFAULT_URL);
-        assertThat(testIssue.getCoverThumbnail()).isEqualTo(DEFAULT_COVER_THUMBNAIL);
         assertThat(testIssue.getCoverThumbnailContentType()).isEqualTo(DEFAULT_COVER_THUMBNAIL_CONTENT_TYPE);
+        assertThat(testIssue.getCoverHash()).isEqualTo(DEFAULT_COVER_HASH);
+        assertThat(blobStore.exists(DEFAULT_COVER_HASH)).isTrue();
+        assertThat(testIssue.getCoverLastModified()).isNotNull();
 
         // Validate the Issue in Elasticsearch
         verify(mockIssueSearchRepository, times(1)).save(testIssue);
     }
 
+    @Test
+    public void saveIssuesInBulk() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        Long createdId = null;
+        try {
+            IssueDTO updatedIssueDTO = issueMapper.toDto(issue);
+            updatedIssueDTO.setManchete(UPDATED_MANCHETE);
+            IssueDTO missingIssueDTO = issueMapper.toDto(createEntity(em));
+            missingIssueDTO.setId(Long.MAX_VALUE);
+            List<IssueDTO> issueDTOs = Arrays.asList(issueMapper.toDto(createUpdatedEntity(em)), updatedIssueDTO, missingIssueDTO);
+
+            String response = restIssueMockMvc.perform(post("/api/issues/bulk").with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(issueDTOs)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$.[0].index").value(0))
+                .andExpect(jsonPath("$.[0].status").value(201))
+                .andExpect(jsonPath("$.[0].entity.edicao").value(UPDATED_EDICAO))
+                .andExpect(jsonPath("$.[1].status").value(200))
+                .andExpect(jsonPath("$.[1].entity.manchete").value(UPDATED_MANCHETE))
+                .andExpect(jsonPath("$.[2].index").value(2))
+                .andExpect(jsonPath("$.[2].status").value(404))
+                .andExpect(jsonPath("$.[2].entity").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+            createdId = ((Number) JsonPath.read(response, "$.[0].entity.id")).longValue();
+
+            // Validate the Issues in the database, the update keeping the stored cover
+            assertThat(issueRepository.findById(createdId)).get().extracting(Issue::getEdicao).isEqualTo(UPDATED_EDICAO);
+            Issue testIssue = issueRepository.findById(issue.getId()).get();
+            assertThat(testIssue.getManchete()).isEqualTo(UPDATED_MANCHETE);
+            assertThat(testIssue.getCoverHash()).isEqualTo(DEFAULT_COVER_HASH);
+
+            // Validate the Issues in Elasticsearch, the first chunk of two with one request
+            verify(mockIssueSearchRepository, times(1)).saveAll(anyIterable());
+        } finally {
+            issueRepository.deleteById(issue.getId());
+            if (createdId != null) {
+                issueRepository.deleteById(createdId);
+            }
+        }
+    }
+
+    @Test
+    @Transactional
+    public void saveIssuesInBulkWithoutIssues() throws Exception {
+        restIssueMockMvc.perform(post("/api/issues/bulk").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[]"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     public void createIssueWithExistingId() throws Exception {
@@ -192,9 +281,11 @@ public class IssueResourceIT {
         // Initialize the database
         issueRepository.saveAndFlush(issue);
 
-        // Get all the issueList
-        restIssueMockMvc.perform(get("/api/issues?sort=id,desc"))
+        // Get the first page of the issueList, which is never returned whole
+        restIssueMockMvc.perform(get("/api/issues?after={after}", issue.getId() - 1))
             .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK,
+                containsString("limit=" + KeysetPaginationUtil.DEFAULT_LIMIT + ">; rel=\"first\"")))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(issue.getId().intValue())))
             .andExpect(jsonPath("$.[*].edicao").value(hasItem(DEFAULT_EDICAO)))
@@ -204,9 +295,341 @@ public class IssueResourceIT {
             .andExpect(jsonPath("$.[*].numeroPaginas").value(hasItem(DEFAULT_NUMERO_PAGINAS)))
             .andExpect(jsonPath("$.[*].url").value(hasItem(DEFAULT_URL)))
             .andExpect(jsonPath("$.[*].coverThumbnailContentType").value(hasItem(DEFAULT_COVER_THUMBNAIL_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].coverThumbnail").value(hasItem(Base64Utils.encodeToString(DEFAULT_COVER_THUMBNAIL))));
+            .andExpect(jsonPath("$.[*].coverHash").value(hasItem(DEFAULT_COVER_HASH)))
+            .andExpect(jsonPath("$.[*].coverUrl").value(hasItem("/api/issues/" + issue.getId() + "/cover?v=" + DEFAULT_COVER_HASH)))
+            .andExpect(jsonPath("$.[*].coverThumbnail").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesByKeyset() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        Issue nextIssue = createUpdatedEntity(em);
+        issueRepository.saveAndFlush(nextIssue);
+
+        // Get the first page, which links to the next one
+        restIssueMockMvc.perform(get("/api/issues?after={after}&limit=1", issue.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(issue.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + issue.getId() + "&limit=1>; rel=\"next\"")));
+
+        // Get the last page
+        restIssueMockMvc.perform(get("/api/issues?after={after}&limit=1", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nextIssue.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    public void getIssuesByIdFiltering() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        Long id = issue.getId();
+
+        defaultIssueShouldBeFound("id.equals=" + id);
+        defaultIssueShouldNotBeFound("id.notEquals=" + id);
+
+        defaultIssueShouldBeFound("id.greaterThanOrEqual=" + id);
+        defaultIssueShouldNotBeFound("id.greaterThan=" + id);
+
+        defaultIssueShouldBeFound("id.lessThanOrEqual=" + id);
+        defaultIssueShouldNotBeFound("id.lessThan=" + id);
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesByEdicaoContainsSomething() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        // Get all the issueList where edicao contains DEFAULT_EDICAO
+        defaultIssueShouldBeFound("edicao.contains=" + DEFAULT_EDICAO);
+
+        // Get all the issueList where edicao contains UPDATED_EDICAO
+        defaultIssueShouldNotBeFound("edicao.contains=" + UPDATED_EDICAO);
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesByDataLancamentoIsGreaterThanSomething() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        // Get all the issueList where dataLancamento is greater than DEFAULT_DATA_LANCAMENTO
+        defaultIssueShouldNotBeFound("dataLancamento.greaterThan=" + DEFAULT_DATA_LANCAMENTO);
+
+        // Get all the issueList where dataLancamento is greater than SMALLER_DATA_LANCAMENTO
+        defaultIssueShouldBeFound("dataLancamento.greaterThan=" + SMALLER_DATA_LANCAMENTO);
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesByMagazineIsEqualToSomething() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        Magazine magazine = MagazineResourceIT.createEntity(em).issue(issue);
+        em.persist(magazine);
+        em.flush();
+        em.clear();
+        Long magazineId = magazine.getId();
+
+        // Get all the issueList where magazine equals to magazineId
+        defaultIssueShouldBeFound("magazineId.equals=" + magazineId);
+
+        // Get all the issueList where magazine equals to magazineId + 1
+        defaultIssueShouldNotBeFound("magazineId.equals=" + (magazineId + 1));
+
+        // Get all the issueList without a magazine
+        defaultIssueShouldNotBeFound("magazineId.specified=false");
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesWhereMagazineIsNull() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        Issue otherIssue = createUpdatedEntity(em);
+        issueRepository.saveAndFlush(otherIssue);
+        Magazine magazine = MagazineResourceIT.createEntity(em).issue(otherIssue);
+        em.persist(magazine);
+        em.flush();
+        em.clear();
+
+        SqlStatementRecorder.start();
+        try {
+            restIssueMockMvc.perform(get("/api/issues?filter=magazine-is-null&after={after}", issue.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(issue.getId().intValue())))
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(otherIssue.getId().intValue()))));
+        } finally {
+            // A single anti-join, whatever the number of issues
+            assertThat(SqlStatementRecorder.stop()).hasSize(1);
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesByCriteriaByKeyset() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        Issue otherIssue = createUpdatedEntity(em);
+        issueRepository.saveAndFlush(otherIssue);
+        Issue lastIssue = createEntity(em);
+        issueRepository.saveAndFlush(lastIssue);
+
+        // Get the first page of the issues released on DEFAULT_DATA_LANCAMENTO, skipping otherIssue
+        restIssueMockMvc.perform(get("/api/issues?dataLancamento.equals={date}&after={after}&limit=1",
+            DEFAULT_DATA_LANCAMENTO, issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(lastIssue.getId().intValue()));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultIssueShouldBeFound(String filter) throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(issue.getId().intValue())))
+            .andExpect(jsonPath("$.[*].edicao").value(hasItem(DEFAULT_EDICAO)))
+            .andExpect(jsonPath("$.[*].dataLancamento").value(hasItem(DEFAULT_DATA_LANCAMENTO.toString())));
+
+        // Check, that the count call also returns 1
+        restIssueMockMvc.perform(get("/api/issues/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultIssueShouldNotBeFound(String filter) throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restIssueMockMvc.perform(get("/api/issues/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesWithInvalidLimit() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?limit=0"))
+            .andExpect(status().isBadRequest());
+        restIssueMockMvc.perform(get("/api/issues?limit={limit}", KeysetPaginationUtil.MAX_LIMIT + 1))
+            .andExpect(status().isBadRequest());
     }
     
+    @Test
+    @Transactional
+    public void getAllIssuesDoesNotSelectCoverBytes() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        Issue otherIssue = createUpdatedEntity(em);
+        issueRepository.saveAndFlush(otherIssue);
+        Magazine magazine = MagazineResourceIT.createEntity(em).issue(issue);
+        em.persist(magazine);
+        em.flush();
+        em.clear();
+
+        SqlStatementRecorder.start();
+        try {
+            restIssueMockMvc.perform(get("/api/issues?after={after}", issue.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(otherIssue.getId().intValue())));
+        } finally {
+            List<String> statements = SqlStatementRecorder.stop();
+            // A single query, whatever the number of issues, and never the legacy cover column
+            assertThat(statements).hasSize(1);
+            assertThat(statements).noneMatch(sql -> COVER_BYTES_COLUMN.matcher(sql).find());
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesWithFields() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        Magazine magazine = MagazineResourceIT.createEntity(em).issue(issue);
+        em.persist(magazine);
+        em.flush();
+        em.clear();
+
+        SqlStatementRecorder.start();
+        try {
+            restIssueMockMvc.perform(get("/api/issues?after={after}&fields=manchete,coverUrl", issue.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].manchete").value(hasItem(DEFAULT_MANCHETE)))
+                .andExpect(jsonPath("$.[*].coverUrl").value(hasItem("/api/issues/" + issue.getId() + "/cover?v=" + DEFAULT_COVER_HASH)))
+                .andExpect(jsonPath("$.[*].id").doesNotExist())
+                .andExpect(jsonPath("$.[*].edicao").doesNotExist())
+                .andExpect(jsonPath("$.[*].descricao").doesNotExist());
+        } finally {
+            List<String> statements = SqlStatementRecorder.stop();
+            // Only the columns of the requested fields, without the magazine
+            assertThat(statements).hasSize(1);
+            assertThat(statements.get(0)).doesNotContain("descricao").doesNotContain("magazine");
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesByKeysetWithFields() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        issueRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // The id is still read to link to the next page
+        restIssueMockMvc.perform(get("/api/issues?after={after}&limit=1&fields=edicao", issue.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].edicao").value(DEFAULT_EDICAO))
+            .andExpect(jsonPath("$.[0].id").doesNotExist())
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + issue.getId() + "&limit=1")));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIssuesWithUnknownFields() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues?fields=edicao,unknown"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getIssueWithFields() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(get("/api/issues/{id}?fields=id,edicao", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(issue.getId().intValue()))
+            .andExpect(jsonPath("$.edicao").value(DEFAULT_EDICAO))
+            .andExpect(jsonPath("$.manchete").doesNotExist())
+            .andExpect(jsonPath("$.coverUrl").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getIssuesById() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+        Issue otherIssue = createUpdatedEntity(em);
+        issueRepository.saveAndFlush(otherIssue);
+        em.clear();
+
+        SqlStatementRecorder.start();
+        try {
+            restIssueMockMvc.perform(get("/api/issues?ids={ids}", otherIssue.getId() + "," + Long.MAX_VALUE + "," + issue.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$.[0].id").value(otherIssue.getId().intValue()))
+                .andExpect(jsonPath("$.[0].status").value(200))
+                .andExpect(jsonPath("$.[0].entity.edicao").value(UPDATED_EDICAO))
+                .andExpect(jsonPath("$.[1].id").value(Long.MAX_VALUE))
+                .andExpect(jsonPath("$.[1].status").value(404))
+                .andExpect(jsonPath("$.[1].entity").doesNotExist())
+                .andExpect(jsonPath("$.[2].id").value(issue.getId().intValue()))
+                .andExpect(jsonPath("$.[2].entity.edicao").value(DEFAULT_EDICAO));
+        } finally {
+            // The ids missing from the caches are read with a single query
+            assertThat(SqlStatementRecorder.stop()).hasSize(1);
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getIssuesByIdWithFields() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(get("/api/issues?ids={ids}&fields=edicao", Long.MAX_VALUE + "," + issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].status").value(404))
+            .andExpect(jsonPath("$.[1].id").value(issue.getId().intValue()))
+            .andExpect(jsonPath("$.[1].status").value(200))
+            .andExpect(jsonPath("$.[1].entity.edicao").value(DEFAULT_EDICAO))
+            .andExpect(jsonPath("$.[1].entity.manchete").doesNotExist());
+
+        restIssueMockMvc.perform(get("/api/issues?ids={ids}&fields=edicao,unknown", issue.getId()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getIssuesByIdFromPersistenceContext() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(get("/api/issues?ids={ids}", issue.getId() + "," + issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[1].entity.id").value(issue.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getIssuesByIdWithTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, MultiGetUtil.MAX_IDS + 1).mapToObj(Long::toString).collect(Collectors.joining(","));
+
+        restIssueMockMvc.perform(get("/api/issues?ids={ids}", ids))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     public void getIssue() throws Exception {
@@ -225,7 +648,170 @@ public class IssueResourceIT {
             .andExpect(jsonPath("$.numeroPaginas").value(DEFAULT_NUMERO_PAGINAS))
             .andExpect(jsonPath("$.url").value(DEFAULT_URL))
             .andExpect(jsonPath("$.coverThumbnailContentType").value(DEFAULT_COVER_THUMBNAIL_CONTENT_TYPE))
-            .andExpect(jsonPath("$.coverThumbnail").value(Base64Utils.encodeToString(DEFAULT_COVER_THUMBNAIL)));
+            .andExpect(jsonPath("$.coverHash").value(DEFAULT_COVER_HASH))
+            .andExpect(jsonPath("$.coverUrl").value("/api/issues/" + issue.getId() + "/cover?v=" + DEFAULT_COVER_HASH))
+            .andExpect(jsonPath("$.coverThumbnail").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getIssueNotModified() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        String eTag = restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String listETag = restIssueMockMvc.perform(get("/api/issues?id.equals={id}", issue.getId()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        SqlStatementRecorder.start();
+        try {
+            restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+            restIssueMockMvc.perform(get("/api/issues?id.equals={id}", issue.getId()).header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isNotModified());
+        } finally {
+            // Answered before the database is read
+            assertThat(SqlStatementRecorder.stop()).isEmpty();
+        }
+    }
+
+    @Test
+    public void getIssueNotModifiedAfterCommittedUpdateOfAnotherIssue() throws Exception {
+        issueRepository.saveAndFlush(issue);
+        Issue otherIssue = issueRepository.saveAndFlush(createEntity(em));
+        try {
+            String eTag = restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            issueRepository.saveAndFlush(otherIssue.manchete(UPDATED_MANCHETE));
+
+            restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        } finally {
+            issueRepository.deleteById(otherIssue.getId());
+            issueRepository.deleteById(issue.getId());
+        }
+    }
+
+    @Test
+    public void getIssueModifiedAfterCommittedUpdate() throws Exception {
+        issueRepository.saveAndFlush(issue);
+        try {
+            String eTag = restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            issueRepository.saveAndFlush(issue.manchete(UPDATED_MANCHETE));
+
+            restIssueMockMvc.perform(get("/api/issues/{id}", issue.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.manchete").value(UPDATED_MANCHETE));
+        } finally {
+            issueRepository.deleteById(issue.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getIssueCover() throws Exception {
+        // Initialize the database
+        blobStore.put(DEFAULT_COVER_THUMBNAIL);
+        issueRepository.saveAndFlush(issue);
+
+        // Get the cover bytes, cacheable for good through the versioned URL
+        restIssueMockMvc.perform(get("/api/issues/{id}/cover?v={hash}", issue.getId(), DEFAULT_COVER_HASH))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(DEFAULT_COVER_THUMBNAIL_CONTENT_TYPE))
+            .andExpect(content().bytes(DEFAULT_COVER_THUMBNAIL))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + DEFAULT_COVER_HASH + "\""))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")));
+    }
+
+    @Test
+    @Transactional
+    public void getIssueCoverVariant() throws Exception {
+        // Initialize the database
+        String hash = blobStore.put(CoverDerivationServiceIT.createCover(800, 1000));
+        issueRepository.saveAndFlush(issue.coverHash(hash).coverThumbnailContentType("image/png"));
+        coverDerivationService.deriveVariants(hash);
+
+        // Get the narrowest variant at least as wide as requested
+        restIssueMockMvc.perform(get("/api/issues/{id}/cover?v={hash}&size=200", issue.getId(), hash))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(CoverDerivationService.JPEG))
+            .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+            .andExpect(header().string(HttpHeaders.ETAG, not("\"" + hash + "\"")))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")));
+
+        // Get the original cover when no variant is wide enough
+        restIssueMockMvc.perform(get("/api/issues/{id}/cover?size=2000", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("image/png"))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""));
+    }
+
+    @Test
+    @Transactional
+    public void getIssueCoverWithInvalidSize() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(get("/api/issues/{id}/cover?size=0", issue.getId()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getIssueCoverNotModified() throws Exception {
+        // Initialize the database
+        blobStore.put(DEFAULT_COVER_THUMBNAIL);
+        issueRepository.saveAndFlush(issue);
+
+        restIssueMockMvc.perform(get("/api/issues/{id}/cover", issue.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + DEFAULT_COVER_HASH + "\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @Transactional
+    public void getIssueCoverRange() throws Exception {
+        // Initialize the database
+        String hash = blobStore.put("0123456789".getBytes(StandardCharsets.US_ASCII));
+        issueRepository.saveAndFlush(issue.coverHash(hash));
+
+        // Resume a download with a current validator
+        restIssueMockMvc.perform(get("/api/issues/{id}/cover", issue.getId())
+            .header(HttpHeaders.RANGE, "bytes=4-")
+            .header(HttpHeaders.IF_RANGE, "\"" + hash + "\""))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10"))
+            .andExpect(content().bytes("456789".getBytes(StandardCharsets.US_ASCII)));
+
+        // Resume a download with a stale validator: the whole cover is sent again
+        restIssueMockMvc.perform(get("/api/issues/{id}/cover", issue.getId())
+            .header(HttpHeaders.RANGE, "bytes=4-")
+            .header(HttpHeaders.IF_RANGE, "\"" + DEFAULT_COVER_HASH + "\""))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes("0123456789".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingIssueCover() throws Exception {
+        restIssueMockMvc.perform(get("/api/issues/{id}/cover", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
     }
     @Test
     @Transactional
@@ -254,9 +840,9 @@ public class IssueResourceIT {
             .descricao(UPDATED_DESCRICAO)
             .numeroPaginas(UPDATED_NUMERO_PAGINAS)
             .url(UPDATED_URL)
-            .coverThumbnail(UPDATED_COVER_THUMBNAIL)
             .coverThumbnailContentType(UPDATED_COVER_THUMBNAIL_CONTENT_TYPE);
         IssueDTO issueDTO = issueMapper.toDto(updatedIssue);
+        issueDTO.setCoverThumbnail(UPDATED_COVER_THUMBNAIL);
 
         restIssueMockMvc.perform(put("/api/issues").with(csrf())
             .contentType(MediaType.APPLICATION_JSON)
@@ -273,13 +859,37 @@ public class IssueResourceIT {
         assertThat(testIssue.getDescricao()).isEqualTo(UPDATED_DESCRICAO);
         assertThat(testIssue.getNumeroPaginas()).isEqualTo(UPDATED_NUMERO_PAGINAS);
         assertThat(testIssue.getUrl()).isEqualTo(UPDATED_URL);
-        assertThat(testIssue.getCoverThumbnail()).isEqualTo(UPDATED_COVER_THUMBNAIL);
         assertThat(testIssue.getCoverThumbnailContentType()).isEqualTo(UPDATED_COVER_THUMBNAIL_CONTENT_TYPE);
+        assertThat(testIssue.getCoverHash()).isEqualTo(UPDATED_COVER_HASH);
+        assertThat(blobStore.exists(UPDATED_COVER_HASH)).isTrue();
 
         // Validate the Issue in Elasticsearch
         verify(mockIssueSearchRepository, times(1)).save(testIssue);
     }
 
+    @Test
+    @Transactional
+    public void updateIssueWithoutCoverKeepsCover() throws Exception {
+        // Initialize the database
+        issueRepository.saveAndFlush(issue);
+
+        // Update the issue the way clients do, sending back the DTO they received
+        Issue updatedIssue = issueRepository.findById(issue.getId()).get();
+        em.detach(updatedIssue);
+        updatedIssue.edicao(UPDATED_EDICAO);
+        IssueDTO issueDTO = issueMapper.toDto(updatedIssue);
+
+        restIssueMockMvc.perform(put("/api/issues").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(issueDTO)))
+            .andExpect(status().isOk());
+
+        // Validate the cover is still there
+        Issue testIssue = issueRepository.findById(issue.getId()).get();
+        assertThat(testIssue.getEdicao()).isEqualTo(UPDATED_EDICAO);
+        assertThat(testIssue.getCoverHash()).isEqualTo(DEFAULT_COVER_HASH);
+    }
+
     @Test
     @Transactional
     public void updateNonExistingIssue() throws Exception {
@@ -344,6 +954,8 @@ public class IssueResourceIT {
             .andExpect(jsonPath("$.[*].numeroPaginas").value(hasItem(DEFAULT_NUMERO_PAGINAS)))
             .andExpect(jsonPath("$.[*].url").value(hasItem(DEFAULT_URL)))
             .andExpect(jsonPath("$.[*].coverThumbnailContentType").value(hasItem(DEFAULT_COVER_THUMBNAIL_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].coverThumbnail").value(hasItem(Base64Utils.encodeToString(DEFAULT_COVER_THUMBNAIL))));
+            .andExpect(jsonPath("$.[*].coverHash").value(hasItem(DEFAULT_COVER_HASH)))
+            .andExpect(jsonPath("$.[*].coverUrl").value(hasItem("/api/issues/" + issue.getId() + "/cover?v=" + DEFAULT_COVER_HASH)))
+            .andExpect(jsonPath("$.[*].coverThumbnail").doesNotExist());
     }
 }
@@ -0,0 +1,112 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.Log;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.repository.LogRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link LogAnalyticsResource} REST controller.
+ * <p>
+ * Months are counted in their own transactions, so the logs are saved without a test transaction, and deleted after
+ * each test.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+public class LogAnalyticsResourceIT {
+
+    @Autowired
+    private LogRepository logRepository;
+
+    @Autowired
+    private MockMvc restLogAnalyticsMockMvc;
+
+    private List<Long> logIds;
+
+    @BeforeEach
+    public void initTest() {
+        logIds = new ArrayList<>();
+        // The week of Monday 1990-01-29 spans two months
+        saveLog(LocalDate.of(1990, 1, 30), Event.VIEW);
+        saveLog(LocalDate.of(1990, 1, 30), Event.VIEW);
+        saveLog(LocalDate.of(1990, 1, 31), Event.DOWNLOAD);
+        saveLog(LocalDate.of(1990, 2, 1), Event.VIEW);
+        saveLog(LocalDate.of(1990, 3, 15), Event.VIEW);
+        // Logs without an event are not counted
+        saveLog(LocalDate.of(1990, 1, 30), null);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        logIds.forEach(logRepository::deleteById);
+    }
+
+    private void saveLog(LocalDate date, Event evento) {
+        logIds.add(logRepository.save(new Log().date(date).evento(evento)).getId());
+    }
+
+    @Test
+    public void getLogAnalyticsByDay() throws Exception {
+        restLogAnalyticsMockMvc.perform(get("/api/log-analytics?from=1990-01-01&to=1990-03-31"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$.[0].period").value("1990-01-30"))
+            .andExpect(jsonPath("$.[0].evento").value("VIEW"))
+            .andExpect(jsonPath("$.[0].total").value(2))
+            .andExpect(jsonPath("$.[1].period").value("1990-01-31"))
+            .andExpect(jsonPath("$.[1].evento").value("DOWNLOAD"))
+            .andExpect(jsonPath("$.[2].period").value("1990-02-01"))
+            .andExpect(jsonPath("$.[3].period").value("1990-03-15"));
+    }
+
+    @Test
+    public void getLogAnalyticsByWeek() throws Exception {
+        restLogAnalyticsMockMvc.perform(get("/api/log-analytics?from=1990-01-01&to=1990-03-31&granularity=WEEK"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$.[0].period").value("1990-01-29"))
+            .andExpect(jsonPath("$.[0].evento").value("DOWNLOAD"))
+            .andExpect(jsonPath("$.[0].total").value(1))
+            .andExpect(jsonPath("$.[1].period").value("1990-01-29"))
+            .andExpect(jsonPath("$.[1].evento").value("VIEW"))
+            .andExpect(jsonPath("$.[1].total").value(3))
+            .andExpect(jsonPath("$.[2].period").value("1990-03-12"));
+    }
+
+    @Test
+    public void getLogAnalyticsByMonthForAnEvent() throws Exception {
+        restLogAnalyticsMockMvc.perform(get("/api/log-analytics?from=1990-01-31&to=1990-02-28&granularity=MONTH&evento=VIEW"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].period").value("1990-02-01"))
+            .andExpect(jsonPath("$.[0].evento").value("VIEW"))
+            .andExpect(jsonPath("$.[0].total").value(1));
+    }
+
+    @Test
+    public void getLogAnalyticsWithInvalidRange() throws Exception {
+        restLogAnalyticsMockMvc.perform(get("/api/log-analytics?from=1990-02-01&to=1990-01-01"))
+            .andExpect(status().isBadRequest());
+        restLogAnalyticsMockMvc.perform(get("/api/log-analytics?from=1990-01-01&to=2020-01-01"))
+            .andExpect(status().isBadRequest());
+    }
+}
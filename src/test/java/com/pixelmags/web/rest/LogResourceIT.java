@@ -4,9 +4,11 @@ import com.pixelmags.PixelmagsApp;
 import com.pixelmags.domain.Log;
 import com.pixelmags.repository.LogRepository;
 import com.pixelmags.repository.search.LogSearchRepository;
+import com.pixelmags.security.AuthoritiesConstants;
 import com.pixelmags.service.LogService;
 import com.pixelmags.service.dto.LogDTO;
 import com.pixelmags.service.mapper.LogMapper;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,19 +18,33 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
 import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -127,6 +143,122 @@ public class LogResourceIT {
         verify(mockLogSearchRepository, times(1)).save(testLog);
     }
 
+    @Test
+    @Transactional
+    public void uploadLogs() throws Exception {
+        int databaseSizeBeforeUpload = logRepository.findAll().size();
+        String upload = "{\"date\":\"1970-01-01\",\"evento\":\"VIEW\"}\n"
+            + "\n"
+            + "{\"date\":\"1970-01-02\",\"evento\":\"UNKNOWN\"}\n"
+            + "{\"evento\":\"DOWNLOAD\"}\n"
+            + "{\"date\":\"1970-01-0\r\n"
+            + "{\"id\":1,\"date\":\"1970-01-03\",\"evento\":\"VIEW\"}\n"
+            + "{\"date\":\"1970-01-04\",\"evento\":\"DOWNLOAD\",\"device\":{\"os\":\"ios\"}}\r\n"
+            + "{\"date\":\"1970-01-05\",\"evento\":\"VIEW\"}";
+
+        restLogMockMvc.perform(post("/api/logs/batch").with(csrf())
+            .contentType("application/x-ndjson")
+            .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .content(gzip(upload)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.lines").value(8))
+            .andExpect(jsonPath("$.accepted").value(3))
+            .andExpect(jsonPath("$.rejected").value(4))
+            .andExpect(jsonPath("$.rejects.[*].line").value(contains(3, 4, 5, 6)))
+            .andExpect(jsonPath("$.rejects.[0].error").value("Invalid evento: UNKNOWN"))
+            .andExpect(jsonPath("$.rejects.[1].error").value("Missing date"));
+
+        // Validate the Logs in the database
+        List<Log> logList = logRepository.findAll();
+        assertThat(logList).hasSize(databaseSizeBeforeUpload + 3);
+        assertThat(logList.subList(databaseSizeBeforeUpload, logList.size())).extracting(Log::getDate)
+            .containsExactly(LocalDate.ofEpochDay(0L), LocalDate.ofEpochDay(3L), LocalDate.ofEpochDay(4L));
+
+        // Validate the Logs in Elasticsearch, with one bulk request
+        verify(mockLogSearchRepository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    @Transactional
+    public void uploadLogsWithInvalidGzip() throws Exception {
+        restLogMockMvc.perform(post("/api/logs/batch").with(csrf())
+            .contentType("application/x-ndjson")
+            .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .content("{\"date\":\"1970-01-01\",\"evento\":\"VIEW\"}\n".getBytes(StandardCharsets.UTF_8)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void uploadLogsWithDuplicateEventIds() throws Exception {
+        int databaseSizeBeforeUpload = logRepository.findAll().size();
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        String upload = "{\"date\":\"1970-01-01\",\"evento\":\"VIEW\",\"eventId\":\"" + first + "\"}\n"
+            + "{\"date\":\"1970-01-01\",\"evento\":\"VIEW\",\"eventId\":\"" + first + "\"}\n"
+            + "{\"date\":\"1970-01-02\",\"evento\":\"VIEW\",\"eventId\":\"" + second + "\"}\n";
+
+        restLogMockMvc.perform(post("/api/logs/batch").with(csrf())
+            .contentType("application/x-ndjson")
+            .content(upload))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.accepted").value(2))
+            .andExpect(jsonPath("$.duplicates").value(1));
+        // Sent again, as by a client retrying
+        restLogMockMvc.perform(post("/api/logs/batch").with(csrf())
+            .contentType("application/x-ndjson")
+            .content(upload))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.accepted").value(0))
+            .andExpect(jsonPath("$.duplicates").value(3));
+
+        List<Log> logList = logRepository.findAll();
+        assertThat(logList).hasSize(databaseSizeBeforeUpload + 2);
+        assertThat(logList.subList(databaseSizeBeforeUpload, logList.size())).extracting(Log::getEventId)
+            .containsExactly(first, second);
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    @Transactional
+    public void createLogWithDuplicateEventId() throws Exception {
+        int databaseSizeBeforeCreate = logRepository.findAll().size();
+        LogDTO logDTO = logMapper.toDto(log);
+        logDTO.setEventId(UUID.randomUUID().toString());
+
+        restLogMockMvc.perform(post("/api/logs").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(logDTO)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.eventId").value(logDTO.getEventId()));
+        // Sent again, as by a client retrying
+        restLogMockMvc.perform(post("/api/logs").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(logDTO)))
+            .andExpect(status().isAccepted());
+
+        assertThat(logRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+    }
+
+    @Test
+    @Transactional
+    public void createLogWithTooLongEventId() throws Exception {
+        LogDTO logDTO = logMapper.toDto(log);
+        logDTO.setEventId(String.join("", Collections.nCopies(65, "a")));
+
+        restLogMockMvc.perform(post("/api/logs").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(logDTO)))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     public void createLogWithExistingId() throws Exception {
@@ -157,14 +289,163 @@ public class LogResourceIT {
         // Initialize the database
         logRepository.saveAndFlush(log);
 
-        // Get all the logList
-        restLogMockMvc.perform(get("/api/logs?sort=id,desc"))
+        // Get the first page of the logList, which is never returned whole
+        restLogMockMvc.perform(get("/api/logs?after={after}", log.getId() - 1))
             .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK,
+                containsString("limit=" + KeysetPaginationUtil.DEFAULT_LIMIT + ">; rel=\"first\"")))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(log.getId().intValue())))
             .andExpect(jsonPath("$.[*].date").value(hasItem(DEFAULT_DATE.toString())))
             .andExpect(jsonPath("$.[*].evento").value(hasItem(DEFAULT_EVENTO.toString())));
     }
+
+    @Test
+    @Transactional
+    public void getAllLogsByKeyset() throws Exception {
+        // Initialize the database
+        logRepository.saveAndFlush(log);
+        Log nextLog = createUpdatedEntity(em);
+        logRepository.saveAndFlush(nextLog);
+
+        // Get the first page, which links to the next one
+        restLogMockMvc.perform(get("/api/logs?after={after}&limit=1", log.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(log.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + log.getId() + "&limit=1>; rel=\"next\"")));
+
+        // Get the last page
+        restLogMockMvc.perform(get("/api/logs?after={after}&limit=1", log.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nextLog.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllLogsByEventoIsInShouldWork() throws Exception {
+        // Initialize the database
+        logRepository.saveAndFlush(log);
+
+        // Get all the logList where evento in DEFAULT_EVENTO or UPDATED_EVENTO
+        defaultLogShouldBeFound("evento.in=" + DEFAULT_EVENTO + "," + UPDATED_EVENTO);
+
+        // Get all the logList where evento equals to UPDATED_EVENTO
+        defaultLogShouldNotBeFound("evento.in=" + UPDATED_EVENTO);
+    }
+
+    @Test
+    @Transactional
+    public void getAllLogsByDateIsGreaterThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        logRepository.saveAndFlush(log);
+
+        // Get all the logList where date is greater than or equal to DEFAULT_DATE
+        defaultLogShouldBeFound("date.greaterThanOrEqual=" + DEFAULT_DATE);
+
+        // Get all the logList where date is greater than or equal to UPDATED_DATE
+        defaultLogShouldNotBeFound("date.greaterThanOrEqual=" + UPDATED_DATE);
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultLogShouldBeFound(String filter) throws Exception {
+        restLogMockMvc.perform(get("/api/logs?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(log.getId().intValue())))
+            .andExpect(jsonPath("$.[*].evento").value(hasItem(DEFAULT_EVENTO.toString())));
+
+        // Check, that the count call also returns 1
+        restLogMockMvc.perform(get("/api/logs/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultLogShouldNotBeFound(String filter) throws Exception {
+        restLogMockMvc.perform(get("/api/logs?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restLogMockMvc.perform(get("/api/logs/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void exportLogs() throws Exception {
+        // Initialize the database, committed so that the export, streamed from another thread, can see it
+        logRepository.saveAndFlush(log);
+        try {
+            MvcResult result = restLogMockMvc.perform(get("/api/logs/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            // Get the logs as NDJSON
+            String body = restLogMockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("logs.ndjson")))
+                .andReturn().getResponse().getContentAsString();
+            assertThat(body.split("\n")).contains("{\"id\":" + log.getId() + ",\"date\":\"" + DEFAULT_DATE + "\",\"evento\":\"" + DEFAULT_EVENTO
+                + "\",\"customerId\":null,\"eventId\":null,\"issueId\":null}");
+        } finally {
+            logRepository.deleteById(log.getId());
+        }
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void exportLogsAsGzippedCsv() throws Exception {
+        // Initialize the database, committed so that the export, streamed from another thread, can see it
+        logRepository.saveAndFlush(log);
+        try {
+            MvcResult result = restLogMockMvc.perform(get("/api/logs/export?format=csv&gzip=true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            // Get the logs as compressed CSV
+            byte[] body = restLogMockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+            String csv;
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                csv = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+            }
+            String[] lines = csv.split("\r\n");
+            assertThat(lines[0]).isEqualTo("id,date,evento");
+            assertThat(lines).contains(log.getId() + "," + DEFAULT_DATE + "," + DEFAULT_EVENTO);
+        } finally {
+            logRepository.deleteById(log.getId());
+        }
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void exportLogsWithUnknownFormat() throws Exception {
+        restLogMockMvc.perform(get("/api/logs/export?format=xml"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportLogsIsForbiddenToUsers() throws Exception {
+        restLogMockMvc.perform(get("/api/logs/export"))
+            .andExpect(status().isForbidden());
+    }
     
     @Test
     @Transactional
@@ -0,0 +1,164 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.repository.LogRepository;
+import com.pixelmags.service.IssueService;
+import com.pixelmags.service.LogRollupService;
+import com.pixelmags.service.LogService;
+import com.pixelmags.service.MagazineService;
+import com.pixelmags.service.dto.IssueDTO;
+import com.pixelmags.service.dto.LogDTO;
+import com.pixelmags.service.dto.MagazineDTO;
+import com.pixelmags.service.mapper.IssueMapper;
+import com.pixelmags.service.mapper.MagazineMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link LogRollupResource} REST controller.
+ * <p>
+ * Logs are only counted once their transaction commits, so the data is saved through the services without a test
+ * transaction, and deleted after each test.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+public class LogRollupResourceIT {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 5, 1);
+
+    private static final LocalDate SECOND_DAY = LocalDate.of(2020, 5, 2);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private MagazineService magazineService;
+
+    @Autowired
+    private LogService logService;
+
+    @Autowired
+    private LogRollupService logRollupService;
+
+    @Autowired
+    private LogRepository logRepository;
+
+    @Autowired
+    private IssueMapper issueMapper;
+
+    @Autowired
+    private MagazineMapper magazineMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc restLogRollupMockMvc;
+
+    private IssueDTO issue;
+
+    private MagazineDTO magazine;
+
+    private List<Long> logIds;
+
+    @BeforeEach
+    public void initTest() {
+        issue = issueService.save(issueMapper.toDto(IssueResourceIT.createEntity(em)));
+        MagazineDTO magazineDTO = magazineMapper.toDto(MagazineResourceIT.createEntity(em));
+        magazineDTO.setIssueId(issue.getId());
+        magazine = magazineService.save(magazineDTO);
+        logIds = new ArrayList<>();
+        saveLog(FIRST_DAY, Event.VIEW);
+        saveLog(FIRST_DAY, Event.VIEW);
+        saveLog(FIRST_DAY, Event.DOWNLOAD);
+        saveLog(SECOND_DAY, Event.VIEW);
+        logRollupService.flush();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        logIds.forEach(logRepository::deleteById);
+        jdbcTemplate.update("delete from log_rollup where issue_id = ?", issue.getId());
+        magazineService.delete(magazine.getId());
+        issueService.delete(issue.getId());
+    }
+
+    private void saveLog(LocalDate date, Event evento) {
+        LogDTO logDTO = new LogDTO();
+        logDTO.setDate(date);
+        logDTO.setEvento(evento);
+        logDTO.setIssueId(issue.getId());
+        logIds.add(logService.save(logDTO).getId());
+    }
+
+    @Test
+    public void getIssueLogRollups() throws Exception {
+        restLogRollupMockMvc.perform(get("/api/log-rollups/issues/{issueId}?from=2020-05-01&to=2020-05-31", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$.[0].date").value("2020-05-01"))
+            .andExpect(jsonPath("$.[0].evento").value("DOWNLOAD"))
+            .andExpect(jsonPath("$.[0].total").value(1))
+            .andExpect(jsonPath("$.[1].evento").value("VIEW"))
+            .andExpect(jsonPath("$.[1].total").value(2))
+            .andExpect(jsonPath("$.[2].date").value("2020-05-02"));
+    }
+
+    @Test
+    public void getIssueLogRollupsAfterMoreLogs() throws Exception {
+        saveLog(FIRST_DAY, Event.VIEW);
+        assertThat(logRollupService.flush()).isEqualTo(1);
+
+        restLogRollupMockMvc.perform(get("/api/log-rollups/issues/{issueId}?from=2020-05-01&to=2020-05-01&evento=VIEW", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].total").value(3));
+    }
+
+    @Test
+    public void getMagazineLogRollups() throws Exception {
+        restLogRollupMockMvc.perform(get("/api/log-rollups/magazines/{magazineId}?from=2020-05-02&to=2020-05-02", magazine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].evento").value("VIEW"))
+            .andExpect(jsonPath("$.[0].total").value(1));
+    }
+
+    @Test
+    public void getNonExistingMagazineLogRollups() throws Exception {
+        restLogRollupMockMvc.perform(get("/api/log-rollups/magazines/{magazineId}?from=2020-05-01&to=2020-05-31", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void getLogRollupsWithInvalidRange() throws Exception {
+        restLogRollupMockMvc.perform(get("/api/log-rollups/issues/{issueId}?from=2020-05-31&to=2020-05-01", issue.getId()))
+            .andExpect(status().isBadRequest());
+        restLogRollupMockMvc.perform(get("/api/log-rollups/issues/{issueId}?from=2019-01-01&to=2020-05-01", issue.getId()))
+            .andExpect(status().isBadRequest());
+    }
+}
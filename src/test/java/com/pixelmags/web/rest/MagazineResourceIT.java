@@ -1,12 +1,17 @@
 package com.pixelmags.web.rest;
 
 import com.pixelmags.PixelmagsApp;
+import com.pixelmags.config.SqlStatementRecorder;
+import com.pixelmags.domain.Issue;
 import com.pixelmags.domain.Magazine;
+import com.pixelmags.domain.Publisher;
+import com.pixelmags.repository.IssueRepository;
 import com.pixelmags.repository.MagazineRepository;
 import com.pixelmags.repository.search.MagazineSearchRepository;
 import com.pixelmags.service.MagazineService;
 import com.pixelmags.service.dto.MagazineDTO;
 import com.pixelmags.service.mapper.MagazineMapper;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,18 +21,23 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -47,6 +57,7 @@ public class MagazineResourceIT {
 
     private static final BigDecimal DEFAULT_PRECO = new BigDecimal(1);
     private static final BigDecimal UPDATED_PRECO = new BigDecimal(2);
+    private static final BigDecimal SMALLER_PRECO = new BigDecimal(1 - 1);
 
     @Autowired
     private MagazineRepository magazineRepository;
@@ -54,6 +65,9 @@ public class MagazineResourceIT {
     @Autowired
     private MagazineMapper magazineMapper;
 
+    @Autowired
+    private IssueRepository issueRepository;
+
     @Autowired
     private MagazineService magazineService;
 
@@ -125,6 +139,37 @@ public class MagazineResourceIT {
         verify(mockMagazineSearchRepository, times(1)).save(testMagazine);
     }
 
+    @Test
+    public void saveMagazinesInBulkWithConflict() throws Exception {
+        // Initialize the database
+        Issue issue = issueRepository.saveAndFlush(IssueResourceIT.createEntity(em));
+        List<Long> createdIds = new ArrayList<>();
+        try {
+            MagazineDTO magazineDTO = magazineMapper.toDto(magazine);
+            magazineDTO.setIssueId(issue.getId());
+            MagazineDTO conflictingMagazineDTO = magazineMapper.toDto(createUpdatedEntity(em));
+            conflictingMagazineDTO.setIssueId(issue.getId());
+
+            // The chunk fails on the unique issue, and its items are saved again one by one
+            restMagazineMockMvc.perform(post("/api/magazines/bulk").with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(magazineDTO, conflictingMagazineDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].status").value(201))
+                .andExpect(jsonPath("$.[0].entity.issueId").value(issue.getId().intValue()))
+                .andExpect(jsonPath("$.[1].status").value(409))
+                .andExpect(jsonPath("$.[1].error").isNotEmpty());
+
+            magazineRepository.findAll().stream()
+                .filter(stored -> stored.getIssue() != null && issue.getId().equals(stored.getIssue().getId()))
+                .forEach(stored -> createdIds.add(stored.getId()));
+            assertThat(createdIds).hasSize(1);
+        } finally {
+            createdIds.forEach(magazineRepository::deleteById);
+            issueRepository.deleteById(issue.getId());
+        }
+    }
+
     @Test
     @Transactional
     public void createMagazineWithExistingId() throws Exception {
@@ -155,15 +200,149 @@ public class MagazineResourceIT {
         // Initialize the database
         magazineRepository.saveAndFlush(magazine);
 
-        // Get all the magazineList
-        restMagazineMockMvc.perform(get("/api/magazines?sort=id,desc"))
+        // Get the first page of the magazineList, which is never returned whole
+        restMagazineMockMvc.perform(get("/api/magazines?after={after}", magazine.getId() - 1))
             .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK,
+                containsString("limit=" + KeysetPaginationUtil.DEFAULT_LIMIT + ">; rel=\"first\"")))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(magazine.getId().intValue())))
             .andExpect(jsonPath("$.[*].codigoRevista").value(hasItem(DEFAULT_CODIGO_REVISTA)))
             .andExpect(jsonPath("$.[*].preco").value(hasItem(DEFAULT_PRECO.intValue())));
     }
+
+    @Test
+    @Transactional
+    public void getAllMagazinesByKeyset() throws Exception {
+        // Initialize the database
+        magazineRepository.saveAndFlush(magazine);
+        Magazine nextMagazine = createUpdatedEntity(em);
+        magazineRepository.saveAndFlush(nextMagazine);
+
+        // Get the first page, which links to the next one
+        restMagazineMockMvc.perform(get("/api/magazines?after={after}&limit=1", magazine.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(magazine.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + magazine.getId() + "&limit=1>; rel=\"next\"")));
+
+        // Get the last page
+        restMagazineMockMvc.perform(get("/api/magazines?after={after}&limit=1", magazine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nextMagazine.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllMagazinesByPrecoIsGreaterThanSomething() throws Exception {
+        // Initialize the database
+        magazineRepository.saveAndFlush(magazine);
+
+        // Get all the magazineList where preco is greater than DEFAULT_PRECO
+        defaultMagazineShouldNotBeFound("preco.greaterThan=" + DEFAULT_PRECO);
+
+        // Get all the magazineList where preco is greater than SMALLER_PRECO
+        defaultMagazineShouldBeFound("preco.greaterThan=" + SMALLER_PRECO);
+    }
+
+    @Test
+    @Transactional
+    public void getAllMagazinesByPublisherIsEqualToSomething() throws Exception {
+        // Initialize the database
+        magazineRepository.saveAndFlush(magazine);
+        Publisher publisher = PublisherResourceIT.createEntity(em);
+        em.persist(publisher);
+        em.flush();
+        magazine.setPublisher(publisher);
+        magazineRepository.saveAndFlush(magazine);
+        Long publisherId = publisher.getId();
+
+        // Get all the magazineList where publisher equals to publisherId
+        defaultMagazineShouldBeFound("publisherId.equals=" + publisherId);
+
+        // Get all the magazineList where publisher equals to publisherId + 1
+        defaultMagazineShouldNotBeFound("publisherId.equals=" + (publisherId + 1));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultMagazineShouldBeFound(String filter) throws Exception {
+        restMagazineMockMvc.perform(get("/api/magazines?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(magazine.getId().intValue())))
+            .andExpect(jsonPath("$.[*].codigoRevista").value(hasItem(DEFAULT_CODIGO_REVISTA)));
+
+        // Check, that the count call also returns 1
+        restMagazineMockMvc.perform(get("/api/magazines/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultMagazineShouldNotBeFound(String filter) throws Exception {
+        restMagazineMockMvc.perform(get("/api/magazines?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restMagazineMockMvc.perform(get("/api/magazines/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
     
+    @Test
+    @Transactional
+    public void getAllMagazinesWithFields() throws Exception {
+        // Initialize the database
+        Publisher publisher = PublisherResourceIT.createEntity(em);
+        em.persist(publisher);
+        magazine.setPublisher(publisher);
+        magazineRepository.saveAndFlush(magazine);
+        em.clear();
+
+        SqlStatementRecorder.start();
+        try {
+            restMagazineMockMvc.perform(get("/api/magazines?after={after}&fields=preco,publisherId", magazine.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].publisherId").value(hasItem(publisher.getId().intValue())))
+                .andExpect(jsonPath("$.[*].preco").value(hasItem(DEFAULT_PRECO.intValue())))
+                .andExpect(jsonPath("$.[*].codigoRevista").doesNotExist());
+        } finally {
+            List<String> statements = SqlStatementRecorder.stop();
+            // The publisher id is read from the foreign key, without a join
+            assertThat(statements).hasSize(1);
+            assertThat(statements.get(0)).doesNotContain("codigo_revista").doesNotContain(" join ");
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getMagazinesById() throws Exception {
+        // Initialize the database
+        Publisher publisher = PublisherResourceIT.createEntity(em);
+        em.persist(publisher);
+        magazine.setPublisher(publisher);
+        magazineRepository.saveAndFlush(magazine);
+        em.clear();
+
+        restMagazineMockMvc.perform(get("/api/magazines?ids={ids}", Long.MAX_VALUE + "," + magazine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].status").value(404))
+            .andExpect(jsonPath("$.[1].status").value(200))
+            .andExpect(jsonPath("$.[1].entity.codigoRevista").value(DEFAULT_CODIGO_REVISTA))
+            .andExpect(jsonPath("$.[1].entity.publisherId").value(publisher.getId().intValue()));
+    }
+
     @Test
     @Transactional
     public void getMagazine() throws Exception {
@@ -1,12 +1,14 @@
 package com.pixelmags.web.rest;
 
 import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.Magazine;
 import com.pixelmags.domain.Publisher;
 import com.pixelmags.repository.PublisherRepository;
 import com.pixelmags.repository.search.PublisherSearchRepository;
 import com.pixelmags.service.PublisherService;
 import com.pixelmags.service.dto.PublisherDTO;
 import com.pixelmags.service.mapper.PublisherMapper;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -28,7 +31,9 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -156,14 +161,105 @@ public class PublisherResourceIT {
         // Initialize the database
         publisherRepository.saveAndFlush(publisher);
 
-        // Get all the publisherList
-        restPublisherMockMvc.perform(get("/api/publishers?sort=id,desc"))
+        // Get the first page of the publisherList, which is never returned whole
+        restPublisherMockMvc.perform(get("/api/publishers?after={after}", publisher.getId() - 1))
             .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK,
+                containsString("limit=" + KeysetPaginationUtil.DEFAULT_LIMIT + ">; rel=\"first\"")))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(publisher.getId().intValue())))
             .andExpect(jsonPath("$.[*].nome").value(hasItem(DEFAULT_NOME)))
             .andExpect(jsonPath("$.[*].dataCadastro").value(hasItem(DEFAULT_DATA_CADASTRO.toString())));
     }
+
+    @Test
+    @Transactional
+    public void getAllPublishersByKeyset() throws Exception {
+        // Initialize the database
+        publisherRepository.saveAndFlush(publisher);
+        Publisher nextPublisher = createUpdatedEntity(em);
+        publisherRepository.saveAndFlush(nextPublisher);
+
+        // Get the first page, which links to the next one
+        restPublisherMockMvc.perform(get("/api/publishers?after={after}&limit=1", publisher.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(publisher.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + publisher.getId() + "&limit=1>; rel=\"next\"")));
+
+        // Get the last page
+        restPublisherMockMvc.perform(get("/api/publishers?after={after}&limit=1", publisher.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nextPublisher.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllPublishersByNomeContainsSomething() throws Exception {
+        // Initialize the database
+        publisherRepository.saveAndFlush(publisher);
+
+        // Get all the publisherList where nome contains DEFAULT_NOME
+        defaultPublisherShouldBeFound("nome.contains=" + DEFAULT_NOME);
+
+        // Get all the publisherList where nome contains UPDATED_NOME
+        defaultPublisherShouldNotBeFound("nome.contains=" + UPDATED_NOME);
+    }
+
+    @Test
+    @Transactional
+    public void getAllPublishersByMagazinesIsInSomething() throws Exception {
+        // Initialize the database
+        publisherRepository.saveAndFlush(publisher);
+        Magazine magazine = MagazineResourceIT.createEntity(em).publisher(publisher);
+        em.persist(magazine);
+        Magazine otherMagazine = MagazineResourceIT.createUpdatedEntity(em).publisher(publisher);
+        em.persist(otherMagazine);
+        em.flush();
+        em.clear();
+
+        // Get all the publisherList with one of the magazines, listed once
+        defaultPublisherShouldBeFound("magazinesId.in=" + magazine.getId() + "," + otherMagazine.getId());
+
+        // Get all the publisherList with magazine (otherMagazine.getId() + 1)
+        defaultPublisherShouldNotBeFound("magazinesId.in=" + (otherMagazine.getId() + 1));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultPublisherShouldBeFound(String filter) throws Exception {
+        restPublisherMockMvc.perform(get("/api/publishers?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(publisher.getId().intValue())))
+            .andExpect(jsonPath("$.[*].nome").value(hasItem(DEFAULT_NOME)));
+
+        // Check, that the count call also returns 1
+        restPublisherMockMvc.perform(get("/api/publishers/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultPublisherShouldNotBeFound(String filter) throws Exception {
+        restPublisherMockMvc.perform(get("/api/publishers?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restPublisherMockMvc.perform(get("/api/publishers/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
     
     @Test
     @Transactional
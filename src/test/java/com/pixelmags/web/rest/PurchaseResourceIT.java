@@ -1,12 +1,16 @@
 package com.pixelmags.web.rest;
 
 import com.pixelmags.PixelmagsApp;
+import com.pixelmags.config.SqlStatementRecorder;
+import com.pixelmags.domain.Magazine;
 import com.pixelmags.domain.Purchase;
 import com.pixelmags.repository.PurchaseRepository;
 import com.pixelmags.repository.search.PurchaseSearchRepository;
+import com.pixelmags.security.AuthoritiesConstants;
 import com.pixelmags.service.PurchaseService;
 import com.pixelmags.service.dto.PurchaseDTO;
 import com.pixelmags.service.mapper.PurchaseMapper;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,9 +20,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.EntityManager;
 import java.time.LocalDate;
@@ -28,7 +34,9 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -157,14 +165,150 @@ public class PurchaseResourceIT {
         // Initialize the database
         purchaseRepository.saveAndFlush(purchase);
 
-        // Get all the purchaseList
-        restPurchaseMockMvc.perform(get("/api/purchases?sort=id,desc"))
+        // Get the first page of the purchaseList, which is never returned whole
+        restPurchaseMockMvc.perform(get("/api/purchases?after={after}", purchase.getId() - 1))
             .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK,
+                containsString("limit=" + KeysetPaginationUtil.DEFAULT_LIMIT + ">; rel=\"first\"")))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(purchase.getId().intValue())))
             .andExpect(jsonPath("$.[*].date").value(hasItem(DEFAULT_DATE.toString())))
             .andExpect(jsonPath("$.[*].tipo").value(hasItem(DEFAULT_TIPO.toString())));
     }
+
+    @Test
+    @Transactional
+    public void getAllPurchasesByKeyset() throws Exception {
+        // Initialize the database
+        purchaseRepository.saveAndFlush(purchase);
+        Purchase nextPurchase = createUpdatedEntity(em);
+        purchaseRepository.saveAndFlush(nextPurchase);
+
+        // Get the first page, which links to the next one
+        restPurchaseMockMvc.perform(get("/api/purchases?after={after}&limit=1", purchase.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(purchase.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + purchase.getId() + "&limit=1>; rel=\"next\"")));
+
+        // Get the last page
+        restPurchaseMockMvc.perform(get("/api/purchases?after={after}&limit=1", purchase.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nextPurchase.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllPurchasesByTipoIsInShouldWork() throws Exception {
+        // Initialize the database
+        purchaseRepository.saveAndFlush(purchase);
+
+        // Get all the purchaseList where tipo in DEFAULT_TIPO or UPDATED_TIPO
+        defaultPurchaseShouldBeFound("tipo.in=" + DEFAULT_TIPO + "," + UPDATED_TIPO);
+
+        // Get all the purchaseList where tipo equals to UPDATED_TIPO
+        defaultPurchaseShouldNotBeFound("tipo.in=" + UPDATED_TIPO);
+    }
+
+    @Test
+    @Transactional
+    public void getAllPurchasesByDateIsLessThanSomething() throws Exception {
+        // Initialize the database
+        purchaseRepository.saveAndFlush(purchase);
+
+        // Get all the purchaseList where date is less than DEFAULT_DATE
+        defaultPurchaseShouldNotBeFound("date.lessThan=" + DEFAULT_DATE);
+
+        // Get all the purchaseList where date is less than UPDATED_DATE
+        defaultPurchaseShouldBeFound("date.lessThan=" + UPDATED_DATE);
+    }
+
+    @Test
+    @Transactional
+    public void getAllPurchasesWhereMagazineIsNull() throws Exception {
+        // Initialize the database
+        purchaseRepository.saveAndFlush(purchase);
+        Purchase otherPurchase = createUpdatedEntity(em);
+        purchaseRepository.saveAndFlush(otherPurchase);
+        Magazine magazine = MagazineResourceIT.createEntity(em).purchase(otherPurchase);
+        em.persist(magazine);
+        em.flush();
+        em.clear();
+
+        SqlStatementRecorder.start();
+        try {
+            restPurchaseMockMvc.perform(get("/api/purchases?filter=magazine-is-null&after={after}", purchase.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(purchase.getId().intValue())))
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(otherPurchase.getId().intValue()))));
+        } finally {
+            // A single anti-join, whatever the number of purchases
+            assertThat(SqlStatementRecorder.stop()).hasSize(1);
+        }
+
+        // The same through the criteria
+        defaultPurchaseShouldBeFound("magazineId.specified=false");
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultPurchaseShouldBeFound(String filter) throws Exception {
+        restPurchaseMockMvc.perform(get("/api/purchases?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(purchase.getId().intValue())))
+            .andExpect(jsonPath("$.[*].tipo").value(hasItem(DEFAULT_TIPO.toString())));
+
+        // Check, that the count call also returns 1
+        restPurchaseMockMvc.perform(get("/api/purchases/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultPurchaseShouldNotBeFound(String filter) throws Exception {
+        restPurchaseMockMvc.perform(get("/api/purchases?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restPurchaseMockMvc.perform(get("/api/purchases/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void exportPurchasesAsCsv() throws Exception {
+        // Initialize the database, committed so that the export, streamed from another thread, can see it
+        purchaseRepository.saveAndFlush(purchase);
+        try {
+            MvcResult result = restPurchaseMockMvc.perform(get("/api/purchases/export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            // Get the purchases as CSV
+            String csv = restPurchaseMockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("purchases.csv")))
+                .andReturn().getResponse().getContentAsString();
+            String[] lines = csv.split("\r\n");
+            assertThat(lines[0]).isEqualTo("id,date,tipo,subscriptionId");
+            assertThat(lines).contains(purchase.getId() + "," + DEFAULT_DATE + "," + DEFAULT_TIPO + ",");
+        } finally {
+            purchaseRepository.deleteById(purchase.getId());
+        }
+    }
     
     @Test
     @Transactional
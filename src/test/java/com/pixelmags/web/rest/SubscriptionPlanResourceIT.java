@@ -1,6 +1,8 @@
 package com.pixelmags.web.rest;
 
 import com.pixelmags.PixelmagsApp;
+import com.pixelmags.config.SqlStatementRecorder;
+import com.pixelmags.domain.Purchase;
 import com.pixelmags.domain.SubscriptionPlan;
 import com.pixelmags.repository.SubscriptionPlanRepository;
 import com.pixelmags.repository.search.SubscriptionPlanSearchRepository;
@@ -16,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -27,13 +30,16 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.pixelmags.domain.enumeration.SubscriptionPeriod;
+import com.pixelmags.web.rest.util.KeysetPaginationUtil;
 /**
  * Integration tests for the {@link SubscriptionPlanResource} REST controller.
  */
@@ -162,15 +168,111 @@ public class SubscriptionPlanResourceIT {
         // Initialize the database
         subscriptionPlanRepository.saveAndFlush(subscriptionPlan);
 
-        // Get all the subscriptionPlanList
-        restSubscriptionPlanMockMvc.perform(get("/api/subscription-plans?sort=id,desc"))
+        // Get the first page of the subscriptionPlanList, which is never returned whole
+        restSubscriptionPlanMockMvc.perform(get("/api/subscription-plans?after={after}", subscriptionPlan.getId() - 1))
             .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK,
+                containsString("limit=" + KeysetPaginationUtil.DEFAULT_LIMIT + ">; rel=\"first\"")))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(subscriptionPlan.getId().intValue())))
             .andExpect(jsonPath("$.[*].nome").value(hasItem(DEFAULT_NOME)))
             .andExpect(jsonPath("$.[*].preco").value(hasItem(DEFAULT_PRECO.intValue())))
             .andExpect(jsonPath("$.[*].periodo").value(hasItem(DEFAULT_PERIODO.toString())));
     }
+
+    @Test
+    @Transactional
+    public void getAllSubscriptionPlansByKeyset() throws Exception {
+        // Initialize the database
+        subscriptionPlanRepository.saveAndFlush(subscriptionPlan);
+        SubscriptionPlan nextSubscriptionPlan = createUpdatedEntity(em);
+        subscriptionPlanRepository.saveAndFlush(nextSubscriptionPlan);
+
+        // Get the first page, which links to the next one
+        restSubscriptionPlanMockMvc.perform(get("/api/subscription-plans?after={after}&limit=1", subscriptionPlan.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(subscriptionPlan.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + subscriptionPlan.getId() + "&limit=1>; rel=\"next\"")));
+
+        // Get the last page
+        restSubscriptionPlanMockMvc.perform(get("/api/subscription-plans?after={after}&limit=1", subscriptionPlan.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nextSubscriptionPlan.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllSubscriptionPlansByPeriodoIsInShouldWork() throws Exception {
+        // Initialize the database
+        subscriptionPlanRepository.saveAndFlush(subscriptionPlan);
+
+        // Get all the subscriptionPlanList where periodo in DEFAULT_PERIODO or UPDATED_PERIODO
+        defaultSubscriptionPlanShouldBeFound("periodo.in=" + DEFAULT_PERIODO + "," + UPDATED_PERIODO);
+
+        // Get all the subscriptionPlanList where periodo equals to UPDATED_PERIODO
+        defaultSubscriptionPlanShouldNotBeFound("periodo.in=" + UPDATED_PERIODO);
+    }
+
+    @Test
+    @Transactional
+    public void getAllSubscriptionPlansWherePurchaseIsNull() throws Exception {
+        // Initialize the database
+        subscriptionPlanRepository.saveAndFlush(subscriptionPlan);
+        SubscriptionPlan otherSubscriptionPlan = createUpdatedEntity(em);
+        subscriptionPlanRepository.saveAndFlush(otherSubscriptionPlan);
+        Purchase purchase = PurchaseResourceIT.createEntity(em).subscription(otherSubscriptionPlan);
+        em.persist(purchase);
+        em.flush();
+        em.clear();
+
+        SqlStatementRecorder.start();
+        try {
+            restSubscriptionPlanMockMvc.perform(get("/api/subscription-plans?filter=purchase-is-null&after={after}", subscriptionPlan.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(subscriptionPlan.getId().intValue())))
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(otherSubscriptionPlan.getId().intValue()))));
+        } finally {
+            // A single anti-join, whatever the number of subscription plans
+            assertThat(SqlStatementRecorder.stop()).hasSize(1);
+        }
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultSubscriptionPlanShouldBeFound(String filter) throws Exception {
+        restSubscriptionPlanMockMvc.perform(get("/api/subscription-plans?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(subscriptionPlan.getId().intValue())))
+            .andExpect(jsonPath("$.[*].periodo").value(hasItem(DEFAULT_PERIODO.toString())));
+
+        // Check, that the count call also returns 1
+        restSubscriptionPlanMockMvc.perform(get("/api/subscription-plans/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultSubscriptionPlanShouldNotBeFound(String filter) throws Exception {
+        restSubscriptionPlanMockMvc.perform(get("/api/subscription-plans?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restSubscriptionPlanMockMvc.perform(get("/api/subscription-plans/count?" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().string("0"));
+    }
     
     @Test
     @Transactional
@@ -0,0 +1,183 @@
+package com.pixelmags.web.rest;
+
+import com.pixelmags.PixelmagsApp;
+import com.pixelmags.domain.enumeration.Event;
+import com.pixelmags.repository.LogRepository;
+import com.pixelmags.service.IssueService;
+import com.pixelmags.service.LogService;
+import com.pixelmags.service.MagazineService;
+import com.pixelmags.service.PublisherService;
+import com.pixelmags.service.UniqueReaderService;
+import com.pixelmags.service.dto.IssueDTO;
+import com.pixelmags.service.dto.LogDTO;
+import com.pixelmags.service.dto.MagazineDTO;
+import com.pixelmags.service.dto.PublisherDTO;
+import com.pixelmags.service.mapper.IssueMapper;
+import com.pixelmags.service.mapper.MagazineMapper;
+import com.pixelmags.service.mapper.PublisherMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link UniqueReaderResource} REST controller.
+ * <p>
+ * Readers are only added once their transaction commits, so the data is saved through the services without a test
+ * transaction, and deleted after each test.
+ */
+@SpringBootTest(classes = PixelmagsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+public class UniqueReaderResourceIT {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 5, 1);
+
+    private static final LocalDate SECOND_DAY = LocalDate.of(2020, 5, 2);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PublisherService publisherService;
+
+    @Autowired
+    private IssueService issueService;
+
+    @Autowired
+    private MagazineService magazineService;
+
+    @Autowired
+    private LogService logService;
+
+    @Autowired
+    private UniqueReaderService uniqueReaderService;
+
+    @Autowired
+    private LogRepository logRepository;
+
+    @Autowired
+    private PublisherMapper publisherMapper;
+
+    @Autowired
+    private IssueMapper issueMapper;
+
+    @Autowired
+    private MagazineMapper magazineMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc restUniqueReaderMockMvc;
+
+    private PublisherDTO publisher;
+
+    private IssueDTO issue;
+
+    private MagazineDTO magazine;
+
+    private List<Long> logIds;
+
+    @BeforeEach
+    public void initTest() {
+        publisher = publisherService.save(publisherMapper.toDto(PublisherResourceIT.createEntity(em)));
+        issue = issueService.save(issueMapper.toDto(IssueResourceIT.createEntity(em)));
+        MagazineDTO magazineDTO = magazineMapper.toDto(MagazineResourceIT.createEntity(em));
+        magazineDTO.setIssueId(issue.getId());
+        magazineDTO.setPublisherId(publisher.getId());
+        magazine = magazineService.save(magazineDTO);
+        logIds = new ArrayList<>();
+        saveLog(FIRST_DAY, 1L);
+        saveLog(FIRST_DAY, 2L);
+        saveLog(FIRST_DAY, 2L);
+        saveLog(SECOND_DAY, 2L);
+        saveLog(SECOND_DAY, 3L);
+        saveLog(SECOND_DAY, null);
+        uniqueReaderService.flush();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        logIds.forEach(logRepository::deleteById);
+        jdbcTemplate.update("delete from reader_sketch where (scope = 'ISSUE' and scope_id = ?) or (scope = 'PUBLISHER' and scope_id = ?)",
+            issue.getId(), publisher.getId());
+        magazineService.delete(magazine.getId());
+        issueService.delete(issue.getId());
+        publisherService.delete(publisher.getId());
+    }
+
+    private void saveLog(LocalDate date, Long customerId) {
+        LogDTO logDTO = new LogDTO();
+        logDTO.setDate(date);
+        logDTO.setEvento(Event.VIEW);
+        logDTO.setCustomerId(customerId);
+        logDTO.setIssueId(issue.getId());
+        logIds.add(logService.save(logDTO).getId());
+    }
+
+    @Test
+    public void getIssueUniqueReaders() throws Exception {
+        restUniqueReaderMockMvc.perform(get("/api/unique-readers/issues/{issueId}?from=2020-05-01&to=2020-05-31", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.from").value("2020-05-01"))
+            .andExpect(jsonPath("$.to").value("2020-05-31"))
+            .andExpect(jsonPath("$.readers").value(3));
+        restUniqueReaderMockMvc.perform(get("/api/unique-readers/issues/{issueId}?from=2020-05-01&to=2020-05-01", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.readers").value(2));
+    }
+
+    @Test
+    public void getIssueUniqueReadersAfterMoreLogs() throws Exception {
+        saveLog(FIRST_DAY, 3L);
+        saveLog(FIRST_DAY, 4L);
+        uniqueReaderService.flush();
+
+        restUniqueReaderMockMvc.perform(get("/api/unique-readers/issues/{issueId}?from=2020-05-01&to=2020-05-01", issue.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.readers").value(4));
+    }
+
+    @Test
+    public void getMagazineUniqueReaders() throws Exception {
+        restUniqueReaderMockMvc.perform(get("/api/unique-readers/magazines/{magazineId}?from=2020-05-02&to=2020-05-02", magazine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.readers").value(2));
+    }
+
+    @Test
+    public void getNonExistingMagazineUniqueReaders() throws Exception {
+        restUniqueReaderMockMvc.perform(get("/api/unique-readers/magazines/{magazineId}?from=2020-05-01&to=2020-05-31", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void getPublisherUniqueReaders() throws Exception {
+        restUniqueReaderMockMvc.perform(get("/api/unique-readers/publishers/{publisherId}?from=2020-05-01&to=2020-05-31", publisher.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.readers").value(3));
+    }
+
+    @Test
+    public void getUniqueReadersWithInvalidRange() throws Exception {
+        restUniqueReaderMockMvc.perform(get("/api/unique-readers/issues/{issueId}?from=2020-05-31&to=2020-05-01", issue.getId()))
+            .andExpect(status().isBadRequest());
+    }
+}
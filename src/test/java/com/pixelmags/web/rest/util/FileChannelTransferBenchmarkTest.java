@@ -0,0 +1,126 @@
+package com.pixelmags.web.rest.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmark of {@link FileChannelTransfer} against a plain stream copy, sending a directory of synthetic
+ * issue pages through a local socket.
+ * <p>
+ * Run with {@code ./mvnw test -Dtest=FileChannelTransferBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class FileChannelTransferBenchmarkTest {
+
+    private static final int PAGES = 64;
+
+    private static final int PAGE_SIZE = 2 * 1024 * 1024;
+
+    private static final int ROUNDS = 5;
+
+    private final Logger log = LoggerFactory.getLogger(FileChannelTransferBenchmarkTest.class);
+
+    @TempDir
+    Path pagesDirectory;
+
+    private final List<Path> pages = new ArrayList<>();
+
+    @BeforeEach
+    public void createPages() throws IOException {
+        Random random = new Random(42);
+        byte[] content = new byte[PAGE_SIZE];
+        for (int i = 1; i <= PAGES; i++) {
+            random.nextBytes(content);
+            pages.add(Files.write(pagesDirectory.resolve(String.format("page-%04d.jpg", i)), content));
+        }
+    }
+
+    @Test
+    public void benchmarkTransfer() throws Exception {
+        // Warm up both paths before measuring
+        send(this::copyWithFileChannel);
+        send(this::copyWithStream);
+
+        double fileChannel = measure(this::copyWithFileChannel);
+        double stream = measure(this::copyWithStream);
+        log.info("Sent {} pages of {} KiB: FileChannel.transferTo {} MiB/s, stream copy {} MiB/s",
+            PAGES, PAGE_SIZE / 1024, String.format("%.0f", fileChannel), String.format("%.0f", stream));
+    }
+
+    private double measure(PageCopy copy) throws Exception {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            bytes += send(copy);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return bytes / seconds / (1024 * 1024);
+    }
+
+    /**
+     * Send every page to a local socket drained by another thread, as a servlet container would.
+     */
+    private long send(PageCopy copy) throws Exception {
+        ExecutorService drainer = Executors.newSingleThreadExecutor();
+        try (ServerSocket server = new ServerSocket(0)) {
+            Future<Long> received = drainer.submit(() -> {
+                try (Socket socket = server.accept(); InputStream in = socket.getInputStream()) {
+                    byte[] buffer = new byte[64 * 1024];
+                    long total = 0;
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        total += read;
+                    }
+                    return total;
+                }
+            });
+            try (Socket socket = new Socket(server.getInetAddress(), server.getLocalPort());
+                 OutputStream out = socket.getOutputStream()) {
+                for (Path page : pages) {
+                    copy.copy(page, out);
+                }
+            }
+            long total = received.get();
+            assertThat(total).isEqualTo((long) PAGES * PAGE_SIZE);
+            return total;
+        } finally {
+            drainer.shutdownNow();
+        }
+    }
+
+    private void copyWithFileChannel(Path page, OutputStream out) throws IOException {
+        FileChannelTransfer.transfer(page, 0, Files.size(page), out);
+    }
+
+    private void copyWithStream(Path page, OutputStream out) throws IOException {
+        try (InputStream in = Files.newInputStream(page)) {
+            StreamUtils.copy(in, out);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageCopy {
+        void copy(Path page, OutputStream out) throws IOException;
+    }
+}